@@ -0,0 +1,38 @@
+package com.campusdual.classroom.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada del jar de benchmarks.
+ * <p>
+ * Admite las opciones habituales de JMH y, salvo que se indique otra cosa, escribe los resultados en JSON en
+ * {@code jmh-results.json} para poder compararlos con los de una ejecución anterior.
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-results.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLine.getResultFormat().hasValue() || commandLine.getResult().hasValue()) {
+            builder.parent(commandLine);
+        } else {
+            builder.parent(commandLine)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(DEFAULT_RESULT_FILE);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
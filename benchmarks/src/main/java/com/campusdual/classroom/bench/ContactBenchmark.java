@@ -0,0 +1,72 @@
+package com.campusdual.classroom.bench;
+
+import com.campusdual.classroom.Contact;
+import com.campusdual.classroom.ContactCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la creación de {@link Contact} y la generación de códigos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private String[] names;
+    private String[] surnames;
+    private String[] phones;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        names = new String[size];
+        surnames = new String[size];
+        phones = new String[size];
+        ContactData.fill(names, surnames, phones, 42L);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1 == size) ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public Contact construct() {
+        int i = nextIndex();
+        return new Contact(names[i], surnames[i], phones[i]);
+    }
+
+    @Benchmark
+    public String generateCode() {
+        int i = nextIndex();
+        return ContactCodeGenerator.generateCode(names[i], surnames[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public String[] generateCodesBulk() {
+        return ContactCodeGenerator.generateCodes(names, surnames);
+    }
+}
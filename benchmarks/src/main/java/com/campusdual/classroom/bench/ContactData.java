@@ -0,0 +1,93 @@
+package com.campusdual.classroom.bench;
+
+import com.campusdual.classroom.Contact;
+
+import java.util.Random;
+
+/**
+ * Genera datos de contactos reproducibles, con nombres españoles, para los benchmarks.
+ * <p>
+ * Los nombres y apellidos llevan tildes, eñes y apellidos compuestos o con partículas ("del Río", "de los Santos"),
+ * para que el generador de códigos recorra los mismos caminos que con una agenda real.
+ * </p>
+ */
+public final class ContactData {
+
+    private static final String[] NAMES = {
+            "Javier", "José Manuel", "María", "Lucía", "Álvaro", "Íñigo", "Begoña", "Ramón", "Sofía", "Martín",
+            "Ángela", "Jesús", "Inés", "Óscar", "Nuria", "Fernando Miguel", "Carmen", "Raúl", "Noelia", "Adrián",
+            "Marta", "Joaquín", "Rocío", "Sebastián", "Iciar", "Andrés", "Elena", "Tomás", "Pilar", "Hugo"
+    };
+
+    private static final String[] SURNAMES = {
+            "López", "Fernández", "García", "Martínez", "Sánchez", "Pérez", "Gómez", "Núñez", "Muñoz", "Rodríguez",
+            "Jiménez", "Álvarez", "Ibáñez", "Castaño", "Peña", "Fernández-Simón", "del Río", "de la Fuente",
+            "de los Santos", "Requejo", "León", "Gutiérrez", "Domínguez", "Vázquez", "Suárez", "Ortíz", "Rubio",
+            "Molina", "Delgado", "Calderón"
+    };
+
+    private ContactData() {
+    }
+
+    /**
+     * Genera el número de contactos indicado. Cada código es distinto porque el último apellido termina con el
+     * número de fila, así que una agenda creada con estos datos tiene exactamente {@code size} contactos.
+     *
+     * @param size El número de contactos.
+     * @param seed La semilla aleatoria.
+     * @return Los contactos generados.
+     */
+    public static Contact[] contacts(int size, long seed) {
+        return contacts(size, seed, 0);
+    }
+
+    /**
+     * Genera el número de contactos indicado, numerando las filas a partir de {@code firstRow}.
+     * <p>
+     * Dos llamadas con rangos de filas que no se solapan generan códigos distintos, sea cual sea la semilla.
+     * </p>
+     *
+     * @param size     El número de contactos.
+     * @param seed     La semilla aleatoria.
+     * @param firstRow El número de la primera fila.
+     * @return Los contactos generados.
+     */
+    public static Contact[] contacts(int size, long seed, int firstRow) {
+        String[] names = new String[size];
+        String[] surnames = new String[size];
+        String[] phones = new String[size];
+        fill(names, surnames, phones, seed, firstRow);
+        Contact[] contacts = new Contact[size];
+        for (int i = 0; i < size; i++) {
+            contacts[i] = new Contact(names[i], surnames[i], phones[i]);
+        }
+        return contacts;
+    }
+
+    /**
+     * Rellena los arrays con nombres, apellidos distintos y números de teléfono.
+     *
+     * @param names    El array que recibe los nombres.
+     * @param surnames El array que recibe los apellidos.
+     * @param phones   El array que recibe los números de teléfono.
+     * @param seed     La semilla aleatoria.
+     */
+    public static void fill(String[] names, String[] surnames, String[] phones, long seed) {
+        fill(names, surnames, phones, seed, 0);
+    }
+
+    private static void fill(String[] names, String[] surnames, String[] phones, long seed, int firstRow) {
+        Random random = new Random(seed);
+        for (int i = 0; i < names.length; i++) {
+            names[i] = NAMES[random.nextInt(NAMES.length)];
+            StringBuilder builder = new StringBuilder(SURNAMES[random.nextInt(SURNAMES.length)]);
+            int extra = random.nextInt(3);
+            for (int j = 0; j < extra; j++) {
+                builder.append(' ').append(SURNAMES[random.nextInt(SURNAMES.length)]);
+            }
+            builder.append(firstRow + i);
+            surnames[i] = builder.toString();
+            phones[i] = String.valueOf(600000000 + random.nextInt(100000000));
+        }
+    }
+}
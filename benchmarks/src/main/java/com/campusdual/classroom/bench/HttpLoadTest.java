@@ -0,0 +1,152 @@
+package com.campusdual.classroom.bench;
+
+import com.campusdual.classroom.Contact;
+import com.campusdual.classroom.Phonebook;
+import com.campusdual.classroom.PhonebookHttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga en bucle cerrado de {@link PhonebookHttpServer} en la máquina local.
+ * <p>
+ * Arranca el servicio sobre una agenda rellenada con {@link ContactData} y lanza el número de clientes indicado,
+ * cada uno en su propio hilo virtual, enviando peticiones una tras otra: un 90% de consultas por código y un 10% de
+ * búsquedas por nombre. Las peticiones del calentamiento no se miden. Al terminar muestra el rendimiento y los
+ * percentiles de latencia de las peticiones medidas.
+ * </p>
+ * <p>
+ * Uso: {@code java -cp target/benchmarks.jar com.campusdual.classroom.bench.HttpLoadTest
+ * [clientes] [segundos] [contactos]}.
+ * </p>
+ */
+public final class HttpLoadTest {
+
+    private static final int DEFAULT_CLIENTS = 2000;
+    private static final int DEFAULT_SECONDS = 20;
+    private static final int DEFAULT_CONTACTS = 100_000;
+    private static final int WARM_UP_SECONDS = 5;
+    private static final String[] QUERIES = {"lopez", "garcia", "del rio", "maria", "fernandez", "nunez"};
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CONTACTS;
+
+        Phonebook phonebook = new Phonebook();
+        Contact[] contacts = ContactData.contacts(size, 42);
+        phonebook.importContacts(Arrays.asList(contacts));
+        String[] codes = new String[contacts.length];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = URLEncoder.encode(contacts[i].getCode(), StandardCharsets.UTF_8);
+        }
+        phonebook.searchByName("warm", 1);
+
+        try (PhonebookHttpServer server = PhonebookHttpServer.start(phonebook,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String base = "http://localhost:" + server.getAddress().getPort() + PhonebookHttpServer.CONTEXT;
+            HttpClient client = HttpClient.newBuilder().executor(executor).build();
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+            System.out.printf(Locale.ROOT, "%d contactos, %d clientes, %d s de calentamiento, %d s medidos%n",
+                    size, clients, WARM_UP_SECONDS, seconds);
+
+            List<Future<Result>> results = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> runClient(client, base, codes, measureFrom, end)));
+            }
+            long[] latencies = new long[0];
+            long errors = 0;
+            for (Future<Result> future : results) {
+                Result result = future.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + result.count);
+                System.arraycopy(result.latencies, 0, latencies, offset, result.count);
+                errors += result.errors;
+            }
+            report(latencies, errors, seconds);
+        }
+    }
+
+    private static Result runClient(HttpClient client, String base, String[] codes, long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Result result = new Result();
+        while (true) {
+            long sent = System.nanoTime();
+            if (sent >= end) {
+                return result;
+            }
+            String path = random.nextInt(10) == 0
+                    ? "?q=" + URLEncoder.encode(QUERIES[random.nextInt(QUERIES.length)], StandardCharsets.UTF_8)
+                    : "/" + codes[random.nextInt(codes.length)];
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() == 200;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (sent >= measureFrom) {
+                if (ok) {
+                    result.add(System.nanoTime() - sent);
+                } else {
+                    result.errors++;
+                }
+            }
+        }
+    }
+
+    private static void report(long[] latencies, long errors, int seconds) {
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "peticiones: %d, errores: %d, rendimiento: %.0f pet/s%n",
+                latencies.length, errors, latencies.length / (double) seconds);
+        if (latencies.length == 0) {
+            return;
+        }
+        System.out.printf(Locale.ROOT, "latencia (ms): p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, máx %.2f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                percentile(latencies, 99.9), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    /**
+     * Latencias y errores medidos por un cliente.
+     */
+    private static final class Result {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+}
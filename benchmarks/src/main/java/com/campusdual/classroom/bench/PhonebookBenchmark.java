@@ -0,0 +1,82 @@
+package com.campusdual.classroom.bench;
+
+import com.campusdual.classroom.Contact;
+import com.campusdual.classroom.Phonebook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las altas, bajas y consultas de {@link Phonebook} sobre una agenda del tamaño indicado.
+ * La salida por consola se descarta para que los resultados reflejen solo la agenda.
+ * <p>
+ * Los contactos de {@link #addAndDelete()} se numeran a partir del tamaño de la agenda, así que sus códigos no
+ * coinciden con los de los contactos cargados y cada iteración hace un alta y una baja reales.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhonebookBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Phonebook phonebook;
+    private String[] codes;
+    private Contact[] extra;
+    private int next;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Contact[] contacts = ContactData.contacts(size, 42L);
+        phonebook = new Phonebook();
+        codes = new String[size];
+        for (int i = 0; i < size; i++) {
+            phonebook.addContact(contacts[i]);
+            codes[i] = contacts[i].getCode();
+        }
+        extra = ContactData.contacts(1024, 7L, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public Contact get() {
+        int i = next;
+        next = (i + 1 == size) ? 0 : i + 1;
+        return phonebook.getData().get(codes[i]);
+    }
+
+    @Benchmark
+    public int addAndDelete() {
+        Contact contact = extra[next++ & (extra.length - 1)];
+        if (phonebook.addContact(contact)) {
+            phonebook.deleteContact(contact.getCode());
+        }
+        return phonebook.getData().size();
+    }
+}
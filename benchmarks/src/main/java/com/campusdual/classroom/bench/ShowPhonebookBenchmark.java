@@ -0,0 +1,60 @@
+package com.campusdual.classroom.bench;
+
+import com.campusdual.classroom.Contact;
+import com.campusdual.classroom.Phonebook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide un listado completo con {@link Phonebook#showPhonebook()}, con {@code System.out} redirigido a un destino que
+ * descarta los bytes, de modo que solo se mide el formato y el coste del flujo de salida.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShowPhonebookBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Phonebook phonebook;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        phonebook = new Phonebook();
+        for (Contact contact : ContactData.contacts(size, 42L)) {
+            phonebook.addContact(contact);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void showPhonebook() {
+        phonebook.showPhonebook();
+    }
+}
@@ -0,0 +1,53 @@
+package com.campusdual.classroom.bench;
+
+import com.campusdual.classroom.Contact;
+import com.campusdual.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link Utils#returnShowFromList(List, boolean, List)} con y sin elementos excluidos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UtilsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<Contact> contacts;
+    private List<Contact> excluded;
+
+    @Setup
+    public void setUp() {
+        contacts = Arrays.asList(ContactData.contacts(size, 42L));
+        excluded = contacts.subList(0, Math.min(size, 100));
+    }
+
+    @Benchmark
+    public String returnShowFromList() {
+        return Utils.returnShowFromList(contacts, true);
+    }
+
+    @Benchmark
+    public String returnShowFromListExcluding() {
+        return Utils.returnShowFromList(contacts, true, excluded);
+    }
+}
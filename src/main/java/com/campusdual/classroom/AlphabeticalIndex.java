@@ -0,0 +1,230 @@
+package com.campusdual.classroom;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * La clase {@code AlphabeticalIndex} es un índice ordenado de los contactos por apellidos y nombre.
+ * <p>
+ * El orden es el de la colación española. Las claves de colación de los apellidos y del nombre se calculan una sola
+ * vez, al indexar el contacto, y se guardan como bytes en una lista de saltos junto con el código, que deshace los
+ * empates. Así obtener una página o un rango de {@code k} contactos cuesta O(log n + k) comparaciones de bytes, sin
+ * ordenar la agenda en cada consulta.
+ * </p>
+ * <p>
+ * Las altas, bajas y cambios de código se sincronizan entre sí; las consultas recorren la lista de saltos sin
+ * bloquearse.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class AlphabeticalIndex implements IContactIndex {
+    /** Configuración regional cuyo orden alfabético sigue el índice. */
+    private static final Locale SPANISH = Locale.forLanguageTag("es-ES");
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    /** Peso mayor que cualquiera de la colación, para acotar por arriba los apellidos que empiezan por un prefijo. */
+    private static final byte[] MAX_WEIGHT = {(byte) 0xFF, (byte) 0xFF};
+
+    /** Colación completa, que distingue acentos y mayúsculas para que el orden sea estable. */
+    private final Collator collator = Collator.getInstance(SPANISH);
+
+    /** Colación que solo tiene en cuenta las letras, usada para los límites de los rangos. */
+    private final Collator primaryCollator = Collator.getInstance(SPANISH);
+
+    /** Claves ordenadas de los contactos indexados. */
+    private final NavigableSet<Key> keys = new ConcurrentSkipListSet<>();
+
+    /** Clave de cada contacto indexado, por código. */
+    private final Map<String, Key> keysByCode = new HashMap<>();
+
+    /**
+     * Constructor de la clase {@code AlphabeticalIndex}.
+     */
+    public AlphabeticalIndex() {
+        primaryCollator.setStrength(Collator.PRIMARY);
+    }
+
+    /**
+     * Añade el contacto al índice.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void add(Contact contact) {
+        if (!keysByCode.containsKey(contact.getCode())) {
+            Key key = keyOf(contact);
+            keysByCode.put(key.code, key);
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Elimina el contacto del índice.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void remove(Contact contact) {
+        delete(contact.getCode());
+    }
+
+    /**
+     * Vuelve a indexar un contacto cuyo código ha cambiado.
+     *
+     * @param oldCode El código del contacto antes del cambio.
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void rename(String oldCode, Contact contact) {
+        delete(oldCode);
+        add(contact);
+    }
+
+    /**
+     * Obtiene el número de contactos indexados.
+     *
+     * @return El número de contactos.
+     */
+    public synchronized int size() {
+        return keysByCode.size();
+    }
+
+    /**
+     * Obtiene, en orden alfabético, los códigos de los contactos que siguen a uno dado.
+     * <p>
+     * La posición se calcula a partir de los datos del contacto, por lo que sirve aunque el contacto ya no esté
+     * en el índice.
+     * </p>
+     *
+     * @param after El último contacto de la página anterior, o {@code null} para empezar por el principio.
+     * @param limit El número máximo de códigos a devolver.
+     * @return Lista con los códigos encontrados.
+     */
+    public List<String> after(Contact after, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        return collect(after == null ? keys : keys.tailSet(keyOf(after), false), limit);
+    }
+
+    /**
+     * Obtiene, en orden alfabético, los códigos de los contactos cuyos apellidos están entre dos prefijos.
+     * <p>
+     * Los límites solo tienen en cuenta las letras, no los acentos ni las mayúsculas, y los dos se incluyen: el
+     * rango de "ga" a "go" contiene "García" y también "Gómez", pero no "Gutiérrez".
+     * </p>
+     *
+     * @param from  El prefijo por el que empieza el rango, o {@code null} para empezar por el principio.
+     * @param to    El prefijo por el que acaba el rango, o {@code null} para llegar hasta el final.
+     * @param limit El número máximo de códigos a devolver.
+     * @return Lista con los códigos encontrados.
+     */
+    public List<String> range(String from, String to, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        NavigableSet<Key> range = keys;
+        if (from != null) {
+            range = range.tailSet(new Key(primaryWeights(from), NO_BYTES, ""), true);
+        }
+        if (to != null) {
+            byte[] weights = primaryWeights(to);
+            byte[] upper = Arrays.copyOf(weights, weights.length + MAX_WEIGHT.length);
+            System.arraycopy(MAX_WEIGHT, 0, upper, weights.length, MAX_WEIGHT.length);
+            range = range.headSet(new Key(upper, NO_BYTES, ""), false);
+        }
+        return collect(range, limit);
+    }
+
+    /**
+     * Quita un código del índice.
+     *
+     * @param code El código.
+     */
+    private void delete(String code) {
+        Key key = keysByCode.remove(code);
+        if (key != null) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Calcula la clave de ordenación de un contacto.
+     *
+     * @param contact El contacto.
+     * @return La clave.
+     */
+    private Key keyOf(Contact contact) {
+        return new Key(collator.getCollationKey(contact.getSurnames()).toByteArray(),
+                collator.getCollationKey(contact.getName()).toByteArray(), contact.getCode());
+    }
+
+    /**
+     * Obtiene los pesos de las letras de un texto, sin los de acentos y mayúsculas.
+     * <p>
+     * Son el principio de la clave completa de cualquier texto con las mismas letras, así que la clave de un
+     * prefijo queda justo antes de las de todos los textos que empiezan por él.
+     * </p>
+     *
+     * @param text El texto.
+     * @return Los pesos primarios, dos bytes por cada uno.
+     */
+    private byte[] primaryWeights(String text) {
+        byte[] key = primaryCollator.getCollationKey(text).toByteArray();
+        int length = 0;
+        // La clave acaba con un separador de niveles: dos bytes a cero
+        while (length + 1 < key.length && (key[length] != 0 || key[length + 1] != 0)) {
+            length += 2;
+        }
+        return Arrays.copyOf(key, length);
+    }
+
+    /**
+     * Copia los códigos de las primeras claves de un conjunto.
+     */
+    private static List<String> collect(NavigableSet<Key> range, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        for (Key key : range) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(key.code);
+        }
+        return result;
+    }
+
+    /**
+     * Clave de ordenación de un contacto: las claves de colación de los apellidos y del nombre, y el código.
+     */
+    private static final class Key implements Comparable<Key> {
+        final byte[] surnames;
+        final byte[] name;
+        final String code;
+
+        Key(byte[] surnames, byte[] name, String code) {
+            this.surnames = surnames;
+            this.name = name;
+            this.code = code;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Arrays.compareUnsigned(surnames, other.surnames);
+            if (result == 0) {
+                result = Arrays.compareUnsigned(name, other.name);
+            }
+            return result != 0 ? result : code.compareTo(other.code);
+        }
+    }
+}
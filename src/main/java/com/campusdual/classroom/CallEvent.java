@@ -0,0 +1,133 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * La clase {@code CallEvent} representa una llamada realizada desde un contacto.
+ * <p>
+ * Guarda los datos de la llamada en el momento en que se produce, de modo que puede escribirse más tarde desde
+ * otro hilo aunque el contacto haya cambiado. El mensaje que genera es el mismo que muestran
+ * {@link Contact#callMyNumber()} y {@link Contact#callOtherNumber(String)}.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class CallEvent {
+    /** El código del contacto que llama. */
+    private final String callerCode;
+
+    /** El nombre del contacto que llama. */
+    private final String callerName;
+
+    /** Los apellidos del contacto que llama. */
+    private final String callerSurnames;
+
+    /** El número al que se llama. */
+    private final String targetNumber;
+
+    /** Indica si el contacto se llama a su propio número. */
+    private final boolean ownNumber;
+
+    /** Instante de la llamada, en milisegundos desde la época. */
+    private final long timestamp;
+
+    /**
+     * Constructor de la clase {@code CallEvent}.
+     *
+     * @param callerCode      El código del contacto que llama.
+     * @param callerName      El nombre del contacto que llama.
+     * @param callerSurnames  Los apellidos del contacto que llama.
+     * @param targetNumber    El número al que se llama.
+     * @param ownNumber       {@code true} si el contacto se llama a su propio número.
+     * @param timestamp       Instante de la llamada, en milisegundos desde la época.
+     */
+    public CallEvent(String callerCode, String callerName, String callerSurnames, String targetNumber,
+                     boolean ownNumber, long timestamp) {
+        this.callerCode = callerCode;
+        this.callerName = callerName;
+        this.callerSurnames = callerSurnames;
+        this.targetNumber = targetNumber;
+        this.ownNumber = ownNumber;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Obtiene el código del contacto que llama.
+     *
+     * @return El código.
+     */
+    public String getCallerCode() {
+        return callerCode;
+    }
+
+    /**
+     * Obtiene el nombre completo del contacto que llama.
+     *
+     * @return El nombre y los apellidos.
+     */
+    public String getCallerFullName() {
+        return callerName + " " + callerSurnames;
+    }
+
+    /**
+     * Obtiene el número al que se llama.
+     *
+     * @return El número.
+     */
+    public String getTargetNumber() {
+        return targetNumber;
+    }
+
+    /**
+     * Indica si el contacto se llama a su propio número.
+     *
+     * @return {@code true} si es una llamada al propio número.
+     */
+    public boolean isOwnNumber() {
+        return ownNumber;
+    }
+
+    /**
+     * Obtiene el instante de la llamada.
+     *
+     * @return Milisegundos desde la época.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Escribe el mensaje de la llamada sin crear cadenas intermedias.
+     *
+     * @param out El destino de la escritura.
+     * @throws IOException si el destino no admite la escritura.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append("El contacto ").append(callerName).append(' ').append(callerSurnames);
+        if (ownNumber) {
+            out.append(" se está llamando a sí mismo al número ");
+        } else {
+            out.append(" se está llamando al número ");
+        }
+        out.append(targetNumber).append('.');
+    }
+
+    /**
+     * Retorna el mensaje de la llamada.
+     *
+     * @return El mismo mensaje que se muestra por consola.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(96);
+        try {
+            appendTo(builder);
+        } catch (IOException e) {
+            // StringBuilder no lanza excepciones de E/S
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,385 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * La clase {@code CallEventBus} entrega en segundo plano los eventos de llamada a un {@link ICallEventSink}.
+ * <p>
+ * Los eventos se guardan en un búfer circular acotado sin bloqueos: cada hilo que publica reserva una posición con
+ * una operación atómica y marca la posición como ocupada con un número de secuencia, de forma que los hilos que
+ * llaman no compiten por ningún bloqueo ni por la consola. Un único hilo consumidor recoge los eventos por lotes
+ * y los entrega al destino.
+ * </p>
+ * <p>
+ * Cuando el búfer está lleno se aplica la {@link Backpressure política de contrapresión} elegida. Mientras no se
+ * instala ningún bus con {@link #setDefault(CallEventBus)}, las llamadas se siguen escribiendo directamente por
+ * consola.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class CallEventBus implements AutoCloseable {
+    /** Número máximo de eventos que se entregan al destino de una vez. */
+    private static final int MAX_BATCH_SIZE = 256;
+
+    /** Tiempo máximo que el consumidor espera sin eventos antes de volver a comprobar el búfer. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Tiempo que espera un productor bloqueado antes de volver a intentar publicar. */
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Bus en el que publican los contactos, o {@code null} para escribir directamente por consola. */
+    private static volatile CallEventBus defaultBus;
+
+    /**
+     * Política que se aplica cuando se publica un evento con el búfer lleno.
+     */
+    public enum Backpressure {
+        /** El hilo que publica espera a que haya sitio. */
+        BLOCK,
+        /** El evento se descarta y se cuenta como perdido. */
+        DROP,
+        /**
+         * El hilo que publica entrega al destino él mismo los eventos que esperan en el búfer y después el suyo,
+         * para no adelantarse a los publicados antes.
+         */
+        CALLER_RUNS
+    }
+
+    /** El destino de los eventos. */
+    private final ICallEventSink sink;
+
+    /** La política que se aplica con el búfer lleno. */
+    private final Backpressure backpressure;
+
+    /** Los eventos del búfer circular. */
+    private final CallEvent[] events;
+
+    /** Número de secuencia de cada posición: indica si está libre para una vuelta o ocupada. */
+    private final AtomicLongArray sequences;
+
+    /** Máscara para convertir una secuencia en una posición. */
+    private final int mask;
+
+    /** Siguiente secuencia que reservará un productor. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Siguiente secuencia que se leerá del búfer; solo se modifica con el bloqueo del destino, desde el consumidor o
+     * desde un hilo que entrega él mismo sus eventos.
+     */
+    private volatile long head;
+
+    /** Eventos aceptados en el búfer. */
+    private final AtomicLong accepted = new AtomicLong();
+
+    /** Eventos descartados por tener el búfer lleno. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Lotes que el destino no ha podido escribir. */
+    private final AtomicLong failures = new AtomicLong();
+
+    /** Eventos del búfer ya entregados al destino. */
+    private volatile long delivered;
+
+    /** Indica si el consumidor está esperando a que lleguen eventos. */
+    private volatile boolean consumerIdle;
+
+    /** Indica si se ha cerrado el bus. */
+    private volatile boolean closed;
+
+    /**
+     * Hilos que están publicando. El consumidor no termina mientras quede alguno, porque puede haber pasado la
+     * comprobación de {@link #closed} y estar a punto de guardar su evento en el búfer.
+     */
+    private final AtomicInteger publishers = new AtomicInteger();
+
+    /** El hilo consumidor. */
+    private final Thread consumer;
+
+    /**
+     * Constructor de la clase {@code CallEventBus}. Arranca el hilo consumidor.
+     *
+     * @param sink         El destino de los eventos.
+     * @param capacity     El número de eventos que caben en el búfer; se redondea a la siguiente potencia de dos.
+     * @param backpressure La política que se aplica con el búfer lleno.
+     * @throws IllegalArgumentException si la capacidad no es positiva.
+     */
+    public CallEventBus(ICallEventSink sink, int capacity, Backpressure backpressure) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.sink = sink;
+        this.backpressure = backpressure;
+        this.events = new CallEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.consumer = new Thread(this::consume, "call-event-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Obtiene el bus en el que publican los contactos.
+     *
+     * @return El bus, o {@code null} si las llamadas se escriben directamente por consola.
+     */
+    public static CallEventBus getDefault() {
+        return defaultBus;
+    }
+
+    /**
+     * Establece el bus en el que publican los contactos.
+     * <p>
+     * No cierra el bus anterior.
+     * </p>
+     *
+     * @param bus El bus, o {@code null} para volver a escribir directamente por consola.
+     */
+    public static void setDefault(CallEventBus bus) {
+        defaultBus = bus;
+    }
+
+    /**
+     * Publica un evento.
+     *
+     * @param event El evento.
+     * @return {@code false} si el evento se ha descartado por tener el búfer lleno.
+     * @throws IllegalStateException si el bus está cerrado.
+     */
+    public boolean publish(CallEvent event) {
+        // Se anuncia antes de comprobar si está cerrado, para que el consumidor espere a que se guarde el evento
+        publishers.incrementAndGet();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("El bus de eventos de llamada está cerrado.");
+                }
+                if (offer(event)) {
+                    accepted.incrementAndGet();
+                    if (consumerIdle) {
+                        LockSupport.unpark(consumer);
+                    }
+                    return true;
+                }
+                switch (backpressure) {
+                    case DROP:
+                        dropped.incrementAndGet();
+                        return false;
+                    case CALLER_RUNS:
+                        runInCaller(event);
+                        return true;
+                    default:
+                        LockSupport.unpark(consumer);
+                        LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+            }
+        } finally {
+            publishers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Espera a que se hayan entregado al destino todos los eventos publicados hasta ahora.
+     */
+    public void flush() {
+        long target = accepted.get();
+        while (delivered < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Cierra el bus: entrega los eventos pendientes, detiene el consumidor y cierra el destino.
+     *
+     * @throws IOException si el destino no se puede cerrar.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(consumer);
+        boolean interrupted = false;
+        while (consumer.isAlive()) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (sink) {
+            sink.close();
+        }
+    }
+
+    /**
+     * Obtiene el número de eventos aceptados en el búfer.
+     *
+     * @return Los eventos aceptados, sin contar los entregados por el propio hilo que publica.
+     */
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    /**
+     * Obtiene el número de eventos descartados por tener el búfer lleno.
+     *
+     * @return Los eventos descartados.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Obtiene el número de lotes que el destino no ha podido escribir.
+     *
+     * @return Los lotes fallidos.
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Intenta reservar una posición del búfer y guardar en ella el evento.
+     *
+     * @param event El evento.
+     * @return {@code false} si el búfer está lleno.
+     */
+    private boolean offer(CallEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index] = event;
+                    // Publica el evento: el consumidor no lo lee hasta ver la nueva secuencia
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Bucle del hilo consumidor: recoge lotes del búfer y los entrega hasta que se cierra el bus, no queda ningún
+     * hilo publicando y el búfer queda vacío.
+     */
+    private void consume() {
+        List<CallEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            if (deliverBuffered(batch)) {
+                continue;
+            }
+            if (closed && publishers.get() == 0) {
+                if (deliverBuffered(batch)) {
+                    continue;
+                }
+                return;
+            }
+            consumerIdle = true;
+            if (isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            consumerIdle = false;
+        }
+    }
+
+    /**
+     * Saca del búfer los eventos disponibles, hasta el tamaño máximo de un lote.
+     *
+     * @param batch La lista en la que se añaden.
+     */
+    private void drain(List<CallEvent> batch) {
+        while (batch.size() < MAX_BATCH_SIZE) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return;
+            }
+            batch.add(events[index]);
+            events[index] = null;
+            // Libera la posición para la siguiente vuelta del búfer
+            sequences.set(index, head + events.length);
+            head++;
+        }
+    }
+
+    private boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * Saca del búfer un lote de eventos y lo entrega al destino, sin dejar que otro hilo lo haga a la vez.
+     * <p>
+     * El lote se saca con el bloqueo del destino, así que los eventos se entregan en el orden del búfer aunque
+     * los entreguen hilos distintos.
+     * </p>
+     *
+     * @param batch Una lista vacía en la que se recoge el lote, que se vacía de nuevo al terminar.
+     * @return {@code true} si había eventos que entregar.
+     */
+    private boolean deliverBuffered(List<CallEvent> batch) {
+        synchronized (sink) {
+            drain(batch);
+            if (batch.isEmpty()) {
+                return false;
+            }
+            write(batch);
+            delivered += batch.size();
+            batch.clear();
+            return true;
+        }
+    }
+
+    /**
+     * Entrega un evento desde el hilo que lo publica, con el búfer lleno, después de los que esperan en el búfer.
+     *
+     * @param event El evento.
+     */
+    private void runInCaller(CallEvent event) {
+        List<CallEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        synchronized (sink) {
+            while (deliverBuffered(batch)) {
+                // Los eventos del búfer se publicaron antes y deben llegar antes al destino
+            }
+            batch.add(event);
+            write(batch);
+        }
+    }
+
+    /**
+     * Escribe un lote en el destino; se llama con su bloqueo.
+     *
+     * @param batch El lote.
+     */
+    private void write(List<CallEvent> batch) {
+        try {
+            sink.write(batch);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+        }
+    }
+}
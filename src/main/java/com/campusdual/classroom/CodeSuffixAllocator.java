@@ -0,0 +1,118 @@
+package com.campusdual.classroom;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reparte sufijos numéricos entre los contactos que comparten el mismo código base.
+ * <p>
+ * El primer contacto con un código base usa el código tal cual (número 1); los siguientes reciben los sufijos 2, 3,
+ * etc. Cada código base tiene un contador con el siguiente número sin usar y el conjunto de números liberados, de
+ * modo que asignar un número cuesta O(1) sin consultar el mapa de contactos y siempre se reutiliza primero el menor
+ * número liberado. Cuando un código base se queda sin contactos se olvida su contador.
+ * </p>
+ */
+final class CodeSuffixAllocator {
+    /** Contadores por código base. */
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    /**
+     * Reserva el siguiente número para un código base.
+     *
+     * @param baseCode El código base.
+     * @return El número reservado: 1 para el propio código base, 2 o más para los sufijos.
+     */
+    synchronized int acquire(String baseCode) {
+        Counter counter = counters.computeIfAbsent(baseCode, code -> new Counter());
+        counter.live++;
+        int freed = counter.freed.nextSetBit(0);
+        if (freed >= 0) {
+            counter.freed.clear(freed);
+            return freed;
+        }
+        return counter.next++;
+    }
+
+    /**
+     * Anota como repartido un número que ya usa un contacto. Los números anteriores que nadie ha anotado quedan
+     * libres para reutilizarse.
+     *
+     * @param baseCode El código base.
+     * @param number   El número en uso.
+     */
+    synchronized void reserve(String baseCode, int number) {
+        Counter counter = counters.computeIfAbsent(baseCode, code -> new Counter());
+        counter.live++;
+        if (number >= counter.next) {
+            counter.freed.set(counter.next, number);
+            counter.next = number + 1;
+        } else {
+            counter.freed.clear(number);
+        }
+    }
+
+    /**
+     * Olvida todos los contadores.
+     */
+    synchronized void clear() {
+        counters.clear();
+    }
+
+    /**
+     * Libera un número de un código base para que pueda reutilizarse.
+     *
+     * @param baseCode El código base.
+     * @param number   El número liberado.
+     */
+    synchronized void release(String baseCode, int number) {
+        Counter counter = counters.get(baseCode);
+        if (counter == null) {
+            return;
+        }
+        if (--counter.live == 0) {
+            counters.remove(baseCode);
+        } else {
+            counter.freed.set(number);
+        }
+    }
+
+    /**
+     * Marca como perdido un número reservado que no se ha podido usar porque el código ya estaba ocupado por otro
+     * contacto. El número no se vuelve a repartir, por lo que el contador se conserva aunque no le queden números
+     * en uso.
+     *
+     * @param baseCode El código base.
+     */
+    synchronized void discard(String baseCode) {
+        Counter counter = counters.get(baseCode);
+        if (counter != null) {
+            counter.live--;
+        }
+    }
+
+    /**
+     * Construye el código correspondiente a un código base y un número.
+     *
+     * @param baseCode El código base.
+     * @param number   El número reservado.
+     * @return El código base si el número es 1, o el código base seguido del número en otro caso.
+     */
+    static String code(String baseCode, int number) {
+        return number == 1 ? baseCode : baseCode + number;
+    }
+
+    /**
+     * Contador de un código base.
+     */
+    private static final class Counter {
+        /** Siguiente número que nunca se ha repartido. */
+        int next = 1;
+
+        /** Números liberados que pueden reutilizarse. */
+        final BitSet freed = new BitSet();
+
+        /** Números repartidos que siguen en uso. */
+        int live;
+    }
+}
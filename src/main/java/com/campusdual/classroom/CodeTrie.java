@@ -0,0 +1,419 @@
+package com.campusdual.classroom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * La clase {@code CodeTrie} es un índice de prefijos sobre los códigos de los contactos.
+ * <p>
+ * Es un árbol radix: cada arista guarda un fragmento del código y cada nodo interno tiene al menos dos hijos o
+ * marca el final de un código. Los hijos se guardan en arrays ordenados por su primer carácter, de modo que un
+ * recorrido en orden devuelve los códigos ordenados y completar un prefijo con {@code k} resultados cuesta
+ * O(longitud del prefijo + k). Cada nodo guarda además cuántos códigos hay bajo él.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class CodeTrie implements IContactIndex {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /** Raíz del árbol, con etiqueta vacía. */
+    private final Node root = new Node("");
+
+    /**
+     * Añade el código del contacto al índice.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public void add(Contact contact) {
+        insert(contact.getCode());
+    }
+
+    /**
+     * Elimina el código del contacto del índice.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public void remove(Contact contact) {
+        delete(contact.getCode());
+    }
+
+    /**
+     * Sustituye el código antiguo del contacto por el nuevo.
+     *
+     * @param oldCode El código del contacto antes del cambio.
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void rename(String oldCode, Contact contact) {
+        delete(oldCode);
+        insert(contact.getCode());
+    }
+
+    /**
+     * Añade un código al índice.
+     *
+     * @param code El código a añadir.
+     * @return {@code true} si el código no estaba en el índice.
+     */
+    public synchronized boolean insert(String code) {
+        return insert(root, code, 0);
+    }
+
+    /**
+     * Elimina un código del índice.
+     *
+     * @param code El código a eliminar.
+     * @return {@code true} si el código estaba en el índice.
+     */
+    public synchronized boolean delete(String code) {
+        return delete(root, code, 0);
+    }
+
+    /**
+     * Indica si un código está en el índice.
+     *
+     * @param code El código a buscar.
+     * @return {@code true} si el código está en el índice.
+     */
+    public synchronized boolean contains(String code) {
+        Node node = root;
+        int i = 0;
+        while (i < code.length()) {
+            Node child = node.child(code.charAt(i));
+            if (child == null || !code.startsWith(child.label, i)) {
+                return false;
+            }
+            i += child.label.length();
+            node = child;
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Obtiene el número de códigos del índice.
+     *
+     * @return El número de códigos.
+     */
+    public synchronized int size() {
+        return root.size;
+    }
+
+    /**
+     * Obtiene, en orden alfabético, los primeros códigos que empiezan por el prefijo indicado.
+     *
+     * @param prefix El prefijo a completar.
+     * @param limit  El número máximo de códigos a devolver.
+     * @return Lista con los códigos encontrados.
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            int matched = Math.min(child.label.length(), prefix.length() - i);
+            if (!child.label.regionMatches(0, prefix, i, matched)) {
+                return Collections.emptyList();
+            }
+            path.append(child.label);
+            i += matched;
+            node = child;
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, node.size));
+        collect(node, path, limit, result);
+        return result;
+    }
+
+    /**
+     * Obtiene, en orden alfabético, los primeros códigos estrictamente posteriores al indicado.
+     * <p>
+     * El código de partida no tiene por qué estar en el índice, lo que permite usarlo como cursor de paginación.
+     * </p>
+     *
+     * @param code  El código de partida, o {@code null} para empezar desde el principio.
+     * @param limit El número máximo de códigos a devolver.
+     * @return Lista con los códigos encontrados.
+     */
+    public synchronized List<String> after(String code, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, root.size));
+        StringBuilder path = new StringBuilder(32);
+        if (code == null) {
+            collect(root, path, limit, result);
+        } else {
+            collectAfter(root, path, code, limit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene, en orden alfabético, los códigos a partir de una posición.
+     * <p>
+     * Gracias al tamaño guardado en cada nodo, los subárboles anteriores a la posición se saltan sin recorrerlos.
+     * </p>
+     *
+     * @param offset La posición del primer código, empezando en 0.
+     * @param limit  El número máximo de códigos a devolver.
+     * @return Lista con los códigos encontrados.
+     */
+    public synchronized List<String> range(int offset, int limit) {
+        if (limit <= 0 || offset < 0 || offset >= root.size) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, root.size - offset));
+        collectRange(root, new StringBuilder(32), offset, limit, result);
+        return result;
+    }
+
+    /**
+     * Añade a la lista los códigos del subárbol posteriores al indicado.
+     * El camino del nodo es siempre un prefijo del código de partida.
+     *
+     * @param node   El nodo raíz del subárbol.
+     * @param path   El código correspondiente al nodo.
+     * @param code   El código de partida.
+     * @param limit  El número máximo de códigos.
+     * @param result La lista de resultados.
+     */
+    private static void collectAfter(Node node, StringBuilder path, String code, int limit, List<String> result) {
+        int depth = path.length();
+        for (int c = 0; c < node.children.length && result.size() < limit; c++) {
+            Node child = node.children[c];
+            boolean greater;
+            if (depth == code.length() || node.keys[c] > code.charAt(depth)) {
+                greater = true;
+            } else if (node.keys[c] < code.charAt(depth)) {
+                continue;
+            } else {
+                int common = commonPrefix(child.label, code, depth);
+                if (common == child.label.length()) {
+                    path.append(child.label);
+                    collectAfter(child, path, code, limit, result);
+                    path.setLength(depth);
+                    continue;
+                }
+                // El código termina dentro de la etiqueta o difiere en ella
+                greater = depth + common == code.length() || child.label.charAt(common) > code.charAt(depth + common);
+            }
+            if (greater) {
+                path.append(child.label);
+                collect(child, path, limit, result);
+                path.setLength(depth);
+            }
+        }
+    }
+
+    /**
+     * Añade a la lista los códigos del subárbol a partir de una posición relativa a él.
+     *
+     * @param node   El nodo raíz del subárbol.
+     * @param path   El código correspondiente al nodo.
+     * @param offset La posición del primer código dentro del subárbol.
+     * @param limit  El número máximo de códigos.
+     * @param result La lista de resultados.
+     */
+    private static void collectRange(Node node, StringBuilder path, int offset, int limit, List<String> result) {
+        if (node.terminal) {
+            if (offset == 0) {
+                result.add(path.toString());
+            } else {
+                offset--;
+            }
+        }
+        for (int c = 0; c < node.children.length && result.size() < limit; c++) {
+            Node child = node.children[c];
+            if (offset >= child.size) {
+                offset -= child.size;
+                continue;
+            }
+            int length = path.length();
+            path.append(child.label);
+            collectRange(child, path, offset, limit, result);
+            path.setLength(length);
+            offset = 0;
+        }
+    }
+
+    /**
+     * Añade a la lista los códigos del subárbol en orden hasta alcanzar el límite.
+     *
+     * @param node   El nodo raíz del subárbol.
+     * @param path   El código correspondiente al nodo.
+     * @param limit  El número máximo de códigos.
+     * @param result La lista de resultados.
+     */
+    private static void collect(Node node, StringBuilder path, int limit, List<String> result) {
+        if (node.terminal) {
+            result.add(path.toString());
+        }
+        for (int c = 0; c < node.children.length && result.size() < limit; c++) {
+            Node child = node.children[c];
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, limit, result);
+            path.setLength(length);
+        }
+    }
+
+    private static boolean insert(Node node, String code, int i) {
+        if (i == code.length()) {
+            if (node.terminal) {
+                return false;
+            }
+            node.terminal = true;
+            node.size++;
+            return true;
+        }
+        int index = node.indexOf(code.charAt(i));
+        if (index < 0) {
+            Node leaf = new Node(code.substring(i));
+            leaf.terminal = true;
+            leaf.size = 1;
+            node.addChild(-index - 1, leaf);
+            node.size++;
+            return true;
+        }
+        Node child = node.children[index];
+        int common = commonPrefix(child.label, code, i);
+        if (common < child.label.length()) {
+            // La arista solo coincide en parte: se divide con un nodo intermedio
+            Node middle = new Node(child.label.substring(0, common));
+            child.label = child.label.substring(common);
+            middle.addChild(0, child);
+            middle.size = child.size;
+            node.children[index] = middle;
+            child = middle;
+        }
+        if (insert(child, code, i + common)) {
+            node.size++;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean delete(Node node, String code, int i) {
+        if (i == code.length()) {
+            if (!node.terminal) {
+                return false;
+            }
+            node.terminal = false;
+            node.size--;
+            return true;
+        }
+        int index = node.indexOf(code.charAt(i));
+        if (index < 0) {
+            return false;
+        }
+        Node child = node.children[index];
+        if (!code.startsWith(child.label, i) || !delete(child, code, i + child.label.length())) {
+            return false;
+        }
+        node.size--;
+        if (child.size == 0) {
+            node.removeChild(index);
+        } else if (!child.terminal && child.children.length == 1) {
+            // Un nodo intermedio con un solo hijo se fusiona con él
+            Node grandChild = child.children[0];
+            grandChild.label = child.label + grandChild.label;
+            node.children[index] = grandChild;
+        }
+        return true;
+    }
+
+    private static int commonPrefix(String label, String code, int from) {
+        int max = Math.min(label.length(), code.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == code.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Nodo del árbol radix.
+     */
+    private static final class Node {
+        /** Fragmento del código en la arista que llega a este nodo. */
+        String label;
+
+        /** Indica si un código termina en este nodo. */
+        boolean terminal;
+
+        /** Número de códigos en este subárbol. */
+        int size;
+
+        /** Primer carácter de la etiqueta de cada hijo, ordenados. */
+        char[] keys = NO_KEYS;
+
+        /** Hijos en el mismo orden que {@code keys}. */
+        Node[] children = NO_CHILDREN;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char c) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < c) {
+                    low = mid + 1;
+                } else if (keys[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Node child(char c) {
+            int index = indexOf(c);
+            return index < 0 ? null : children[index];
+        }
+
+        void addChild(int position, Node child) {
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = child.label.charAt(0);
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void removeChild(int position) {
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(keys, position + 1, newKeys, position, keys.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.campusdual.classroom;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La clase {@code ConsistentHashRing} reparte códigos de contacto entre fragmentos con hashing consistente.
+ * <p>
+ * Cada fragmento ocupa varios puntos del anillo (nodos virtuales), calculados a partir de su nombre, y un código
+ * pertenece al fragmento del primer punto que sigue a su hash. Al añadir un fragmento solo cambian de dueño los
+ * códigos que caen justo antes de sus puntos, más o menos la parte proporcional, y el resto se queda donde estaba.
+ * Los puntos se guardan ordenados en un array de {@code long}, de modo que buscar el dueño es una búsqueda binaria.
+ * </p>
+ * <p>
+ * El anillo es inmutable: {@link #with(String)} devuelve uno nuevo.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+final class ConsistentHashRing {
+    /** Número de nodos virtuales por fragmento. */
+    static final int VIRTUAL_NODES = 160;
+
+    private final List<String> shards;
+
+    /** Posiciones de los nodos virtuales, ordenadas. */
+    private final long[] points;
+
+    /** Fragmento de cada nodo virtual, como posición en {@link #shards}. */
+    private final int[] owners;
+
+    /**
+     * Crea un anillo con los fragmentos indicados.
+     *
+     * @param shards Los nombres de los fragmentos, que deben ser distintos.
+     * @throws IllegalArgumentException si no hay fragmentos o algún nombre está repetido.
+     */
+    ConsistentHashRing(List<String> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("El anillo necesita al menos un fragmento.");
+        }
+        if (shards.stream().distinct().count() != shards.size()) {
+            throw new IllegalArgumentException("Nombres de fragmento repetidos: " + shards);
+        }
+        this.shards = List.copyOf(shards);
+        int count = shards.size() * VIRTUAL_NODES;
+        long[] unsortedPoints = new long[count];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                int i = shard * VIRTUAL_NODES + node;
+                unsortedPoints[i] = hash(shards.get(shard) + "#" + node);
+            }
+        }
+        // Se ordenan los índices por posición para mover a la vez puntos y dueños
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Long.compare(unsortedPoints[a], unsortedPoints[b]);
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+        this.points = new long[count];
+        this.owners = new int[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = unsortedPoints[order[i]];
+            owners[i] = order[i] / VIRTUAL_NODES;
+        }
+    }
+
+    /**
+     * Crea un anillo con un fragmento más.
+     *
+     * @param shard El nombre del nuevo fragmento.
+     * @return El nuevo anillo.
+     */
+    ConsistentHashRing with(String shard) {
+        String[] names = shards.toArray(new String[shards.size() + 1]);
+        names[shards.size()] = shard;
+        return new ConsistentHashRing(List.of(names));
+    }
+
+    /**
+     * Obtiene el fragmento al que pertenece un código.
+     *
+     * @param code El código del contacto.
+     * @return La posición del fragmento en la lista con la que se creó el anillo.
+     */
+    int shardFor(String code) {
+        int index = Arrays.binarySearch(points, hash(code));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Obtiene el número de fragmentos del anillo.
+     *
+     * @return El número de fragmentos.
+     */
+    int size() {
+        return shards.size();
+    }
+
+    /**
+     * Calcula el hash de 64 bits de un texto: FNV-1a sobre sus caracteres y una mezcla final que reparte los bits.
+     *
+     * @param text El texto.
+     * @return El hash.
+     */
+    static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
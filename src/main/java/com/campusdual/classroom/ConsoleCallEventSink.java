@@ -0,0 +1,61 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Destino que escribe los eventos de llamada por consola, con el mismo mensaje que las llamadas síncronas.
+ * <p>
+ * Cada lote se escribe en una sola operación sobre el {@code PrintStream}, tomando su bloqueo una vez por lote.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class ConsoleCallEventSink implements ICallEventSink {
+    /** El flujo de salida. */
+    private final PrintStream out;
+
+    /** Búfer reutilizado para componer cada lote. */
+    private final StringBuilder builder = new StringBuilder(1 << 12);
+
+    /**
+     * Crea un destino que escribe por la salida estándar.
+     */
+    public ConsoleCallEventSink() {
+        this(System.out);
+    }
+
+    /**
+     * Crea un destino que escribe en el flujo indicado.
+     *
+     * @param out El flujo de salida.
+     */
+    public ConsoleCallEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(List<CallEvent> batch) {
+        String lineSeparator = System.lineSeparator();
+        builder.setLength(0);
+        for (CallEvent event : batch) {
+            try {
+                event.appendTo(builder);
+            } catch (IOException e) {
+                // StringBuilder no lanza excepciones de E/S
+                throw new UncheckedIOException(e);
+            }
+            builder.append(lineSeparator);
+        }
+        out.append(builder);
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        out.flush();
+    }
+}
@@ -1,8 +1,11 @@
 package com.campusdual.classroom;
 
-import java.text.Normalizer;
-import java.util.Locale;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * La clase {@code Contact} representa un contacto en la agenda telefónica.
@@ -10,22 +13,52 @@ import java.util.regex.Pattern;
  * Implementa la interfaz {@code ICallActions} para proporcionar acciones de llamada y mostrar detalles.
  * Cada contacto tiene un código único generado automáticamente basado en su nombre y apellidos.
  * </p>
+ * <p>
+ * Además del número principal, un contacto puede tener cualquier número de teléfonos secundarios. Estos se guardan
+ * codificados en un {@code long} cada uno (ver {@link PackedPhones}), es decir, ocho bytes por número.
+ * </p>
+ * <p>
+ * Al cambiar el nombre o los apellidos de un contacto que no pertenece a ninguna agenda, el código se regenera en el
+ * momento. Si pertenece a una, {@link #getCode()} sigue devolviendo el código con el que está guardado hasta que la
+ * agenda lo vuelve a guardar con el nuevo, de modo que el código que se ve es siempre la clave del contacto. Así,
+ * varios cambios seguidos dentro de {@link Phonebook#batchUpdate(Runnable)} generan el código una sola vez.
+ * </p>
  *
  * @author TuNombre
  * @version 1.0
  */
 public class Contact implements ICallActions {
+    private static final long[] NO_PHONES = new long[0];
+
     /** El nombre del contacto. */
     private String name;
 
     /** Los apellidos del contacto. */
     private String surnames;
 
-    /** El número de teléfono del contacto. */
+    /** El número de teléfono principal del contacto. */
     private String phoneNumber;
 
-    /** El código único del contacto. */
-    private String code;
+    /** Los números secundarios codificados; solo las primeras {@code secondaryCount} posiciones son válidas. */
+    private long[] secondaryPhones = NO_PHONES;
+
+    /** Número de teléfonos secundarios. */
+    private int secondaryCount;
+
+    /** El código publicado del contacto, que es la clave con la que lo guarda su agenda. */
+    private volatile String code;
+
+    /** El código generado a partir del nombre y apellidos, sin sufijo. */
+    private String baseCode;
+
+    /** Número que distingue el código de otros con el mismo código base; 1 si no lleva sufijo. */
+    private int codeNumber = 1;
+
+    /** Indica si el nombre o los apellidos han cambiado desde que se publicó el código. */
+    private boolean codeStale;
+
+    /** Agenda a la que pertenece el contacto, avisada cuando cambian sus datos. */
+    private IContactListener listener;
 
     /**
      * Constructor de la clase {@code Contact}.
@@ -36,13 +69,15 @@ public class Contact implements ICallActions {
      *
      * @param name        El nombre del contacto.
      * @param surnames    Los apellidos del contacto.
-     * @param phoneNumber El número de teléfono del contacto.
+     * @param phoneNumber El número de teléfono del contacto, que se guarda normalizado si es válido.
+     * @see PhoneNumbers#canonical(String)
      */
     public Contact(String name, String surnames, String phoneNumber) {
         this.name = name;
         this.surnames = surnames;
-        this.phoneNumber = phoneNumber;
-        this.code = generateCode(name, surnames);
+        this.phoneNumber = PhoneNumbers.getDefault().canonical(phoneNumber);
+        this.baseCode = generateCode(name, surnames);
+        this.code = baseCode;
     }
 
     /**
@@ -54,6 +89,7 @@ public class Contact implements ICallActions {
      *     <li>Si tiene un solo apellido: primera letra del nombre + apellido completo.</li>
      *     <li>Si tiene múltiples apellidos: primera letra del nombre + primera letra del primer apellido + concatenación de los demás apellidos sin espacios.</li>
      * </ul>
+     * La generación se delega en {@link ContactCodeGenerator}.
      * </p>
      *
      * @param name     El nombre del contacto.
@@ -61,57 +97,7 @@ public class Contact implements ICallActions {
      * @return El código generado.
      */
     private String generateCode(String name, String surnames) {
-        // Convierte el nombre y los apellidos a minúsculas y elimina signos diacríticos (acentos)
-
-        String normalizedName = removeDiacritics(name).toLowerCase(Locale.ROOT);
-        String normalizedSurnames = removeDiacritics(surnames).toLowerCase(Locale.ROOT);
-
-        // Separa los apellidos en partes (si son múltiples apellidos)
-
-        String[] surnameParts = normalizedSurnames.split("\\s+");
-        StringBuilder codeBuilder = new StringBuilder();
-
-        if (!normalizedName.isEmpty()) {
-            codeBuilder.append(normalizedName.charAt(0));
-        }
-
-        // Genera el código basado en si tiene uno o varios apellidos
-
-        if (surnameParts.length == 1) {
-            // Un solo apellido: código = primera letra del nombre + apellido completo
-            codeBuilder.append(surnameParts[0]);
-        } else if (surnameParts.length >= 2) {
-            // Múltiples apellidos: código = primera letra del nombre + primera letra del primer apellido
-
-            codeBuilder.append(surnameParts[0].charAt(0));// Primera letra del primer apellido
-
-            // Añade las partes restantes de los apellidos concatenadas
-
-            for (int i = 1; i < surnameParts.length; i++) {
-                codeBuilder.append(surnameParts[i]);
-            }
-        }
-
-        return codeBuilder.toString();
-    }
-
-    /**
-     * Elimina los signos diacríticos de una cadena.
-     * <p>
-     * Utiliza {@code Normalizer} y expresiones regulares para eliminar acentos y otros signos.
-     * </p>
-     *
-     * @param input La cadena de entrada.
-     * @return La cadena sin signos diacríticos.
-     */
-    private String removeDiacritics(String input) {
-        // Normaliza el texto eliminando los caracteres diacríticos
-
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        // Utiliza un patrón regex para eliminar las marcas diacríticas
-
-        Pattern pattern = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
-        return pattern.matcher(normalized).replaceAll("");
+        return ContactCodeGenerator.generateCode(name, surnames);
     }
 
     // Getters y Setters
@@ -135,7 +121,7 @@ public class Contact implements ICallActions {
      */
     public void setName(String name) {
         this.name = name;
-        this.code = generateCode(this.name, this.surnames);
+        codeChanged();
     }
 
     /**
@@ -157,7 +143,40 @@ public class Contact implements ICallActions {
      */
     public void setSurnames(String surnames) {
         this.surnames = surnames;
-        this.code = generateCode(this.name, this.surnames);
+        codeChanged();
+    }
+
+    /**
+     * Cambia a la vez el nombre y los apellidos del contacto.
+     * <p>
+     * Equivale a llamar a {@link #setName(String)} y {@link #setSurnames(String)}, pero la agenda recibe un solo
+     * aviso y el código se regenera una sola vez.
+     * </p>
+     *
+     * @param name     El nuevo nombre.
+     * @param surnames Los nuevos apellidos.
+     */
+    public void rename(String name, String surnames) {
+        this.name = name;
+        this.surnames = surnames;
+        codeChanged();
+    }
+
+    /**
+     * Marca el código como desactualizado y avisa a la agenda.
+     * <p>
+     * Fuera de una agenda el código se regenera en el momento. Dentro de una, el código publicado no cambia hasta
+     * que la agenda vuelve a guardar el contacto, de modo que puede seguir encontrándolo por su clave.
+     * </p>
+     */
+    private void codeChanged() {
+        this.codeStale = true;
+        IContactListener current = listener;
+        if (current != null) {
+            current.contactRenamed(this);
+        } else {
+            refreshCode();
+        }
     }
 
     /**
@@ -172,14 +191,221 @@ public class Contact implements ICallActions {
     /**
      * Establece un nuevo número de teléfono para el contacto.
      *
-     * @param phoneNumber El nuevo número de teléfono.
+     * @param phoneNumber El nuevo número de teléfono, que se guarda normalizado si es válido.
      */
     public void setPhone(String phoneNumber) {
-        this.phoneNumber = phoneNumber;
+        String canonical = PhoneNumbers.getDefault().canonical(phoneNumber);
+        IContactListener current = beforeChange();
+        try {
+            this.phoneNumber = canonical;
+        } finally {
+            afterChange(current);
+        }
+    }
+
+    /**
+     * Obtiene todos los números del contacto: primero el principal y después los secundarios.
+     *
+     * @return Lista no modificable con los números.
+     */
+    public List<String> getPhones() {
+        List<String> phones = new ArrayList<>(secondaryCount + 1);
+        phones.add(phoneNumber);
+        phones.addAll(getSecondaryPhones());
+        return Collections.unmodifiableList(phones);
+    }
+
+    /**
+     * Obtiene los números secundarios del contacto, sin separadores.
+     *
+     * @return Lista no modificable con los números secundarios.
+     */
+    public List<String> getSecondaryPhones() {
+        List<String> phones = new ArrayList<>(secondaryCount);
+        for (int i = 0; i < secondaryCount; i++) {
+            phones.add(PackedPhones.unpack(secondaryPhones[i]));
+        }
+        return Collections.unmodifiableList(phones);
+    }
+
+    /**
+     * Añade un número secundario al contacto. Si ya lo tenía, no hace nada.
+     *
+     * @param phone El número a añadir.
+     * @throws IllegalArgumentException si el número no es válido.
+     */
+    public void addPhone(String phone) {
+        long packed = PackedPhones.pack(PhoneNumbers.getDefault().canonical(phone));
+        if (indexOfSecondary(packed) >= 0) {
+            return;
+        }
+        IContactListener current = beforeChange();
+        try {
+            appendSecondary(packed);
+        } finally {
+            afterChange(current);
+        }
+    }
+
+    /**
+     * Elimina un número secundario del contacto.
+     *
+     * @param phone El número a eliminar, con o sin separadores.
+     * @return {@code true} si el contacto tenía ese número secundario.
+     */
+    public boolean removePhone(String phone) {
+        int index;
+        try {
+            index = indexOfSecondary(PackedPhones.pack(PhoneNumbers.getDefault().canonical(phone)));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (index < 0) {
+            return false;
+        }
+        IContactListener current = beforeChange();
+        try {
+            System.arraycopy(secondaryPhones, index + 1, secondaryPhones, index, secondaryCount - index - 1);
+            secondaryCount--;
+        } finally {
+            afterChange(current);
+        }
+        return true;
+    }
+
+    /**
+     * Convierte un número en el principal del contacto.
+     * <p>
+     * Si el número era secundario deja de serlo, y el número principal anterior pasa a ser secundario.
+     * </p>
+     *
+     * @param phone El nuevo número principal.
+     * @throws IllegalArgumentException si el número no es válido.
+     */
+    public void setPrimaryPhone(String phone) {
+        String canonical = PhoneNumbers.getDefault().canonical(phone);
+        long packed = PackedPhones.pack(canonical);
+        IContactListener current = beforeChange();
+        try {
+            int index = indexOfSecondary(packed);
+            if (index >= 0) {
+                System.arraycopy(secondaryPhones, index + 1, secondaryPhones, index, secondaryCount - index - 1);
+                secondaryCount--;
+            }
+            try {
+                long previous = PackedPhones.pack(phoneNumber);
+                if (previous != packed) {
+                    appendSecondary(previous);
+                }
+            } catch (IllegalArgumentException e) {
+                // El número principal anterior no era un número válido y se descarta
+            }
+            this.phoneNumber = canonical;
+        } finally {
+            afterChange(current);
+        }
+    }
+
+    /**
+     * Obtiene el número de teléfonos secundarios.
+     *
+     * @return El número de teléfonos secundarios.
+     */
+    int secondaryPhoneCount() {
+        return secondaryCount;
+    }
+
+    /**
+     * Obtiene un número secundario codificado.
+     *
+     * @param index La posición del número, entre 0 y {@link #secondaryPhoneCount()} - 1.
+     * @return El número codificado.
+     */
+    long secondaryPhoneAt(int index) {
+        return secondaryPhones[index];
+    }
+
+    /**
+     * Sustituye los números secundarios sin avisar a la agenda. Se usa al reconstruir un contacto desde un almacén.
+     *
+     * @param packed Los números codificados.
+     */
+    void restoreSecondaryPhones(long[] packed) {
+        secondaryPhones = packed.length == 0 ? NO_PHONES : packed.clone();
+        secondaryCount = packed.length;
+    }
+
+    /**
+     * Sustituye todos los números sin avisar a la agenda. Se usa para deshacer un cambio que la agenda no ha podido
+     * guardar.
+     *
+     * @param phone  El número principal.
+     * @param packed Los números secundarios codificados.
+     */
+    void restorePhones(String phone, long[] packed) {
+        this.phoneNumber = phone;
+        restoreSecondaryPhones(packed);
+    }
+
+    /**
+     * Obtiene una copia de los números secundarios codificados.
+     *
+     * @return Los números codificados.
+     */
+    long[] packedSecondaryPhones() {
+        return Arrays.copyOf(secondaryPhones, secondaryCount);
+    }
+
+    private int indexOfSecondary(long packed) {
+        for (int i = 0; i < secondaryCount; i++) {
+            if (secondaryPhones[i] == packed) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void appendSecondary(long packed) {
+        if (secondaryCount == secondaryPhones.length) {
+            secondaryPhones = Arrays.copyOf(secondaryPhones, Math.max(2, secondaryCount * 2));
+        }
+        secondaryPhones[secondaryCount++] = packed;
+    }
+
+    /**
+     * Avisa a la agenda de que los teléfonos del contacto van a cambiar.
+     * <p>
+     * La agenda bloquea el contacto hasta el aviso posterior, así que {@link #afterChange(IContactListener)} debe
+     * llamarse siempre, aunque el cambio falle.
+     * </p>
+     *
+     * @return El receptor avisado, que debe recibir también el aviso posterior.
+     */
+    private IContactListener beforeChange() {
+        IContactListener current = listener;
+        if (current != null) {
+            current.contactChanging(this);
+        }
+        return current;
+    }
+
+    /**
+     * Avisa a la agenda de que los teléfonos del contacto han cambiado.
+     *
+     * @param current El receptor devuelto por {@link #beforeChange()}.
+     */
+    private void afterChange(IContactListener current) {
+        if (current != null) {
+            current.contactChanged(this);
+        }
     }
 
     /**
      * Obtiene el código único del contacto.
+     * <p>
+     * Es el código publicado: si el contacto pertenece a una agenda, el código con el que está guardado, aunque
+     * dentro de un lote haya cambiado de nombre. Consultarlo no modifica el contacto.
+     * </p>
      *
      * @return El código del contacto.
      */
@@ -187,6 +413,92 @@ public class Contact implements ICallActions {
         return code;
     }
 
+    /**
+     * Publica un código nuevo si el nombre o los apellidos han cambiado desde que se publicó el actual.
+     * <p>
+     * El código regenerado no lleva sufijo; la agenda le asigna uno después si hace falta. Si el contacto pertenece
+     * a una agenda, solo la agenda debe llamarlo, con el bloqueo con el que lo vuelve a guardar.
+     * </p>
+     */
+    void refreshCode() {
+        if (codeStale) {
+            codeStale = false;
+            String generated = generateCode(name, surnames);
+            baseCode = generated;
+            codeNumber = 1;
+            code = generated;
+        }
+    }
+
+    /**
+     * Obtiene el código base del código publicado, sin el sufijo que pueda haber asignado la agenda.
+     * <p>
+     * Tras un cambio de nombre sigue devolviendo el código base anterior hasta que se llama a
+     * {@link #refreshCode()}.
+     * </p>
+     *
+     * @return El código base.
+     */
+    String getBaseCode() {
+        return baseCode;
+    }
+
+    /**
+     * Obtiene el número que distingue el código publicado de otros con el mismo código base.
+     *
+     * @return 1 si el código no lleva sufijo, o el sufijo en otro caso.
+     */
+    int getCodeNumber() {
+        return codeNumber;
+    }
+
+    /**
+     * Asigna el número que distingue el código de otros con el mismo código base.
+     *
+     * @param number 1 para usar el código base, o el sufijo a añadir.
+     */
+    void assignCodeNumber(int number) {
+        this.codeNumber = number;
+        this.code = CodeSuffixAllocator.code(baseCode, number);
+    }
+
+    /**
+     * Recupera el sufijo de un código guardado en un almacén, si corresponde a este contacto.
+     *
+     * @param storedCode El código con el que estaba guardado el contacto.
+     */
+    void restoreCode(String storedCode) {
+        if (storedCode.equals(baseCode) || !storedCode.startsWith(baseCode)) {
+            return;
+        }
+        try {
+            int number = Integer.parseInt(storedCode.substring(baseCode.length()));
+            if (number >= 2) {
+                assignCodeNumber(number);
+            }
+        } catch (NumberFormatException e) {
+            // El código guardado no es un código base con sufijo
+        }
+    }
+
+    /**
+     * Obtiene el receptor de los avisos de modificación del contacto.
+     *
+     * @return El receptor, o {@code null} si el contacto no pertenece a ninguna agenda.
+     */
+    IContactListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Establece el receptor de los avisos de modificación del contacto.
+     *
+     * @param listener El receptor, o {@code null} para dejar de avisar.
+     */
+    void setListener(IContactListener listener) {
+        this.listener = listener;
+    }
+
     // Implementación de ICallActions
 
     /**
@@ -197,7 +509,7 @@ public class Contact implements ICallActions {
      */
     @Override
     public void callMyNumber() {
-        System.out.println("El contacto " + getFullName() + " se está llamando a sí mismo al número " + phoneNumber + ".");
+        call(phoneNumber, true);
     }
 
     /**
@@ -206,22 +518,54 @@ public class Contact implements ICallActions {
      * Muestra un mensaje indicando que el contacto está llamando al número proporcionado.
      * </p>
      *
-     * @param number El número de teléfono al que se desea llamar.
+     * @param number El número de teléfono al que se desea llamar, que se normaliza si es válido.
      */
     @Override
     public void callOtherNumber(String number) {
-        System.out.println("El contacto " + getFullName() + " se está llamando al número " + number + ".");
+        call(PhoneNumbers.getDefault().canonical(number), false);
+    }
+
+    /**
+     * Realiza una llamada: la publica en el {@link CallEventBus#getDefault() bus de llamadas} si hay uno instalado
+     * o, si no, muestra el mensaje directamente por la salida estándar.
+     *
+     * @param number    El número al que se llama.
+     * @param ownNumber {@code true} si el contacto se llama a sí mismo.
+     */
+    private void call(String number, boolean ownNumber) {
+        long start = PhonebookMetrics.start();
+        CallEvent event = callEvent(number, ownNumber);
+        CallEventBus bus = CallEventBus.getDefault();
+        if (bus != null) {
+            bus.publish(event);
+        } else {
+            System.out.println(event);
+        }
+        PhonebookMetrics.record(PhonebookMetrics.Operation.CALL, start);
+    }
+
+    /**
+     * Crea el evento de una llamada desde este contacto.
+     *
+     * @param number    El número al que se llama.
+     * @param ownNumber {@code true} si el contacto se llama a sí mismo.
+     * @return El evento.
+     */
+    CallEvent callEvent(String number, boolean ownNumber) {
+        return new CallEvent(getCode(), name, surnames, number, ownNumber, System.currentTimeMillis());
     }
 
     /**
      * Muestra los detalles del contacto.
      * <p>
-     * Incluye código, nombre completo y número de teléfono.
+     * Incluye código, nombre completo, número de teléfono y, si los tiene, los números secundarios.
      * </p>
      */
     @Override
     public void showContactDetails() {
-        System.out.println("Código: " + code + ", Nombre: " + getFullName() + ", Número de teléfono: " + phoneNumber + ".");
+        String secondary = secondaryCount == 0 ? "" : ", Otros teléfonos: " + String.join(", ", getSecondaryPhones());
+        System.out.println("Código: " + getCode() + ", Nombre: " + getFullName() + ", Número de teléfono: " + phoneNumber
+                + secondary + ".");
     }
 
     /**
@@ -240,6 +584,28 @@ public class Contact implements ICallActions {
      */
     @Override
     public String toString() {
-        return "Código: " + code + ", Nombre: " + getFullName() + ", Teléfono: " + phoneNumber;
+        StringBuilder builder = new StringBuilder(64);
+        try {
+            appendTo(builder);
+        } catch (IOException e) {
+            // StringBuilder no lanza excepciones de E/S
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Escribe la representación en cadena del contacto sin crear cadenas intermedias.
+     *
+     * @param out El destino de la escritura.
+     * @throws IOException si el destino no admite la escritura.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append("Código: ").append(getCode())
+                .append(", Nombre: ").append(name).append(' ').append(surnames)
+                .append(", Teléfono: ").append(phoneNumber);
+        for (int i = 0; i < secondaryCount; i++) {
+            out.append(i == 0 ? ", Otros teléfonos: " : ", ").append(PackedPhones.unpack(secondaryPhones[i]));
+        }
     }
 }
@@ -0,0 +1,249 @@
+package com.campusdual.classroom;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * La clase {@code ContactCodeGenerator} genera los códigos de los contactos.
+ * <p>
+ * Pliega los signos diacríticos y las mayúsculas en una sola pasada, usando una tabla precalculada para los
+ * caracteres de los bloques Latin-1 y Latin Extended-A. Solo cuando aparece un carácter que la tabla no cubre se
+ * recurre a {@code Normalizer}, de forma que el resultado es idéntico al de la normalización NFD completa.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class ContactCodeGenerator {
+
+    /** Último carácter (exclusivo) cubierto por la tabla de plegado: fin de Latin Extended-A. */
+    private static final int TABLE_LIMIT = 0x180;
+
+    /** Primer carácter del bloque de marcas diacríticas combinables. */
+    private static final char COMBINING_FIRST = '\u0300';
+
+    /** Último carácter del bloque de marcas diacríticas combinables. */
+    private static final char COMBINING_LAST = '\u036F';
+
+    /** Patrón usado solo en el camino lento, compilado una única vez. */
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    /** Tabla de plegado: carácter original a carácter en minúscula y sin diacríticos. */
+    private static final char[] FOLD = buildFoldTable();
+
+    private ContactCodeGenerator() {
+    }
+
+    /**
+     * Construye la tabla de plegado aplicando una vez el algoritmo completo a cada carácter cubierto.
+     *
+     * @return La tabla de plegado.
+     */
+    private static char[] buildFoldTable() {
+        char[] table = new char[TABLE_LIMIT];
+        for (int c = 0; c < TABLE_LIMIT; c++) {
+            String folded = slowFold(String.valueOf((char) c));
+            // Todos los caracteres de estos bloques se pliegan a exactamente un carácter
+            table[c] = folded.charAt(0);
+        }
+        return table;
+    }
+
+    /**
+     * Genera el código de un contacto a partir de su nombre y apellidos.
+     * <p>
+     * Las reglas son las mismas que describe {@link Contact}: primera letra del nombre y, si hay un solo apellido,
+     * el apellido completo; si hay varios, la primera letra del primero y el resto concatenados sin espacios.
+     * Los espacios iniciales de los apellidos se ignoran.
+     * </p>
+     *
+     * @param name     El nombre del contacto.
+     * @param surnames Los apellidos del contacto.
+     * @return El código generado.
+     */
+    public static String generateCode(String name, String surnames) {
+        StringBuilder builder = new StringBuilder(name.length() + surnames.length());
+        appendCode(builder, name, surnames);
+        return builder.toString();
+    }
+
+    /**
+     * Genera los códigos de un lote de contactos reutilizando el mismo búfer para todos ellos.
+     *
+     * @param names    Los nombres de los contactos.
+     * @param surnames Los apellidos de los contactos, en el mismo orden que los nombres.
+     * @return Un array con el código de cada contacto en la misma posición.
+     * @throws IllegalArgumentException si los arrays no tienen la misma longitud.
+     */
+    public static String[] generateCodes(String[] names, String[] surnames) {
+        if (names.length != surnames.length) {
+            throw new IllegalArgumentException("El número de nombres y de apellidos no coincide.");
+        }
+        String[] codes = new String[names.length];
+        StringBuilder builder = new StringBuilder(32);
+        for (int i = 0; i < names.length; i++) {
+            builder.setLength(0);
+            appendCode(builder, names[i], surnames[i]);
+            codes[i] = builder.toString();
+        }
+        return codes;
+    }
+
+    /**
+     * Convierte una cadena a minúsculas y elimina sus signos diacríticos.
+     *
+     * @param input La cadena de entrada.
+     * @return La cadena plegada.
+     */
+    public static String fold(CharSequence input) {
+        StringBuilder builder = new StringBuilder(input.length());
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c < TABLE_LIMIT) {
+                builder.append(FOLD[c]);
+            } else if (!isCombiningMark(c)) {
+                return slowFold(input.toString());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Añade al búfer el código correspondiente al nombre y apellidos indicados.
+     *
+     * @param builder  El búfer de salida.
+     * @param name     El nombre del contacto.
+     * @param surnames Los apellidos del contacto.
+     */
+    private static void appendCode(StringBuilder builder, String name, String surnames) {
+        if (!appendInitial(builder, name)) {
+            String slowName = slowFold(name);
+            if (!slowName.isEmpty()) {
+                builder.append(slowName.charAt(0));
+            }
+        }
+        int surnamesStart = builder.length();
+        if (!appendSurnames(builder, surnames)) {
+            builder.setLength(surnamesStart);
+            appendSurnameParts(builder, slowFold(surnames));
+        }
+    }
+
+    /**
+     * Añade la primera letra plegada del nombre.
+     *
+     * @param builder El búfer de salida.
+     * @param name    El nombre del contacto.
+     * @return {@code false} si aparece un carácter no cubierto por la tabla antes de la primera letra.
+     */
+    private static boolean appendInitial(StringBuilder builder, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < TABLE_LIMIT) {
+                builder.append(FOLD[c]);
+                return true;
+            }
+            if (!isCombiningMark(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Añade la parte del código correspondiente a los apellidos en una sola pasada.
+     * <p>
+     * La primera parte se copia entera; si aparece una segunda parte se recorta a su primera letra.
+     * </p>
+     *
+     * @param builder  El búfer de salida.
+     * @param surnames Los apellidos del contacto.
+     * @return {@code false} si aparece un carácter no cubierto por la tabla.
+     */
+    private static boolean appendSurnames(StringBuilder builder, String surnames) {
+        int firstPartStart = builder.length();
+        int parts = 0;
+        boolean inPart = false;
+        for (int i = 0; i < surnames.length(); i++) {
+            char c = surnames.charAt(i);
+            if (isCombiningMark(c)) {
+                continue;
+            }
+            if (c >= TABLE_LIMIT) {
+                return false;
+            }
+            if (isSeparator(c)) {
+                inPart = false;
+                continue;
+            }
+            if (!inPart) {
+                inPart = true;
+                parts++;
+                if (parts == 2) {
+                    builder.setLength(firstPartStart + 1);
+                }
+            }
+            builder.append(FOLD[c]);
+        }
+        return true;
+    }
+
+    /**
+     * Añade la parte del código de unos apellidos ya plegados por el camino lento.
+     *
+     * @param builder  El búfer de salida.
+     * @param surnames Los apellidos plegados.
+     */
+    private static void appendSurnameParts(StringBuilder builder, String surnames) {
+        int firstPartStart = builder.length();
+        int parts = 0;
+        boolean inPart = false;
+        for (int i = 0; i < surnames.length(); i++) {
+            char c = surnames.charAt(i);
+            if (isSeparator(c)) {
+                inPart = false;
+                continue;
+            }
+            if (!inPart) {
+                inPart = true;
+                parts++;
+                if (parts == 2) {
+                    builder.setLength(firstPartStart + 1);
+                }
+            }
+            builder.append(c);
+        }
+    }
+
+    /**
+     * Pliega una cadena con el algoritmo completo: normalización NFD, eliminación de marcas y minúsculas.
+     *
+     * @param input La cadena de entrada.
+     * @return La cadena plegada.
+     */
+    private static String slowFold(String input) {
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(normalized).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indica si el carácter es una marca diacrítica combinable.
+     *
+     * @param c El carácter.
+     * @return {@code true} si pertenece al bloque de marcas combinables.
+     */
+    private static boolean isCombiningMark(char c) {
+        return c >= COMBINING_FIRST && c <= COMBINING_LAST;
+    }
+
+    /**
+     * Indica si el carácter separa partes de los apellidos, con la misma definición que {@code \s}.
+     *
+     * @param c El carácter.
+     * @return {@code true} si es un espacio en blanco.
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
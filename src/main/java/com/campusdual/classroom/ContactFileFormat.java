@@ -0,0 +1,50 @@
+package com.campusdual.classroom;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de fichero con los que la agenda importa y exporta contactos.
+ * <p>
+ * Al importar, los dos formatos vCard se leen igual: se aceptan tarjetas de las versiones 3.0 y 4.0 en el mismo
+ * fichero. La versión solo importa al exportar.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public enum ContactFileFormat {
+    /** Valores separados por comas: nombre, apellidos, teléfono y, opcionalmente, más teléfonos. */
+    CSV,
+    /** vCard 3.0 (RFC 2426). */
+    VCARD_3,
+    /** vCard 4.0 (RFC 6350). */
+    VCARD_4;
+
+    /**
+     * Obtiene el formato que corresponde a la extensión de un fichero.
+     *
+     * @param file El fichero.
+     * @return {@link #CSV} para {@code .csv} y {@link #VCARD_4} para {@code .vcf} o {@code .vcard}.
+     * @throws IllegalArgumentException si la extensión no corresponde a ningún formato.
+     */
+    public static ContactFileFormat forFile(Path file) {
+        String name = String.valueOf(file.getFileName()).toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".vcf") || name.endsWith(".vcard")) {
+            return VCARD_4;
+        }
+        throw new IllegalArgumentException("Formato de fichero desconocido: " + file);
+    }
+
+    /**
+     * Indica si el formato es una de las versiones de vCard.
+     *
+     * @return {@code true} para {@link #VCARD_3} y {@link #VCARD_4}.
+     */
+    boolean isVCard() {
+        return this != CSV;
+    }
+}
@@ -0,0 +1,547 @@
+package com.campusdual.classroom;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * La clase {@code ContactFileReader} lee contactos de un fichero CSV o vCard de uno en uno.
+ * <p>
+ * El fichero se lee de un {@code FileChannel} a través de un único búfer de bytes y otro de caracteres, que se
+ * reutilizan durante toda la lectura, por lo que la memoria usada no depende del tamaño del fichero. Cada registro
+ * se deja en un {@link Record} que también se reutiliza. Las líneas de más de {@link #MAX_LINE_LENGTH} caracteres
+ * se truncan y su registro se marca como no válido.
+ * </p>
+ * <p>
+ * Los registros no válidos no interrumpen la lectura: se devuelven con el motivo del error y la lectura sigue con
+ * el siguiente registro.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+final class ContactFileReader implements Closeable {
+    /** Tamaño de los búferes de lectura. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Longitud máxima de una línea o de un campo. */
+    static final int MAX_LINE_LENGTH = 1 << 16;
+
+    private final FileChannel channel;
+    private final ContactFileFormat format;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+    /** La última línea leída, sin el fin de línea. */
+    private final StringBuilder line = new StringBuilder(256);
+
+    /** Número de la última línea leída, empezando en 1. */
+    private long lineNumber;
+
+    /** Indica si la última línea leída se ha truncado. */
+    private boolean lineTooLong;
+
+    private boolean inputDone;
+    private boolean skipLineFeed;
+    private boolean started;
+
+    /** Separador de campos del CSV, que se deduce de la primera línea. */
+    private char separator = ',';
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder(64);
+
+    /** Línea lógica de vCard, con las líneas de continuación ya unidas. */
+    private final StringBuilder unfolded = new StringBuilder(256);
+    private long unfoldedLineNumber;
+    private boolean unfoldedTooLong;
+
+    /** Indica si {@link #line} contiene ya la línea que sigue a {@link #unfolded}. */
+    private boolean hasLookahead;
+
+    /** Indica si {@link #unfolded} debe volver a procesarse en la siguiente lectura. */
+    private boolean pushedBack;
+
+    /**
+     * Abre un fichero para leer sus contactos.
+     *
+     * @param file   El fichero, codificado en UTF-8.
+     * @param format El formato del fichero.
+     * @throws IOException si no se puede abrir el fichero.
+     */
+    ContactFileReader(Path file, ContactFileFormat format) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.format = format;
+        chars.flip();
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @param record El registro en el que se deja el resultado.
+     * @return {@code false} si no quedan registros.
+     * @throws IOException si falla la lectura.
+     */
+    boolean next(Record record) throws IOException {
+        return format.isVCard() ? nextVCard(record) : nextCsv(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Lee el siguiente registro de un fichero CSV, ignorando las líneas vacías y una cabecera inicial.
+     * <p>
+     * Los campos pueden ir entre comillas dobles, y en ese caso pueden contener separadores, saltos de línea y
+     * comillas duplicadas. Si la primera línea tiene más puntos y comas que comas, se usa el punto y coma como
+     * separador.
+     * </p>
+     */
+    private boolean nextCsv(Record record) throws IOException {
+        do {
+            if (!readLine()) {
+                return false;
+            }
+        } while (isBlank(line));
+        boolean first = !started;
+        if (first) {
+            started = true;
+            separator = count(line, ';') > count(line, ',') ? ';' : ',';
+        }
+        record.reset(lineNumber);
+        fields.clear();
+        field.setLength(0);
+        boolean tooLong = lineTooLong;
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    fields.add(field.toString().trim());
+                    break;
+                }
+                if (!readLine()) {
+                    record.error = "comillas sin cerrar";
+                    return true;
+                }
+                tooLong |= lineTooLong;
+                tooLong |= !append(field, '\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    tooLong |= !append(field, c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    tooLong |= !append(field, '"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && isBlank(field)) {
+                field.setLength(0);
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                tooLong |= !append(field, c);
+            }
+        }
+        if (first && isHeader(fields)) {
+            return nextCsv(record);
+        }
+        if (tooLong) {
+            record.error = "línea demasiado larga";
+        } else if (fields.size() < 3) {
+            record.error = "se esperaban al menos 3 campos (nombre, apellidos, teléfono)";
+        } else {
+            record.name = fields.get(0);
+            record.surnames = fields.get(1);
+            for (int j = 2; j < fields.size(); j++) {
+                if (!fields.get(j).isEmpty()) {
+                    record.phones.add(fields.get(j));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lee la siguiente tarjeta de un fichero vCard.
+     * <p>
+     * Se usan las propiedades {@code N} (o {@code FN} si falta) y {@code TEL}; el resto se ignoran. El teléfono
+     * marcado como preferido pasa a ser el principal. Una línea fuera de una tarjeta se devuelve como un registro
+     * no válido, y una tarjeta sin {@code END:VCARD} termina en el siguiente {@code BEGIN:VCARD}.
+     * </p>
+     */
+    private boolean nextVCard(Record record) throws IOException {
+        do {
+            if (!nextUnfolded()) {
+                return false;
+            }
+        } while (isBlank(unfolded));
+        record.reset(unfoldedLineNumber);
+        if (!isProperty("BEGIN", "VCARD")) {
+            record.error = "se esperaba BEGIN:VCARD";
+            return true;
+        }
+        boolean tooLong = unfoldedTooLong;
+        boolean preferredFound = false;
+        String fullName = null;
+        while (true) {
+            if (!nextUnfolded()) {
+                record.error = "falta END:VCARD";
+                return true;
+            }
+            tooLong |= unfoldedTooLong;
+            if (isProperty("END", "VCARD")) {
+                break;
+            }
+            if (isProperty("BEGIN", "VCARD")) {
+                pushedBack = true;
+                record.error = "falta END:VCARD";
+                return true;
+            }
+            int colon = indexOf(unfolded, ':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = propertyName(colon);
+            if (name.equals("N")) {
+                List<String> components = split(unfolded, colon + 1, ';');
+                record.surnames = components.get(0).trim();
+                record.name = components.size() > 1 ? components.get(1).trim() : "";
+            } else if (name.equals("FN")) {
+                fullName = split(unfolded, colon + 1, '\0').get(0).trim();
+            } else if (name.equals("TEL")) {
+                String phone = split(unfolded, colon + 1, '\0').get(0).trim();
+                if (phone.regionMatches(true, 0, "tel:", 0, 4)) {
+                    phone = phone.substring(4);
+                }
+                int parameters = phone.indexOf(';');
+                if (parameters >= 0) {
+                    phone = phone.substring(0, parameters);
+                }
+                if (phone.isEmpty()) {
+                    continue;
+                }
+                if (!preferredFound && isPreferred(colon)) {
+                    preferredFound = true;
+                    record.phones.add(0, phone);
+                } else {
+                    record.phones.add(phone);
+                }
+            }
+        }
+        if ((record.name == null || record.name.isEmpty()) && (record.surnames == null || record.surnames.isEmpty())
+                && fullName != null) {
+            int space = fullName.indexOf(' ');
+            record.name = space < 0 ? fullName : fullName.substring(0, space);
+            record.surnames = space < 0 ? "" : fullName.substring(space + 1).trim();
+        }
+        if (tooLong) {
+            record.error = "línea demasiado larga";
+        }
+        return true;
+    }
+
+    /**
+     * Lee la siguiente línea lógica de vCard, uniendo las líneas que empiezan por un espacio o un tabulador a la
+     * anterior.
+     */
+    private boolean nextUnfolded() throws IOException {
+        if (pushedBack) {
+            pushedBack = false;
+            return true;
+        }
+        if (!hasLookahead && !readLine()) {
+            return false;
+        }
+        hasLookahead = false;
+        unfolded.setLength(0);
+        unfolded.append(line);
+        unfoldedLineNumber = lineNumber;
+        unfoldedTooLong = lineTooLong;
+        while (readLine()) {
+            if (line.length() == 0 || (line.charAt(0) != ' ' && line.charAt(0) != '\t')) {
+                hasLookahead = true;
+                break;
+            }
+            if (unfolded.length() + line.length() - 1 > MAX_LINE_LENGTH) {
+                unfoldedTooLong = true;
+            } else {
+                unfolded.append(line, 1, line.length());
+            }
+            unfoldedTooLong |= lineTooLong;
+        }
+        return true;
+    }
+
+    /**
+     * Comprueba si la línea lógica actual es una propiedad con un valor dado, sin distinguir mayúsculas.
+     */
+    private boolean isProperty(String name, String value) {
+        int colon = indexOf(unfolded, ':');
+        return colon >= 0 && propertyName(colon).equals(name)
+                && unfolded.toString().substring(colon + 1).trim().equalsIgnoreCase(value);
+    }
+
+    /**
+     * Obtiene el nombre de la propiedad de la línea lógica actual, en mayúsculas y sin grupo ni parámetros.
+     */
+    private String propertyName(int colon) {
+        int end = colon;
+        for (int i = 0; i < colon; i++) {
+            if (unfolded.charAt(i) == ';') {
+                end = i;
+                break;
+            }
+        }
+        int start = 0;
+        for (int i = end - 1; i >= 0; i--) {
+            if (unfolded.charAt(i) == '.') {
+                start = i + 1;
+                break;
+            }
+        }
+        return unfolded.substring(start, end).trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Comprueba si los parámetros de la línea lógica actual marcan el valor como preferido: {@code PREF=1} en
+     * vCard 4.0 o {@code TYPE=pref} en vCard 3.0.
+     */
+    private boolean isPreferred(int colon) {
+        String parameters = unfolded.substring(0, colon).toUpperCase(Locale.ROOT);
+        return parameters.contains(";PREF=1") || parameters.matches(".*;TYPE=([^;]*,)?\"?PREF\\b.*");
+    }
+
+    /**
+     * Divide un valor de vCard por un separador, deshaciendo los caracteres escapados.
+     * <p>
+     * Al dividir por componentes, las comas sin escapar que separan varios valores de un mismo componente (por
+     * ejemplo, varios apellidos en {@code N}) se convierten en espacios.
+     * </p>
+     *
+     * @param text      El texto.
+     * @param start     El principio del valor.
+     * @param separator El separador de componentes, o {@code '\0'} para no dividir.
+     * @return Los componentes; al menos uno.
+     */
+    private static List<String> split(CharSequence text, int start, char separator) {
+        List<String> components = new ArrayList<>(2);
+        StringBuilder current = new StringBuilder(text.length() - start);
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                current.append(escaped == 'n' || escaped == 'N' ? ' ' : escaped);
+            } else if (c == separator) {
+                components.add(current.toString());
+                current.setLength(0);
+            } else if (c == ',' && separator != '\0') {
+                current.append(' ');
+            } else {
+                current.append(c);
+            }
+        }
+        components.add(current.toString());
+        return components;
+    }
+
+    /**
+     * Lee la siguiente línea física en {@link #line}.
+     *
+     * @return {@code false} al final del fichero.
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        lineTooLong = false;
+        boolean read = false;
+        while (true) {
+            if (!chars.hasRemaining() && !fill()) {
+                if (read) {
+                    lineNumber++;
+                }
+                return read;
+            }
+            char c = chars.get();
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+                lineNumber++;
+                return true;
+            }
+            read = true;
+            if (c == '\uFEFF' && lineNumber == 0 && line.length() == 0) {
+                continue;
+            }
+            lineTooLong |= !append(line, c);
+        }
+    }
+
+    /**
+     * Decodifica más caracteres del fichero en el búfer de caracteres.
+     *
+     * @return {@code false} si no quedan caracteres.
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+        while (!inputDone && chars.position() == 0) {
+            boolean endOfFile = channel.read(bytes) < 0;
+            bytes.flip();
+            decoder.decode(bytes, chars, endOfFile);
+            bytes.compact();
+            if (endOfFile) {
+                decoder.flush(chars);
+                inputDone = true;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private static boolean append(StringBuilder target, char c) {
+        if (target.length() >= MAX_LINE_LENGTH) {
+            return false;
+        }
+        target.append(c);
+        return true;
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        return fields.size() >= 2
+                && (fields.get(0).equalsIgnoreCase("nombre") || fields.get(0).equalsIgnoreCase("name"))
+                && (fields.get(1).equalsIgnoreCase("apellidos") || fields.get(1).equalsIgnoreCase("surnames"));
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int count(CharSequence text, char c) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int indexOf(CharSequence text, char c) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Datos de un contacto leídos de un fichero, o el motivo por el que no son válidos.
+     */
+    static final class Record {
+        private long line;
+        private String name;
+        private String surnames;
+        private final List<String> phones = new ArrayList<>(2);
+        private String error;
+
+        private void reset(long line) {
+            this.line = line;
+            name = null;
+            surnames = null;
+            phones.clear();
+            error = null;
+        }
+
+        /**
+         * Obtiene la línea del fichero en la que empieza el registro.
+         *
+         * @return El número de línea, empezando en 1.
+         */
+        long getLine() {
+            return line;
+        }
+
+        /**
+         * Obtiene el motivo por el que el registro no es válido.
+         *
+         * @return El motivo, o {@code null} si el formato del registro es correcto.
+         */
+        String getError() {
+            return error;
+        }
+
+        /**
+         * Crea el contacto del registro: el primer teléfono es el principal y el resto, secundarios.
+         *
+         * @return El contacto.
+         * @throws IllegalArgumentException si el registro no es válido o le falta algún dato.
+         */
+        Contact toContact() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("falta el nombre");
+            }
+            if (surnames == null || surnames.isEmpty()) {
+                throw new IllegalArgumentException("faltan los apellidos");
+            }
+            if (phones.isEmpty()) {
+                throw new IllegalArgumentException("falta el teléfono");
+            }
+            for (String phone : phones) {
+                checkPhone(phone);
+            }
+            Contact contact = new Contact(name, surnames, phones.get(0));
+            for (int i = 1; i < phones.size(); i++) {
+                contact.addPhone(phones.get(i));
+            }
+            return contact;
+        }
+
+        /**
+         * Comprueba que un teléfono del registro puede guardarse en el contacto, ya que el constructor de
+         * {@link Contact} acepta cualquier texto como teléfono principal.
+         *
+         * @param phone El teléfono.
+         * @throws IllegalArgumentException si el teléfono no es válido, con el motivo para el informe de errores.
+         */
+        private static void checkPhone(String phone) {
+            try {
+                PackedPhones.pack(PhoneNumbers.getDefault().canonical(phone));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("teléfono no válido: " + phone);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.campusdual.classroom;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * La clase {@code ContactFileWriter} escribe contactos en un fichero CSV o vCard de uno en uno.
+ * <p>
+ * Cada contacto se compone en un mismo {@code StringBuilder} y se codifica en UTF-8 en un único búfer de bytes, que
+ * se vuelca al {@code FileChannel} cuando se llena. Los ficheros CSV empiezan con una cabecera; las tarjetas vCard
+ * usan fines de línea CRLF y parten las líneas de más de 75 bytes, como exigen las dos versiones del formato.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+final class ContactFileWriter implements Closeable {
+    /** Tamaño del búfer de escritura. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Longitud máxima en bytes de una línea de vCard, sin el fin de línea. */
+    private static final int MAX_VCARD_LINE_BYTES = 75;
+
+    private static final String CRLF = "\r\n";
+
+    private final FileChannel channel;
+    private final ContactFileFormat format;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** El texto del contacto que se está escribiendo. */
+    private final StringBuilder text = new StringBuilder(256);
+
+    /** La propiedad de vCard que se está escribiendo, antes de partirla. */
+    private final StringBuilder property = new StringBuilder(128);
+
+    private final String lineSeparator = System.lineSeparator();
+
+    /**
+     * Crea un fichero para escribir contactos, o lo vacía si ya existe.
+     *
+     * @param file   El fichero.
+     * @param format El formato del fichero.
+     * @throws IOException si no se puede crear el fichero.
+     */
+    ContactFileWriter(Path file, ContactFileFormat format) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.format = format;
+        if (format == ContactFileFormat.CSV) {
+            text.append("nombre,apellidos,teléfono").append(lineSeparator);
+            encodeText();
+        }
+    }
+
+    /**
+     * Escribe un contacto.
+     *
+     * @param contact El contacto.
+     * @throws IOException si falla la escritura.
+     */
+    void write(Contact contact) throws IOException {
+        if (format == ContactFileFormat.CSV) {
+            appendCsv(contact);
+        } else {
+            appendVCard(contact);
+        }
+        encodeText();
+    }
+
+    /**
+     * Vuelca lo que queda en el búfer y cierra el fichero.
+     *
+     * @throws IOException si falla la escritura.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            encoder.encode(CharBuffer.allocate(0), bytes, true);
+            encoder.flush(bytes);
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void appendCsv(Contact contact) {
+        appendCsvField(contact.getName());
+        text.append(',');
+        appendCsvField(contact.getSurnames());
+        for (String phone : contact.getPhones()) {
+            text.append(',');
+            appendCsvField(phone);
+        }
+        text.append(lineSeparator);
+    }
+
+    /**
+     * Añade un campo CSV, entre comillas si contiene separadores, comillas, saltos de línea o espacios en los
+     * extremos.
+     */
+    private void appendCsvField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = !value.isEmpty()
+                && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ');
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == ';' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            text.append(value);
+            return;
+        }
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                text.append('"');
+            }
+            text.append(c);
+        }
+        text.append('"');
+    }
+
+    private void appendVCard(Contact contact) {
+        boolean version4 = format == ContactFileFormat.VCARD_4;
+        text.append("BEGIN:VCARD").append(CRLF);
+        text.append(version4 ? "VERSION:4.0" : "VERSION:3.0").append(CRLF);
+
+        property.append("N:");
+        appendEscaped(contact.getSurnames());
+        property.append(';');
+        appendEscaped(contact.getName());
+        property.append(";;;");
+        foldProperty();
+
+        property.append("FN:");
+        appendEscaped(contact.getFullName());
+        foldProperty();
+
+        List<String> phones = contact.getPhones();
+        for (int i = 0; i < phones.size(); i++) {
+            if (phones.get(i) == null) {
+                continue;
+            }
+            property.append("TEL;");
+            if (version4) {
+                property.append(i == 0 ? "VALUE=text;PREF=1:" : "VALUE=text:");
+            } else {
+                property.append(i == 0 ? "TYPE=voice,pref:" : "TYPE=voice:");
+            }
+            appendEscaped(phones.get(i));
+            foldProperty();
+        }
+        text.append("END:VCARD").append(CRLF);
+    }
+
+    /**
+     * Añade un valor de texto a la propiedad actual, escapando los caracteres especiales de vCard.
+     */
+    private void appendEscaped(String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == ';' || c == ',') {
+                property.append('\\').append(c);
+            } else if (c == '\n') {
+                property.append("\\n");
+            } else if (c != '\r') {
+                property.append(c);
+            }
+        }
+    }
+
+    /**
+     * Pasa la propiedad actual al texto del contacto, partida en líneas de como mucho 75 bytes en UTF-8. Las líneas
+     * de continuación empiezan por un espacio, y los pares suplentes no se separan.
+     */
+    private void foldProperty() {
+        int lineBytes = 0;
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            boolean pair = Character.isHighSurrogate(c) && i + 1 < property.length()
+                    && Character.isLowSurrogate(property.charAt(i + 1));
+            int size = pair ? 4 : c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (lineBytes + size > MAX_VCARD_LINE_BYTES) {
+                text.append(CRLF).append(' ');
+                lineBytes = 1;
+            }
+            text.append(c);
+            if (pair) {
+                text.append(property.charAt(++i));
+            }
+            lineBytes += size;
+        }
+        text.append(CRLF);
+        property.setLength(0);
+    }
+
+    /**
+     * Codifica el texto del contacto en el búfer de bytes, volcándolo al fichero cada vez que se llena.
+     */
+    private void encodeText() throws IOException {
+        CharBuffer source = CharBuffer.wrap(text);
+        while (encoder.encode(source, bytes, false).isOverflow()) {
+            drain();
+        }
+        text.setLength(0);
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
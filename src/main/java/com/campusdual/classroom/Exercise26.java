@@ -1,23 +1,88 @@
 package com.campusdual.classroom;
 
+import com.campusdual.util.InputSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 /**
  * La clase principal {@code Exercise26} inicia la aplicación de la agenda telefónica.
  * <p>
  * Crea una instancia de {@code Phonebook} y llama al método {@code start()} para comenzar.
  * </p>
+ * <p>
+ * Con la opción {@code --batch [fichero]} no muestra el menú: ejecuta las órdenes del fichero, o de la entrada
+ * estándar si no se indica ninguno, con {@link PhonebookScript}, y al terminar escribe el resumen como última línea
+ * de la salida estándar.
+ * </p>
+ * <p>
+ * Con la opción {@code --http [puerto]} publica la agenda como servicio HTTP con {@link PhonebookHttpServer} hasta
+ * que se detiene el proceso.
+ * </p>
  *
  * @author
  * @version 1.0
  */
 public class Exercise26 {
+    /** Opción que activa el modo por lotes. */
+    private static final String BATCH_OPTION = "--batch";
+
+    /** Opción que publica la agenda como servicio HTTP. */
+    private static final String HTTP_OPTION = "--http";
+
+    /** Puerto del servicio HTTP si no se indica otro. */
+    private static final int DEFAULT_HTTP_PORT = 8080;
+
+    /** Tamaño del búfer de salida del modo por lotes. */
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
 
     /**
      * Método principal que inicia la aplicación.
      *
-     * @param args Argumentos de la línea de comandos (no utilizados).
+     * @param args Argumentos de la línea de comandos: {@code --batch [fichero]} para el modo por lotes o
+     *             {@code --http [puerto]} para el servicio HTTP.
+     * @throws IOException si falla la lectura o la escritura en el modo por lotes, o no se puede abrir el puerto.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && HTTP_OPTION.equals(args[0])) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT;
+            PhonebookHttpServer server = PhonebookHttpServer.start(new Phonebook(), new InetSocketAddress(port));
+            System.out.println("Servicio HTTP escuchando en el puerto " + server.getAddress().getPort());
+            return;
+        }
         Phonebook phonebook = new Phonebook();
-        phonebook.start();
+        if (args.length > 0 && BATCH_OPTION.equals(args[0])) {
+            runBatch(phonebook, args.length > 1 ? args[1] : null);
+        } else {
+            phonebook.start();
+        }
+    }
+
+    /**
+     * Ejecuta las órdenes de un fichero o de la entrada estándar y termina la salida con el resumen.
+     *
+     * @param phonebook La agenda.
+     * @param file      El fichero de órdenes, o {@code null} para leer de la entrada estándar.
+     * @throws IOException si falla la lectura o la escritura.
+     */
+    private static void runBatch(Phonebook phonebook, String file) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), BATCH_BUFFER_SIZE);
+        PhonebookScript script = new PhonebookScript(phonebook);
+        PhonebookScript.Summary summary;
+        if (file == null) {
+            summary = script.run(InputSource.system(), out);
+        } else {
+            try (InputSource in = new InputSource(Files.newInputStream(Paths.get(file)), StandardCharsets.UTF_8)) {
+                summary = script.run(in, out);
+            }
+        }
+        out.append(summary.toString()).append(System.lineSeparator());
+        out.flush();
     }
 }
@@ -0,0 +1,17 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino de los eventos de llamada publicados en un {@link CallEventBus}.
+ * <p>
+ * El bus entrega los eventos por lotes, en el orden en que se publicaron, y nunca llama al destino desde dos hilos
+ * a la vez. Los lotes pueden llegar desde el hilo consumidor del bus o, con
+ * {@link CallEventBus.Backpressure#CALLER_RUNS}, desde el hilo que publica.
+ * </p>
+ */
+public interface ICallEventSink {
+    void write(List<CallEvent> batch) throws IOException;
+    void close() throws IOException;
+}
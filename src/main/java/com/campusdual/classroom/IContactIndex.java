@@ -0,0 +1,15 @@
+package com.campusdual.classroom;
+
+/**
+ * Índice secundario de la agenda telefónica.
+ * <p>
+ * La agenda notifica a cada índice las altas y bajas de contactos para que se mantenga sincronizado con el mapa
+ * principal. Cuando un contacto cambia de código, la agenda llama a {@link #rename(String, Contact)} con el código
+ * antiguo, ya que el contacto solo conoce el nuevo. Las implementaciones deben poder usarse desde varios hilos.
+ * </p>
+ */
+interface IContactIndex {
+    void add(Contact contact);
+    void remove(Contact contact);
+    void rename(String oldCode, Contact contact);
+}
@@ -0,0 +1,16 @@
+package com.campusdual.classroom;
+
+/**
+ * Recibe los avisos de modificación de un contacto.
+ * <p>
+ * El contacto avisa antes y después de cambiar sus datos para que la agenda a la que pertenece pueda quitarlo de
+ * sus índices con los datos antiguos y volver a añadirlo con los nuevos. Los cambios de nombre o apellidos se
+ * avisan aparte, una vez hechos; el contacto sigue publicando el código bajo el que está guardado hasta que el
+ * receptor publica el nuevo con {@link Contact#refreshCode()}.
+ * </p>
+ */
+interface IContactListener {
+    void contactChanging(Contact contact);
+    void contactChanged(Contact contact);
+    void contactRenamed(Contact contact);
+}
@@ -0,0 +1,28 @@
+package com.campusdual.classroom;
+
+import java.util.List;
+
+/**
+ * Fragmento de una {@link PartitionedPhonebook}: guarda los contactos cuyos códigos le asigna el anillo de hashing
+ * consistente.
+ * <p>
+ * Los métodos equivalen a los de {@link Phonebook} con el mismo nombre: {@code add} no resuelve colisiones de código,
+ * {@code listContacts} devuelve los contactos ordenados por código tras uno dado, con una página corta solo al
+ * llegar al final, y {@code searchByName} los ordena por relevancia. Los contactos devueltos pueden ser copias. Las
+ * implementaciones deben poder usarse desde varios hilos y lanzan {@link java.io.UncheckedIOException} si falla la
+ * comunicación con el fragmento.
+ * </p>
+ */
+public interface IPhonebookShard extends AutoCloseable {
+    String getName();
+    boolean add(Contact contact);
+    Contact get(String code);
+    boolean delete(String code);
+    List<Contact> listContacts(String afterCode, int limit);
+    List<Contact> searchByName(String query, int limit);
+    Contact findByPhone(String phone);
+    int size();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,87 @@
+package com.campusdual.classroom;
+
+/**
+ * La clase {@code ImportReport} resume la importación de un fichero de contactos.
+ * <p>
+ * A diferencia de {@link ImportResult}, no guarda los registros rechazados: cada uno se escribe en el informe de
+ * errores a medida que se encuentra, de modo que el resumen ocupa lo mismo sea cual sea el tamaño del fichero.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class ImportReport {
+    /** Número de registros leídos del fichero, válidos o no. */
+    private final long readCount;
+
+    /** Número de contactos insertados. */
+    private final long insertedCount;
+
+    /** Número de registros con un formato o unos datos no válidos. */
+    private final long invalidCount;
+
+    /** Número de contactos rechazados por tener un código repetido. */
+    private final long conflictCount;
+
+    /**
+     * Constructor de la clase {@code ImportReport}.
+     *
+     * @param readCount     Número de registros leídos.
+     * @param insertedCount Número de contactos insertados.
+     * @param invalidCount  Número de registros no válidos.
+     * @param conflictCount Número de contactos con el código repetido.
+     */
+    public ImportReport(long readCount, long insertedCount, long invalidCount, long conflictCount) {
+        this.readCount = readCount;
+        this.insertedCount = insertedCount;
+        this.invalidCount = invalidCount;
+        this.conflictCount = conflictCount;
+    }
+
+    /**
+     * Obtiene el número de registros leídos del fichero, válidos o no.
+     *
+     * @return El número de registros.
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * Obtiene el número de contactos insertados.
+     *
+     * @return El número de contactos insertados.
+     */
+    public long getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * Obtiene el número de registros con un formato o unos datos no válidos.
+     *
+     * @return El número de registros no válidos.
+     */
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+
+    /**
+     * Obtiene el número de contactos rechazados por tener un código repetido.
+     *
+     * @return El número de conflictos.
+     */
+    public long getConflictCount() {
+        return conflictCount;
+    }
+
+    /**
+     * Retorna una representación en cadena del resumen.
+     *
+     * @return Una cadena con los registros leídos, insertados, no válidos y en conflicto.
+     */
+    @Override
+    public String toString() {
+        return "Leídos: " + readCount + ", Insertados: " + insertedCount + ", No válidos: " + invalidCount
+                + ", Conflictos: " + conflictCount;
+    }
+}
@@ -0,0 +1,61 @@
+package com.campusdual.classroom;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * La clase {@code ImportResult} resume el resultado de una importación masiva de contactos.
+ * <p>
+ * Indica cuántos contactos se han insertado y qué códigos no se han podido insertar por estar repetidos,
+ * ya sea dentro del propio lote o respecto a los contactos que ya existían en la agenda.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class ImportResult {
+    /** Número de contactos insertados. */
+    private final int insertedCount;
+
+    /** Códigos de los contactos rechazados por estar repetidos, en el orden del lote. */
+    private final List<String> conflictingCodes;
+
+    /**
+     * Constructor de la clase {@code ImportResult}.
+     *
+     * @param insertedCount    Número de contactos insertados.
+     * @param conflictingCodes Códigos de los contactos rechazados.
+     */
+    public ImportResult(int insertedCount, List<String> conflictingCodes) {
+        this.insertedCount = insertedCount;
+        this.conflictingCodes = Collections.unmodifiableList(conflictingCodes);
+    }
+
+    /**
+     * Obtiene el número de contactos insertados.
+     *
+     * @return El número de contactos insertados.
+     */
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * Obtiene los códigos de los contactos que no se han insertado por estar repetidos.
+     *
+     * @return Lista no modificable con los códigos en conflicto.
+     */
+    public List<String> getConflictingCodes() {
+        return conflictingCodes;
+    }
+
+    /**
+     * Retorna una representación en cadena del resultado.
+     *
+     * @return Una cadena con el número de insertados y de conflictos.
+     */
+    @Override
+    public String toString() {
+        return "Insertados: " + insertedCount + ", Conflictos: " + conflictingCodes.size();
+    }
+}
@@ -0,0 +1,73 @@
+package com.campusdual.classroom;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Destino que guarda en memoria los últimos eventos de llamada recibidos.
+ * <p>
+ * Cuando se alcanza la capacidad, cada evento nuevo sustituye al más antiguo.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class InMemoryCallEventSink implements ICallEventSink {
+    /** Número máximo de eventos guardados. */
+    private final int capacity;
+
+    /** Los eventos guardados, del más antiguo al más reciente. */
+    private final ArrayDeque<CallEvent> events;
+
+    /** Número total de eventos recibidos. */
+    private long received;
+
+    /**
+     * Constructor de la clase {@code InMemoryCallEventSink}.
+     *
+     * @param capacity Número máximo de eventos guardados.
+     * @throws IllegalArgumentException si la capacidad no es positiva.
+     */
+    public InMemoryCallEventSink(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    @Override
+    public synchronized void write(List<CallEvent> batch) {
+        for (CallEvent event : batch) {
+            if (events.size() == capacity) {
+                events.pollFirst();
+            }
+            events.addLast(event);
+        }
+        received += batch.size();
+    }
+
+    /**
+     * Obtiene una copia de los eventos guardados.
+     *
+     * @return Los eventos, del más antiguo al más reciente.
+     */
+    public synchronized List<CallEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Obtiene el número total de eventos recibidos, incluidos los que ya no se guardan.
+     *
+     * @return Los eventos recibidos.
+     */
+    public synchronized long getReceivedCount() {
+        return received;
+    }
+
+    @Override
+    public void close() {
+        // No hay recursos que liberar
+    }
+}
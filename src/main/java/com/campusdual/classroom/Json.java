@@ -0,0 +1,266 @@
+package com.campusdual.classroom;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase {@code Json} escribe contactos en JSON y lee los objetos JSON sencillos que recibe el servicio HTTP.
+ * <p>
+ * Solo entiende lo que necesita el servicio: objetos planos cuyos valores son cadenas, números, booleanos o
+ * {@code null}. Cualquier otra cosa, como objetos anidados o listas, se rechaza.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Añade un contacto como objeto JSON.
+     *
+     * @param out     El destino.
+     * @param contact El contacto.
+     */
+    static void appendContact(StringBuilder out, Contact contact) {
+        out.append("{\"code\":");
+        appendString(out, contact.getCode());
+        out.append(",\"name\":");
+        appendString(out, contact.getName());
+        out.append(",\"surnames\":");
+        appendString(out, contact.getSurnames());
+        out.append(",\"phone\":");
+        appendString(out, contact.getPhone());
+        out.append(",\"phones\":[");
+        List<String> phones = contact.getPhones();
+        for (int i = 0; i < phones.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendString(out, phones.get(i));
+        }
+        out.append("]}");
+    }
+
+    /**
+     * Añade una lista de contactos como array JSON.
+     *
+     * @param out      El destino.
+     * @param contacts Los contactos.
+     */
+    static void appendContacts(StringBuilder out, List<Contact> contacts) {
+        out.append('[');
+        for (int i = 0; i < contacts.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendContact(out, contacts.get(i));
+        }
+        out.append(']');
+    }
+
+    /**
+     * Añade una cadena JSON entre comillas, escapando los caracteres que lo necesitan.
+     *
+     * @param out   El destino.
+     * @param value La cadena, o {@code null}.
+     */
+    static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Lee un objeto JSON plano.
+     *
+     * @param text El texto del objeto.
+     * @return Los valores del objeto, como texto, por nombre; los {@code null} no se incluyen.
+     * @throws IllegalArgumentException si el texto no es un objeto JSON plano.
+     */
+    static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> values = parser.object();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("contenido tras el objeto");
+        }
+        return values;
+    }
+
+    /**
+     * Analizador de un objeto JSON plano.
+     */
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> values = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                String value = value();
+                if (value != null) {
+                    values.put(name, value);
+                }
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return values;
+                }
+                if (c != ',') {
+                    throw error("se esperaba ',' o '}'");
+                }
+            }
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            int start = position;
+            while (position < text.length() && "+-.0123456789eEtruefalsn".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false")
+                    || (!literal.isEmpty() && literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?"))) {
+                return literal;
+            }
+            throw error("valor no admitido");
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c < 0x20) {
+                    throw error("carácter de control en una cadena");
+                }
+                if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        builder.append(escaped);
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw error("secuencia \\u incompleta");
+                        }
+                        try {
+                            builder.append((char) Integer.parseInt(text, position, position + 4, 16));
+                        } catch (NumberFormatException e) {
+                            throw error("secuencia \\u no válida");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        throw error("secuencia de escape no válida");
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("se esperaba '" + expected + "'");
+            }
+        }
+
+        private char peek() {
+            if (position >= text.length()) {
+                throw error("fin inesperado");
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("JSON no válido en la posición " + position + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.campusdual.classroom;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmicas, al estilo de HdrHistogram.
+ * <p>
+ * Cada potencia de dos se divide en 16 cubetas de igual anchura, así que el error relativo de cualquier valor
+ * registrado es menor del 6,25 % sea cual sea su magnitud; por debajo de 16 cada valor tiene su propia cubeta.
+ * Registrar un valor es un incremento atómico sobre su cubeta, sin bloqueos ni reservas de memoria.
+ * </p>
+ */
+final class LatencyHistogram {
+    /** Bits de la mantisa que distinguen las cubetas de una misma potencia de dos. */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /** Cubetas por potencia de dos. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Número total de cubetas, suficiente para cualquier {@code long} positivo. */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Registra un valor.
+     *
+     * @param value El valor; los negativos se registran como 0.
+     */
+    void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucket(v));
+        total.increment();
+        sum.add(v);
+        long current = max.get();
+        while (v > current && !max.compareAndSet(current, v)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     *
+     * @return El número de valores.
+     */
+    long count() {
+        return total.sum();
+    }
+
+    /**
+     * Obtiene la media de los valores registrados.
+     *
+     * @return La media, o 0 si no hay valores.
+     */
+    double mean() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     *
+     * @return El máximo, o 0 si no hay valores.
+     */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual queda el porcentaje indicado de los valores registrados.
+     *
+     * @param percentile El percentil, entre 0 y 100.
+     * @return El límite superior de la cubeta del percentil, sin pasar del máximo, o 0 si no hay valores.
+     */
+    long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Borra todos los valores registrados.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Calcula la cubeta de un valor.
+     *
+     * @param value El valor, no negativo.
+     * @return La posición de la cubeta.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Calcula el mayor valor que cae en una cubeta.
+     *
+     * @param bucket La posición de la cubeta.
+     * @return El límite superior, incluido.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((mantissa + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,87 @@
+package com.campusdual.classroom;
+
+import java.util.List;
+
+/**
+ * La clase {@code LocalShard} es un fragmento de una {@link PartitionedPhonebook} que vive en el mismo proceso.
+ * <p>
+ * Guarda los contactos en su propia {@link Phonebook} concurrente, con sus propios índices y bloqueos, de modo que
+ * los fragmentos no compiten entre sí. Al añadir un contacto guarda una copia, para que los cambios que haga después
+ * quien lo añadió no lo cambien de código sin pasar por la agenda repartida.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class LocalShard implements IPhonebookShard {
+    private final String name;
+    private final Phonebook phonebook = new Phonebook();
+
+    /**
+     * Constructor de la clase {@code LocalShard}.
+     *
+     * @param name El nombre del fragmento, que decide su posición en el anillo.
+     */
+    public LocalShard(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean add(Contact contact) {
+        return phonebook.insert(copyOf(contact));
+    }
+
+    @Override
+    public Contact get(String code) {
+        return phonebook.getData().get(code);
+    }
+
+    @Override
+    public boolean delete(String code) {
+        return phonebook.remove(code) != null;
+    }
+
+    @Override
+    public List<Contact> listContacts(String afterCode, int limit) {
+        return phonebook.listContacts(afterCode, limit);
+    }
+
+    @Override
+    public List<Contact> searchByName(String query, int limit) {
+        return phonebook.searchByName(query, limit);
+    }
+
+    @Override
+    public Contact findByPhone(String phone) {
+        return phonebook.findByPhone(phone);
+    }
+
+    @Override
+    public int size() {
+        return phonebook.getData().size();
+    }
+
+    @Override
+    public void close() {
+        // Un fragmento local no tiene recursos que liberar
+    }
+
+    /**
+     * Copia un contacto con todos sus números.
+     *
+     * @param contact El contacto.
+     * @return Una copia sin vincular a ninguna agenda.
+     */
+    static Contact copyOf(Contact contact) {
+        Contact copy = new Contact(contact.getName(), contact.getSurnames(), contact.getPhone());
+        if (contact.secondaryPhoneCount() > 0) {
+            copy.restoreSecondaryPhones(contact.packedSecondaryPhones());
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,394 @@
+package com.campusdual.classroom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * La clase {@code NameSearchIndex} es un índice invertido de trigramas sobre el nombre completo de los contactos.
+ * <p>
+ * El nombre y los apellidos se pliegan igual que para generar el código (minúsculas y sin signos diacríticos) y se
+ * rodean de espacios, de modo que los trigramas que empiezan por espacio marcan el inicio de una palabra. Cada
+ * trigrama apunta a una lista de identificadores internos ordenada y comprimida con diferencias en formato varint.
+ * </p>
+ * <p>
+ * Las bajas solo marcan el identificador como borrado; cuando los borrados superan a los contactos vivos el índice
+ * se reconstruye. Un cambio de nombre es una baja seguida de un alta con un identificador nuevo, salvo que el nombre
+ * plegado no cambie: entonces el contacto conserva su identificador y solo se actualiza su código. Las búsquedas
+ * recorren las listas a la vez sin decodificarlas enteras.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class NameSearchIndex implements IContactIndex {
+    /** Número mínimo de borrados para plantearse reconstruir el índice. */
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    /** Identificador interno de cada contacto indexado, por código. */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /** Listas de identificadores por trigrama. */
+    private Map<Long, PostingList> postings = new HashMap<>();
+
+    /** Código de cada identificador; el índice no conserva los contactos. */
+    private String[] codes = new String[16];
+
+    /** Nombre completo plegado de cada identificador, usado para verificar y ordenar los resultados. */
+    private String[] texts = new String[16];
+
+    /** Identificadores borrados. */
+    private BitSet deleted = new BitSet();
+
+    private int nextId;
+    private int deletedCount;
+
+    /**
+     * Añade el contacto al índice.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void add(Contact contact) {
+        if (!ids.containsKey(contact.getCode())) {
+            index(contact);
+        }
+    }
+
+    /**
+     * Elimina el contacto del índice.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void remove(Contact contact) {
+        Integer id = ids.remove(contact.getCode());
+        if (id != null) {
+            markDeleted(id);
+        }
+    }
+
+    /**
+     * Vuelve a indexar un contacto cuyo nombre o apellidos han cambiado.
+     *
+     * @param oldCode El código del contacto antes del cambio.
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void rename(String oldCode, Contact contact) {
+        Integer id = ids.remove(oldCode);
+        if (id == null) {
+            return;
+        }
+        String text = text(contact);
+        if (text.equals(texts[id])) {
+            codes[id] = contact.getCode();
+            ids.put(contact.getCode(), id);
+        } else {
+            markDeleted(id);
+            index(contact.getCode(), text);
+        }
+    }
+
+    /**
+     * Obtiene el número de contactos indexados.
+     *
+     * @return El número de contactos.
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Obtiene el número de identificadores marcados como borrados que aún no se han compactado.
+     *
+     * @return El número de identificadores borrados.
+     */
+    synchronized int deletedCount() {
+        return deletedCount;
+    }
+
+    /**
+     * Busca los códigos de los contactos cuyo nombre completo contiene el texto indicado, sin distinguir mayúsculas
+     * ni acentos.
+     * <p>
+     * Los resultados se ordenan por relevancia: primero los que tienen una palabra igual al texto, después los que
+     * tienen una palabra que empieza por él y por último el resto; dentro de cada grupo, los nombres más cortos y
+     * después por código. Un texto de dos letras solo encuentra palabras que empiezan por él.
+     * </p>
+     *
+     * @param query El texto a buscar, de al menos dos letras.
+     * @param limit El número máximo de resultados.
+     * @return Los códigos de los contactos encontrados, ordenados por relevancia.
+     */
+    public synchronized List<String> search(String query, int limit) {
+        String folded = ContactCodeGenerator.fold(query.trim());
+        if (folded.length() < 2 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String pattern = folded.length() == 2 ? " " + folded : folded;
+        Set<Long> grams = trigrams(pattern);
+        List<PostingList> lists = new ArrayList<>(grams.size());
+        for (Long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.count, b.count));
+        Cursor[] cursors = new Cursor[lists.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = new Cursor(lists.get(i));
+        }
+
+        // La lista más corta propone los candidatos y las demás avanzan hasta ellos
+        List<int[]> scored = new ArrayList<>();
+        candidates:
+        while (cursors[0].next()) {
+            int id = cursors[0].current;
+            for (int i = 1; i < cursors.length; i++) {
+                if (!cursors[i].advanceTo(id)) {
+                    break candidates;
+                }
+                if (cursors[i].current != id) {
+                    continue candidates;
+                }
+            }
+            if (deleted.get(id)) {
+                continue;
+            }
+            int score = score(texts[id], pattern);
+            if (score >= 0) {
+                scored.add(new int[]{id, score});
+            }
+        }
+        scored.sort((a, b) -> {
+            if (a[1] != b[1]) {
+                return Integer.compare(b[1], a[1]);
+            }
+            if (texts[a[0]].length() != texts[b[0]].length()) {
+                return Integer.compare(texts[a[0]].length(), texts[b[0]].length());
+            }
+            return codes[a[0]].compareTo(codes[b[0]]);
+        });
+        List<String> result = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            result.add(codes[scored.get(i)[0]]);
+        }
+        return result;
+    }
+
+    /**
+     * Mezcla los resultados de varias búsquedas del mismo texto, por ejemplo en los fragmentos de una agenda
+     * repartida, con el mismo orden de relevancia que {@link #search(String, int)}.
+     *
+     * @param query   El texto buscado.
+     * @param results Los resultados de cada búsqueda.
+     * @param limit   El número máximo de resultados.
+     * @return Los contactos encontrados, ordenados por relevancia.
+     */
+    static List<Contact> merge(String query, List<? extends List<Contact>> results, int limit) {
+        String folded = ContactCodeGenerator.fold(query.trim());
+        String pattern = folded.length() == 2 ? " " + folded : folded;
+        List<Scored> scored = new ArrayList<>();
+        for (List<Contact> result : results) {
+            for (Contact contact : result) {
+                String text = text(contact);
+                scored.add(new Scored(contact, text.length(), score(text, pattern)));
+            }
+        }
+        scored.sort((a, b) -> {
+            if (a.score != b.score) {
+                return Integer.compare(b.score, a.score);
+            }
+            if (a.length != b.length) {
+                return Integer.compare(a.length, b.length);
+            }
+            return a.contact.getCode().compareTo(b.contact.getCode());
+        });
+        List<Contact> merged = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            merged.add(scored.get(i).contact);
+        }
+        return merged;
+    }
+
+    private void index(Contact contact) {
+        index(contact.getCode(), text(contact));
+    }
+
+    /**
+     * Obtiene el nombre completo plegado de un contacto, rodeado de espacios.
+     */
+    private static String text(Contact contact) {
+        return " " + ContactCodeGenerator.fold(contact.getName() + " " + contact.getSurnames()) + " ";
+    }
+
+    private void index(String code, String text) {
+        int id = nextId++;
+        if (id == codes.length) {
+            codes = Arrays.copyOf(codes, id * 2);
+            texts = Arrays.copyOf(texts, id * 2);
+        }
+        codes[id] = code;
+        texts[id] = text;
+        ids.put(code, id);
+        for (Long gram : trigrams(text)) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+        }
+    }
+
+    private void markDeleted(int id) {
+        deleted.set(id);
+        codes[id] = null;
+        texts[id] = null;
+        deletedCount++;
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount > ids.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Reconstruye el índice con los contactos vivos, liberando los identificadores borrados.
+     */
+    private void compact() {
+        String[] liveCodes = new String[ids.size()];
+        String[] liveTexts = new String[ids.size()];
+        int live = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (!deleted.get(id)) {
+                liveCodes[live] = codes[id];
+                liveTexts[live++] = texts[id];
+            }
+        }
+        ids.clear();
+        postings = new HashMap<>();
+        codes = new String[Math.max(16, live * 2)];
+        texts = new String[codes.length];
+        deleted = new BitSet();
+        nextId = 0;
+        deletedCount = 0;
+        for (int i = 0; i < live; i++) {
+            index(liveCodes[i], liveTexts[i]);
+        }
+    }
+
+    /**
+     * Puntúa un texto plegado frente al patrón buscado.
+     *
+     * @return 2 si contiene una palabra igual al patrón, 1 si una palabra empieza por él, 0 si solo lo contiene
+     * y -1 si no lo contiene.
+     */
+    private static int score(String text, String pattern) {
+        String word = pattern.charAt(0) == ' ' ? pattern.substring(1) : pattern;
+        int best = -1;
+        for (int from = text.indexOf(word); from >= 0; from = text.indexOf(word, from + 1)) {
+            boolean wordStart = text.charAt(from - 1) == ' ';
+            boolean wordEnd = text.charAt(from + word.length()) == ' ';
+            int score = wordStart ? (wordEnd ? 2 : 1) : 0;
+            if (score > best) {
+                best = score;
+            }
+        }
+        return pattern.charAt(0) == ' ' && best == 0 ? -1 : best;
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * Contacto encontrado, con la longitud de su nombre plegado y su puntuación.
+     */
+    private record Scored(Contact contact, int length, int score) {
+    }
+
+    /**
+     * Lista de identificadores crecientes codificados como diferencias en formato varint.
+     */
+    private static final class PostingList {
+        byte[] data = new byte[4];
+        int length;
+        int count;
+        int last = -1;
+
+        void add(int id) {
+            int delta = id - last;
+            last = id;
+            count++;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+        }
+    }
+
+    /**
+     * Recorre una lista de identificadores decodificándolos de uno en uno.
+     */
+    private static final class Cursor {
+        private final PostingList list;
+        private int position;
+        private int remaining;
+
+        /** El identificador actual, o -1 antes de empezar. */
+        int current = -1;
+
+        Cursor(PostingList list) {
+            this.list = list;
+            this.remaining = list.count;
+        }
+
+        /**
+         * Avanza al siguiente identificador.
+         *
+         * @return {@code false} si la lista se ha acabado.
+         */
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = list.data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += delta;
+            return true;
+        }
+
+        /**
+         * Avanza hasta el primer identificador mayor o igual que el indicado.
+         *
+         * @param target El identificador buscado.
+         * @return {@code false} si la lista se acaba antes.
+         */
+        boolean advanceTo(int target) {
+            while (current < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
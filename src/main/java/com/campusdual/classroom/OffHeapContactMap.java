@@ -0,0 +1,567 @@
+package com.campusdual.classroom;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mapa de contactos que guarda los datos fuera del heap, en columnas.
+ * <p>
+ * Cada contacto ocupa una posición (slot). El nombre, los apellidos, el teléfono, el código y los teléfonos
+ * secundarios codificados se guardan en cinco columnas independientes, cada una con un {@code ByteBuffer} directo
+ * de valores precedidos de su longitud y otro con el desplazamiento del valor de cada posición. El índice por código es una tabla de direccionamiento abierto, también en un
+ * búfer directo, que guarda la posición de cada contacto junto al hash de su código.
+ * </p>
+ * <p>
+ * El mapa no conserva objetos {@code Contact}: cada consulta devuelve un contacto nuevo (flyweight) construido a
+ * partir de las columnas. Los cambios hechos sobre ese contacto con sus setters se escriben de vuelta en las
+ * columnas.
+ * </p>
+ * <p>
+ * El mapa puede usarse desde varios hilos: las consultas y los recorridos comparten un bloqueo de lectura, y las
+ * altas, bajas y escrituras de vuelta toman el de escritura, porque cambian las columnas y las posiciones libres que
+ * todos comparten. Los avisos al receptor se hacen sin el bloqueo. Los recorridos no fallan si el mapa cambia
+ * mientras tanto, pero pueden no ver esos cambios.
+ * </p>
+ */
+class OffHeapContactMap extends AbstractMap<String, Contact> {
+    private static final int NAME = 0;
+    private static final int SURNAMES = 1;
+    private static final int PHONE = 2;
+    private static final int CODE = 3;
+    private static final int SECONDARY_PHONES = 4;
+
+    /** Marca de posición vacía en la tabla del índice. */
+    private static final int EMPTY = 0;
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Column[] columns = new Column[5];
+    private final IContactListener listener;
+
+    /** Protege las columnas, la tabla del índice y las posiciones libres. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Tabla del índice por código: por cada cubeta, posición + 1 y hash del código. */
+    private ByteBuffer table;
+    private int tableMask;
+
+    /** Número de posiciones usadas alguna vez. */
+    private int slotCount;
+
+    /** Posiciones liberadas que pueden reutilizarse. */
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private volatile int size;
+
+    /**
+     * Crea un mapa vacío.
+     *
+     * @param listener El receptor que se asigna a cada contacto devuelto, o {@code null}.
+     */
+    OffHeapContactMap(IContactListener listener) {
+        this.listener = listener;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new Column(INITIAL_SLOTS);
+        }
+        allocateTable(INITIAL_SLOTS * 2);
+    }
+
+    /**
+     * Obtiene los bytes ocupados fuera del heap por las columnas y el índice.
+     *
+     * @return El número de bytes reservados.
+     */
+    long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = table.capacity();
+            for (Column column : columns) {
+                bytes += column.capacity();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return findSlot((String) key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Contact get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = findSlot((String) key);
+            return slot < 0 ? null : flyweight(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Contact put(String code, Contact contact) {
+        Contact previous = null;
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(code);
+            if (slot >= 0) {
+                previous = flyweight(slot);
+            } else {
+                slot = allocateSlot();
+                columns[CODE].set(slot, code);
+                insertIntoTable(slot, code.hashCode());
+                size++;
+            }
+            store(slot, contact);
+            if (contact.getListener() instanceof WriteBackListener) {
+                // Una copia decodificada de este almacén que se guarda con otro código, p. ej. tras cambiar de nombre
+                WriteBackListener writeBack = (WriteBackListener) contact.getListener();
+                if (writeBack.owner() == this) {
+                    writeBack.key = code;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return previous;
+    }
+
+    @Override
+    public Contact remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            int bucket = findBucket((String) key);
+            if (bucket < 0) {
+                return null;
+            }
+            int slot = table.getInt(bucket * 8) - 1;
+            Contact previous = flyweight(slot);
+            deleteBucket(bucket);
+            for (Column column : columns) {
+                column.clear(slot);
+            }
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            size--;
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new Column(INITIAL_SLOTS);
+            }
+            allocateTable(INITIAL_SLOTS * 2);
+            slotCount = 0;
+            freeCount = 0;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Contact>> entrySet() {
+        return new AbstractSet<Entry<String, Contact>>() {
+            @Override
+            public Iterator<Entry<String, Contact>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Contact flyweight(int slot) {
+        String code = columns[CODE].get(slot);
+        Contact contact = new Contact(columns[NAME].get(slot), columns[SURNAMES].get(slot), columns[PHONE].get(slot));
+        contact.restoreSecondaryPhones(columns[SECONDARY_PHONES].getPhones(slot));
+        contact.restoreCode(code);
+        contact.setListener(new WriteBackListener(code));
+        return contact;
+    }
+
+    private void store(int slot, Contact contact) {
+        columns[NAME].set(slot, contact.getName());
+        columns[SURNAMES].set(slot, contact.getSurnames());
+        columns[PHONE].set(slot, contact.getPhone());
+        columns[SECONDARY_PHONES].setPhones(slot, contact.packedSecondaryPhones());
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        int slot = slotCount++;
+        for (Column column : columns) {
+            column.ensureSlots(slotCount);
+        }
+        return slot;
+    }
+
+    private int findSlot(String code) {
+        int bucket = findBucket(code);
+        return bucket < 0 ? -1 : table.getInt(bucket * 8) - 1;
+    }
+
+    private int findBucket(String code) {
+        int hash = code.hashCode();
+        byte[] key = null;
+        for (int bucket = home(hash); ; bucket = (bucket + 1) & tableMask) {
+            int entry = table.getInt(bucket * 8);
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (table.getInt(bucket * 8 + 4) == hash) {
+                if (key == null) {
+                    key = code.getBytes(StandardCharsets.UTF_8);
+                }
+                if (columns[CODE].matches(entry - 1, key)) {
+                    return bucket;
+                }
+            }
+        }
+    }
+
+    private void insertIntoTable(int slot, int hash) {
+        if ((size + 1) * 2 > tableMask + 1) {
+            rehash((tableMask + 1) * 2);
+        }
+        int bucket = home(hash);
+        while (table.getInt(bucket * 8) != EMPTY) {
+            bucket = (bucket + 1) & tableMask;
+        }
+        table.putInt(bucket * 8, slot + 1);
+        table.putInt(bucket * 8 + 4, hash);
+    }
+
+    private void deleteBucket(int hole) {
+        // Borrado por desplazamiento hacia atrás, sin marcas de borrado
+        for (int j = (hole + 1) & tableMask; table.getInt(j * 8) != EMPTY; j = (j + 1) & tableMask) {
+            int home = home(table.getInt(j * 8 + 4));
+            if (((j - home) & tableMask) >= ((j - hole) & tableMask)) {
+                table.putLong(hole * 8, table.getLong(j * 8));
+                hole = j;
+            }
+        }
+        table.putLong(hole * 8, 0L);
+    }
+
+    private void rehash(int capacity) {
+        ByteBuffer old = table;
+        int oldBuckets = tableMask + 1;
+        allocateTable(capacity);
+        for (int bucket = 0; bucket < oldBuckets; bucket++) {
+            int entry = old.getInt(bucket * 8);
+            if (entry != EMPTY) {
+                int hash = old.getInt(bucket * 8 + 4);
+                int target = home(hash);
+                while (table.getInt(target * 8) != EMPTY) {
+                    target = (target + 1) & tableMask;
+                }
+                table.putLong(target * 8, old.getLong(bucket * 8));
+            }
+        }
+    }
+
+    private void allocateTable(int buckets) {
+        table = ByteBuffer.allocateDirect(buckets * 8);
+        tableMask = buckets - 1;
+    }
+
+    private int home(int hash) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & tableMask;
+    }
+
+    /**
+     * Escribe en las columnas los cambios hechos sobre un contacto devuelto por el mapa.
+     * <p>
+     * El contacto sigue guardado bajo el código con el que se obtuvo, igual que en un {@code HashMap}, hasta que
+     * la agenda lo vuelve a guardar con otro código.
+     * </p>
+     */
+    private final class WriteBackListener implements IContactListener {
+        private String key;
+
+        WriteBackListener(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void contactChanging(Contact contact) {
+            if (listener != null) {
+                listener.contactChanging(contact);
+            }
+        }
+
+        @Override
+        public void contactChanged(Contact contact) {
+            writeBack(contact);
+            if (listener != null) {
+                listener.contactChanged(contact);
+            }
+        }
+
+        @Override
+        public void contactRenamed(Contact contact) {
+            writeBack(contact);
+            if (listener != null) {
+                listener.contactRenamed(contact);
+            }
+        }
+
+        OffHeapContactMap owner() {
+            return OffHeapContactMap.this;
+        }
+
+        private void writeBack(Contact contact) {
+            lock.writeLock().lock();
+            try {
+                int slot = findSlot(key);
+                if (slot >= 0) {
+                    store(slot, contact);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Recorre las posiciones ocupadas en orden.
+     * <p>
+     * Cada entrada se lee entera con el bloqueo de lectura al avanzar, para no devolver una posición que otro hilo
+     * haya liberado entre {@code hasNext} y {@code next}.
+     * </p>
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Contact>> {
+        private int slot = -1;
+        private Entry<String, Contact> next;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            lock.readLock().lock();
+            try {
+                do {
+                    slot++;
+                } while (slot < slotCount && !columns[CODE].isSet(slot));
+                next = slot < slotCount ? new SimpleImmutableEntry<>(columns[CODE].get(slot), flyweight(slot)) : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Contact> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Contact> entry = next;
+            advance();
+            return entry;
+        }
+    }
+
+    /**
+     * Columna de valores fuera del heap: cadenas UTF-8 o teléfonos codificados.
+     * <p>
+     * Los valores se añaden al final del búfer de datos precedidos de su longitud; al sustituir o borrar un valor
+     * el espacio antiguo queda como basura y se recupera compactando la columna cuando supera al espacio útil.
+     * </p>
+     */
+    private static final class Column {
+        /** Desplazamiento de la cadena de cada posición, o -1 si la posición está vacía. */
+        private ByteBuffer offsets;
+        private ByteBuffer data;
+        private int dataLength;
+        private int garbage;
+
+        Column(int slots) {
+            offsets = ByteBuffer.allocateDirect(slots * 4);
+            for (int i = 0; i < slots; i++) {
+                offsets.putInt(i * 4, -1);
+            }
+            data = ByteBuffer.allocateDirect(slots * 16);
+        }
+
+        long capacity() {
+            return (long) offsets.capacity() + data.capacity();
+        }
+
+        void ensureSlots(int slots) {
+            int current = offsets.capacity() / 4;
+            if (slots <= current) {
+                return;
+            }
+            int grown = Math.max(slots, current * 2);
+            ByteBuffer bigger = ByteBuffer.allocateDirect(grown * 4);
+            bigger.put(offsets.duplicate().clear());
+            for (int i = current; i < grown; i++) {
+                bigger.putInt(i * 4, -1);
+            }
+            offsets = bigger;
+        }
+
+        boolean isSet(int slot) {
+            return offsets.getInt(slot * 4) >= 0;
+        }
+
+        void set(int slot, String value) {
+            setBytes(slot, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void setPhones(int slot, long[] phones) {
+            ByteBuffer bytes = ByteBuffer.allocate(phones.length * 8);
+            for (long phone : phones) {
+                bytes.putLong(phone);
+            }
+            setBytes(slot, bytes.array());
+        }
+
+        long[] getPhones(int slot) {
+            int offset = offsets.getInt(slot * 4);
+            long[] phones = new long[data.getInt(offset) / 8];
+            for (int i = 0; i < phones.length; i++) {
+                phones[i] = data.getLong(offset + 4 + i * 8);
+            }
+            return phones;
+        }
+
+        private void setBytes(int slot, byte[] bytes) {
+            clear(slot);
+            if (garbage > dataLength / 2 && garbage > (1 << 20)) {
+                compact();
+            }
+            ensureData(4 + bytes.length);
+            data.putInt(dataLength, bytes.length);
+            ByteBuffer view = data.duplicate();
+            view.position(dataLength + 4);
+            view.put(bytes);
+            offsets.putInt(slot * 4, dataLength);
+            dataLength += 4 + bytes.length;
+        }
+
+        void clear(int slot) {
+            release(slot);
+            offsets.putInt(slot * 4, -1);
+        }
+
+        String get(int slot) {
+            int offset = offsets.getInt(slot * 4);
+            byte[] bytes = new byte[data.getInt(offset)];
+            ByteBuffer view = data.duplicate();
+            view.position(offset + 4);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        boolean matches(int slot, byte[] key) {
+            int offset = offsets.getInt(slot * 4);
+            if (data.getInt(offset) != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (data.get(offset + 4 + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void release(int slot) {
+            int offset = offsets.getInt(slot * 4);
+            if (offset >= 0) {
+                garbage += 4 + data.getInt(offset);
+            }
+        }
+
+        private void ensureData(int bytes) {
+            if (dataLength + bytes <= data.capacity()) {
+                return;
+            }
+            long needed = Math.max((long) data.capacity() * 2, (long) dataLength + bytes);
+            if (needed > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Columna fuera del heap llena.");
+            }
+            ByteBuffer bigger = ByteBuffer.allocateDirect((int) needed);
+            ByteBuffer used = data.duplicate();
+            used.position(0).limit(dataLength);
+            bigger.put(used);
+            data = bigger;
+        }
+
+        /**
+         * Copia las cadenas vivas a un búfer nuevo, descartando el espacio de las sustituidas o borradas.
+         */
+        private void compact() {
+            ByteBuffer compacted = ByteBuffer.allocateDirect(Math.max(16, dataLength - garbage) * 2);
+            int length = 0;
+            int slots = offsets.capacity() / 4;
+            for (int slot = 0; slot < slots; slot++) {
+                int offset = offsets.getInt(slot * 4);
+                if (offset < 0) {
+                    continue;
+                }
+                int entryLength = 4 + data.getInt(offset);
+                ByteBuffer entry = data.duplicate();
+                entry.position(offset).limit(offset + entryLength);
+                compacted.position(length);
+                compacted.put(entry);
+                offsets.putInt(slot * 4, length);
+                length += entryLength;
+            }
+            data = compacted;
+            dataLength = length;
+            garbage = 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.campusdual.classroom;
+
+/**
+ * Codificación compacta de números de teléfono en un {@code long}.
+ * <p>
+ * Cada símbolo ocupa 4 bits (BCD): los dígitos 0 a 9 valen su propio valor, el signo {@code +} inicial vale
+ * {@code 0xA} y los nibbles sobrantes se rellenan con {@code 0xF}. Caben hasta 16 símbolos, suficientes para
+ * cualquier número E.164 con prefijo internacional. Los espacios, guiones, puntos y paréntesis se descartan.
+ * </p>
+ */
+final class PackedPhones {
+    /** Número máximo de símbolos de un número codificado. */
+    static final int MAX_SYMBOLS = 16;
+
+    private static final int PLUS = 0xA;
+    static final int PADDING = 0xF;
+
+    private PackedPhones() {
+    }
+
+    /**
+     * Codifica un número de teléfono.
+     *
+     * @param phone El número, con o sin separadores.
+     * @return El número codificado.
+     * @throws IllegalArgumentException si el número no tiene dígitos, tiene caracteres no válidos o es demasiado
+     * largo.
+     */
+    static long pack(CharSequence phone) {
+        long packed = -1L;
+        int symbols = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            int nibble;
+            if (c >= '0' && c <= '9') {
+                nibble = c - '0';
+            } else if (c == '+' && symbols == 0) {
+                nibble = PLUS;
+            } else if (c == ' ' || c == '-' || c == '.' || c == '(' || c == ')') {
+                continue;
+            } else {
+                throw new IllegalArgumentException("Carácter no válido en el número de teléfono: " + phone);
+            }
+            if (symbols == MAX_SYMBOLS) {
+                throw new IllegalArgumentException("Número de teléfono demasiado largo: " + phone);
+            }
+            int shift = 60 - 4 * symbols++;
+            packed = (packed & ~(0xFL << shift)) | ((long) nibble << shift);
+        }
+        if (symbols == 0 || (symbols == 1 && (packed >>> 60) == PLUS)) {
+            throw new IllegalArgumentException("El número de teléfono no tiene dígitos: " + phone);
+        }
+        return packed;
+    }
+
+    /**
+     * Decodifica un número de teléfono.
+     *
+     * @param packed El número codificado.
+     * @return El número, con su signo {@code +} si lo tenía y sin separadores.
+     */
+    static String unpack(long packed) {
+        char[] symbols = new char[MAX_SYMBOLS];
+        int length = 0;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            int nibble = (int) (packed >>> shift) & 0xF;
+            if (nibble == PADDING) {
+                break;
+            }
+            symbols[length++] = nibble == PLUS ? '+' : (char) ('0' + nibble);
+        }
+        return new String(symbols, 0, length);
+    }
+
+    /**
+     * Calcula la clave del índice inverso de un número codificado, igual que {@link PhoneIndex#key(CharSequence)}
+     * pero sin decodificarlo.
+     *
+     * @param packed El número codificado.
+     * @return La clave para {@link PhoneIndex}.
+     */
+    static long indexKey(long packed) {
+        long number = PhoneNumbers.getDefault().parsePacked(packed);
+        if (number != PhoneNumbers.INVALID) {
+            return PhoneIndex.key(number);
+        }
+        long value = 0;
+        int digits = 0;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            int nibble = (int) (packed >>> shift) & 0xF;
+            if (nibble == PADDING) {
+                break;
+            }
+            if (nibble <= 9) {
+                value = value * 10 + nibble;
+                digits++;
+            }
+        }
+        return digits == 0 ? PhoneIndex.NO_KEY : (value << 5) | digits;
+    }
+}
@@ -0,0 +1,436 @@
+package com.campusdual.classroom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * La clase {@code PartitionedPhonebook} reparte una agenda entre varios fragmentos con hashing consistente.
+ * <p>
+ * Cada contacto se guarda en el fragmento que le asigna un {@link ConsistentHashRing} según su código. Los
+ * fragmentos pueden estar en el mismo proceso ({@link LocalShard}), cada uno con sus propios índices y bloqueos, o
+ * en otras JVM de la misma máquina ({@link RemoteShard} frente a un {@link ShardServer}). Las operaciones sobre un
+ * código van solo a su fragmento; los listados y las búsquedas se envían a todos a la vez, cada uno en su hilo
+ * virtual, y sus resultados se mezclan.
+ * </p>
+ * <p>
+ * {@link #addShard(IPhonebookShard)} añade un fragmento sin detener la agenda. Primero espera a que terminen las
+ * altas y bajas que empezaron sin ver el nuevo anillo y copia al nuevo fragmento los contactos que pasan a ser suyos,
+ * mientras las altas y bajas de esos códigos se aplican en los dos fragmentos; después cambia el anillo y por último
+ * borra las copias antiguas. Las operaciones sobre un mismo código se
+ * serializan con un bloqueo por franjas, y los resultados de los fragmentos se filtran por el anillo actual, de modo
+ * que nunca aparece un contacto repetido.
+ * </p>
+ * <p>
+ * Los códigos no se desambiguan: un contacto cuyo código ya existe no se añade. Los contactos devueltos pueden ser
+ * copias, así que para cambiarlos hay que borrarlos y volver a añadirlos.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class PartitionedPhonebook implements AutoCloseable {
+    /** Número de contactos que se copian por página al repartir. */
+    private static final int REBALANCE_PAGE_SIZE = 512;
+
+    /** Número de bloqueos entre los que se reparten los códigos. */
+    private static final int LOCK_STRIPES = 256;
+
+    /** Los fragmentos y el anillo vigentes. */
+    private volatile Topology topology;
+
+    /** Los fragmentos y el anillo que se están preparando durante un reparto, o {@code null}. */
+    private volatile Topology pending;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /** Ejecuta en paralelo las peticiones a los fragmentos. */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructor de la clase {@code PartitionedPhonebook}.
+     *
+     * @param shards Los fragmentos, con nombres distintos.
+     * @throws IllegalArgumentException si no hay fragmentos o algún nombre está repetido.
+     */
+    public PartitionedPhonebook(List<? extends IPhonebookShard> shards) {
+        this.topology = new Topology(List.copyOf(shards));
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Crea una agenda repartida entre fragmentos del mismo proceso.
+     *
+     * @param shards El número de fragmentos.
+     * @return La agenda.
+     */
+    public static PartitionedPhonebook local(int shards) {
+        List<IPhonebookShard> list = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            list.add(new LocalShard("local-" + i));
+        }
+        return new PartitionedPhonebook(list);
+    }
+
+    /**
+     * Obtiene los fragmentos de la agenda.
+     *
+     * @return Lista no modificable con los fragmentos.
+     */
+    public List<IPhonebookShard> getShards() {
+        return topology.shards;
+    }
+
+    /**
+     * Obtiene el fragmento al que pertenece un código.
+     *
+     * @param code El código.
+     * @return El fragmento.
+     */
+    public IPhonebookShard shardFor(String code) {
+        return topology.owner(code);
+    }
+
+    /**
+     * Añade un contacto en su fragmento.
+     *
+     * @param contact El contacto.
+     * @return {@code true} si se ha añadido, {@code false} si ya existía un contacto con su código.
+     */
+    public boolean addContact(Contact contact) {
+        String code = contact.getCode();
+        synchronized (lockFor(code)) {
+            Topology next = pending;
+            IPhonebookShard owner = topology.owner(code);
+            boolean added = owner.add(contact);
+            if (added && next != null && next.owner(code) != owner) {
+                next.owner(code).add(contact);
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Obtiene un contacto por su código.
+     *
+     * @param code El código.
+     * @return El contacto, o {@code null} si no existe.
+     */
+    public Contact getContact(String code) {
+        return topology.owner(code).get(code);
+    }
+
+    /**
+     * Elimina un contacto de su fragmento.
+     *
+     * @param code El código del contacto.
+     * @return {@code true} si existía.
+     */
+    public boolean deleteContact(String code) {
+        synchronized (lockFor(code)) {
+            Topology next = pending;
+            IPhonebookShard owner = topology.owner(code);
+            boolean deleted = owner.delete(code);
+            if (next != null && next.owner(code) != owner) {
+                next.owner(code).delete(code);
+            }
+            return deleted;
+        }
+    }
+
+    /**
+     * Obtiene una página de contactos ordenados por código.
+     * <p>
+     * Pide a cada fragmento su propia página tras el mismo código y mezcla las páginas en orden.
+     * </p>
+     *
+     * @param afterCode El último código de la página anterior, o {@code null} para empezar desde el principio.
+     * @param limit     El número máximo de contactos de la página.
+     * @return Los contactos cuyo código sigue a {@code afterCode}.
+     */
+    public List<Contact> listContacts(String afterCode, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Topology current = topology;
+        List<List<Contact>> pages = scatter(current, shard -> ownedPage(current, shard, afterCode, limit));
+        List<Contact> merged = new ArrayList<>(limit);
+        int[] positions = new int[pages.size()];
+        while (merged.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < pages.size(); i++) {
+                if (positions[i] < pages.get(i).size() && (best < 0 || pages.get(i).get(positions[i]).getCode()
+                        .compareTo(pages.get(best).get(positions[best]).getCode()) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            merged.add(pages.get(best).get(positions[best]++));
+        }
+        return merged;
+    }
+
+    /**
+     * Busca contactos cuyo nombre o apellidos contienen el texto indicado en todos los fragmentos.
+     *
+     * @param query El texto a buscar, de al menos dos letras.
+     * @param limit El número máximo de resultados.
+     * @return Los contactos encontrados, ordenados por relevancia como en {@link Phonebook#searchByName(String, int)}.
+     */
+    public List<Contact> searchByName(String query, int limit) {
+        Topology current = topology;
+        List<List<Contact>> results = scatter(current, shard -> owned(current, shard, shard.searchByName(query, limit)));
+        return NameSearchIndex.merge(query, results, limit);
+    }
+
+    /**
+     * Busca en todos los fragmentos el contacto al que pertenece un número de teléfono.
+     *
+     * @param phone El número de teléfono.
+     * @return El contacto, o {@code null} si ningún contacto tiene ese número.
+     */
+    public Contact findByPhone(String phone) {
+        Topology current = topology;
+        for (List<Contact> found : scatter(current, shard -> owned(current, shard, listOf(shard.findByPhone(phone))))) {
+            if (!found.isEmpty()) {
+                return found.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene el número de contactos de la agenda.
+     * <p>
+     * Mientras se reparte la agenda, los contactos que se están moviendo pueden contarse dos veces.
+     * </p>
+     *
+     * @return La suma de los contactos de todos los fragmentos.
+     */
+    public int size() {
+        int size = 0;
+        for (List<Integer> count : scatter(topology, shard -> List.of(shard.size()))) {
+            size += count.get(0);
+        }
+        return size;
+    }
+
+    /**
+     * Añade un fragmento y le mueve los contactos que pasan a ser suyos, sin detener la agenda.
+     *
+     * @param shard El nuevo fragmento, vacío y con un nombre distinto de los demás.
+     * @return El número de contactos movidos.
+     * @throws IllegalArgumentException si ya hay un fragmento con ese nombre.
+     */
+    public synchronized int addShard(IPhonebookShard shard) {
+        Topology current = topology;
+        Topology next = current.with(shard);
+        pending = next;
+        int moved = 0;
+        try {
+            awaitStripes();
+            for (IPhonebookShard source : current.shards) {
+                moved += copyMoving(source, next, shard);
+            }
+            topology = next;
+        } finally {
+            pending = null;
+        }
+        for (IPhonebookShard source : current.shards) {
+            removeMoved(source, next);
+        }
+        return moved;
+    }
+
+    /**
+     * Cierra los fragmentos y deja de atender peticiones.
+     */
+    @Override
+    public void close() {
+        executor.close();
+        for (IPhonebookShard shard : topology.shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Espera a que terminen las operaciones que tienen tomado algún bloqueo de código.
+     * <p>
+     * Una alta que leyó el anillo antes de anunciarse el reparto solo escribe en el fragmento antiguo; si la copia
+     * ya hubiera pasado por su código, el contacto se perdería al borrar las copias antiguas. Tras recorrer todos
+     * los bloqueos, las operaciones pendientes han terminado y las siguientes ven el reparto.
+     * </p>
+     */
+    private void awaitStripes() {
+        for (Object lock : locks) {
+            synchronized (lock) {
+                // Solo se espera a que se libere
+            }
+        }
+    }
+
+    /**
+     * Copia a un fragmento nuevo los contactos de otro que pasan a ser suyos.
+     * <p>
+     * Se recorre el fragmento hasta recibir una página vacía y no una corta: si una página quedara corta por un
+     * borrado y la copia se detuviera antes de tiempo, los contactos sin copiar se perderían al borrar los movidos.
+     * </p>
+     *
+     * @return El número de contactos copiados.
+     */
+    private int copyMoving(IPhonebookShard source, Topology next, IPhonebookShard target) {
+        int copied = 0;
+        String cursor = null;
+        List<Contact> page;
+        do {
+            page = source.listContacts(cursor, REBALANCE_PAGE_SIZE);
+            for (Contact contact : page) {
+                cursor = contact.getCode();
+                if (next.owner(cursor) != target) {
+                    continue;
+                }
+                synchronized (lockFor(cursor)) {
+                    // Se vuelve a leer bajo el bloqueo por si se ha borrado o sustituido desde que se listó
+                    Contact latest = source.get(cursor);
+                    if (latest != null) {
+                        target.add(latest);
+                        copied++;
+                    }
+                }
+            }
+        } while (!page.isEmpty());
+        return copied;
+    }
+
+    /**
+     * Borra de un fragmento los contactos que ya pertenecen a otro, recorriéndolo también hasta una página vacía.
+     */
+    private void removeMoved(IPhonebookShard source, Topology next) {
+        String cursor = null;
+        List<Contact> page;
+        do {
+            page = source.listContacts(cursor, REBALANCE_PAGE_SIZE);
+            for (Contact contact : page) {
+                cursor = contact.getCode();
+                if (next.owner(cursor) != source) {
+                    synchronized (lockFor(cursor)) {
+                        source.delete(cursor);
+                    }
+                }
+            }
+        } while (!page.isEmpty());
+    }
+
+    /**
+     * Obtiene de un fragmento hasta {@code limit} contactos tras un código, descartando los que no son suyos.
+     */
+    private static List<Contact> ownedPage(Topology topology, IPhonebookShard shard, String afterCode, int limit) {
+        List<Contact> result = new ArrayList<>(limit);
+        String cursor = afterCode;
+        List<Contact> page;
+        do {
+            page = shard.listContacts(cursor, limit);
+            for (Contact contact : page) {
+                cursor = contact.getCode();
+                if (topology.owner(cursor) == shard && result.size() < limit) {
+                    result.add(contact);
+                }
+            }
+        } while (result.size() < limit && page.size() == limit);
+        return result;
+    }
+
+    /**
+     * Descarta los contactos que un fragmento conserva pero pertenecen a otro, durante un reparto.
+     */
+    private static List<Contact> owned(Topology topology, IPhonebookShard shard, List<Contact> contacts) {
+        List<Contact> result = new ArrayList<>(contacts.size());
+        for (Contact contact : contacts) {
+            if (topology.owner(contact.getCode()) == shard) {
+                result.add(contact);
+            }
+        }
+        return result;
+    }
+
+    private static List<Contact> listOf(Contact contact) {
+        List<Contact> list = new ArrayList<>(1);
+        if (contact != null) {
+            list.add(contact);
+        }
+        return list;
+    }
+
+    /**
+     * Ejecuta una consulta en todos los fragmentos a la vez.
+     *
+     * @param topology Los fragmentos.
+     * @param query    La consulta.
+     * @return Los resultados de cada fragmento, en el orden de los fragmentos.
+     */
+    private <T> List<List<T>> scatter(Topology topology, ShardQuery<T> query) {
+        List<Future<List<T>>> futures = new ArrayList<>(topology.shards.size());
+        for (IPhonebookShard shard : topology.shards) {
+            Callable<List<T>> task = () -> query.run(shard);
+            futures.add(executor.submit(task));
+        }
+        List<List<T>> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<List<T>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta interrumpida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private Object lockFor(String code) {
+        return locks[(code.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    /**
+     * Consulta sobre un fragmento.
+     */
+    @FunctionalInterface
+    private interface ShardQuery<T> {
+        List<T> run(IPhonebookShard shard);
+    }
+
+    /**
+     * Los fragmentos y el anillo que los reparte.
+     */
+    private static final class Topology {
+        final List<IPhonebookShard> shards;
+        final ConsistentHashRing ring;
+
+        Topology(List<IPhonebookShard> shards) {
+            this.shards = shards;
+            this.ring = new ConsistentHashRing(shards.stream().map(IPhonebookShard::getName).toList());
+        }
+
+        IPhonebookShard owner(String code) {
+            return shards.get(ring.shardFor(code));
+        }
+
+        Topology with(IPhonebookShard shard) {
+            List<IPhonebookShard> list = new ArrayList<>(shards);
+            list.add(shard);
+            return new Topology(List.copyOf(list));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.campusdual.classroom;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * La clase {@code PersistentContactMap} es el almacén de contactos en memoria de la agenda.
+ * <p>
+ * Guarda la versión actual de los contactos en un {@link PersistentHashMap}. Cada alta o baja crea una versión
+ * nueva, que copia solo el camino hasta la clave, y la publica con una operación atómica de comparación e
+ * intercambio, repitiendo si otro hilo se ha adelantado. Las lecturas no se bloquean nunca, y
+ * {@link #snapshot()} devuelve la versión actual en tiempo constante: una vista inmutable que no cambia aunque
+ * el almacén siga modificándose.
+ * </p>
+ * <p>
+ * Los iteradores recorren la versión que había al crearlos, por lo que nunca lanzan
+ * {@code ConcurrentModificationException}; su método {@code remove} borra la entrada del almacén.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+final class PersistentContactMap extends AbstractMap<String, Contact> {
+    /** La versión actual de los contactos. */
+    private final AtomicReference<PersistentHashMap<String, Contact>> current =
+            new AtomicReference<>(PersistentHashMap.empty());
+
+    /**
+     * Obtiene la versión actual de los contactos.
+     *
+     * @return Un mapa inmutable que no refleja los cambios posteriores.
+     */
+    PersistentHashMap<String, Contact> snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current.get().isEmpty();
+    }
+
+    @Override
+    public Contact get(Object key) {
+        return current.get().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return current.get().containsKey(key);
+    }
+
+    @Override
+    public Contact put(String key, Contact value) {
+        while (true) {
+            PersistentHashMap<String, Contact> version = current.get();
+            if (current.compareAndSet(version, version.with(key, value))) {
+                return version.get(key);
+            }
+        }
+    }
+
+    @Override
+    public Contact putIfAbsent(String key, Contact value) {
+        while (true) {
+            PersistentHashMap<String, Contact> version = current.get();
+            Contact previous = version.get(key);
+            if (previous != null || current.compareAndSet(version, version.with(key, value))) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public Contact remove(Object key) {
+        while (true) {
+            PersistentHashMap<String, Contact> version = current.get();
+            Contact previous = version.get(key);
+            if (previous == null || current.compareAndSet(version, version.without(key))) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        while (true) {
+            PersistentHashMap<String, Contact> version = current.get();
+            Contact previous = version.get(key);
+            if (previous == null || !Objects.equals(previous, value)) {
+                return false;
+            }
+            if (current.compareAndSet(version, version.without(key))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        current.set(PersistentHashMap.empty());
+    }
+
+    @Override
+    public Set<Entry<String, Contact>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Contact>> iterator() {
+                Iterator<Entry<String, Contact>> entries = current.get().entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<String, Contact> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Contact> next() {
+                        last = entries.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        PersistentContactMap.this.remove(last.getKey(), last.getValue());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return PersistentContactMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Crea una copia inmutable de cualquier mapa de contactos.
+     *
+     * @param contacts Los contactos.
+     * @return Un mapa persistente con las mismas entradas.
+     */
+    static PersistentHashMap<String, Contact> copyOf(Map<String, Contact> contacts) {
+        PersistentHashMap<String, Contact> copy = PersistentHashMap.empty();
+        for (Entry<String, Contact> entry : contacts.entrySet()) {
+            copy = copy.with(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,409 @@
+package com.campusdual.classroom;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * La clase {@code PersistentHashMap} es un mapa inmutable que comparte su estructura con las versiones anteriores.
+ * <p>
+ * Es un <i>hash array mapped trie</i> (HAMT): cada nodo reparte sus entradas en 32 posiciones según cinco bits del
+ * hash de la clave, y solo reserva sitio para las posiciones ocupadas, que se indican en un mapa de bits. Las
+ * claves con el mismo hash completo se guardan juntas en un nodo de colisiones.
+ * </p>
+ * <p>
+ * {@link #with(Object, Object)} y {@link #without(Object)} no modifican el mapa: devuelven uno nuevo que copia solo
+ * los nodos del camino hasta la clave, como mucho ocho, y comparte todos los demás. Por eso conservar una versión
+ * del mapa no cuesta nada y puede leerse desde cualquier hilo sin bloqueos. Los métodos de {@link java.util.Map}
+ * que modifican el mapa lanzan {@code UnsupportedOperationException}. No admite claves ni valores {@code null}.
+ * </p>
+ *
+ * @param <K> El tipo de las claves.
+ * @param <V> El tipo de los valores.
+ * @author
+ * @version 1.0
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    /** Bits del hash que consume cada nivel del árbol. */
+    private static final int BITS = 5;
+
+    /** Máscara de los bits de un nivel. */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** Profundidad máxima: siete niveles de 5 bits para los 32 del hash y uno más para las colisiones. */
+    private static final int MAX_DEPTH = 8;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    /** El nodo raíz, o {@code null} si el mapa está vacío. */
+    private final Node root;
+
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Obtiene el mapa vacío.
+     *
+     * @param <K> El tipo de las claves.
+     * @param <V> El tipo de los valores.
+     * @return El mapa vacío.
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return root == null || key == null ? null : (V) root.find(key, hash(key), 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Crea un mapa con una entrada más, o con otro valor para una clave existente.
+     *
+     * @param key   La clave.
+     * @param value El valor.
+     * @return El nuevo mapa, o este mismo si la clave ya tenía ese valor.
+     * @throws NullPointerException si la clave o el valor son {@code null}.
+     */
+    PersistentHashMap<K, V> with(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        boolean[] added = new boolean[1];
+        Node start = root == null ? BitmapNode.EMPTY : root;
+        Node updated = start.put(key, value, hash(key), 0, added);
+        if (updated == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Crea un mapa sin la entrada de una clave.
+     *
+     * @param key La clave.
+     * @return El nuevo mapa, o este mismo si no contenía la clave.
+     */
+    PersistentHashMap<K, V> without(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Node updated = root.remove(key, hash(key), 0);
+        if (updated == root) {
+            return this;
+        }
+        return updated == null ? empty() : new PersistentHashMap<>(updated, size - 1);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Mezcla los bits altos del hash con los bajos, que son los que deciden las primeras posiciones.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Nodo del árbol. Sus entradas se guardan por parejas en {@link #array}: la clave y el valor, o {@code null} y
+     * un nodo hijo.
+     */
+    private abstract static class Node {
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, boolean[] added);
+
+        /**
+         * Quita una clave del nodo.
+         *
+         * @return El nodo resultante, este mismo si no tenía la clave, o {@code null} si queda vacío.
+         */
+        abstract Node remove(Object key, int hash, int shift);
+
+        /**
+         * Indica si el nodo contiene una sola entrada y ningún hijo, de modo que puede subirse al nodo padre.
+         */
+        boolean isSingleEntry() {
+            return array.length == 2 && array[0] != null;
+        }
+    }
+
+    /**
+     * Nodo con un mapa de bits que indica qué posiciones de las 32 están ocupadas.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object storedKey = array[index];
+            if (storedKey == null) {
+                return ((Node) array[index + 1]).find(key, hash, shift + BITS);
+            }
+            return key.equals(storedKey) ? array[index + 1] : null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, index);
+                copy[index] = key;
+                copy[index + 1] = value;
+                System.arraycopy(array, index, copy, index + 2, array.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object storedKey = array[index];
+            Object stored = array[index + 1];
+            if (storedKey == null) {
+                Node child = (Node) stored;
+                Node updated = child.put(key, value, hash, shift + BITS, added);
+                return updated == child ? this : replace(index, null, updated);
+            }
+            if (key.equals(storedKey)) {
+                return stored == value ? this : replace(index, storedKey, value);
+            }
+            added[0] = true;
+            return replace(index, null, pair(storedKey, stored, key, value, hash, shift + BITS));
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object storedKey = array[index];
+            if (storedKey == null) {
+                Node child = (Node) array[index + 1];
+                Node updated = child.remove(key, hash, shift + BITS);
+                if (updated == child) {
+                    return this;
+                }
+                if (updated == null) {
+                    return without(bit, index);
+                }
+                if (updated.isSingleEntry()) {
+                    return replace(index, updated.array[0], updated.array[1]);
+                }
+                return replace(index, null, updated);
+            }
+            return key.equals(storedKey) ? without(bit, index) : this;
+        }
+
+        private BitmapNode replace(int index, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[index] = key;
+            copy[index + 1] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode without(int bit, int index) {
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        /**
+         * Crea el nodo que reúne dos entradas que han caído en la misma posición del nivel anterior.
+         */
+        private static Node pair(Object key1, Object value1, Object key2, Object value2, int hash2, int shift) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(key1, value1, hash1, shift, ignored).put(key2, value2, hash2, shift, ignored);
+        }
+    }
+
+    /**
+     * Nodo con varias claves que tienen el mismo hash completo.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int index = indexOf(key);
+            return index < 0 ? null : array[index + 1];
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // Una clave con otro hash que coincide hasta este nivel: el nodo pasa a colgar de uno nuevo
+                BitmapNode parent = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[]{null, this});
+                return parent.put(key, value, hash, shift, added);
+            }
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[index + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            Object[] copy = new Object[array.length + 2];
+            System.arraycopy(array, 0, copy, 0, array.length);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Recorre el árbol en profundidad con una pila de nodos, sin crear más objetos que las entradas.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Entry<K, V> next;
+
+        EntryIterator() {
+            if (root != null) {
+                push(root);
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = next;
+            advance();
+            return result;
+        }
+
+        private void push(Node node) {
+            depth++;
+            arrays[depth] = node.array;
+            positions[depth] = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                if (array[position] == null) {
+                    push((Node) array[position + 1]);
+                } else {
+                    next = new SimpleImmutableEntry<>((K) array[position], (V) array[position + 1]);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.campusdual.classroom;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La clase {@code PhoneIndex} es un índice inverso de número de teléfono a código de contacto.
+ * <p>
+ * Los números se reducen a sus dígitos y se codifican en un {@code long} junto con el número de dígitos, de forma
+ * que los ceros a la izquierda no se pierden. Las claves se guardan en una tabla de direccionamiento abierto con
+ * sondeo lineal sobre arrays primitivos, sin objetos por entrada ni claves {@code String}, y las búsquedas cuestan
+ * O(1) de media.
+ * </p>
+ * <p>
+ * Varios contactos pueden compartir un número (por ejemplo, el fijo de una casa). La posición de un número guarda
+ * su código o, si lo comparten varios contactos, un array con sus códigos en el orden en que se añadieron, así que
+ * borrar uno de ellos no deja sin número a los demás.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class PhoneIndex implements IContactIndex {
+    /** Clave que marca una posición vacía; ningún número válido se codifica como 0. */
+    private static final long EMPTY = 0L;
+
+    /** Valor devuelto por {@link #key(CharSequence)} cuando el número no se puede indexar. */
+    public static final long NO_KEY = -1L;
+
+    /** Número máximo de dígitos que caben en la clave. */
+    private static final int MAX_DIGITS = 17;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    /** Por cada posición, el código ({@code String}) o los códigos ({@code String[]}) que tienen el número. */
+    private Object[] codes = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Codifica los dígitos de un número de teléfono como clave del índice.
+     * <p>
+     * Los números válidos se normalizan con {@link PhoneNumbers#getDefault()}, de modo que "654 321 321" y
+     * "+34 654 321 321" tienen la misma clave. De los demás solo se tienen en cuenta los dígitos, ignorando
+     * espacios, guiones o el signo {@code +}.
+     * </p>
+     *
+     * @param phone El número de teléfono.
+     * @return La clave, o {@link #NO_KEY} si el número no tiene dígitos o tiene demasiados.
+     */
+    public static long key(CharSequence phone) {
+        if (phone == null) {
+            return NO_KEY;
+        }
+        long number = PhoneNumbers.getDefault().parse(phone);
+        if (number != PhoneNumbers.INVALID) {
+            return key(number);
+        }
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return NO_KEY;
+                }
+                value = value * 10 + (c - '0');
+            }
+        }
+        return digits == 0 ? NO_KEY : (value << 5) | digits;
+    }
+
+    /**
+     * Codifica un número normalizado con {@link PhoneNumbers} como clave del índice.
+     *
+     * @param number El número normalizado.
+     * @return La clave de su número E.164.
+     */
+    static long key(long number) {
+        long e164 = PhoneNumbers.e164(number);
+        return (e164 << 5) | PhoneRegion.digits(e164);
+    }
+
+    /**
+     * Añade al índice el número principal y los secundarios del contacto.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public void add(Contact contact) {
+        String code = contact.getCode();
+        put(key(contact.getPhone()), code);
+        for (int i = 0; i < contact.secondaryPhoneCount(); i++) {
+            put(PackedPhones.indexKey(contact.secondaryPhoneAt(i)), code);
+        }
+    }
+
+    /**
+     * Elimina del índice los números del contacto que apuntan a él.
+     *
+     * @param contact El contacto.
+     */
+    @Override
+    public void remove(Contact contact) {
+        String code = contact.getCode();
+        remove(key(contact.getPhone()), code);
+        for (int i = 0; i < contact.secondaryPhoneCount(); i++) {
+            remove(PackedPhones.indexKey(contact.secondaryPhoneAt(i)), code);
+        }
+    }
+
+    /**
+     * Hace que los números que apuntaban al código antiguo del contacto apunten al nuevo.
+     *
+     * @param oldCode El código del contacto antes del cambio.
+     * @param contact El contacto.
+     */
+    @Override
+    public synchronized void rename(String oldCode, Contact contact) {
+        String code = contact.getCode();
+        if (remove(key(contact.getPhone()), oldCode)) {
+            put(key(contact.getPhone()), code);
+        }
+        for (int i = 0; i < contact.secondaryPhoneCount(); i++) {
+            long key = PackedPhones.indexKey(contact.secondaryPhoneAt(i));
+            if (remove(key, oldCode)) {
+                put(key, code);
+            }
+        }
+    }
+
+    /**
+     * Obtiene el código del contacto asociado a un número de teléfono.
+     *
+     * @param phone El número de teléfono, en cualquier formato.
+     * @return El código del primer contacto que se añadió con ese número, o {@code null} si no hay ninguno.
+     */
+    public String find(CharSequence phone) {
+        return get(key(phone));
+    }
+
+    /**
+     * Obtiene los códigos de todos los contactos que tienen un número de teléfono.
+     *
+     * @param phone El número de teléfono, en cualquier formato.
+     * @return Los códigos en el orden en que se añadieron, o una lista vacía si no hay ninguno.
+     */
+    public List<String> findAll(CharSequence phone) {
+        return getAll(key(phone));
+    }
+
+    /**
+     * Obtiene el código asociado a una clave.
+     *
+     * @param key La clave del número.
+     * @return El primer código añadido con esa clave, o {@code null} si la clave no está en el índice.
+     */
+    public synchronized String get(long key) {
+        int i = find(key);
+        if (i < 0) {
+            return null;
+        }
+        Object value = codes[i];
+        return value instanceof String ? (String) value : ((String[]) value)[0];
+    }
+
+    /**
+     * Obtiene todos los códigos asociados a una clave.
+     *
+     * @param key La clave del número.
+     * @return Los códigos en el orden en que se añadieron, o una lista vacía si la clave no está en el índice.
+     */
+    public synchronized List<String> getAll(long key) {
+        int i = find(key);
+        if (i < 0) {
+            return List.of();
+        }
+        Object value = codes[i];
+        return value instanceof String ? List.of((String) value) : List.of((String[]) value);
+    }
+
+    /**
+     * Busca la posición de una clave en la tabla.
+     *
+     * @param key La clave del número.
+     * @return La posición, o -1 si la clave no está en el índice.
+     */
+    private int find(long key) {
+        if (key == NO_KEY) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el número de claves del índice.
+     *
+     * @return El número de claves.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Asocia una clave a un código, además de a los que ya tuviera.
+     *
+     * @param key  La clave del número.
+     * @param code El código del contacto.
+     */
+    public synchronized void put(long key, String code) {
+        if (key == NO_KEY) {
+            return;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                codes[i] = withCode(codes[i], code);
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        codes[i] = code;
+        size++;
+    }
+
+    /**
+     * Elimina la asociación de una clave con un código. La clave sigue en el índice si tiene otros códigos.
+     *
+     * @param key  La clave del número.
+     * @param code El código del contacto.
+     * @return {@code true} si la clave estaba asociada al código.
+     */
+    public synchronized boolean remove(long key, String code) {
+        int i = find(key);
+        if (i < 0) {
+            return false;
+        }
+        Object value = codes[i];
+        if (value instanceof String[]) {
+            String[] shared = (String[]) value;
+            int position = Arrays.asList(shared).indexOf(code);
+            if (position < 0) {
+                return false;
+            }
+            if (shared.length == 2) {
+                codes[i] = shared[1 - position];
+            } else {
+                String[] rest = new String[shared.length - 1];
+                System.arraycopy(shared, 0, rest, 0, position);
+                System.arraycopy(shared, position + 1, rest, position, rest.length - position);
+                codes[i] = rest;
+            }
+            return true;
+        }
+        if (!value.equals(code)) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        // Borrado por desplazamiento hacia atrás para no dejar marcas de borrado en la tabla
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                codes[hole] = codes[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        codes[hole] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Añade un código a los de una posición si no estaba ya.
+     *
+     * @param value El código o los códigos de la posición.
+     * @param code  El código a añadir.
+     * @return El nuevo valor de la posición.
+     */
+    private static Object withCode(Object value, String code) {
+        if (value instanceof String) {
+            return value.equals(code) ? value : new String[]{(String) value, code};
+        }
+        String[] shared = (String[]) value;
+        if (Arrays.asList(shared).contains(code)) {
+            return shared;
+        }
+        String[] more = Arrays.copyOf(shared, shared.length + 1);
+        more[shared.length] = code;
+        return more;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldCodes = codes;
+        keys = new long[capacity];
+        codes = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                codes[i] = oldCodes[j];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,384 @@
+package com.campusdual.classroom;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * La clase {@code PhoneNumbers} normaliza números de teléfono al formato internacional E.164.
+ * <p>
+ * {@link #parse(CharSequence)} recorre el texto una sola vez, sin crear objetos: descarta los separadores
+ * (espacios, guiones, puntos y paréntesis), acumula las cifras en un {@code long} y después, con operaciones
+ * aritméticas, reconoce el signo {@code +} o el prefijo internacional, el prefijo del país y el prefijo nacional, y
+ * valida el número con las tablas de su {@link PhoneRegion}. Los números sin prefijo internacional se interpretan
+ * en la región por defecto, que es España si no se indica otra.
+ * </p>
+ * <p>
+ * El resultado es un {@code long} con el número E.164 completo en los 50 bits bajos y el prefijo del país en los
+ * siguientes, de modo que "654 321 321", "+34654321321" y "0034-654-321-321" dan el mismo valor. Los números que no
+ * son válidos dan {@link #INVALID}.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class PhoneNumbers {
+    /** Valor devuelto por {@link #parse(CharSequence)} cuando el texto no es un número válido. */
+    public static final long INVALID = -1L;
+
+    /** Número máximo de cifras de un número E.164, con el prefijo del país. */
+    static final int MAX_DIGITS = 15;
+
+    /** Potencias de diez hasta 10^18. */
+    static final long[] POWERS_OF_TEN = new long[19];
+
+    /** Número máximo de cifras que se leen antes de descartar el texto; deja sitio a los prefijos. */
+    private static final int MAX_INPUT_DIGITS = 18;
+
+    /** Bits del valor normalizado que ocupa el número E.164. */
+    private static final int COUNTRY_SHIFT = 50;
+
+    private static final long NUMBER_MASK = (1L << COUNTRY_SHIFT) - 1;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /** La normalización usada por {@link Contact}. */
+    private static volatile PhoneNumbers defaultNumbers = new PhoneNumbers(PhoneRegion.SPAIN,
+            PhoneRegion.BUILT_IN.toArray(new PhoneRegion[0]));
+
+    /** La región de los números sin prefijo internacional. */
+    private final PhoneRegion defaultRegion;
+
+    /** Regiones conocidas, por prefijo de país. */
+    private final PhoneRegion[] regions = new PhoneRegion[1000];
+
+    /**
+     * Constructor de la clase {@code PhoneNumbers}.
+     *
+     * @param defaultRegion La región de los números sin prefijo internacional.
+     * @param regions       Las demás regiones cuyos números se reconocen con su prefijo de país.
+     * @throws IllegalArgumentException si dos regiones tienen prefijos de país que se solapan.
+     */
+    public PhoneNumbers(PhoneRegion defaultRegion, PhoneRegion... regions) {
+        this.defaultRegion = Objects.requireNonNull(defaultRegion);
+        register(defaultRegion);
+        for (PhoneRegion region : regions) {
+            if (region != defaultRegion) {
+                register(region);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la normalización usada por {@link Contact}.
+     *
+     * @return La normalización por defecto, con España como región por defecto.
+     */
+    public static PhoneNumbers getDefault() {
+        return defaultNumbers;
+    }
+
+    /**
+     * Cambia la normalización usada por {@link Contact}.
+     * <p>
+     * Debe hacerse antes de crear contactos: los números ya normalizados y los índices no se recalculan.
+     * </p>
+     *
+     * @param numbers La nueva normalización.
+     */
+    public static void setDefault(PhoneNumbers numbers) {
+        defaultNumbers = Objects.requireNonNull(numbers);
+    }
+
+    /**
+     * Obtiene la región de los números sin prefijo internacional.
+     *
+     * @return La región por defecto.
+     */
+    public PhoneRegion getDefaultRegion() {
+        return defaultRegion;
+    }
+
+    /**
+     * Normaliza un número de teléfono sin crear objetos.
+     *
+     * @param phone El número, con o sin separadores, prefijo internacional o prefijo nacional.
+     * @return El número normalizado, o {@link #INVALID} si no es un número válido en ninguna región conocida.
+     */
+    public long parse(CharSequence phone) {
+        if (phone == null) {
+            return INVALID;
+        }
+        boolean plus = false;
+        long digits = 0;
+        int count = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (count == MAX_INPUT_DIGITS) {
+                    return INVALID;
+                }
+                digits = digits * 10 + (c - '0');
+                count++;
+            } else if (c == '+' && count == 0 && !plus) {
+                plus = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return INVALID;
+            }
+        }
+        return resolve(plus, digits, count);
+    }
+
+    /**
+     * Normaliza un número codificado con {@link PackedPhones}, sin decodificarlo.
+     *
+     * @param packed El número codificado.
+     * @return El número normalizado, o {@link #INVALID} si no es un número válido.
+     */
+    long parsePacked(long packed) {
+        boolean plus = false;
+        long digits = 0;
+        int count = 0;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            int nibble = (int) (packed >>> shift) & 0xF;
+            if (nibble > 9) {
+                if (nibble == PackedPhones.PADDING) {
+                    break;
+                }
+                plus = true;
+            } else if (count == MAX_INPUT_DIGITS) {
+                return INVALID;
+            } else {
+                digits = digits * 10 + nibble;
+                count++;
+            }
+        }
+        return resolve(plus, digits, count);
+    }
+
+    /**
+     * Normaliza un número de teléfono.
+     *
+     * @param phone El número.
+     * @return El número normalizado.
+     * @throws IllegalArgumentException si no es un número válido.
+     */
+    public long normalize(CharSequence phone) {
+        long number = parse(phone);
+        if (number == INVALID) {
+            throw new IllegalArgumentException("Número de teléfono no válido: " + phone);
+        }
+        return number;
+    }
+
+    /**
+     * Normaliza un lote de números de teléfono, por ejemplo durante una importación.
+     *
+     * @param phones  Los números.
+     * @param results El array donde se guarda cada número normalizado, o {@link #INVALID}, en la misma posición.
+     * @return El número de números válidos.
+     * @throws IllegalArgumentException si el array de resultados es más corto que la lista.
+     */
+    public int parseAll(List<? extends CharSequence> phones, long[] results) {
+        if (results.length < phones.size()) {
+            throw new IllegalArgumentException("El array de resultados es demasiado corto.");
+        }
+        int valid = 0;
+        for (int i = 0; i < phones.size(); i++) {
+            results[i] = parse(phones.get(i));
+            if (results[i] != INVALID) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Obtiene el texto canónico de un número normalizado: el número nacional si es de la región por defecto, o el
+     * formato E.164 con el signo {@code +} si es de otra.
+     *
+     * @param number El número normalizado.
+     * @return El texto del número.
+     * @throws IllegalArgumentException si el número no es un valor normalizado válido.
+     */
+    public String format(long number) {
+        if (number < 0) {
+            throw new IllegalArgumentException("Número de teléfono no válido: " + number);
+        }
+        PhoneRegion region = regions[countryCode(number)];
+        long e164 = e164(number);
+        char[] text;
+        if (region == defaultRegion) {
+            text = new char[PhoneRegion.digits(e164) - region.countryCodeDigits];
+            writeDigits(e164, text, text.length);
+        } else {
+            text = new char[PhoneRegion.digits(e164) + 1];
+            text[0] = '+';
+            writeDigits(e164, text, text.length - 1);
+        }
+        return new String(text);
+    }
+
+    /**
+     * Obtiene el texto canónico de un número de teléfono.
+     * <p>
+     * Es lo que guarda {@link Contact}: si el texto ya es canónico se devuelve el mismo objeto, y si no es un número
+     * válido se devuelve tal cual, para no perder datos que el usuario ha escrito a propósito.
+     * </p>
+     *
+     * @param phone El número.
+     * @return El texto canónico, o el mismo texto si no es un número válido.
+     */
+    public String canonical(String phone) {
+        long number = parse(phone);
+        if (number == INVALID || isFormatted(phone, number)) {
+            return phone;
+        }
+        return format(number);
+    }
+
+    /**
+     * Obtiene el prefijo del país de un número normalizado.
+     *
+     * @param number El número normalizado.
+     * @return El prefijo del país.
+     */
+    public static int countryCode(long number) {
+        return (int) (number >>> COUNTRY_SHIFT);
+    }
+
+    /**
+     * Obtiene el número E.164 completo de un número normalizado, con el prefijo del país y sin el signo {@code +}.
+     *
+     * @param number El número normalizado.
+     * @return El número E.164.
+     */
+    public static long e164(long number) {
+        return number & NUMBER_MASK;
+    }
+
+    /**
+     * Interpreta las cifras de un número ya separadas de los separadores.
+     *
+     * @param plus   {@code true} si el número empezaba por {@code +}.
+     * @param digits Las cifras.
+     * @param count  El número de cifras, contando los ceros a la izquierda.
+     * @return El número normalizado, o {@link #INVALID}.
+     */
+    private long resolve(boolean plus, long digits, int count) {
+        if (count == 0) {
+            return INVALID;
+        }
+        PhoneRegion region = defaultRegion;
+        if (!plus && startsWith(digits, count, region.internationalPrefix, region.internationalPrefixDigits)) {
+            count -= region.internationalPrefixDigits;
+            digits %= POWERS_OF_TEN[count];
+            plus = true;
+        }
+        if (plus) {
+            return international(digits, count);
+        }
+        if (startsWith(digits, count, region.trunkPrefix, region.trunkPrefixDigits)) {
+            count -= region.trunkPrefixDigits;
+            digits %= POWERS_OF_TEN[count];
+        }
+        return pack(region, digits, count);
+    }
+
+    /**
+     * Interpreta un número internacional, sin el signo {@code +} ni el prefijo internacional.
+     */
+    private long international(long digits, int count) {
+        for (int countryDigits = 1; countryDigits <= 3 && countryDigits < count; countryDigits++) {
+            int countryCode = (int) (digits / POWERS_OF_TEN[count - countryDigits]);
+            PhoneRegion region = regions[countryCode];
+            if (region != null && region.countryCodeDigits == countryDigits) {
+                int length = count - countryDigits;
+                return pack(region, digits % POWERS_OF_TEN[length], length);
+            }
+        }
+        return INVALID;
+    }
+
+    /**
+     * Valida un número nacional y lo combina con el prefijo de su país.
+     */
+    private static long pack(PhoneRegion region, long national, int length) {
+        if (length < 2 || !region.accepts(national, length)) {
+            return INVALID;
+        }
+        long e164 = region.getCountryCode() * POWERS_OF_TEN[length] + national;
+        return ((long) region.getCountryCode() << COUNTRY_SHIFT) | e164;
+    }
+
+    /**
+     * Comprueba si las cifras de un número empiezan por un prefijo, que puede tener ceros a la izquierda.
+     */
+    private static boolean startsWith(long digits, int count, long prefix, int prefixDigits) {
+        return prefixDigits > 0 && count > prefixDigits && digits / POWERS_OF_TEN[count - prefixDigits] == prefix;
+    }
+
+    /**
+     * Comprueba, sin crear objetos, si un texto es ya el texto canónico de un número normalizado.
+     */
+    private boolean isFormatted(CharSequence phone, long number) {
+        long e164 = e164(number);
+        int length = PhoneRegion.digits(e164);
+        int start = 0;
+        if (regions[countryCode(number)] == defaultRegion) {
+            length -= defaultRegion.countryCodeDigits;
+        } else {
+            if (phone.length() == 0 || phone.charAt(0) != '+') {
+                return false;
+            }
+            start = 1;
+        }
+        if (phone.length() != start + length) {
+            return false;
+        }
+        for (int i = phone.length() - 1; i >= start; i--) {
+            if (phone.charAt(i) != (char) ('0' + e164 % 10)) {
+                return false;
+            }
+            e164 /= 10;
+        }
+        return true;
+    }
+
+    /**
+     * Escribe las últimas cifras de un número, de derecha a izquierda, al final de un array.
+     */
+    private static void writeDigits(long value, char[] text, int count) {
+        for (int i = text.length - 1; i >= text.length - count; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Registra una región en la tabla de prefijos de país.
+     */
+    private void register(PhoneRegion region) {
+        int code = region.getCountryCode();
+        for (int digits = 1; digits < region.countryCodeDigits; digits++) {
+            if (regions[(int) (code / POWERS_OF_TEN[region.countryCodeDigits - digits])] != null) {
+                throw new IllegalArgumentException("El prefijo de país se solapa con otro: " + region);
+            }
+        }
+        for (PhoneRegion other : regions) {
+            if (other != null && other.countryCodeDigits > region.countryCodeDigits
+                    && other.getCountryCode() / POWERS_OF_TEN[other.countryCodeDigits - region.countryCodeDigits]
+                    == code) {
+                throw new IllegalArgumentException("El prefijo de país se solapa con otro: " + region);
+            }
+        }
+        if (regions[code] != null) {
+            throw new IllegalArgumentException("Prefijo de país repetido: " + region);
+        }
+        regions[code] = region;
+    }
+}
@@ -0,0 +1,175 @@
+package com.campusdual.classroom;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La clase {@code PhoneRegion} describe el plan de numeración telefónica de un país.
+ * <p>
+ * Indica el prefijo del país, el prefijo para llamar al extranjero, el prefijo nacional que se marca delante de los
+ * números dentro del país y se omite en el formato internacional, las longitudes válidas del número nacional y las
+ * cifras por las que puede empezar. Las cifras iniciales se precalculan en una tabla de cien posiciones, indexada
+ * por las dos primeras cifras del número, de modo que validar un número no recorre ninguna lista.
+ * </p>
+ * <p>
+ * Las regiones predefinidas son aproximaciones de los planes de numeración oficiales, suficientes para distinguir
+ * un número de teléfono de un texto cualquiera; se pueden crear otras con el constructor.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ * @see PhoneNumbers
+ */
+public final class PhoneRegion {
+    /** España: nueve cifras que empiezan por 6, 7, 8 o 9. */
+    public static final PhoneRegion SPAIN = new PhoneRegion("ES", 34, "00", "", 9, 9, "6", "7", "8", "9");
+
+    /** Portugal: nueve cifras que empiezan por 2 o 9. */
+    public static final PhoneRegion PORTUGAL = new PhoneRegion("PT", 351, "00", "", 9, 9, "2", "9");
+
+    /** Francia: nueve cifras tras el prefijo nacional 0. */
+    public static final PhoneRegion FRANCE = new PhoneRegion("FR", 33, "00", "0", 9, 9,
+            "1", "2", "3", "4", "5", "6", "7", "9");
+
+    /** Italia: los fijos conservan el 0 inicial y los móviles empiezan por 3. */
+    public static final PhoneRegion ITALY = new PhoneRegion("IT", 39, "00", "", 6, 11, "0", "3");
+
+    /** Alemania: números de longitud variable tras el prefijo nacional 0. */
+    public static final PhoneRegion GERMANY = new PhoneRegion("DE", 49, "00", "0", 6, 11,
+            "1", "2", "3", "4", "5", "6", "7", "8", "9");
+
+    /** Reino Unido: diez cifras tras el prefijo nacional 0. */
+    public static final PhoneRegion UNITED_KINGDOM = new PhoneRegion("GB", 44, "00", "0", 10, 10,
+            "1", "2", "3", "7", "8");
+
+    /** Estados Unidos y Canadá: diez cifras tras el prefijo nacional 1, sin empezar por 0 ni por 1. */
+    public static final PhoneRegion NORTH_AMERICA = new PhoneRegion("US", 1, "011", "1", 10, 10,
+            "2", "3", "4", "5", "6", "7", "8", "9");
+
+    /** Regiones predefinidas. */
+    static final List<PhoneRegion> BUILT_IN =
+            List.of(SPAIN, PORTUGAL, FRANCE, ITALY, GERMANY, UNITED_KINGDOM, NORTH_AMERICA);
+
+    private final String id;
+    private final int countryCode;
+    final int countryCodeDigits;
+    final long internationalPrefix;
+    final int internationalPrefixDigits;
+    final long trunkPrefix;
+    final int trunkPrefixDigits;
+    final int minLength;
+    final int maxLength;
+
+    /** Indica, para cada par de cifras iniciales del número nacional, si el número puede empezar así. */
+    private final boolean[] leading = new boolean[100];
+
+    /**
+     * Constructor de la clase {@code PhoneRegion}.
+     *
+     * @param id                  El identificador de la región, como el código ISO del país.
+     * @param countryCode         El prefijo del país, de una a tres cifras.
+     * @param internationalPrefix El prefijo para llamar al extranjero, como "00", o "" si no tiene.
+     * @param trunkPrefix         El prefijo nacional, como "0", o "" si no tiene.
+     * @param minLength           La longitud mínima del número nacional, sin el prefijo nacional.
+     * @param maxLength           La longitud máxima del número nacional, sin el prefijo nacional.
+     * @param leadingDigits       Las cifras, una o dos, por las que puede empezar el número nacional; si no se indica
+     *                            ninguna, vale cualquiera.
+     * @throws IllegalArgumentException si algún dato no es válido.
+     */
+    public PhoneRegion(String id, int countryCode, String internationalPrefix, String trunkPrefix, int minLength,
+                       int maxLength, String... leadingDigits) {
+        if (countryCode < 1 || countryCode > 999) {
+            throw new IllegalArgumentException("Prefijo de país no válido: " + countryCode);
+        }
+        if (minLength < 2 || maxLength < minLength || digits(countryCode) + maxLength > PhoneNumbers.MAX_DIGITS) {
+            throw new IllegalArgumentException("Longitudes no válidas: " + minLength + "-" + maxLength);
+        }
+        this.id = id;
+        this.countryCode = countryCode;
+        this.countryCodeDigits = digits(countryCode);
+        this.internationalPrefix = value(internationalPrefix);
+        this.internationalPrefixDigits = internationalPrefix.length();
+        this.trunkPrefix = value(trunkPrefix);
+        this.trunkPrefixDigits = trunkPrefix.length();
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        if (leadingDigits.length == 0) {
+            Arrays.fill(leading, true);
+        }
+        for (String prefix : leadingDigits) {
+            int first = (int) value(prefix);
+            if (prefix.length() == 1) {
+                Arrays.fill(leading, first * 10, first * 10 + 10, true);
+            } else if (prefix.length() == 2) {
+                leading[first] = true;
+            } else {
+                throw new IllegalArgumentException("Las cifras iniciales deben ser una o dos: " + prefix);
+            }
+        }
+    }
+
+    /**
+     * Obtiene el identificador de la región.
+     *
+     * @return El identificador.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el prefijo del país.
+     *
+     * @return El prefijo, sin el signo {@code +}.
+     */
+    public int getCountryCode() {
+        return countryCode;
+    }
+
+    /**
+     * Comprueba si un número nacional es válido en la región.
+     *
+     * @param national El número nacional, sin el prefijo nacional.
+     * @param length   El número de cifras, contando los ceros a la izquierda.
+     * @return {@code true} si la longitud y las cifras iniciales son válidas.
+     */
+    boolean accepts(long national, int length) {
+        return length >= minLength && length <= maxLength
+                && leading[(int) (national / PhoneNumbers.POWERS_OF_TEN[length - 2])];
+    }
+
+    @Override
+    public String toString() {
+        return id + " (+" + countryCode + ")";
+    }
+
+    /**
+     * Convierte un prefijo en su valor numérico.
+     */
+    private static long value(String digits) {
+        if (digits.length() > 3) {
+            throw new IllegalArgumentException("Prefijo demasiado largo: " + digits);
+        }
+        long value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("El prefijo solo puede tener cifras: " + digits);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Cuenta las cifras de un número positivo.
+     */
+    static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -1,8 +1,29 @@
 package com.campusdual.classroom;
 
-import java.util.HashMap;
+import com.campusdual.util.InputSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * La clase {@code Phonebook} representa una agenda telefónica.
@@ -18,26 +39,304 @@ import java.util.Scanner;
  * <p>
  * Utiliza un {@code Map<String, Contact>} para almacenar los contactos, donde la clave es el código del contacto.
  * </p>
+ * <p>
+ * En memoria, el mapa es un {@link PersistentContactMap}: las lecturas no se bloquean y las altas y bajas son
+ * operaciones atómicas, por lo que la agenda puede usarse desde varios hilos a la vez, y {@link #snapshot()} obtiene
+ * en tiempo constante una vista inmutable de los contactos para recorrerla sin bloquear a nadie.
+ * </p>
+ * <p>
+ * La agenda puede guardarse en una instantánea binaria con {@link #save(Path)} y abrirse de nuevo con
+ * {@link #open(Path)}, que proyecta el fichero en memoria y decodifica cada contacto solo cuando se consulta.
+ * Para agendas muy grandes, {@link #offHeap()} guarda los contactos fuera del heap.
+ * </p>
+ * <p>
+ * Una agenda abierta con {@link #durable(Path, Duration)} anota cada cambio en un registro de escritura anticipada
+ * y no devuelve el control hasta que es duradero, de modo que una caída no pierde ningún cambio confirmado;
+ * {@link #checkpoint()} resume el registro en un punto de control.
+ * </p>
+ * <p>
+ * Los contactos también pueden importarse y exportarse en ficheros CSV y vCard con {@link #importFile(Path, Writer)}
+ * y {@link #exportFile(Path, ContactFileFormat)}.
+ * </p>
+ * <p>
+ * Cuando cambia el nombre o los apellidos de un contacto, la agenda lo vuelve a guardar con su nuevo código y
+ * actualiza todos los índices en una sola operación. Dentro de {@link #batchUpdate(Runnable)} estos cambios se
+ * acumulan y se aplican juntos al terminar el lote.
+ * </p>
  *
  * @author
  * @version 1.0
  */
-public class Phonebook {
+public class Phonebook implements AutoCloseable {
+    /** Número máximo de códigos sugeridos al seleccionar un contacto. */
+    private static final int MAX_SUGGESTIONS = 10;
+
+    /** Número de contactos que se leen de cada vez al escribir un listado completo. */
+    private static final int LISTING_PAGE_SIZE = 1024;
+
+    /** Tamaño del búfer de escritura de los listados. */
+    private static final int LISTING_BUFFER_SIZE = 1 << 16;
+
+    /** Número de bloqueos entre los que se reparten los códigos; debe ser una potencia de dos. */
+    private static final int CODE_LOCKS = 64;
+
     /** Mapa que almacena los contactos con su código como clave. */
-    private Map<String, Contact> contacts;
+    private final Map<String, Contact> contacts;
+
+    /** Vista del mapa de contactos que devuelve {@link #getData()}. */
+    private final Map<String, Contact> data;
+
+    /** Importación y exportación de contactos en lotes y ficheros. */
+    private final PhonebookTransfer transfer = new PhonebookTransfer(this);
+
+    /** Índice de prefijos sobre los códigos, usado para autocompletar. */
+    private final CodeTrie codeIndex = new CodeTrie();
+
+    /** Índice inverso de número de teléfono a código, usado para identificar llamadas. */
+    private final PhoneIndex phoneIndex = new PhoneIndex();
+
+    /** Índice de trigramas sobre el nombre completo, usado para buscar por nombre. */
+    private final NameSearchIndex nameIndex = new NameSearchIndex();
+
+    /** Índice ordenado por apellidos y nombre, usado para los listados alfabéticos. */
+    private final AlphabeticalIndex alphabeticalIndex = new AlphabeticalIndex();
+
+    /** Índices secundarios que se mantienen sincronizados con el mapa de contactos. */
+    private final List<IContactIndex> indexes = new ArrayList<>();
+
+    /** Indica si los índices secundarios contienen ya todos los contactos del mapa. */
+    private volatile boolean indexesBuilt;
+
+    /**
+     * Bloqueos de los códigos. Cada alta, baja o cambio de teléfonos toma el de su código mientras actualiza el mapa
+     * y los índices, para que nadie vea ni modifique el contacto a medias. Los códigos con sufijo comparten el
+     * bloqueo de su código base, de modo que reservar un sufijo también queda protegido.
+     */
+    private final ReentrantLock[] codeLocks = new ReentrantLock[CODE_LOCKS];
+
+    /**
+     * Los cambios toman la parte de lectura, además del bloqueo de su código; la construcción de los índices toma
+     * la de escritura para recorrer el mapa sin cambios a medias.
+     */
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+
+    /** Indica si el almacén guarda copias, de modo que los contactos añadidos no quedan vinculados a la agenda. */
+    private final boolean storesCopies;
+
+    /** Reparte los sufijos de los códigos repetidos cuando está activada la resolución de colisiones. */
+    private final CodeSuffixAllocator suffixes = new CodeSuffixAllocator();
+
+    /** Indica si los contactos con un código ya existente se añaden con un sufijo en lugar de rechazarse. */
+    private volatile boolean resolveCodeCollisions;
+
+    /** Contactos renombrados dentro de un lote cuyo código falta por publicar, en el orden en que cambiaron. */
+    private final Set<Contact> pendingRenames = new LinkedHashSet<>();
+
+    /** Número de llamadas a {@link #batchUpdate(Runnable)} en curso. */
+    private int batchDepth;
 
-    /** Scanner para leer la entrada del usuario. */
-    private Scanner scanner;
+    /**
+     * Registro en el que se anotan los cambios, que no anota nada si la agenda no es duradera. Cada cambio se anota
+     * y después se aplica bajo el bloqueo de su código, para que el registro guarde los de un mismo código en el
+     * mismo orden y un cambio que no se ha podido anotar no llegue a aplicarse. La espera a que sea duradero se hace
+     * ya sin el bloqueo, para que los cambios de varios hilos se sincronicen juntos.
+     */
+    private volatile PhonebookJournal journal = PhonebookJournal.NONE;
+
+    /** Plazo de agrupación del registro de cambios si no se indica otro. */
+    private static final Duration DEFAULT_COMMIT_DELAY = Duration.ofMillis(2);
+
+    /**
+     * Receptor de los cambios en los contactos de la agenda, que actualiza los índices. Un cambio de teléfonos solo
+     * afecta al índice de teléfonos; los demás índices no dependen de ellos.
+     */
+    private final IContactListener contactListener = new IContactListener() {
+        @Override
+        public void contactChanging(Contact contact) {
+            String code = contact.getCode();
+            lock(code);
+            journal.phonesChanging(lockIndex(code), code, contact);
+            if (indexesBuilt) {
+                phoneIndex.remove(contact);
+            }
+        }
+
+        @Override
+        public void contactChanged(Contact contact) {
+            long position;
+            try {
+                position = journal.phonesChanged(lockIndex(contact.getCode()), contact, contacts);
+            } finally {
+                if (indexesBuilt) {
+                    phoneIndex.add(contact);
+                }
+                unlock(contact.getCode());
+            }
+            journal.sync(position);
+        }
+
+        @Override
+        public void contactRenamed(Contact contact) {
+            journal.sync(renamed(contact));
+        }
+    };
 
     /**
      * Constructor de la clase {@code Phonebook}.
      * <p>
-     * Inicializa el mapa de contactos y el scanner.
+     * Inicializa el mapa de contactos. La agenda puede usarse desde varios hilos. La entrada estándar no se lee
+     * hasta que se usa el menú.
      * </p>
      */
     public Phonebook() {
-        contacts = new HashMap<>();
-        scanner = new Scanner(System.in);
+        this(listener -> new PersistentContactMap(), false, false);
+    }
+
+    /**
+     * Constructor común a todos los tipos de almacén.
+     * <p>
+     * Cuando el almacén ya tiene contactos, los índices secundarios no se construyen hasta la primera consulta
+     * que los necesite, para no obligar a decodificar todos los contactos al crear la agenda.
+     * </p>
+     *
+     * @param storeFactory Crea el almacén a partir del receptor que debe asignar a los contactos que devuelva.
+     * @param lazyIndexes  {@code true} si el almacén ya tiene contactos que no están en los índices.
+     * @param storesCopies {@code true} si el almacén guarda una copia de los datos en lugar del propio contacto.
+     */
+    private Phonebook(Function<IContactListener, Map<String, Contact>> storeFactory, boolean lazyIndexes,
+                      boolean storesCopies) {
+        contacts = storeFactory.apply(contactListener);
+        data = new PhonebookDataView(this, contacts);
+        for (int i = 0; i < codeLocks.length; i++) {
+            codeLocks[i] = new ReentrantLock();
+        }
+        indexes.add(codeIndex);
+        indexes.add(phoneIndex);
+        indexes.add(nameIndex);
+        indexes.add(alphabeticalIndex);
+        indexesBuilt = !lazyIndexes;
+        this.storesCopies = storesCopies;
+    }
+
+    /**
+     * Crea una agenda que guarda los contactos fuera del heap, en columnas.
+     * <p>
+     * Pensada para agendas de millones de contactos: el almacén no conserva objetos {@code Contact}, sino que
+     * cada consulta devuelve un contacto nuevo cuyos cambios se escriben de vuelta en el almacén. Por eso
+     * {@code getData().get(code)} no devuelve el mismo objeto que se añadió. Los índices secundarios solo se
+     * construyen si se usan. Como las demás, puede usarse desde varios hilos, aunque las altas, bajas y cambios se
+     * escriben en el almacén de uno en uno.
+     * </p>
+     *
+     * @return La agenda creada.
+     */
+    public static Phonebook offHeap() {
+        return new Phonebook(OffHeapContactMap::new, true, true);
+    }
+
+    /**
+     * Abre una agenda guardada con {@link #save(Path)}.
+     *
+     * @param file El fichero de la instantánea.
+     * @return La agenda abierta.
+     * @throws IOException si no se puede leer el fichero o no tiene el formato esperado.
+     */
+    public static Phonebook open(Path file) throws IOException {
+        PhonebookSnapshot snapshot = PhonebookSnapshot.open(file);
+        return new Phonebook(listener -> new SnapshotContactMap(snapshot, listener), snapshot.size() > 0, false);
+    }
+
+    /**
+     * Abre una agenda duradera guardada en un directorio, con el plazo de agrupación por defecto de 2 ms.
+     *
+     * @param directory El directorio del registro de cambios, que se crea si no existe.
+     * @return La agenda abierta, con los cambios confirmados antes de cerrarla o de una caída.
+     * @throws IOException si no se puede leer el registro.
+     * @see #durable(Path, Duration)
+     */
+    public static Phonebook durable(Path directory) throws IOException {
+        return durable(directory, DEFAULT_COMMIT_DELAY);
+    }
+
+    /**
+     * Abre una agenda duradera guardada en un directorio.
+     * <p>
+     * Los contactos se recuperan aplicando el último punto de control y los cambios anotados después. A partir de
+     * ahí, cada alta, baja, cambio de teléfonos o de nombre se anota en el registro y la operación no termina hasta
+     * que el registro está en disco. Los cambios de varios hilos se sincronizan juntos: cada uno espera como mucho
+     * {@code commitDelay} a que se le unan otros, así que un plazo mayor da más rendimiento con muchos hilos a costa
+     * de más latencia. Las agendas duraderas usan siempre el almacén en memoria y deben cerrarse con
+     * {@link #close()}.
+     * </p>
+     *
+     * @param directory   El directorio del registro de cambios, que se crea si no existe.
+     * @param commitDelay El tiempo máximo que un cambio espera a otros antes de sincronizarse.
+     * @return La agenda abierta.
+     * @throws IOException si no se puede leer el registro o está dañado.
+     * @see WriteAheadLog
+     */
+    public static Phonebook durable(Path directory, Duration commitDelay) throws IOException {
+        Phonebook phonebook = new Phonebook(listener -> new PersistentContactMap(), true, false);
+        phonebook.journal = PhonebookJournal.open(directory, commitDelay, phonebook, CODE_LOCKS);
+        return phonebook;
+    }
+
+    /**
+     * Resume el registro de cambios de una agenda duradera en un punto de control.
+     * <p>
+     * Los cambios se detienen solo mientras se copian los contactos y se sincroniza el registro; el punto de control
+     * se escribe después, sin bloquear a nadie, y al terminar se borran los ficheros que ya no hacen falta para
+     * recuperar la agenda.
+     * </p>
+     *
+     * @throws IOException           si no se puede escribir el punto de control.
+     * @throws IllegalStateException si la agenda no es duradera.
+     */
+    public void checkpoint() throws IOException {
+        startCheckpoint().write();
+    }
+
+    /**
+     * Copia los contactos y pasa a un segmento nuevo del registro de cambios, sin escribir todavía el punto de
+     * control.
+     * <p>
+     * Se copian los datos y no los contactos, porque pueden cambiar mientras se escribe el punto de control y esos
+     * cambios ya se anotan en el segmento nuevo.
+     * </p>
+     *
+     * @return El punto de control, listo para escribirse.
+     * @throws IllegalStateException si la agenda no es duradera.
+     */
+    PhonebookJournal.PendingCheckpoint startCheckpoint() {
+        // Todos los cambios se anotan y se aplican con la parte de lectura, así que ninguno queda a medias
+        storeLock.writeLock().lock();
+        try {
+            return journal.startCheckpoint(contacts);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cierra el registro de cambios de una agenda duradera, después de hacer duraderos los cambios pendientes.
+     * Las demás agendas no tienen nada que cerrar.
+     */
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    /**
+     * Guarda los contactos de la agenda en una instantánea binaria.
+     * <p>
+     * Puede guardarse sobre el mismo fichero del que se abrió la agenda con {@link #open(Path)}.
+     * </p>
+     *
+     * @param file El fichero de destino, que se sobrescribe si existe.
+     * @throws IOException si no se puede escribir el fichero.
+     */
+    public void save(Path file) throws IOException {
+        PhonebookSnapshot.write(contactsToWrite(), file);
     }
 
     /**
@@ -104,19 +403,155 @@ public class Phonebook {
     /**
      * Añade un contacto al mapa de contactos.
      * <p>
-     * Verifica que no exista otro contacto con el mismo código antes de añadirlo.
+     * Solo lo añade si no existe otro contacto con el mismo código; la comprobación y la inserción son una única
+     * operación atómica. Si está activada la resolución de colisiones, en lugar de rechazarlo se le asigna el
+     * siguiente código libre con sufijo ({@code jlopez2}, {@code jlopez3}...). Un contacto que ya está en esta o en
+     * otra agenda nunca se añade.
      * </p>
      *
      * @param contact El contacto a añadir.
+     * @return {@code true} si el contacto se ha añadido.
      */
-    public void addContact(Contact contact) {
-        if (contacts.containsKey(contact.getCode())) {
-            System.out.println("Ya existe un contacto con el código: " + contact.getCode());
+    public boolean addContact(Contact contact) {
+        long start = PhonebookMetrics.start();
+        boolean added = insert(contact);
+        PhonebookMetrics.record(PhonebookMetrics.Operation.ADD, start);
+        if (!added) {
+            PhonebookMetrics.rejectedAdd();
+            if (contact.getListener() != null) {
+                System.out.println("El contacto ya pertenece a una agenda: " + contact.getCode());
+            } else {
+                System.out.println("Ya existe un contacto con el código: " + contact.getCode());
+            }
             System.out.println("No se ha añadido el contacto.");
-        } else {
-            contacts.put(contact.getCode(), contact);
-            System.out.println("Contacto añadido exitosamente con el código: " + contact.getCode());
+            return false;
         }
+        System.out.println("Contacto añadido exitosamente con el código: " + contact.getCode());
+        return true;
+    }
+
+    /**
+     * Importa un lote de contactos en una sola pasada y sin mostrar mensajes por cada contacto.
+     *
+     * @param batch Los contactos a importar.
+     * @return El resultado de la importación.
+     * @see #importContacts(Stream)
+     */
+    public ImportResult importContacts(Iterable<Contact> batch) {
+        return importContacts(StreamSupport.stream(batch.spliterator(), false));
+    }
+
+    /**
+     * Importa un lote de contactos en una sola pasada y sin mostrar mensajes por cada contacto.
+     * <p>
+     * Los contactos se insertan en orden: si un código ya aparecía antes en el lote o ya existía en la agenda, el
+     * contacto se rechaza y su código se incluye en el resultado. Si está activada la resolución de colisiones
+     * ningún contacto se rechaza: los repetidos reciben un código con sufijo en el orden del lote.
+     * </p>
+     *
+     * @param batch Los contactos a importar.
+     * @return El resultado de la importación.
+     */
+    public ImportResult importContacts(Stream<Contact> batch) {
+        return transfer.importContacts(batch);
+    }
+
+    /**
+     * Importa los contactos de un fichero CSV o vCard, eligiendo el formato por la extensión del fichero.
+     *
+     * @param file   El fichero, codificado en UTF-8.
+     * @param errors El destino del informe de errores, o {@code null} para descartarlo.
+     * @return El resumen de la importación.
+     * @throws IOException si no se puede leer el fichero o escribir el informe.
+     * @see #importFile(Path, ContactFileFormat, Writer)
+     */
+    public ImportReport importFile(Path file, Writer errors) throws IOException {
+        return importFile(file, ContactFileFormat.forFile(file), errors);
+    }
+
+    /**
+     * Importa los contactos de un fichero CSV o vCard.
+     * <p>
+     * El fichero se lee por bloques y los contactos se insertan en lotes de
+     * {@value PhonebookTransfer#IMPORT_BATCH_SIZE} con las mismas reglas que {@link #importContacts(Stream)}, por lo
+     * que la memoria usada no depende del tamaño del fichero. Los registros no válidos y los contactos rechazados no
+     * interrumpen la importación: por cada uno se escribe una línea en el informe de errores con el número de línea
+     * del fichero y el motivo. El informe se vacía al terminar, pero no se cierra.
+     * </p>
+     *
+     * @param file   El fichero, codificado en UTF-8.
+     * @param format El formato del fichero.
+     * @param errors El destino del informe de errores, o {@code null} para descartarlo.
+     * @return El resumen de la importación.
+     * @throws IOException si no se puede leer el fichero o escribir el informe.
+     */
+    public ImportReport importFile(Path file, ContactFileFormat format, Writer errors) throws IOException {
+        return transfer.importFile(file, format, errors);
+    }
+
+    /**
+     * Exporta todos los contactos a un fichero CSV o vCard.
+     * <p>
+     * Con el almacén en memoria, los contactos se toman de una {@linkplain #snapshot() instantánea} hecha al empezar,
+     * y el fichero se escribe después sin bloquear la agenda, de modo que las altas y bajas que se hagan mientras
+     * tanto no aparecen en el fichero ni tienen que esperar a que termine. Con los almacenes de {@link #open(Path)} y
+     * {@link #offHeap()} los contactos se recorren directamente, sin copiarlos todos antes.
+     * </p>
+     *
+     * @param file   El fichero de destino, que se sobrescribe si existe.
+     * @param format El formato del fichero.
+     * @return El número de contactos exportados.
+     * @throws IOException si no se puede escribir el fichero.
+     */
+    public int exportFile(Path file, ContactFileFormat format) throws IOException {
+        return transfer.exportFile(file, format);
+    }
+
+    /**
+     * Obtiene los contactos que se guardan o exportan enteros.
+     * <p>
+     * Con el almacén en memoria es una instantánea, que no cuesta nada; con los demás, el propio almacén, para no
+     * tener que decodificar y copiar todos los contactos a la vez.
+     * </p>
+     *
+     * @return Los contactos.
+     */
+    Collection<Contact> contactsToWrite() {
+        if (contacts instanceof PersistentContactMap) {
+            return ((PersistentContactMap) contacts).snapshot().values();
+        }
+        return contacts.values();
+    }
+
+    /**
+     * Inserta los primeros contactos de un lote en una sola pasada y sin mostrar mensajes.
+     * <p>
+     * Los contactos se insertan en orden: si un código ya aparecía antes en el lote o ya existía en la agenda, el
+     * contacto se rechaza. Si está activada la resolución de colisiones los repetidos reciben un código con sufijo
+     * en el orden del lote. Los códigos ya se generan al crear cada contacto, así que no hay trabajo que repartir
+     * entre hilos.
+     * </p>
+     *
+     * @param imported Los contactos.
+     * @param length   El número de contactos del lote que se insertan.
+     * @param rejected Donde se marcan las posiciones de los contactos rechazados.
+     * @return El número de contactos insertados.
+     */
+    int importBatch(Contact[] imported, int length, boolean[] rejected) {
+        int inserted = 0;
+        // Se espera una sola vez a que sea duradero todo el lote
+        long position = 0;
+        for (int i = 0; i < length; i++) {
+            long stored = store(imported[i]);
+            if (stored >= 0) {
+                position = Math.max(position, stored);
+                inserted++;
+            } else {
+                rejected[i] = true;
+            }
+        }
+        journal.sync(position);
+        return inserted;
     }
 
     /**
@@ -137,10 +572,168 @@ public class Phonebook {
         if (contacts.isEmpty()) {
             System.out.println("La agenda telefónica está vacía.");
         } else {
-            for (Contact contact : contacts.values()) {
-                System.out.println(contact.toString());
+            try {
+                writeContacts(new PrintStreamWriter(System.out));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Obtiene una página de contactos ordenados por código.
+     * <p>
+     * La página solo tiene menos de {@code limit} contactos cuando no hay más, aunque se borren contactos mientras
+     * se obtiene, así que puede recorrerse la agenda hasta recibir una página corta.
+     * </p>
+     *
+     * @param afterCode El último código de la página anterior, o {@code null} para empezar desde el principio.
+     * @param limit     El número máximo de contactos de la página.
+     * @return Los contactos cuyo código sigue a {@code afterCode}.
+     */
+    public List<Contact> listContacts(String afterCode, int limit) {
+        long start = PhonebookMetrics.start();
+        List<Contact> page = page(afterCode, limit);
+        PhonebookMetrics.record(PhonebookMetrics.Operation.LIST, start);
+        return page;
+    }
+
+    /**
+     * Obtiene una página de contactos ordenados por código a partir de una posición.
+     *
+     * @param offset La posición del primer contacto, empezando en 0.
+     * @param limit  El número máximo de contactos de la página.
+     * @return Los contactos de la página.
+     */
+    public List<Contact> listContacts(int offset, int limit) {
+        long start = PhonebookMetrics.start();
+        ensureIndexes();
+        List<Contact> page = toContacts(codeIndex.range(offset, limit));
+        PhonebookMetrics.record(PhonebookMetrics.Operation.LIST, start);
+        return page;
+    }
+
+    /**
+     * Obtiene una página de contactos ordenados alfabéticamente por apellidos y nombre.
+     * <p>
+     * El orden es el de la colación española. La página empieza tras el último contacto de la anterior, aunque
+     * ese contacto se haya borrado entretanto.
+     * </p>
+     *
+     * @param after El último contacto de la página anterior, o {@code null} para empezar desde el principio.
+     * @param limit El número máximo de contactos de la página.
+     * @return Los contactos que siguen a {@code after}.
+     * @see AlphabeticalIndex#after(Contact, int)
+     */
+    public List<Contact> listAlphabetically(Contact after, int limit) {
+        long start = PhonebookMetrics.start();
+        ensureIndexes();
+        List<Contact> page = toContacts(alphabeticalIndex.after(after, limit));
+        PhonebookMetrics.record(PhonebookMetrics.Operation.LIST, start);
+        return page;
+    }
+
+    /**
+     * Obtiene, ordenados alfabéticamente, los contactos cuyos apellidos están entre dos prefijos.
+     * <p>
+     * Los dos límites se incluyen y no distinguen mayúsculas ni acentos: de "Ga" a "Go" incluye a García y a
+     * Gómez.
+     * </p>
+     *
+     * @param from  El prefijo por el que empieza el rango, o {@code null} para empezar por el principio.
+     * @param to    El prefijo por el que acaba el rango, o {@code null} para llegar hasta el final.
+     * @param limit El número máximo de contactos.
+     * @return Los contactos del rango.
+     * @see AlphabeticalIndex#range(String, String, int)
+     */
+    public List<Contact> listBySurnames(String from, String to, int limit) {
+        long start = PhonebookMetrics.start();
+        ensureIndexes();
+        List<Contact> range = toContacts(alphabeticalIndex.range(from, to, limit));
+        PhonebookMetrics.record(PhonebookMetrics.Operation.LIST, start);
+        return range;
+    }
+
+    /**
+     * Escribe todos los contactos, ordenados por código y uno por línea, en el destino indicado.
+     * <p>
+     * Los contactos se leen por páginas y se escriben a través de un único búfer, por lo que la memoria usada
+     * no depende del tamaño de la agenda. El destino no se cierra.
+     * </p>
+     *
+     * @param out El destino del listado.
+     * @throws IOException si falla la escritura.
+     */
+    public void writeContacts(Writer out) throws IOException {
+        long start = PhonebookMetrics.start();
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, LISTING_BUFFER_SIZE);
+        String lineSeparator = System.lineSeparator();
+        ensureIndexes();
+        String cursor = null;
+        List<String> codes;
+        do {
+            // Se avanza por los códigos del índice y no por los contactos encontrados: un contacto borrado
+            // entretanto deja la página corta sin que se haya llegado al final
+            codes = codeIndex.after(cursor, LISTING_PAGE_SIZE);
+            for (String code : codes) {
+                Contact contact = contacts.get(code);
+                if (contact != null) {
+                    contact.appendTo(writer);
+                    writer.write(lineSeparator);
+                }
+                cursor = code;
+            }
+        } while (codes.size() == LISTING_PAGE_SIZE);
+        writer.flush();
+        PhonebookMetrics.record(PhonebookMetrics.Operation.SHOW, start);
+    }
+
+    /**
+     * Obtiene los contactos cuyo código sigue a uno dado, en orden alfabético.
+     * <p>
+     * Los códigos del índice cuyo contacto se ha borrado entretanto se saltan y se leen más, para que la página
+     * solo quede corta al llegar al final.
+     * </p>
+     *
+     * @param afterCode El código tras el que empieza la página, o {@code null} para empezar por el principio.
+     * @param limit     El número máximo de contactos.
+     * @return Los contactos de la página.
+     */
+    private List<Contact> page(String afterCode, int limit) {
+        ensureIndexes();
+        List<Contact> result = new ArrayList<>(Math.max(limit, 0));
+        String cursor = afterCode;
+        int requested;
+        List<String> codes;
+        do {
+            requested = limit - result.size();
+            codes = codeIndex.after(cursor, requested);
+            for (String code : codes) {
+                Contact contact = contacts.get(code);
+                if (contact != null) {
+                    result.add(contact);
+                }
+                cursor = code;
+            }
+        } while (result.size() < limit && codes.size() == requested);
+        return result;
+    }
+
+    /**
+     * Convierte una lista de códigos en la lista de sus contactos, omitiendo los que ya no existan.
+     *
+     * @param codes Los códigos.
+     * @return Los contactos en el mismo orden.
+     */
+    private List<Contact> toContacts(List<String> codes) {
+        List<Contact> result = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            Contact contact = contacts.get(code);
+            if (contact != null) {
+                result.add(contact);
             }
         }
+        return result;
     }
 
     /**
@@ -152,11 +745,15 @@ public class Phonebook {
     private void selectContact() {
         System.out.println("\n--- Seleccionar Contacto ---");
         String code = readStringInput("Ingrese el código del contacto: ");
-        if (contacts.containsKey(code)) {
-            Contact contact = contacts.get(code);
+        Contact contact = contacts.get(code);
+        if (contact != null) {
             contactMenu(contact);
         } else {
             System.out.println("No se encontró ningún contacto con el código: " + code);
+            List<String> suggestions = findCodesByPrefix(code, MAX_SUGGESTIONS);
+            if (!suggestions.isEmpty()) {
+                System.out.println("Códigos que empiezan por \"" + code + "\": " + String.join(", ", suggestions));
+            }
         }
     }
 
@@ -210,23 +807,576 @@ public class Phonebook {
      * Elimina un contacto del mapa de contactos basado en su código.
      *
      * @param code El código del contacto a eliminar.
+     * @return {@code true} si el contacto existía y se ha eliminado.
      */
-    public void deleteContact(String code) {
-        if (contacts.containsKey(code)) {
-            contacts.remove(code);
-            System.out.println("Contacto con el código " + code + " ha sido eliminado.");
-        } else {
+    public boolean deleteContact(String code) {
+        long start = PhonebookMetrics.start();
+        Contact removed = remove(code);
+        PhonebookMetrics.record(PhonebookMetrics.Operation.DELETE, start);
+        if (removed == null) {
             System.out.println("No se encontró ningún contacto con el código: " + code);
+            return false;
+        }
+        System.out.println("Contacto con el código " + code + " ha sido eliminado.");
+        return true;
+    }
+
+    /**
+     * Obtiene, en orden alfabético, los códigos de contacto que empiezan por el prefijo indicado.
+     * <p>
+     * El prefijo se pasa a minúsculas y sin signos diacríticos, igual que los códigos.
+     * </p>
+     *
+     * @param prefix El prefijo a completar.
+     * @param limit  El número máximo de códigos a devolver.
+     * @return Lista con los códigos encontrados.
+     */
+    public List<String> findCodesByPrefix(String prefix, int limit) {
+        long start = PhonebookMetrics.start();
+        ensureIndexes();
+        List<String> codes = codeIndex.complete(ContactCodeGenerator.fold(prefix), limit);
+        PhonebookMetrics.record(PhonebookMetrics.Operation.LOOKUP, start);
+        return codes;
+    }
+
+    /**
+     * Busca contactos cuyo nombre o apellidos contienen el texto indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param query El texto a buscar, de al menos dos letras.
+     * @param limit El número máximo de resultados.
+     * @return Los contactos encontrados, ordenados por relevancia.
+     * @see NameSearchIndex#search(String, int)
+     */
+    public List<Contact> searchByName(String query, int limit) {
+        long start = PhonebookMetrics.start();
+        ensureIndexes();
+        List<Contact> found = toContacts(nameIndex.search(query, limit));
+        PhonebookMetrics.record(PhonebookMetrics.Operation.SEARCH, start);
+        return found;
+    }
+
+    /**
+     * Busca el contacto al que pertenece un número de teléfono.
+     * <p>
+     * Solo se tienen en cuenta los dígitos, por lo que "654 321 321" y "654-321-321" son el mismo número.
+     * </p>
+     *
+     * @param phone El número de teléfono.
+     * @return El contacto, o {@code null} si ningún contacto tiene ese número. Si lo comparten varios, el primero
+     *         que se añadió con él.
+     */
+    public Contact findByPhone(String phone) {
+        long start = PhonebookMetrics.start();
+        ensureIndexes();
+        String code = phoneIndex.find(phone);
+        Contact contact = code == null ? null : contacts.get(code);
+        PhonebookMetrics.record(PhonebookMetrics.Operation.LOOKUP, start);
+        return contact;
+    }
+
+    /**
+     * Activa o desactiva la resolución de colisiones de códigos.
+     * <p>
+     * Con la resolución activada, un contacto cuyo código ya existe se añade con el código base seguido del menor
+     * sufijo libre a partir de 2. Cada código base lleva su propio contador, por lo que asignar un código no
+     * recorre el mapa probando sufijos, y los sufijos de los contactos borrados vuelven a quedar libres.
+     * </p>
+     *
+     * <p>
+     * Al activarla, los contadores se calculan a partir de los códigos de los contactos que ya tiene la agenda, por
+     * lo que se recorren todos una vez.
+     * </p>
+     *
+     * @param resolve {@code true} para añadir con sufijo los contactos con un código repetido.
+     */
+    public void setResolveCodeCollisions(boolean resolve) {
+        storeLock.writeLock().lock();
+        try {
+            if (resolve && !resolveCodeCollisions) {
+                // Mientras estaba desactivada, las altas no han pasado por los contadores
+                suffixes.clear();
+                for (Contact contact : contacts.values()) {
+                    suffixes.reserve(contact.getBaseCode(), contact.getCodeNumber());
+                }
+            }
+            this.resolveCodeCollisions = resolve;
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si está activada la resolución de colisiones de códigos.
+     *
+     * @return {@code true} si los contactos con un código repetido se añaden con sufijo.
+     */
+    public boolean isResolveCodeCollisions() {
+        return resolveCodeCollisions;
+    }
+
+    /**
+     * Inserta un contacto en el mapa sin mostrar mensajes y lo vincula a la agenda, esperando a que el alta sea
+     * duradera si la agenda lo es.
+     *
+     * @param contact El contacto a insertar.
+     * @return {@code true} si se ha insertado.
+     */
+    boolean insert(Contact contact) {
+        long position = store(contact);
+        if (position < 0) {
+            return false;
+        }
+        journal.sync(position);
+        return true;
+    }
+
+    /**
+     * Anota el alta de un contacto en el registro de cambios, si lo hay, y después lo inserta en el mapa y lo
+     * vincula a la agenda. No espera a que el alta sea duradera.
+     * <p>
+     * Un contacto que ya está en esta o en otra agenda se rechaza sin tocar su código: volver a guardarlo lo dejaría
+     * con dos códigos si está activada la resolución de colisiones, y al cambiar de nombre solo lo volvería a
+     * guardar con su nuevo código la última agenda que lo hubiera vinculado.
+     * </p>
+     *
+     * @param contact El contacto a insertar.
+     * @return La posición del alta en el registro, 0 si no se ha anotado o -1 si el contacto no se ha insertado.
+     */
+    private long store(Contact contact) {
+        if (contact.getListener() != null) {
+            return -1;
+        }
+        contact.refreshCode();
+        String code = contact.getCode();
+        lock(code);
+        try {
+            // Otro hilo puede haber guardado el mismo contacto mientras se esperaba el bloqueo
+            if (contact.getListener() != null) {
+                return -1;
+            }
+            boolean resolve = resolveCodeCollisions;
+            if (resolve) {
+                assignSuffix(contact);
+            } else if (contacts.containsKey(code)) {
+                return -1;
+            }
+            long position;
+            try {
+                position = journal.add(contact.getCode(), contact);
+            } catch (RuntimeException e) {
+                if (resolve) {
+                    suffixes.release(contact.getBaseCode(), contact.getCodeNumber());
+                    contact.assignCodeNumber(1);
+                }
+                throw e;
+            }
+            contacts.put(contact.getCode(), contact);
+            attach(contact);
+            return position;
+        } finally {
+            unlock(code);
+        }
+    }
+
+    /**
+     * Elimina un contacto sin mostrar mensajes y lo desvincula de la agenda.
+     * <p>
+     * La baja se anota en el registro de cambios, si lo hay, antes de quitar el contacto del mapa.
+     * </p>
+     *
+     * @param code El código del contacto.
+     * @return El contacto eliminado, o {@code null} si no existía.
+     */
+    Contact remove(String code) {
+        Contact removed;
+        long position;
+        lock(code);
+        try {
+            removed = contacts.get(code);
+            if (removed == null) {
+                return null;
+            }
+            position = journal.delete(code);
+            contacts.remove(code);
+            detach(removed);
+        } finally {
+            unlock(code);
+        }
+        journal.sync(position);
+        return removed;
+    }
+
+    /**
+     * Guarda un contacto con un código dado, sustituyendo al que lo tuviera, y anota el alta en el registro de
+     * cambios, si lo hay, antes de cambiar el mapa.
+     * <p>
+     * Un contacto vinculado a otra agenda solo puede guardarse en un almacén que guarda copias; el que ya está
+     * guardado con ese código puede volver a guardarse.
+     * </p>
+     *
+     * @param code    El código.
+     * @param contact El contacto.
+     * @return El contacto sustituido, o {@code null} si no había ninguno con ese código.
+     * @throws IllegalArgumentException si el contacto pertenece a otra agenda.
+     */
+    Contact putContact(String code, Contact contact) {
+        Contact previous;
+        long position;
+        lock(code);
+        try {
+            IContactListener owner = contact.getListener();
+            if (owner != null && owner != contactListener && !storesCopies && contacts.get(code) != contact) {
+                throw new IllegalArgumentException("El contacto " + code + " ya pertenece a otra agenda.");
+            }
+            position = journal.add(code, contact);
+            previous = contacts.put(code, contact);
+            if (previous != contact) {
+                if (previous != null) {
+                    detach(previous);
+                }
+                attach(contact);
+            }
+        } finally {
+            unlock(code);
+        }
+        journal.sync(position);
+        return previous;
+    }
+
+    /**
+     * Elimina el contacto de la entrada actual de un recorrido del almacén, a través del propio iterador, y lo
+     * desvincula de la agenda. La baja se anota en el registro de cambios antes de quitar la entrada.
+     *
+     * @param entries El iterador del almacén.
+     * @param entry   La última entrada devuelta por el iterador.
+     */
+    void removeEntry(Iterator<Map.Entry<String, Contact>> entries, Map.Entry<String, Contact> entry) {
+        String code = entry.getKey();
+        long position;
+        lock(code);
+        try {
+            position = journal.delete(code);
+            entries.remove();
+            detach(entry.getValue());
+        } finally {
+            unlock(code);
+        }
+        journal.sync(position);
+    }
+
+    /**
+     * Asigna a un contacto el menor sufijo libre de su código base.
+     * <p>
+     * Se llama con el bloqueo del código base, que comparten todos sus códigos con sufijo, así que el código
+     * asignado sigue libre hasta que se guarda el contacto. El número reservado solo puede estar ocupado si el
+     * código se insertó sin pasar por el contador (por ejemplo, con la resolución desactivada o desde una
+     * instantánea); en ese caso se descarta y se reserva el siguiente.
+     * </p>
+     *
+     * @param contact El contacto, con el código ya regenerado.
+     */
+    private void assignSuffix(Contact contact) {
+        String baseCode = contact.getBaseCode();
+        while (true) {
+            contact.assignCodeNumber(suffixes.acquire(baseCode));
+            if (!contacts.containsKey(contact.getCode())) {
+                return;
+            }
+            suffixes.discard(baseCode);
+        }
+    }
+
+    /**
+     * Agrupa varios cambios de nombre o apellidos para aplicarlos juntos.
+     * <p>
+     * Mientras se ejecuta el lote, los contactos renombrados siguen guardados con su código anterior, que es el que
+     * devuelve {@link Contact#getCode()}. Al terminar, cada contacto renombrado se vuelve a guardar con su nuevo
+     * código y se actualizan los índices, regenerando el código una sola vez por contacto aunque haya cambiado
+     * varias veces.
+     * </p>
+     * <p>
+     * Los lotes pueden anidarse; los cambios se aplican al terminar el más externo. Los cambios hechos desde otros
+     * hilos mientras dura el lote también se retrasan hasta el final.
+     * </p>
+     *
+     * @param changes Los cambios a aplicar.
+     */
+    public void batchUpdate(Runnable changes) {
+        synchronized (this) {
+            batchDepth++;
+        }
+        long position = 0;
+        try {
+            changes.run();
+        } finally {
+            synchronized (this) {
+                if (--batchDepth == 0) {
+                    List<Contact> renamed;
+                    synchronized (pendingRenames) {
+                        renamed = new ArrayList<>(pendingRenames);
+                        pendingRenames.clear();
+                    }
+                    for (Contact contact : renamed) {
+                        position = Math.max(position, rekey(contact));
+                    }
+                }
+            }
+        }
+        journal.sync(position);
+    }
+
+    /**
+     * Atiende el aviso de que un contacto de la agenda ha cambiado de nombre o apellidos.
+     * <p>
+     * Dentro de un lote solo se anota el contacto, que sigue guardado con su código; fuera de él se vuelve a
+     * guardar en el momento.
+     * </p>
+     *
+     * @param contact El contacto renombrado.
+     * @return La posición del cambio en el registro de cambios, o 0 si no se ha anotado.
+     */
+    private synchronized long renamed(Contact contact) {
+        if (batchDepth > 0) {
+            synchronized (pendingRenames) {
+                pendingRenames.add(contact);
+            }
+            return 0;
+        }
+        return rekey(contact);
+    }
+
+    /**
+     * Vuelve a guardar un contacto renombrado con su nuevo código y actualiza los índices.
+     * <p>
+     * Un contacto cuyo código base no cambia conserva su sufijo. Como el cambio de nombre ya está hecho, un código
+     * nuevo que choca con otro contacto siempre se resuelve con un sufijo, aunque la resolución de colisiones esté
+     * desactivada. El cambio se anota en el registro antes de volver a guardar el contacto; si no se puede anotar,
+     * el contacto sigue guardado con su código anterior.
+     * </p>
+     *
+     * @param contact El contacto renombrado, que todavía publica el código con el que está guardado.
+     * @return La posición del cambio en el registro de cambios, o 0 si no se ha anotado.
+     */
+    private synchronized long rekey(Contact contact) {
+        String oldCode = contact.getCode();
+        String newBaseCode = ContactCodeGenerator.generateCode(contact.getName(), contact.getSurnames());
+        int first = Math.min(lockIndex(oldCode), lockIndex(newBaseCode));
+        int second = Math.max(lockIndex(oldCode), lockIndex(newBaseCode));
+        storeLock.readLock().lock();
+        codeLocks[first].lock();
+        codeLocks[second].lock();
+        try {
+            if (!contacts.containsKey(oldCode)) {
+                return 0;
+            }
+            String oldBaseCode = contact.getBaseCode();
+            int oldNumber = contact.getCodeNumber();
+            boolean newBase = !newBaseCode.equals(oldBaseCode);
+            int number = oldNumber;
+            String newCode = oldCode;
+            while (newBase) {
+                number = suffixes.acquire(newBaseCode);
+                newCode = CodeSuffixAllocator.code(newBaseCode, number);
+                if (newCode.equals(oldCode) || !contacts.containsKey(newCode)) {
+                    break;
+                }
+                suffixes.discard(newBaseCode);
+            }
+            long position;
+            try {
+                position = journal.rename(oldCode, newCode, contact);
+            } catch (RuntimeException e) {
+                if (newBase) {
+                    suffixes.release(newBaseCode, number);
+                }
+                throw e;
+            }
+            if (newBase) {
+                suffixes.release(oldBaseCode, oldNumber);
+            }
+            contacts.remove(oldCode);
+            contact.refreshCode();
+            contact.assignCodeNumber(number);
+            contacts.put(newCode, contact);
+            if (indexesBuilt) {
+                for (IContactIndex index : indexes) {
+                    index.rename(oldCode, contact);
+                }
+            }
+            return position;
+        } finally {
+            codeLocks[second].unlock();
+            codeLocks[first].unlock();
+            storeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Vincula un contacto recién insertado a la agenda y lo añade a los índices secundarios.
+     *
+     * @param contact El contacto insertado.
+     */
+    private void attach(Contact contact) {
+        if (!storesCopies) {
+            contact.setListener(contactListener);
+        }
+        addToIndexes(contact);
+    }
+
+    /**
+     * Desvincula un contacto recién borrado de la agenda y lo quita de los índices secundarios.
+     *
+     * @param contact El contacto eliminado.
+     */
+    private void detach(Contact contact) {
+        dropPendingRename(contact);
+        suffixes.release(contact.getBaseCode(), contact.getCodeNumber());
+        removeFromIndexes(contact);
+        if (contact.getListener() == contactListener) {
+            contact.setListener(null);
+            // Fuera de la agenda el código vuelve a corresponder al nombre
+            contact.refreshCode();
+        }
+    }
+
+    /**
+     * Descarta el cambio de código pendiente de un contacto, si lo tiene.
+     * <p>
+     * Se llama con el bloqueo del código, así que usa el del conjunto y no el de la agenda, que se toma antes.
+     * </p>
+     *
+     * @param contact El contacto.
+     */
+    private void dropPendingRename(Contact contact) {
+        synchronized (pendingRenames) {
+            pendingRenames.remove(contact);
+        }
+    }
+
+    /**
+     * Construye los índices secundarios si todavía no contienen todos los contactos.
+     * <p>
+     * Mientras se construyen no puede haber cambios a medias, así que los índices solo se dan por construidos
+     * cuando contienen exactamente los contactos del mapa.
+     * </p>
+     */
+    private void ensureIndexes() {
+        if (indexesBuilt) {
+            return;
+        }
+        storeLock.writeLock().lock();
+        try {
+            if (!indexesBuilt) {
+                for (Contact contact : contacts.values()) {
+                    for (IContactIndex index : indexes) {
+                        index.add(contact);
+                    }
+                }
+                indexesBuilt = true;
+            }
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Toma el bloqueo de un código para modificar el contacto que lo tiene.
+     *
+     * @param code El código.
+     */
+    private void lock(String code) {
+        storeLock.readLock().lock();
+        codeLocks[lockIndex(code)].lock();
+    }
+
+    /**
+     * Libera el bloqueo tomado con {@link #lock(String)}.
+     *
+     * @param code El código.
+     */
+    private void unlock(String code) {
+        codeLocks[lockIndex(code)].unlock();
+        storeLock.readLock().unlock();
+    }
+
+    /**
+     * Obtiene la posición del bloqueo de un código, que no depende del sufijo numérico que pueda llevar.
+     *
+     * @param code El código.
+     * @return La posición en {@link #codeLocks}.
+     */
+    private static int lockIndex(String code) {
+        int end = code.length();
+        while (end > 0 && Character.isDigit(code.charAt(end - 1))) {
+            end--;
+        }
+        int hash = 0;
+        for (int i = 0; i < end; i++) {
+            hash = 31 * hash + code.charAt(i);
+        }
+        return (hash ^ (hash >>> 16)) & (CODE_LOCKS - 1);
+    }
+
+    /**
+     * Añade un contacto recién insertado a todos los índices secundarios.
+     *
+     * @param contact El contacto insertado.
+     */
+    private void addToIndexes(Contact contact) {
+        if (!indexesBuilt) {
+            return;
+        }
+        for (IContactIndex index : indexes) {
+            index.add(contact);
+        }
+    }
+
+    /**
+     * Elimina un contacto recién borrado de todos los índices secundarios.
+     *
+     * @param contact El contacto eliminado.
+     */
+    private void removeFromIndexes(Contact contact) {
+        if (!indexesBuilt) {
+            return;
+        }
+        for (IContactIndex index : indexes) {
+            index.remove(contact);
         }
     }
 
     /**
      * Obtiene el mapa de contactos almacenados en la agenda.
+     * <p>
+     * El mapa es una vista del almacén: refleja los cambios de la agenda, y los cambios que se hagan en él pasan
+     * por la agenda, de modo que los contactos añadidos o borrados a través del mapa quedan también vinculados o
+     * desvinculados y actualizados en los índices. Un contacto solo puede guardarse con su propio código; {@code put}
+     * con otra clave lanza {@code IllegalArgumentException}. Para recorrer los contactos mientras otros hilos
+     * modifican la agenda es mejor usar {@link #snapshot()}.
+     * </p>
      *
      * @return El mapa de contactos.
      */
     public Map<String, Contact> getData() {
-        return contacts;
+        return data;
+    }
+
+    /**
+     * Obtiene una instantánea inmutable de los contactos de la agenda.
+     * <p>
+     * Con el almacén en memoria la instantánea se obtiene en tiempo constante y comparte su estructura con el
+     * almacén, que copia solo los nodos que cambian en cada alta o baja. La instantánea fija qué contactos hay y
+     * con qué código, pero no copia los contactos: los cambios en sus datos sí se ven. Con los almacenes de
+     * {@link #open(Path)} y {@link #offHeap()} la instantánea es una copia de las entradas.
+     * </p>
+     *
+     * @return Un mapa inmutable de los contactos por código.
+     */
+    public Map<String, Contact> snapshot() {
+        if (contacts instanceof PersistentContactMap) {
+            return ((PersistentContactMap) contacts).snapshot();
+        }
+        return PersistentContactMap.copyOf(contacts);
     }
 
     /**
@@ -239,18 +1389,15 @@ public class Phonebook {
      * @return El número entero ingresado.
      */
     private int readIntegerInput(String prompt) {
-        int number = -1;
+        InputSource input = InputSource.system();
         while (true) {
             System.out.print(prompt);
-            String input = scanner.nextLine();
             try {
-                number = Integer.parseInt(input);
-                break;
+                return input.readInt();
             } catch (NumberFormatException e) {
                 System.out.println("Entrada inválida. Por favor, ingrese un número entero.");
             }
         }
-        return number;
     }
 
     /**
@@ -261,6 +1408,37 @@ public class Phonebook {
      */
     private String readStringInput(String prompt) {
         System.out.print(prompt);
-        return scanner.nextLine().trim();
+        String line = InputSource.system().readLine();
+        if (line == null) {
+            throw new NoSuchElementException("No hay más datos de entrada.");
+        }
+        return line.trim();
+    }
+
+    /**
+     * Adaptador que escribe en un {@code PrintStream} por bloques, tomando su bloqueo una vez por bloque
+     * y respetando su codificación de caracteres.
+     */
+    private static final class PrintStreamWriter extends Writer {
+        private final PrintStream out;
+
+        PrintStreamWriter(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            out.append(CharBuffer.wrap(buffer, offset, length));
+        }
+
+        @Override
+        public void flush() {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
     }
 }
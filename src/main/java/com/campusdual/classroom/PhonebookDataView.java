@@ -0,0 +1,102 @@
+package com.campusdual.classroom;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vista del mapa de contactos de una agenda que hace pasar por la agenda las altas y bajas.
+ * <p>
+ * Las consultas van directamente al almacén; las altas, bajas y sustituciones se anotan en el registro de cambios y
+ * actualizan los índices igual que las de la propia agenda. Un contacto solo puede guardarse con su propio código.
+ * </p>
+ */
+final class PhonebookDataView extends AbstractMap<String, Contact> {
+    private final Phonebook phonebook;
+    private final Map<String, Contact> contacts;
+
+    /**
+     * Crea la vista del almacén de una agenda.
+     *
+     * @param phonebook La agenda.
+     * @param contacts  El almacén de contactos de la agenda.
+     */
+    PhonebookDataView(Phonebook phonebook, Map<String, Contact> contacts) {
+        this.phonebook = phonebook;
+        this.contacts = contacts;
+    }
+
+    @Override
+    public int size() {
+        return contacts.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return contacts.isEmpty();
+    }
+
+    @Override
+    public Contact get(Object key) {
+        return contacts.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return contacts.containsKey(key);
+    }
+
+    @Override
+    public Contact put(String code, Contact contact) {
+        if (!code.equals(contact.getCode())) {
+            throw new IllegalArgumentException(
+                    "El código " + code + " no corresponde al contacto " + contact.getCode() + ".");
+        }
+        return phonebook.putContact(code, contact);
+    }
+
+    @Override
+    public Contact remove(Object key) {
+        return key instanceof String ? phonebook.remove((String) key) : null;
+    }
+
+    @Override
+    public Set<Entry<String, Contact>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Contact>> iterator() {
+                Iterator<Entry<String, Contact>> entries = contacts.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<String, Contact> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Contact> next() {
+                        last = entries.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        phonebook.removeEntry(entries, last);
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return contacts.size();
+            }
+        };
+    }
+}
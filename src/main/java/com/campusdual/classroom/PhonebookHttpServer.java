@@ -0,0 +1,293 @@
+package com.campusdual.classroom;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * La clase {@code PhonebookHttpServer} publica una agenda como servicio HTTP con respuestas en JSON.
+ * <p>
+ * Usa el servidor HTTP del JDK ({@code com.sun.net.httpserver}) y atiende cada petición en su propio hilo virtual,
+ * de modo que miles de clientes lentos o concurrentes no agotan un pool de hilos. Las rutas son:
+ * <ul>
+ *     <li>{@code GET /contacts/{código}}: el contacto, o 404.</li>
+ *     <li>{@code GET /contacts?q=texto[&limit=n]}: los contactos cuyo nombre completo se parece al texto.</li>
+ *     <li>{@code GET /contacts?phone=número}: el contacto que tiene ese número, o 404.</li>
+ *     <li>{@code POST /contacts} con {@code {"name": ..., "surnames": ..., "phone": ...}}: añade el contacto y
+ *     responde 201 con el contacto creado, o 409 si su código ya existe.</li>
+ *     <li>{@code DELETE /contacts/{código}}: elimina el contacto y responde 204, o 404.</li>
+ * </ul>
+ * Los errores se responden con {@code {"error": "motivo"}}. Las peticiones se atienden a la vez sobre la misma
+ * agenda.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class PhonebookHttpServer implements AutoCloseable {
+    /** Ruta base del servicio. */
+    public static final String CONTEXT = "/contacts";
+
+    /** Número de conexiones pendientes de aceptar que admite el sistema operativo. */
+    private static final int BACKLOG = 4096;
+
+    /** Número de resultados de una búsqueda si no se indica otro. */
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    /** Número máximo de resultados de una búsqueda. */
+    private static final int MAX_SEARCH_LIMIT = 1000;
+
+    /** Tamaño máximo del cuerpo de una petición. */
+    private static final int MAX_BODY_SIZE = 1 << 16;
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    /** La agenda publicada. */
+    private final Phonebook phonebook;
+
+    /** El servidor HTTP del JDK. */
+    private final HttpServer server;
+
+    /** Crea un hilo virtual por petición. */
+    private final ExecutorService executor;
+
+    private PhonebookHttpServer(Phonebook phonebook, HttpServer server, ExecutorService executor) {
+        this.phonebook = phonebook;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Arranca el servicio.
+     *
+     * @param phonebook La agenda.
+     * @param address   La dirección en la que escucha; con el puerto 0 se elige uno libre.
+     * @return El servicio arrancado.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public static PhonebookHttpServer start(Phonebook phonebook, InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, BACKLOG);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        PhonebookHttpServer service = new PhonebookHttpServer(phonebook, server, executor);
+        server.createContext(CONTEXT, service::handle);
+        server.setExecutor(executor);
+        server.start();
+        return service;
+    }
+
+    /**
+     * Obtiene la dirección en la que escucha el servicio.
+     *
+     * @return La dirección, con el puerto real.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Detiene el servicio: deja de aceptar conexiones y espera a que terminen las peticiones en curso.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Atiende una petición.
+     *
+     * @param exchange La petición y su respuesta.
+     * @throws IOException si falla la comunicación con el cliente.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pasa una petición al método que corresponde a su ruta.
+     *
+     * @param exchange La petición y su respuesta.
+     * @throws IOException si falla la comunicación con el cliente.
+     * @throws IllegalArgumentException si la petición no es válida.
+     */
+    private void route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getRawPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals(CONTEXT) || path.equals(CONTEXT + "/")) {
+            if (method.equals("GET")) {
+                query(exchange);
+            } else if (method.equals("POST")) {
+                add(exchange);
+            } else {
+                methodNotAllowed(exchange, "GET, POST");
+            }
+            return;
+        }
+        String code = path.charAt(CONTEXT.length()) == '/' ? decode(path.substring(CONTEXT.length() + 1)) : "";
+        if (code.isEmpty() || code.indexOf('/') >= 0) {
+            error(exchange, 404, "ruta no encontrada: " + path);
+        } else if (method.equals("GET")) {
+            get(exchange, code);
+        } else if (method.equals("DELETE")) {
+            delete(exchange, code);
+        } else {
+            methodNotAllowed(exchange, "GET, DELETE");
+        }
+    }
+
+    private void get(HttpExchange exchange, String code) throws IOException {
+        Contact contact = phonebook.getData().get(code);
+        if (contact == null) {
+            error(exchange, 404, "no se encontró ningún contacto con el código " + code);
+            return;
+        }
+        StringBuilder body = new StringBuilder(128);
+        Json.appendContact(body, contact);
+        respond(exchange, 200, body);
+    }
+
+    private void query(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+        String phone = parameters.get("phone");
+        if (phone != null) {
+            Contact contact = phonebook.findByPhone(phone);
+            if (contact == null) {
+                error(exchange, 404, "no se encontró ningún contacto con el teléfono " + phone);
+                return;
+            }
+            StringBuilder body = new StringBuilder(128);
+            Json.appendContact(body, contact);
+            respond(exchange, 200, body);
+            return;
+        }
+        String text = parameters.get("q");
+        if (text == null || text.isBlank()) {
+            error(exchange, 400, "falta el parámetro q o phone");
+            return;
+        }
+        int limit = DEFAULT_SEARCH_LIMIT;
+        if (parameters.containsKey("limit")) {
+            try {
+                limit = Integer.parseInt(parameters.get("limit"));
+            } catch (NumberFormatException e) {
+                limit = -1;
+            }
+            if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+                error(exchange, 400, "limit debe estar entre 1 y " + MAX_SEARCH_LIMIT);
+                return;
+            }
+        }
+        List<Contact> found = phonebook.searchByName(text, limit);
+        StringBuilder body = new StringBuilder(64 + 128 * found.size());
+        Json.appendContacts(body, found);
+        respond(exchange, 200, body);
+    }
+
+    private void add(HttpExchange exchange) throws IOException {
+        Map<String, String> fields = Json.parseObject(readBody(exchange));
+        String name = required(fields, "name");
+        String surnames = required(fields, "surnames");
+        String phone = required(fields, "phone");
+        Contact contact = new Contact(name, surnames, phone);
+        if (!phonebook.insert(contact)) {
+            error(exchange, 409, "ya existe un contacto con el código " + contact.getCode());
+            return;
+        }
+        StringBuilder body = new StringBuilder(128);
+        Json.appendContact(body, contact);
+        exchange.getResponseHeaders().set("Location", CONTEXT + "/" + contact.getCode());
+        respond(exchange, 201, body);
+    }
+
+    private void delete(HttpExchange exchange, String code) throws IOException {
+        if (phonebook.remove(code) == null) {
+            error(exchange, 404, "no se encontró ningún contacto con el código " + code);
+            return;
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("falta el campo " + name);
+        }
+        return value.trim();
+    }
+
+    /**
+     * Lee el cuerpo de la petición como texto UTF-8.
+     *
+     * @throws IllegalArgumentException si el cuerpo supera el tamaño máximo.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_SIZE + 1);
+            if (body.length > MAX_BODY_SIZE) {
+                throw new IllegalArgumentException("el cuerpo de la petición es demasiado grande");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals < 0) {
+                parameters.put(decode(pair), "");
+            } else {
+                parameters.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private static String decode(String text) {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+
+    private static void methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        error(exchange, 405, "método no permitido: " + exchange.getRequestMethod());
+    }
+
+    private static void error(HttpExchange exchange, int status, String reason) throws IOException {
+        StringBuilder body = new StringBuilder(64 + reason.length());
+        body.append("{\"error\":");
+        Json.appendString(body, reason);
+        body.append('}');
+        respond(exchange, status, body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capa de durabilidad de una agenda: anota sus cambios en un {@link WriteAheadLog}, los vuelve a aplicar al
+ * recuperarla y prepara los puntos de control.
+ * <p>
+ * La agenda llama a este registro con el bloqueo del código que cambia, antes de aplicar el cambio, y espera con
+ * {@link #sync(long)} a que sea duradero ya sin el bloqueo, para que los cambios de varios hilos se sincronicen
+ * juntos. Una agenda que no es duradera usa {@link #NONE}, que no anota nada.
+ * </p>
+ */
+final class PhonebookJournal {
+    /** Registro de las agendas que no son duraderas, que no anota nada. */
+    static final PhonebookJournal NONE = new PhonebookJournal(null, 0);
+
+    /** El registro de escritura anticipada, o {@code null} en {@link #NONE}. */
+    private final WriteAheadLog log;
+
+    /**
+     * Teléfonos que tenía cada contacto antes del cambio en curso, por bloqueo de código, para restaurarlos si el
+     * cambio no se puede anotar. Cada posición solo se usa con su bloqueo.
+     */
+    private final WriteAheadLog.Entry[] previousPhones;
+
+    private PhonebookJournal(WriteAheadLog log, int lockCount) {
+        this.log = log;
+        this.previousPhones = new WriteAheadLog.Entry[lockCount];
+    }
+
+    /**
+     * Abre el registro de una agenda duradera y aplica a la agenda los cambios guardados.
+     * <p>
+     * Mientras se recupera, la agenda todavía usa {@link #NONE}, así que los cambios aplicados no se vuelven a
+     * anotar.
+     * </p>
+     *
+     * @param directory   El directorio del registro, que se crea si no existe.
+     * @param commitDelay El tiempo máximo que un cambio espera a otros antes de sincronizarse.
+     * @param phonebook   La agenda vacía sobre la que se recuperan los contactos.
+     * @param lockCount   El número de bloqueos de código de la agenda.
+     * @return El registro abierto.
+     * @throws IOException si no se puede leer el registro o está dañado.
+     */
+    static PhonebookJournal open(Path directory, Duration commitDelay, Phonebook phonebook, int lockCount)
+            throws IOException {
+        WriteAheadLog log = WriteAheadLog.open(directory, commitDelay, entry -> replay(phonebook, entry));
+        return new PhonebookJournal(log, lockCount);
+    }
+
+    /**
+     * Indica si el registro anota los cambios.
+     *
+     * @return {@code true} si la agenda es duradera.
+     */
+    boolean isDurable() {
+        return log != null;
+    }
+
+    /**
+     * Anota el alta de un contacto con un código, que sustituye al que lo tuviera.
+     *
+     * @param code    El código.
+     * @param contact El contacto.
+     * @return La posición del cambio en el registro, o 0 si no se ha anotado.
+     */
+    long add(String code, Contact contact) {
+        return log == null ? 0 : log.append(WriteAheadLog.Entry.add(code, contact));
+    }
+
+    /**
+     * Anota la baja de un contacto.
+     *
+     * @param code El código del contacto.
+     * @return La posición del cambio en el registro, o 0 si no se ha anotado.
+     */
+    long delete(String code) {
+        return log == null ? 0 : log.append(WriteAheadLog.Entry.delete(code));
+    }
+
+    /**
+     * Anota que un contacto renombrado pasa a guardarse con otro código.
+     *
+     * @param oldCode El código con el que estaba guardado.
+     * @param newCode El código nuevo.
+     * @param contact El contacto, con el nombre y los apellidos nuevos.
+     * @return La posición del cambio en el registro, o 0 si no se ha anotado.
+     */
+    long rename(String oldCode, String newCode, Contact contact) {
+        return log == null ? 0 : log.append(WriteAheadLog.Entry.rename(oldCode, newCode, contact));
+    }
+
+    /**
+     * Guarda los teléfonos de un contacto que va a cambiarlos, para restaurarlos si el cambio no se puede anotar.
+     *
+     * @param lock    La posición del bloqueo del código, que se tiene tomado.
+     * @param code    El código del contacto.
+     * @param contact El contacto, todavía con los teléfonos anteriores.
+     */
+    void phonesChanging(int lock, String code, Contact contact) {
+        if (log != null) {
+            previousPhones[lock] = WriteAheadLog.Entry.updatePhones(code, contact);
+        }
+    }
+
+    /**
+     * Anota los teléfonos nuevos de un contacto.
+     * <p>
+     * Si el cambio no se puede anotar, el contacto recupera los teléfonos que tenía y se lanza la excepción del
+     * registro.
+     * </p>
+     *
+     * @param lock     La posición del bloqueo del código, que se tiene tomado.
+     * @param contact  El contacto.
+     * @param contacts Los contactos de la agenda por código.
+     * @return La posición del cambio en el registro, o 0 si no se ha anotado.
+     */
+    long phonesChanged(int lock, Contact contact, Map<String, Contact> contacts) {
+        if (log == null) {
+            return 0;
+        }
+        WriteAheadLog.Entry previous = previousPhones[lock];
+        previousPhones[lock] = null;
+        String code = contact.getCode();
+        if (contacts.get(code) != contact) {
+            // Se ha borrado antes de cambiar: su baja ya está anotada
+            return 0;
+        }
+        try {
+            return log.append(WriteAheadLog.Entry.updatePhones(code, contact));
+        } catch (RuntimeException e) {
+            if (previous != null) {
+                contact.restorePhones(previous.phone, previous.secondaryPhones);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Espera a que sea duradero un cambio anotado.
+     *
+     * @param position La posición del cambio, o 0 si no se ha anotado nada.
+     */
+    void sync(long position) {
+        if (position > 0 && log != null) {
+            log.sync(position);
+        }
+    }
+
+    /**
+     * Copia los contactos y pasa a un segmento nuevo del registro, sin escribir todavía el punto de control.
+     * <p>
+     * Se llama sin ningún cambio a medias. Se copian los datos y no los contactos, porque pueden cambiar mientras
+     * se escribe el punto de control y esos cambios ya se anotan en el segmento nuevo.
+     * </p>
+     *
+     * @param contacts Los contactos de la agenda por código.
+     * @return El punto de control, listo para escribirse.
+     * @throws IllegalStateException si la agenda no es duradera.
+     */
+    PendingCheckpoint startCheckpoint(Map<String, Contact> contacts) {
+        if (log == null) {
+            throw new IllegalStateException("La agenda no tiene registro de cambios.");
+        }
+        List<WriteAheadLog.Entry> state = new ArrayList<>(contacts.size());
+        for (Map.Entry<String, Contact> entry : contacts.entrySet()) {
+            state.add(WriteAheadLog.Entry.add(entry.getKey(), entry.getValue()));
+        }
+        return new PendingCheckpoint(log, log.rotate(), state);
+    }
+
+    /**
+     * Cierra el registro después de hacer duraderos los cambios pendientes.
+     */
+    void close() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Aplica un cambio leído del registro al recuperar una agenda duradera.
+     * <p>
+     * Los cambios guardan el estado final, así que aplicarlos sobre un punto de control que ya los incluye no
+     * cambia nada: un alta sustituye al contacto con su código, y un cambio de teléfonos o de nombre sobre un
+     * código que ya no existe se descarta. Cada contacto se guarda con el código anotado, aunque no sea el que le
+     * corresponde por su nombre: un contacto renombrado dentro de un lote sigue con su código anterior hasta que
+     * se anota el cambio de nombre.
+     * </p>
+     *
+     * @param phonebook La agenda que se recupera.
+     * @param entry     El cambio.
+     */
+    private static void replay(Phonebook phonebook, WriteAheadLog.Entry entry) {
+        switch (entry.type) {
+            case WriteAheadLog.ADD -> phonebook.putContact(entry.code, entry.toContact());
+            case WriteAheadLog.DELETE -> phonebook.remove(entry.code);
+            case WriteAheadLog.UPDATE_PHONES -> {
+                Contact old = phonebook.getData().get(entry.code);
+                if (old != null) {
+                    phonebook.putContact(entry.code, WriteAheadLog.Entry.restore(entry.code, old.getName(),
+                            old.getSurnames(), entry.phone, entry.secondaryPhones));
+                }
+            }
+            case WriteAheadLog.RENAME -> {
+                Contact old = phonebook.remove(entry.code);
+                if (old != null) {
+                    phonebook.putContact(entry.newCode, WriteAheadLog.Entry.restore(entry.newCode, entry.name,
+                            entry.surnames, old.getPhone(), old.packedSecondaryPhones()));
+                }
+            }
+            default -> throw new IllegalArgumentException("Tipo de cambio desconocido: " + entry.type);
+        }
+    }
+
+    /**
+     * Punto de control cuyos contactos ya se han copiado, pendiente de escribir.
+     */
+    static final class PendingCheckpoint {
+        private final WriteAheadLog log;
+        private final long segment;
+        private final List<WriteAheadLog.Entry> state;
+
+        PendingCheckpoint(WriteAheadLog log, long segment, List<WriteAheadLog.Entry> state) {
+            this.log = log;
+            this.segment = segment;
+            this.state = state;
+        }
+
+        /**
+         * Escribe el punto de control y borra los ficheros que ya no hacen falta.
+         *
+         * @throws IOException si no se puede escribir.
+         */
+        void write() throws IOException {
+            log.checkpoint(segment, state);
+        }
+    }
+}
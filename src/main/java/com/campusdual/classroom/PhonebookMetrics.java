@@ -0,0 +1,259 @@
+package com.campusdual.classroom;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * La clase {@code PhonebookMetrics} cuenta las operaciones de la agenda y mide su latencia.
+ * <p>
+ * Las métricas solo se recogen si la aplicación se arranca con {@code -Dphonebook.metrics=true}. La propiedad se
+ * lee una única vez en una constante, de modo que con las métricas desactivadas {@link #start()} y
+ * {@link #record(Operation, long)} se reducen a una comprobación que el compilador JIT elimina.
+ * </p>
+ * <p>
+ * Los contadores son {@code LongAdder}, repartidos entre hilos para no competir por la misma posición de memoria,
+ * y las latencias se registran en un {@link LatencyHistogram} sin bloqueos. Con las métricas activadas, la
+ * instancia compartida se registra como MBean con el nombre {@value #OBJECT_NAME}, y {@link #dump()} devuelve un
+ * resumen en texto, que también indica si el registro ha fallado.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class PhonebookMetrics implements PhonebookMetricsMBean {
+    /** Propiedad del sistema que activa las métricas. */
+    public static final String ENABLED_PROPERTY = "phonebook.metrics";
+
+    /** Nombre JMX de la instancia compartida. */
+    public static final String OBJECT_NAME = "com.campusdual.classroom:type=PhonebookMetrics";
+
+    /** Indica si las métricas están activadas; se decide al arrancar. */
+    static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /** Operaciones instrumentadas. */
+    public enum Operation {
+        /** Alta de un contacto. */
+        ADD,
+        /** Baja de un contacto. */
+        DELETE,
+        /** Búsqueda por teléfono o por prefijo del código. */
+        LOOKUP,
+        /** Búsqueda por nombre. */
+        SEARCH,
+        /** Lectura de una página del listado. */
+        LIST,
+        /** Listado completo de la agenda. */
+        SHOW,
+        /** Llamada desde un contacto. */
+        CALL
+    }
+
+    /** Instancia compartida por toda la aplicación. */
+    private static final PhonebookMetrics INSTANCE = createShared();
+
+    private final LongAdder[] counts = new LongAdder[Operation.values().length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final LongAdder rejectedAdds = new LongAdder();
+
+    /** Error al registrar la instancia compartida como MBean, o {@code null} si no ha fallado. */
+    private JMException registrationError;
+
+    /**
+     * Crea un conjunto de métricas vacío, independiente de la instancia compartida.
+     */
+    public PhonebookMetrics() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    private static PhonebookMetrics createShared() {
+        PhonebookMetrics metrics = new PhonebookMetrics();
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                metrics.registrationError = e;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Obtiene la instancia compartida por toda la aplicación.
+     *
+     * @return Las métricas compartidas.
+     */
+    public static PhonebookMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Obtiene el error que impidió publicar la instancia compartida por JMX. Las métricas se siguen recogiendo y
+     * pueden consultarse con {@link #dump()}.
+     *
+     * @return El error, o {@code null} si se publicó o no se ha intentado.
+     */
+    public JMException getRegistrationError() {
+        return registrationError;
+    }
+
+    /**
+     * Indica si las métricas están activadas.
+     *
+     * @return {@code true} si se ha arrancado con {@code -Dphonebook.metrics=true}.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Marca el inicio de una operación.
+     *
+     * @return El instante actual en nanosegundos, o 0 si las métricas están desactivadas.
+     */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registra en la instancia compartida el final de una operación.
+     *
+     * @param operation La operación.
+     * @param start     El valor devuelto por {@link #start()}.
+     */
+    static void record(Operation operation, long start) {
+        if (ENABLED) {
+            INSTANCE.recordLatency(operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registra en la instancia compartida un alta rechazada por tener un código repetido.
+     */
+    static void rejectedAdd() {
+        if (ENABLED) {
+            INSTANCE.rejectedAdds.increment();
+        }
+    }
+
+    /**
+     * Registra una operación y su duración.
+     *
+     * @param operation La operación.
+     * @param nanos     La duración en nanosegundos.
+     */
+    public void recordLatency(Operation operation, long nanos) {
+        counts[operation.ordinal()].increment();
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    /**
+     * Obtiene el número de veces que se ha realizado una operación.
+     *
+     * @param operation La operación.
+     * @return El número de operaciones.
+     */
+    public long getCount(Operation operation) {
+        return counts[operation.ordinal()].sum();
+    }
+
+    @Override
+    public long getAddCount() {
+        return getCount(Operation.ADD);
+    }
+
+    @Override
+    public long getRejectedAddCount() {
+        return rejectedAdds.sum();
+    }
+
+    @Override
+    public long getDeleteCount() {
+        return getCount(Operation.DELETE);
+    }
+
+    @Override
+    public long getLookupCount() {
+        return getCount(Operation.LOOKUP);
+    }
+
+    @Override
+    public long getSearchCount() {
+        return getCount(Operation.SEARCH);
+    }
+
+    @Override
+    public long getListCount() {
+        return getCount(Operation.LIST);
+    }
+
+    @Override
+    public long getShowCount() {
+        return getCount(Operation.SHOW);
+    }
+
+    @Override
+    public long getCallCount() {
+        return getCount(Operation.CALL);
+    }
+
+    @Override
+    public double getMeanMicros(String operation) {
+        return latencies[parse(operation).ordinal()].mean() / 1_000;
+    }
+
+    @Override
+    public double getPercentileMicros(String operation, double percentile) {
+        return latencies[parse(operation).ordinal()].percentile(percentile) / 1_000.0;
+    }
+
+    /**
+     * Devuelve un resumen en texto con una línea por operación.
+     *
+     * @return El resumen.
+     */
+    @Override
+    public String dump() {
+        StringBuilder builder = new StringBuilder(512);
+        builder.append(String.format(Locale.ROOT, "%-8s %12s %12s %12s %12s %12s%n",
+                "op", "count", "mean(us)", "p50(us)", "p99(us)", "max(us)"));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies[operation.ordinal()];
+            builder.append(String.format(Locale.ROOT, "%-8s %12d %12.1f %12.1f %12.1f %12.1f%n",
+                    operation.name().toLowerCase(Locale.ROOT), getCount(operation), histogram.mean() / 1_000,
+                    histogram.percentile(50) / 1_000.0, histogram.percentile(99) / 1_000.0,
+                    histogram.max() / 1_000.0));
+        }
+        builder.append("altas rechazadas: ").append(rejectedAdds.sum()).append(System.lineSeparator());
+        if (registrationError != null) {
+            builder.append("no se han podido publicar las métricas por JMX: ").append(registrationError.getMessage())
+                    .append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].reset();
+            latencies[i].reset();
+        }
+        rejectedAdds.reset();
+    }
+
+    /**
+     * Convierte el nombre de una operación.
+     *
+     * @param operation El nombre, sin distinguir mayúsculas.
+     * @return La operación.
+     * @throws IllegalArgumentException si no existe ninguna operación con ese nombre.
+     */
+    private static Operation parse(String operation) {
+        return Operation.valueOf(operation.trim().toUpperCase(Locale.ROOT));
+    }
+}
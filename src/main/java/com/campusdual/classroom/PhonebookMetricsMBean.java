@@ -0,0 +1,23 @@
+package com.campusdual.classroom;
+
+/**
+ * Interfaz JMX de las métricas de la agenda.
+ * <p>
+ * Los tiempos se expresan en microsegundos. Las operaciones se identifican por el nombre de
+ * {@link PhonebookMetrics.Operation}, sin distinguir mayúsculas.
+ * </p>
+ */
+public interface PhonebookMetricsMBean {
+    long getAddCount();
+    long getRejectedAddCount();
+    long getDeleteCount();
+    long getLookupCount();
+    long getSearchCount();
+    long getListCount();
+    long getShowCount();
+    long getCallCount();
+    double getMeanMicros(String operation);
+    double getPercentileMicros(String operation, double percentile);
+    String dump();
+    void reset();
+}
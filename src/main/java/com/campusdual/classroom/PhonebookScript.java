@@ -0,0 +1,252 @@
+package com.campusdual.classroom;
+
+import com.campusdual.util.InputSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * La clase {@code PhonebookScript} ejecuta órdenes sobre una agenda sin menús ni preguntas.
+ * <p>
+ * Lee una orden por línea; las líneas vacías y las que empiezan por {@code #} se ignoran. Las órdenes son:
+ * <ul>
+ *     <li>{@code add nombre;apellidos;teléfono}: añade un contacto y escribe {@code OK} y su código.</li>
+ *     <li>{@code del código}: elimina un contacto y escribe {@code OK}.</li>
+ *     <li>{@code get código}: escribe los datos del contacto.</li>
+ *     <li>{@code list}: escribe todos los contactos en orden alfabético de código.</li>
+ *     <li>{@code call código [número]}: llama al número del contacto o al número indicado.</li>
+ * </ul>
+ * Cada orden que falla escribe una línea {@code ERROR} con el número de línea y el motivo, y la ejecución sigue
+ * con la siguiente. Toda la salida pasa por un mismo búfer, y al terminar se devuelve un {@link Summary} con el
+ * número de órdenes, de errores y el tiempo empleado.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class PhonebookScript {
+    /** Tamaño del búfer de salida. */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /** La agenda sobre la que se ejecutan las órdenes. */
+    private final Phonebook phonebook;
+
+    /**
+     * Constructor de la clase {@code PhonebookScript}.
+     *
+     * @param phonebook La agenda sobre la que se ejecutan las órdenes.
+     */
+    public PhonebookScript(Phonebook phonebook) {
+        this.phonebook = phonebook;
+    }
+
+    /**
+     * Ejecuta todas las órdenes de la entrada.
+     * <p>
+     * La salida se vacía al terminar, pero no se cierra ni la entrada ni la salida.
+     * </p>
+     *
+     * @param in  La entrada con una orden por línea.
+     * @param out El destino de los resultados.
+     * @return El resumen de la ejecución.
+     * @throws IOException si falla la lectura o la escritura.
+     */
+    public Summary run(InputSource in, Writer out) throws IOException {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, OUTPUT_BUFFER_SIZE);
+        String lineSeparator = System.lineSeparator();
+        long start = System.nanoTime();
+        long commands = 0;
+        long errors = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            commands++;
+            String error;
+            try {
+                error = execute(line, writer, lineSeparator);
+            } catch (RuntimeException e) {
+                error = e.getMessage() == null ? e.toString() : e.getMessage();
+            }
+            if (error != null) {
+                errors++;
+                writer.append("ERROR línea ").append(Long.toString(lineNumber)).append(": ").append(error)
+                        .append(lineSeparator);
+            }
+        }
+        writer.flush();
+        return new Summary(commands, errors, System.nanoTime() - start);
+    }
+
+    /**
+     * Ejecuta una orden.
+     *
+     * @param line          La línea de la orden, sin espacios al principio ni al final.
+     * @param out           El destino de los resultados.
+     * @param lineSeparator El separador de líneas.
+     * @return El motivo del error, o {@code null} si la orden se ha ejecutado.
+     * @throws IOException si falla la escritura.
+     */
+    private String execute(String line, Writer out, String lineSeparator) throws IOException {
+        int space = line.indexOf(' ');
+        String command = space < 0 ? line : line.substring(0, space);
+        String arguments = space < 0 ? "" : line.substring(space + 1).trim();
+        switch (command) {
+            case "add":
+                return add(arguments, out, lineSeparator);
+            case "del":
+                if (arguments.isEmpty()) {
+                    return "falta el código. Uso: del código";
+                }
+                if (phonebook.remove(arguments) == null) {
+                    return "no se encontró ningún contacto con el código " + arguments;
+                }
+                out.append("OK").append(lineSeparator);
+                return null;
+            case "get":
+                if (arguments.isEmpty()) {
+                    return "falta el código. Uso: get código";
+                }
+                Contact contact = phonebook.getData().get(arguments);
+                if (contact == null) {
+                    return "no se encontró ningún contacto con el código " + arguments;
+                }
+                contact.appendTo(out);
+                out.append(lineSeparator);
+                return null;
+            case "list":
+                phonebook.writeContacts(out);
+                return null;
+            case "call":
+                return call(arguments, out, lineSeparator);
+            default:
+                return "orden desconocida: " + command;
+        }
+    }
+
+    /**
+     * Ejecuta la orden {@code add}.
+     *
+     * @param arguments     Los argumentos, con el formato {@code nombre;apellidos;teléfono}.
+     * @param out           El destino de los resultados.
+     * @param lineSeparator El separador de líneas.
+     * @return El motivo del error, o {@code null} si se ha añadido el contacto.
+     * @throws IOException si falla la escritura.
+     */
+    private String add(String arguments, Writer out, String lineSeparator) throws IOException {
+        int first = arguments.indexOf(';');
+        int second = first < 0 ? -1 : arguments.indexOf(';', first + 1);
+        if (second < 0 || arguments.indexOf(';', second + 1) >= 0) {
+            return "formato incorrecto. Uso: add nombre;apellidos;teléfono";
+        }
+        Contact contact = new Contact(arguments.substring(0, first).trim(),
+                arguments.substring(first + 1, second).trim(), arguments.substring(second + 1).trim());
+        if (!phonebook.insert(contact)) {
+            return "ya existe un contacto con el código " + contact.getCode();
+        }
+        out.append("OK ").append(contact.getCode()).append(lineSeparator);
+        return null;
+    }
+
+    /**
+     * Ejecuta la orden {@code call}.
+     *
+     * @param arguments     Los argumentos, con el formato {@code código [número]}.
+     * @param out           El destino de los resultados.
+     * @param lineSeparator El separador de líneas.
+     * @return El motivo del error, o {@code null} si se ha realizado la llamada.
+     * @throws IOException si falla la escritura.
+     */
+    private String call(String arguments, Writer out, String lineSeparator) throws IOException {
+        if (arguments.isEmpty()) {
+            return "falta el código. Uso: call código [número]";
+        }
+        int space = arguments.indexOf(' ');
+        String code = space < 0 ? arguments : arguments.substring(0, space);
+        String number = space < 0 ? null : arguments.substring(space + 1).trim();
+        Contact contact = phonebook.getData().get(code);
+        if (contact == null) {
+            return "no se encontró ningún contacto con el código " + code;
+        }
+        if (number == null) {
+            contact.callEvent(contact.getPhone(), true).appendTo(out);
+        } else {
+            contact.callEvent(number, false).appendTo(out);
+        }
+        out.append(lineSeparator);
+        return null;
+    }
+
+    /**
+     * Resumen de la ejecución de un script.
+     */
+    public static final class Summary {
+        /** Número de órdenes ejecutadas, con o sin error. */
+        private final long commands;
+
+        /** Número de órdenes que han fallado. */
+        private final long errors;
+
+        /** Tiempo empleado en nanosegundos. */
+        private final long elapsedNanos;
+
+        Summary(long commands, long errors, long elapsedNanos) {
+            this.commands = commands;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Obtiene el número de órdenes ejecutadas, con o sin error.
+         *
+         * @return El número de órdenes.
+         */
+        public long getCommands() {
+            return commands;
+        }
+
+        /**
+         * Obtiene el número de órdenes que han fallado.
+         *
+         * @return El número de errores.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Obtiene el tiempo empleado.
+         *
+         * @return El tiempo en nanosegundos.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Obtiene el número de órdenes ejecutadas por segundo.
+         *
+         * @return Las órdenes por segundo.
+         */
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0 : commands * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Retorna el resumen en una línea.
+         *
+         * @return Una cadena con las órdenes, los errores, el tiempo y el rendimiento.
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Órdenes: %d, errores: %d, tiempo: %.1f ms, %.0f órdenes/s",
+                    commands, errors, elapsedNanos / 1e6, getCommandsPerSecond());
+        }
+    }
+}
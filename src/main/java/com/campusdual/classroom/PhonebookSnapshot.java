@@ -0,0 +1,297 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * La clase {@code PhonebookSnapshot} lee y escribe instantáneas binarias de la agenda telefónica.
+ * <p>
+ * El fichero empieza con una cabecera (número mágico, versión y número de contactos), sigue con una tabla de
+ * desplazamientos ordenada por código y termina con los registros de los contactos. Cada registro guarda el código,
+ * el nombre, los apellidos y el teléfono como cadenas UTF-8 precedidas de su longitud en dos bytes, seguidos de
+ * los teléfonos secundarios codificados con {@link PackedPhones}, también precedidos de su longitud en bytes. Los
+ * ficheros de la versión 1, sin teléfonos secundarios, se siguen pudiendo abrir.
+ * </p>
+ * <p>
+ * Al abrirlo, el fichero se proyecta en memoria con un {@code MappedByteBuffer} y no se lee nada más: los contactos
+ * se decodifican solo cuando se piden, buscando el código en la tabla mediante búsqueda binaria.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class PhonebookSnapshot {
+    /** Número mágico del formato: "PBK1". */
+    private static final int MAGIC = 0x50424B31;
+
+    private static final int VERSION = 2;
+
+    /** Primera versión del formato, sin teléfonos secundarios. */
+    private static final int VERSION_WITHOUT_SECONDARY_PHONES = 1;
+
+    /** Tamaño de la cabecera en bytes. */
+    private static final int HEADER_SIZE = 12;
+
+    /** Tamaño del búfer de escritura. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** Longitud máxima en bytes de cada cadena de un registro. */
+    private static final int MAX_FIELD_LENGTH = 0xFFFF;
+
+    private final MappedByteBuffer buffer;
+    private final int version;
+    private final int count;
+
+    private PhonebookSnapshot(MappedByteBuffer buffer, int version, int count) {
+        this.buffer = buffer;
+        this.version = version;
+        this.count = count;
+    }
+
+    /**
+     * Escribe una instantánea con los contactos indicados.
+     *
+     * <p>
+     * El fichero se escribe aparte y después sustituye al de destino, de modo que puede guardarse sobre la propia
+     * instantánea de la que se leen los contactos sin cortarla mientras está proyectada.
+     * </p>
+     *
+     * @param contacts Los contactos a guardar, con códigos distintos.
+     * @param file     El fichero de destino, que se sobrescribe si existe.
+     * @throws IOException si no se puede escribir el fichero o no cabe en el formato.
+     */
+    public static void write(Collection<Contact> contacts, Path file) throws IOException {
+        List<byte[][]> records = new ArrayList<>(contacts.size());
+        for (Contact contact : contacts) {
+            records.add(new byte[][]{
+                    encode(contact.getCode()), encode(contact.getName()),
+                    encode(contact.getSurnames()), encode(contact.getPhone()),
+                    encodePhones(contact.packedSecondaryPhones())
+            });
+        }
+        records.sort((a, b) -> compare(a[0], b[0]));
+
+        long offset = HEADER_SIZE + 4L * records.size();
+        int[] offsets = new int[records.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("La agenda es demasiado grande para una instantánea.");
+            }
+            offsets[i] = (int) offset;
+            for (byte[] field : records.get(i)) {
+                offset += 2 + field.length;
+            }
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            out.putInt(MAGIC).putInt(VERSION).putInt(records.size());
+            for (int recordOffset : offsets) {
+                out = ensureRemaining(channel, out, 4);
+                out.putInt(recordOffset);
+            }
+            for (byte[][] record : records) {
+                for (byte[] field : record) {
+                    out = ensureRemaining(channel, out, 2 + field.length);
+                    out.putShort((short) field.length).put(field);
+                }
+            }
+            flush(channel, out);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Abre una instantánea proyectándola en memoria.
+     *
+     * @param file El fichero de la instantánea.
+     * @return La instantánea abierta.
+     * @throws IOException si no se puede leer el fichero o no tiene el formato esperado.
+     */
+    public static PhonebookSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("El fichero no es una instantánea válida: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int version = buffer.getInt(4);
+            if (buffer.getInt(0) != MAGIC || version < VERSION_WITHOUT_SECONDARY_PHONES || version > VERSION) {
+                throw new IOException("El fichero no es una instantánea válida: " + file);
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER_SIZE + 4L * count > length) {
+                throw new IOException("La tabla de la instantánea está truncada: " + file);
+            }
+            return new PhonebookSnapshot(buffer, version, count);
+        }
+    }
+
+    /**
+     * Obtiene el número de contactos de la instantánea.
+     *
+     * @return El número de contactos.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Busca la posición de un código en la tabla, sin decodificar ningún contacto.
+     *
+     * @param code El código a buscar.
+     * @return La posición del código, o un valor negativo si no está.
+     */
+    public int indexOf(String code) {
+        byte[] key = encode(code);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareCodeAt(recordOffset(mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Obtiene el código del contacto que ocupa una posición de la tabla.
+     *
+     * @param index La posición, entre 0 y {@link #size()} - 1.
+     * @return El código.
+     */
+    public String codeAt(int index) {
+        ByteBuffer view = view(recordOffset(index));
+        return readString(view);
+    }
+
+    /**
+     * Decodifica el contacto que ocupa una posición de la tabla.
+     *
+     * @param index La posición, entre 0 y {@link #size()} - 1.
+     * @return Un contacto nuevo con los datos del registro.
+     */
+    public Contact contactAt(int index) {
+        ByteBuffer view = view(recordOffset(index));
+        skipString(view);
+        String name = readString(view);
+        String surnames = readString(view);
+        String phone = readString(view);
+        Contact contact = new Contact(name, surnames, phone);
+        if (version > VERSION_WITHOUT_SECONDARY_PHONES) {
+            long[] secondary = new long[(view.getShort() & 0xFFFF) / 8];
+            for (int i = 0; i < secondary.length; i++) {
+                secondary[i] = view.getLong();
+            }
+            contact.restoreSecondaryPhones(secondary);
+        }
+        return contact;
+    }
+
+    private int recordOffset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Posición fuera de la instantánea: " + index);
+        }
+        return buffer.getInt(HEADER_SIZE + 4 * index);
+    }
+
+    private ByteBuffer view(int offset) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        return view;
+    }
+
+    private int compareCodeAt(int offset, byte[] key) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        int start = offset + 2;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private static String readString(ByteBuffer view) {
+        int length = view.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer view) {
+        int length = view.getShort() & 0xFFFF;
+        view.position(view.position() + length);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Campo demasiado largo para la instantánea: " + value.length());
+        }
+        return bytes;
+    }
+
+    private static byte[] encodePhones(long[] phones) {
+        if (phones.length * 8 > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Demasiados teléfonos para la instantánea: " + phones.length);
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(phones.length * 8);
+        for (long phone : phones) {
+            bytes.putLong(phone);
+        }
+        return bytes.array();
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static ByteBuffer ensureRemaining(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() >= bytes) {
+            return out;
+        }
+        flush(channel, out);
+        return bytes <= out.capacity() ? out : ByteBuffer.allocate(bytes);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
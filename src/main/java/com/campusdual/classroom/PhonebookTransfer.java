@@ -0,0 +1,146 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Importación y exportación de los contactos de una agenda, en lotes y en ficheros CSV y vCard.
+ * <p>
+ * Los contactos importados se insertan con {@link Phonebook#importBatch(Contact[], int, boolean[])}, que aplica las
+ * mismas reglas que las altas de la agenda, y los exportados se toman de
+ * {@link Phonebook#contactsToWrite()}.
+ * </p>
+ */
+final class PhonebookTransfer {
+    /** Número de contactos que se insertan de cada vez al importar un fichero. */
+    static final int IMPORT_BATCH_SIZE = 1024;
+
+    private final Phonebook phonebook;
+
+    /**
+     * Crea el importador y exportador de una agenda.
+     *
+     * @param phonebook La agenda.
+     */
+    PhonebookTransfer(Phonebook phonebook) {
+        this.phonebook = phonebook;
+    }
+
+    /**
+     * Importa un lote de contactos en una sola pasada.
+     *
+     * @param batch Los contactos a importar.
+     * @return El resultado de la importación, con los códigos de los contactos rechazados.
+     * @see Phonebook#importContacts(Stream)
+     */
+    ImportResult importContacts(Stream<Contact> batch) {
+        Contact[] imported = batch.toArray(Contact[]::new);
+        boolean[] rejected = new boolean[imported.length];
+        int inserted = phonebook.importBatch(imported, imported.length, rejected);
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < imported.length; i++) {
+            if (rejected[i]) {
+                conflicts.add(imported[i].getCode());
+            }
+        }
+        return new ImportResult(inserted, conflicts);
+    }
+
+    /**
+     * Importa los contactos de un fichero, leyéndolo por bloques e insertándolos en lotes de
+     * {@value #IMPORT_BATCH_SIZE}.
+     *
+     * @param file   El fichero, codificado en UTF-8.
+     * @param format El formato del fichero.
+     * @param errors El destino del informe de errores, o {@code null} para descartarlo.
+     * @return El resumen de la importación.
+     * @throws IOException si no se puede leer el fichero o escribir el informe.
+     * @see Phonebook#importFile(Path, ContactFileFormat, Writer)
+     */
+    ImportReport importFile(Path file, ContactFileFormat format, Writer errors) throws IOException {
+        Contact[] batch = new Contact[IMPORT_BATCH_SIZE];
+        long[] lines = new long[IMPORT_BATCH_SIZE];
+        boolean[] rejected = new boolean[IMPORT_BATCH_SIZE];
+        ContactFileReader.Record record = new ContactFileReader.Record();
+        long read = 0;
+        long inserted = 0;
+        long invalid = 0;
+        long conflicts = 0;
+        int size = 0;
+        try (ContactFileReader reader = new ContactFileReader(file, format)) {
+            while (true) {
+                boolean more = reader.next(record);
+                if (more) {
+                    read++;
+                    try {
+                        batch[size] = record.toContact();
+                        lines[size++] = record.getLine();
+                    } catch (IllegalArgumentException e) {
+                        invalid++;
+                        reportError(errors, record.getLine(), e.getMessage());
+                    }
+                }
+                if (size == batch.length || (!more && size > 0)) {
+                    Arrays.fill(rejected, 0, size, false);
+                    inserted += phonebook.importBatch(batch, size, rejected);
+                    for (int i = 0; i < size; i++) {
+                        if (rejected[i]) {
+                            conflicts++;
+                            reportError(errors, lines[i],
+                                    "ya existe un contacto con el código " + batch[i].getCode());
+                        }
+                    }
+                    Arrays.fill(batch, 0, size, null);
+                    size = 0;
+                }
+                if (!more) {
+                    break;
+                }
+            }
+        }
+        if (errors != null) {
+            errors.flush();
+        }
+        return new ImportReport(read, inserted, invalid, conflicts);
+    }
+
+    /**
+     * Exporta todos los contactos de la agenda a un fichero.
+     *
+     * @param file   El fichero de destino, que se sobrescribe si existe.
+     * @param format El formato del fichero.
+     * @return El número de contactos exportados.
+     * @throws IOException si no se puede escribir el fichero.
+     * @see Phonebook#exportFile(Path, ContactFileFormat)
+     */
+    int exportFile(Path file, ContactFileFormat format) throws IOException {
+        int exported = 0;
+        try (ContactFileWriter writer = new ContactFileWriter(file, format)) {
+            for (Contact contact : phonebook.contactsToWrite()) {
+                writer.write(contact);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Escribe una línea en el informe de errores de una importación.
+     *
+     * @param errors El informe, o {@code null} si se descarta.
+     * @param line   El número de línea del fichero.
+     * @param reason El motivo del error.
+     * @throws IOException si falla la escritura.
+     */
+    private static void reportError(Writer errors, long line, String reason) throws IOException {
+        if (errors != null) {
+            errors.append("línea ").append(Long.toString(line)).append(": ").append(reason)
+                    .append(System.lineSeparator());
+        }
+    }
+}
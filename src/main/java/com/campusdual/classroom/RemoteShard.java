@@ -0,0 +1,193 @@
+package com.campusdual.classroom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * La clase {@code RemoteShard} es un fragmento de una {@link PartitionedPhonebook} servido por un
+ * {@link ShardServer}, normalmente en otra JVM de la misma máquina.
+ * <p>
+ * Cada petición usa una conexión libre de un grupo que crece según haga falta, de modo que varias peticiones al
+ * mismo fragmento pueden estar en curso a la vez. Si una conexión falla se descarta y la petición lanza
+ * {@link UncheckedIOException}; si el fragmento responde con un error, se lanza {@link IllegalStateException}. Los
+ * contactos devueltos son copias.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class RemoteShard implements IPhonebookShard {
+    private final InetSocketAddress address;
+    private final String name;
+
+    /** Conexiones abiertas que no está usando ninguna petición. */
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor de la clase {@code RemoteShard}. No abre ninguna conexión hasta la primera petición.
+     *
+     * @param address La dirección del servidor del fragmento.
+     */
+    public RemoteShard(InetSocketAddress address) {
+        this.address = address;
+        this.name = address.getHostString() + ":" + address.getPort();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean add(Contact contact) {
+        return call(ShardProtocol.ADD, out -> ShardProtocol.writeContact(out, contact), DataInputStream::readBoolean);
+    }
+
+    @Override
+    public Contact get(String code) {
+        return call(ShardProtocol.GET, out -> out.writeUTF(code), ShardProtocol::readContact);
+    }
+
+    @Override
+    public boolean delete(String code) {
+        return call(ShardProtocol.DELETE, out -> out.writeUTF(code), DataInputStream::readBoolean);
+    }
+
+    @Override
+    public List<Contact> listContacts(String afterCode, int limit) {
+        return call(ShardProtocol.LIST, out -> {
+            ShardProtocol.writeOptional(out, afterCode);
+            out.writeInt(limit);
+        }, ShardProtocol::readContacts);
+    }
+
+    @Override
+    public List<Contact> searchByName(String query, int limit) {
+        return call(ShardProtocol.SEARCH, out -> {
+            out.writeUTF(query);
+            out.writeInt(limit);
+        }, ShardProtocol::readContacts);
+    }
+
+    @Override
+    public Contact findByPhone(String phone) {
+        return call(ShardProtocol.FIND_PHONE, out -> out.writeUTF(phone), ShardProtocol::readContact);
+    }
+
+    @Override
+    public int size() {
+        return call(ShardProtocol.SIZE, out -> { }, DataInputStream::readInt);
+    }
+
+    /**
+     * Cierra las conexiones libres; las que están en uso se cierran al terminar su petición.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteShard[" + name + "]";
+    }
+
+    /**
+     * Envía una petición y lee su respuesta por una conexión libre.
+     *
+     * @param operation La operación.
+     * @param request   Escribe los argumentos.
+     * @param response  Lee el resultado.
+     * @return El resultado.
+     */
+    private <T> T call(byte operation, Request request, Response<T> response) {
+        if (closed) {
+            throw new IllegalStateException("El fragmento " + name + " está cerrado.");
+        }
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = new Connection(address);
+            }
+            connection.out.writeByte(operation);
+            request.write(connection.out);
+            connection.out.flush();
+            byte status = connection.in.readByte();
+            if (status != ShardProtocol.OK) {
+                String message = connection.in.readUTF();
+                release(connection);
+                throw new IllegalStateException("El fragmento " + name + " ha fallado: " + message);
+            }
+            T result = response.read(connection.in);
+            release(connection);
+            return result;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new UncheckedIOException("Error de comunicación con el fragmento " + name, e);
+        }
+    }
+
+    private void release(Connection connection) {
+        if (closed) {
+            connection.close();
+        } else {
+            idle.offer(connection);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Response<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Conexión con el servidor del fragmento.
+     */
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(address);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ya estaba cerrada
+            }
+        }
+    }
+}
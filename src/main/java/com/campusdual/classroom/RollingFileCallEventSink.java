@@ -0,0 +1,120 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino que escribe los eventos de llamada en un fichero de texto UTF-8 que rota al llegar a un tamaño máximo.
+ * <p>
+ * Cada línea lleva el instante de la llamada en milisegundos, el código del contacto y el mensaje. Al rotar, el
+ * fichero actual pasa a llamarse {@code fichero.1}, el {@code fichero.1} pasa a {@code fichero.2}, y así hasta el
+ * número de copias indicado; la más antigua se borra.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class RollingFileCallEventSink implements ICallEventSink {
+    /** El fichero en el que se escribe. */
+    private final Path file;
+
+    /** Tamaño a partir del cual se rota el fichero. */
+    private final long maxBytes;
+
+    /** Número de copias antiguas que se conservan. */
+    private final int maxBackups;
+
+    /** Búfer reutilizado para componer cada lote. */
+    private final StringBuilder builder = new StringBuilder(1 << 14);
+
+    /** Codificador reutilizado entre lotes. */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    /** El canal del fichero actual. */
+    private FileChannel channel;
+
+    /** Tamaño del fichero actual. */
+    private long size;
+
+    /**
+     * Constructor de la clase {@code RollingFileCallEventSink}. Abre el fichero, añadiendo al final si ya existe.
+     *
+     * @param file       El fichero en el que se escribe.
+     * @param maxBytes   Tamaño a partir del cual se rota el fichero.
+     * @param maxBackups Número de copias antiguas que se conservan.
+     * @throws IOException si no se puede abrir el fichero.
+     */
+    public RollingFileCallEventSink(Path file, long maxBytes, int maxBackups) throws IOException {
+        if (maxBytes < 1 || maxBackups < 0) {
+            throw new IllegalArgumentException("Tamaño o número de copias no válido.");
+        }
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxBackups = maxBackups;
+        open();
+    }
+
+    @Override
+    public void write(List<CallEvent> batch) throws IOException {
+        String lineSeparator = System.lineSeparator();
+        builder.setLength(0);
+        for (CallEvent event : batch) {
+            builder.append(event.getTimestamp()).append(' ').append(event.getCallerCode()).append(' ');
+            event.appendTo(builder);
+            builder.append(lineSeparator);
+        }
+        ByteBuffer bytes = encoder.encode(CharBuffer.wrap(builder));
+        if (size > 0 && size + bytes.remaining() > maxBytes) {
+            roll();
+        }
+        while (bytes.hasRemaining()) {
+            size += channel.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Obtiene la ruta de una copia antigua.
+     *
+     * @param index El número de la copia, desde 1.
+     * @return La ruta.
+     */
+    Path backup(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        if (maxBackups == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                if (Files.exists(backup(i))) {
+                    Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+}
@@ -0,0 +1,89 @@
+package com.campusdual.classroom;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocolo binario entre {@link RemoteShard} y {@link ShardServer}.
+ * <p>
+ * Cada petición es un byte con la operación seguido de sus argumentos, y cada respuesta un byte de estado seguido
+ * del resultado o, si hubo un error, de su mensaje. Los textos se escriben en UTF-8 modificado con
+ * {@link DataOutputStream#writeUTF(String)}; un contacto es su nombre, sus apellidos, su teléfono principal y sus
+ * teléfonos secundarios ya codificados con {@link PackedPhones}.
+ * </p>
+ */
+final class ShardProtocol {
+    static final byte ADD = 1;
+    static final byte GET = 2;
+    static final byte DELETE = 3;
+    static final byte LIST = 4;
+    static final byte SEARCH = 5;
+    static final byte FIND_PHONE = 6;
+    static final byte SIZE = 7;
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private ShardProtocol() {
+    }
+
+    static void writeContact(DataOutputStream out, Contact contact) throws IOException {
+        out.writeBoolean(contact != null);
+        if (contact == null) {
+            return;
+        }
+        out.writeUTF(contact.getName());
+        out.writeUTF(contact.getSurnames());
+        writeOptional(out, contact.getPhone());
+        out.writeShort(contact.secondaryPhoneCount());
+        for (int i = 0; i < contact.secondaryPhoneCount(); i++) {
+            out.writeLong(contact.secondaryPhoneAt(i));
+        }
+    }
+
+    static Contact readContact(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Contact contact = new Contact(in.readUTF(), in.readUTF(), readOptional(in));
+        int secondary = in.readUnsignedShort();
+        if (secondary > 0) {
+            long[] phones = new long[secondary];
+            for (int i = 0; i < secondary; i++) {
+                phones[i] = in.readLong();
+            }
+            contact.restoreSecondaryPhones(phones);
+        }
+        return contact;
+    }
+
+    static void writeContacts(DataOutputStream out, List<Contact> contacts) throws IOException {
+        out.writeInt(contacts.size());
+        for (Contact contact : contacts) {
+            writeContact(out, contact);
+        }
+    }
+
+    static List<Contact> readContacts(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Contact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(readContact(in));
+        }
+        return contacts;
+    }
+
+    static void writeOptional(DataOutputStream out, String text) throws IOException {
+        out.writeBoolean(text != null);
+        if (text != null) {
+            out.writeUTF(text);
+        }
+    }
+
+    static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
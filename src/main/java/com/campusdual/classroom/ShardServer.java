@@ -0,0 +1,232 @@
+package com.campusdual.classroom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La clase {@code ShardServer} publica un fragmento de una {@link PartitionedPhonebook} por un socket TCP.
+ * <p>
+ * Atiende cada conexión en su propio hilo virtual con el protocolo binario de {@link ShardProtocol}, y cada conexión
+ * puede enviar cualquier número de peticiones seguidas. Los contactos se guardan en un {@link LocalShard}. Se puede
+ * arrancar como proceso independiente para repartir la agenda entre varias JVM de la misma máquina:
+ * </p>
+ * <pre>
+ *   java -cp target/classes com.campusdual.classroom.ShardServer [puerto]
+ * </pre>
+ * <p>
+ * El proceso escucha solo en la interfaz local, escribe {@code "Fragmento escuchando en el puerto N"} por la salida
+ * estándar cuando está listo y termina al cerrar su entrada estándar.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class ShardServer implements AutoCloseable {
+    /** Texto que precede al puerto en el mensaje de arranque. */
+    public static final String READY_MESSAGE = "Fragmento escuchando en el puerto ";
+
+    private final LocalShard shard;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /** Número de conexiones cortadas por un error de comunicación. */
+    private final LongAdder failedConnections = new LongAdder();
+
+    /** Último error de comunicación, o {@code null} si no ha habido ninguno. */
+    private volatile IOException lastConnectionError;
+
+    private ShardServer(LocalShard shard, ServerSocket serverSocket) {
+        this.shard = shard;
+        this.serverSocket = serverSocket;
+    }
+
+    /**
+     * Arranca el servidor.
+     *
+     * @param shard   El fragmento publicado.
+     * @param address La dirección en la que escucha; con el puerto 0 se elige uno libre.
+     * @return El servidor arrancado.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public static ShardServer start(LocalShard shard, InetSocketAddress address) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        ShardServer server = new ShardServer(shard, serverSocket);
+        server.executor.execute(server::accept);
+        return server;
+    }
+
+    /**
+     * Obtiene la dirección en la que escucha el servidor.
+     *
+     * @return La dirección, con el puerto real.
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * Obtiene el número de conexiones que se han cortado por un error de comunicación, sin contar las que ha cerrado
+     * el cliente o el propio servidor.
+     *
+     * @return El número de conexiones fallidas.
+     */
+    public long getFailedConnections() {
+        return failedConnections.sum();
+    }
+
+    /**
+     * Obtiene el último error de comunicación con un cliente.
+     *
+     * @return El error, o {@code null} si no ha habido ninguno.
+     */
+    public IOException getLastConnectionError() {
+        return lastConnectionError;
+    }
+
+    /**
+     * Detiene el servidor: deja de aceptar conexiones, cierra las abiertas y espera a que terminen sus hilos.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // El socket ya no acepta conexiones
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        executor.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // El servidor se ha cerrado
+            }
+        }
+    }
+
+    /**
+     * Atiende las peticiones de una conexión hasta que el cliente la cierra.
+     *
+     * @param socket La conexión.
+     */
+    private void serve(Socket socket) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream result = new DataOutputStream(buffer);
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                byte operation;
+                try {
+                    operation = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                buffer.reset();
+                try {
+                    handle(operation, in, result);
+                    out.writeByte(ShardProtocol.OK);
+                    buffer.writeTo(out);
+                } catch (RuntimeException e) {
+                    out.writeByte(ShardProtocol.ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // Conexión cerrada por el cliente o por close()
+        } catch (IOException e) {
+            failedConnections.increment();
+            lastConnectionError = e;
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Ejecuta una petición y escribe su resultado.
+     * <p>
+     * Los argumentos se leen siempre completos antes de ejecutar la operación, de modo que si esta falla la
+     * conexión sigue sincronizada y puede responder con el error.
+     * </p>
+     *
+     * @param operation La operación.
+     * @param in        Los argumentos de la petición.
+     * @param out       El destino del resultado.
+     * @throws IOException si falla la comunicación o la operación no existe.
+     */
+    private void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (operation) {
+            case ShardProtocol.ADD -> {
+                Contact contact = ShardProtocol.readContact(in);
+                out.writeBoolean(shard.add(contact));
+            }
+            case ShardProtocol.GET -> ShardProtocol.writeContact(out, shard.get(in.readUTF()));
+            case ShardProtocol.DELETE -> out.writeBoolean(shard.delete(in.readUTF()));
+            case ShardProtocol.LIST -> {
+                String afterCode = ShardProtocol.readOptional(in);
+                int limit = in.readInt();
+                ShardProtocol.writeContacts(out, shard.listContacts(afterCode, limit));
+            }
+            case ShardProtocol.SEARCH -> {
+                String query = in.readUTF();
+                int limit = in.readInt();
+                ShardProtocol.writeContacts(out, shard.searchByName(query, limit));
+            }
+            case ShardProtocol.FIND_PHONE -> ShardProtocol.writeContact(out, shard.findByPhone(in.readUTF()));
+            case ShardProtocol.SIZE -> out.writeInt(shard.size());
+            default -> throw new IOException("Operación desconocida: " + operation);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ya estaba cerrado
+        }
+    }
+
+    /**
+     * Arranca un fragmento en la interfaz local.
+     *
+     * @param args El puerto, o ninguno para elegir uno libre.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (ShardServer server = start(new LocalShard("shard-" + ProcessHandle.current().pid()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+            System.out.println(READY_MESSAGE + server.getAddress().getPort());
+            System.out.flush();
+            while (System.in.read() >= 0) {
+                // Se espera a que se cierre la entrada estándar
+            }
+        }
+    }
+}
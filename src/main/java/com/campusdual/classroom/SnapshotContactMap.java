@@ -0,0 +1,298 @@
+package com.campusdual.classroom;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa de contactos respaldado por una instantánea proyectada en memoria.
+ * <p>
+ * Los contactos de la instantánea se decodifican cuando se consultan y se recuerdan con referencias débiles: mientras
+ * alguien use un contacto, se devuelve el mismo objeto para su código, pero en cuanto deja de usarse puede liberarse,
+ * por lo que recorrer el mapa o construir los índices no deja la instantánea entera en el heap. Un contacto
+ * decodificado pasa a guardarse en memoria en cuanto cambian sus datos. Las altas, bajas y sustituciones se guardan
+ * aparte sin modificar el fichero. Al recorrer el mapa se obtienen primero los contactos de la instantánea, en orden
+ * de código, y después los añadidos.
+ * </p>
+ * <p>
+ * Las consultas no se bloquean y pueden hacerse desde varios hilos; las altas y bajas se hacen de una en una.
+ * </p>
+ */
+class SnapshotContactMap extends AbstractMap<String, Contact> {
+    private final PhonebookSnapshot snapshot;
+    private final IContactListener listener;
+
+    /** Receptor de los contactos decodificados, que los guarda en memoria antes de avisar a {@link #listener}. */
+    private final IContactListener pinningListener = new PinningListener();
+
+    /** Contactos de la instantánea que han cambiado o se han sustituido, que ya no pueden volver a decodificarse. */
+    private final Map<String, Contact> materialized = new ConcurrentHashMap<>();
+
+    /** Contactos decodificados que todavía pueden estar en uso. */
+    private final Map<String, DecodedContact> decoded = new ConcurrentHashMap<>();
+
+    /** Referencias de {@link #decoded} cuyo contacto ya se ha liberado. */
+    private final ReferenceQueue<Contact> released = new ReferenceQueue<>();
+
+    /** Contactos cuyo código no está en la instantánea. */
+    private final Map<String, Contact> added = new ConcurrentHashMap<>();
+
+    /** Códigos de la instantánea que se han eliminado. */
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+    private volatile int size;
+
+    /**
+     * Crea un mapa sobre una instantánea.
+     *
+     * @param snapshot La instantánea abierta.
+     * @param listener El receptor que se avisa de los cambios de cada contacto decodificado, o {@code null}.
+     */
+    SnapshotContactMap(PhonebookSnapshot snapshot, IContactListener listener) {
+        this.snapshot = snapshot;
+        this.listener = listener;
+        this.size = snapshot.size();
+    }
+
+    /**
+     * Obtiene el número de contactos de la instantánea que están en memoria, porque se usan o porque han cambiado.
+     *
+     * @return El número de contactos en memoria procedentes de la instantánea.
+     */
+    int materializedCount() {
+        Set<String> codes = new HashSet<>(materialized.keySet());
+        decoded.forEach((code, reference) -> {
+            if (reference.get() != null) {
+                codes.add(code);
+            }
+        });
+        return codes.size();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Contact get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String code = (String) key;
+        Contact contact = added.get(code);
+        if (contact != null) {
+            return contact;
+        }
+        contact = materialized.get(code);
+        if (contact != null || removed.contains(code)) {
+            return contact;
+        }
+        int index = snapshot.indexOf(code);
+        return index < 0 ? null : decode(code, index);
+    }
+
+    @Override
+    public synchronized Contact put(String code, Contact contact) {
+        if (snapshot.indexOf(code) < 0) {
+            Contact previous = added.put(code, contact);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        Contact previous = get(code);
+        materialized.put(code, contact);
+        decoded.remove(code);
+        if (removed.remove(code)) {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized Contact remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String code = (String) key;
+        Contact previous = added.remove(code);
+        if (previous != null) {
+            size--;
+            return previous;
+        }
+        previous = get(code);
+        if (previous != null) {
+            removed.add(code);
+            materialized.remove(code);
+            decoded.remove(code);
+            size--;
+        }
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, Contact>> entrySet() {
+        return new AbstractSet<Entry<String, Contact>>() {
+            @Override
+            public Iterator<Entry<String, Contact>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el contacto de una posición de la instantánea, decodificándolo si nadie lo está usando.
+     *
+     * @param code  El código del contacto.
+     * @param index La posición del contacto en la instantánea.
+     * @return El contacto.
+     */
+    private Contact decode(String code, int index) {
+        for (Reference<? extends Contact> reference; (reference = released.poll()) != null; ) {
+            DecodedContact stale = (DecodedContact) reference;
+            decoded.remove(stale.code, stale);
+        }
+        while (true) {
+            DecodedContact cached = decoded.get(code);
+            Contact contact = cached == null ? null : cached.get();
+            if (contact != null) {
+                return contact;
+            }
+            contact = snapshot.contactAt(index);
+            contact.restoreCode(code);
+            contact.setListener(pinningListener);
+            DecodedContact reference = new DecodedContact(code, contact, released);
+            if (cached == null ? decoded.putIfAbsent(code, reference) == null
+                    : decoded.replace(code, cached, reference)) {
+                return contact;
+            }
+        }
+    }
+
+    /**
+     * Contacto decodificado, recordado mientras alguien lo use.
+     */
+    private static final class DecodedContact extends WeakReference<Contact> {
+        final String code;
+
+        DecodedContact(String code, Contact contact, ReferenceQueue<Contact> queue) {
+            super(contact, queue);
+            this.code = code;
+        }
+    }
+
+    /**
+     * Guarda en memoria los contactos decodificados que cambian y pasa sus avisos al receptor del mapa.
+     * <p>
+     * Los avisos de un contacto que ya no está en el mapa no se pasan: la agenda ya no lo tiene en sus índices.
+     * </p>
+     */
+    private final class PinningListener implements IContactListener {
+        @Override
+        public void contactChanging(Contact contact) {
+            if (pin(contact) && listener != null) {
+                listener.contactChanging(contact);
+            }
+        }
+
+        @Override
+        public void contactChanged(Contact contact) {
+            if (isCurrent(contact) && listener != null) {
+                listener.contactChanged(contact);
+            }
+        }
+
+        @Override
+        public void contactRenamed(Contact contact) {
+            if (pin(contact) && listener != null) {
+                listener.contactRenamed(contact);
+            }
+        }
+
+        /**
+         * Guarda en memoria un contacto decodificado que va a cambiar.
+         *
+         * @param contact El contacto.
+         * @return {@code true} si el contacto sigue en el mapa.
+         */
+        private boolean pin(Contact contact) {
+            String code = contact.getCode();
+            DecodedContact cached = decoded.get(code);
+            if (cached != null && cached.get() == contact && !removed.contains(code)) {
+                materialized.putIfAbsent(code, contact);
+            }
+            return isCurrent(contact);
+        }
+
+        private boolean isCurrent(Contact contact) {
+            String code = contact.getCode();
+            return materialized.get(code) == contact || added.get(code) == contact;
+        }
+    }
+
+    /**
+     * Recorre los contactos de la instantánea que no se han eliminado y después los añadidos.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Contact>> {
+        private int index;
+        private final Iterator<Entry<String, Contact>> addedIterator = added.entrySet().iterator();
+        private Entry<String, Contact> next = advance();
+        private Entry<String, Contact> last;
+
+        private Entry<String, Contact> advance() {
+            while (index < snapshot.size()) {
+                int current = index++;
+                String code = snapshot.codeAt(current);
+                if (removed.contains(code)) {
+                    continue;
+                }
+                Contact contact = materialized.get(code);
+                return new SimpleImmutableEntry<>(code, contact != null ? contact : decode(code, current));
+            }
+            return addedIterator.hasNext() ? addedIterator.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Contact> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            SnapshotContactMap.this.remove(last.getKey());
+            last = null;
+        }
+    }
+}
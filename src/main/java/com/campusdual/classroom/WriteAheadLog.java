@@ -0,0 +1,749 @@
+package com.campusdual.classroom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * La clase {@code WriteAheadLog} es el registro de escritura anticipada de una agenda duradera.
+ * <p>
+ * Cada alta, baja, cambio de teléfonos o cambio de nombre se anota como un registro binario: su longitud, su
+ * suma de comprobación CRC-32C y su contenido. Los registros se escriben en segmentos ({@code log-N.wal}) con un
+ * {@link FileChannel}. Los hilos que anotan cambios solo copian el registro en un búfer; un único hilo lo escribe
+ * y llama a {@code force}, de modo que todos los registros que llegan mientras tanto se hacen duraderos con la
+ * misma sincronización. El plazo de agrupación indica cuánto puede esperar un registro a que se le unan otros
+ * antes de empezar su sincronización; con plazo cero solo se agrupan los que llegan durante la anterior.
+ * </p>
+ * <p>
+ * Un punto de control ({@code checkpoint-N.wal}) guarda, con el mismo formato, un alta por cada contacto de la
+ * agenda al empezar el segmento {@code N}; al escribirlo se borran los segmentos y puntos de control anteriores.
+ * Los registros guardan el estado final de los datos que cambian, no la diferencia, así que aplicar de nuevo un
+ * cambio que el punto de control ya incluye deja la agenda igual.
+ * </p>
+ * <p>
+ * Al abrir el registro se aplica el último punto de control y después los segmentos siguientes. Cada fichero se
+ * proyecta en memoria, se recorren las longitudes para localizar los registros y estos se comprueban y decodifican
+ * en paralelo antes de aplicarlos en orden. Si el último segmento termina con un registro incompleto o dañado,
+ * por una caída a mitad de escritura, se descarta desde ese punto; los cambios siguientes van a un segmento nuevo.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+final class WriteAheadLog implements AutoCloseable {
+    static final byte ADD = 1;
+    static final byte DELETE = 2;
+    static final byte UPDATE_PHONES = 3;
+    static final byte RENAME = 4;
+
+    /** Número mágico del formato: "PBW1". */
+    private static final int MAGIC = 0x50425731;
+
+    private static final int VERSION = 1;
+
+    /** Tamaño de la cabecera de cada fichero: número mágico y versión. */
+    private static final int HEADER_SIZE = 8;
+
+    /** Tamaño de la cabecera de cada registro: longitud y suma de comprobación. */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /** Longitud máxima del contenido de un registro. */
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /** Bytes pendientes a partir de los cuales se sincroniza sin esperar al plazo de agrupación. */
+    private static final int MAX_BATCH_SIZE = 1 << 20;
+
+    /** Tamaño inicial de los búferes de registros pendientes. */
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    private static final String SEGMENT_PREFIX = "log-";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String SUFFIX = ".wal";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long commitDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Avisa al hilo de escritura de que hay registros pendientes o de que se cierra el registro. */
+    private final Condition appended = lock.newCondition();
+
+    /** Avisa a los hilos que esperan de que ha terminado una sincronización. */
+    private final Condition synced = lock.newCondition();
+
+    /** Registros anotados que todavía no se han escrito. */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Búfer que está escribiendo el hilo de escritura; se intercambia con {@link #pending}. */
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /** Bytes anotados desde que se abrió el registro; la posición de un registro es este valor tras anotarlo. */
+    private long appendedPosition;
+
+    /** Bytes anotados que ya son duraderos. */
+    private long durablePosition;
+
+    /** Instante en el que se anotó el registro pendiente más antiguo. */
+    private long oldestPendingNanos;
+
+    /** Segmento que se ha pedido abrir, o 0 si no hay ningún cambio de segmento pendiente. */
+    private long requestedSegment;
+
+    private boolean closed;
+    private IOException failure;
+
+    /** Segmento en el que se escriben los registros; solo lo usa el hilo de escritura. */
+    private FileChannel channel;
+
+    /** Número del segmento actual. */
+    private long segment;
+
+    /** Número del punto de control más reciente escrito. */
+    private long lastCheckpoint;
+
+    private final Object checkpointLock = new Object();
+    private final Thread writer;
+
+    private WriteAheadLog(Path directory, Duration commitDelay, long segment, long lastCheckpoint)
+            throws IOException {
+        this.directory = directory;
+        this.commitDelayNanos = commitDelay.toNanos();
+        this.segment = segment;
+        this.lastCheckpoint = lastCheckpoint;
+        this.channel = create(segmentFile(segment));
+        this.writer = new Thread(this::writeLoop, "phonebook-wal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Abre el registro de un directorio, aplicando antes los cambios que ya contiene.
+     *
+     * @param directory   El directorio, que se crea si no existe.
+     * @param commitDelay El tiempo máximo que un registro espera a otros antes de sincronizarse.
+     * @param replay      Recibe en orden los registros del último punto de control y de los segmentos siguientes.
+     * @return El registro abierto, que escribe en un segmento nuevo.
+     * @throws IOException si no se puede leer el directorio o un fichero que no es el último está dañado.
+     */
+    static WriteAheadLog open(Path directory, Duration commitDelay, Consumer<Entry> replay) throws IOException {
+        if (commitDelay.isNegative()) {
+            throw new IllegalArgumentException("El plazo de agrupación no puede ser negativo: " + commitDelay);
+        }
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        TreeMap<Long, Path> checkpoints = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.delete(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SUFFIX)) {
+                    segments.put(number(name, SEGMENT_PREFIX), file);
+                } else if (name.startsWith(CHECKPOINT_PREFIX) && name.endsWith(SUFFIX)) {
+                    checkpoints.put(number(name, CHECKPOINT_PREFIX), file);
+                }
+            }
+        }
+        long checkpoint = checkpoints.isEmpty() ? 0 : checkpoints.lastKey();
+        if (checkpoint > 0) {
+            replay(checkpoints.lastEntry().getValue(), false, replay);
+        }
+        Map<Long, Path> remaining = segments.tailMap(checkpoint, true);
+        long last = remaining.isEmpty() ? 0 : segments.lastKey();
+        for (Map.Entry<Long, Path> entry : remaining.entrySet()) {
+            replay(entry.getValue(), entry.getKey() == last, replay);
+        }
+        return new WriteAheadLog(directory, commitDelay, Math.max(checkpoint, last) + 1, checkpoint);
+    }
+
+    /**
+     * Anota un registro. No espera a que sea duradero.
+     *
+     * @param entry El registro.
+     * @return La posición del registro, que se pasa a {@link #sync(long)}.
+     * @throws IllegalStateException si el registro está cerrado.
+     * @throws UncheckedIOException  si ha fallado una escritura anterior.
+     */
+    long append(Entry entry) {
+        lock.lock();
+        try {
+            checkOpen();
+            int start = pending.position();
+            ByteBuffer out = ensureRemaining(RECORD_HEADER_SIZE + entry.encodedSize());
+            out.position(start + RECORD_HEADER_SIZE);
+            try {
+                entry.encode(out);
+            } catch (RuntimeException e) {
+                out.position(start);
+                throw e;
+            }
+            int length = out.position() - start - RECORD_HEADER_SIZE;
+            CRC32C crc = new CRC32C();
+            crc.update(out.array(), start + RECORD_HEADER_SIZE, length);
+            out.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+            if (start == 0) {
+                oldestPendingNanos = System.nanoTime();
+                appended.signal();
+            } else if (out.position() >= MAX_BATCH_SIZE) {
+                appended.signal();
+            }
+            appendedPosition += RECORD_HEADER_SIZE + length;
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera a que un registro anotado sea duradero.
+     *
+     * @param position La posición devuelta por {@link #append(Entry)}.
+     * @throws UncheckedIOException si no se ha podido escribir el registro.
+     */
+    void sync(long position) {
+        lock.lock();
+        try {
+            while (durablePosition < position && failure == null) {
+                synced.awaitUninterruptibly();
+            }
+            if (durablePosition < position) {
+                throw new UncheckedIOException("No se ha podido guardar el cambio en el registro.", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hace duraderos los registros anotados y pasa a escribir en un segmento nuevo.
+     * <p>
+     * El llamante debe impedir que se anoten registros mientras tanto, para que el estado que capture junto con el
+     * cambio de segmento corresponda exactamente a los registros de los segmentos anteriores.
+     * </p>
+     *
+     * @return El número del segmento nuevo, que se pasa a {@link #checkpoint(long, List)}.
+     * @throws UncheckedIOException si falla la escritura.
+     */
+    long rotate() {
+        lock.lock();
+        try {
+            checkOpen();
+            long next = segment + 1;
+            requestedSegment = next;
+            appended.signal();
+            while (segment < next && failure == null && !closed) {
+                synced.awaitUninterruptibly();
+            }
+            checkOpen();
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escribe un punto de control y borra los segmentos y puntos de control que ya no hacen falta.
+     * <p>
+     * El punto de control se escribe en un fichero temporal que se sincroniza y después se renombra, así que una
+     * caída a mitad de escritura deja el anterior intacto. Si entretanto se ha escrito uno más reciente, no se hace
+     * nada.
+     * </p>
+     *
+     * @param segment  El segmento devuelto por {@link #rotate()}.
+     * @param contacts Las altas de los contactos de la agenda al empezar ese segmento.
+     * @throws IOException si no se puede escribir el punto de control.
+     */
+    void checkpoint(long segment, List<Entry> contacts) throws IOException {
+        synchronized (checkpointLock) {
+            if (segment <= lastCheckpoint) {
+                return;
+            }
+            Path target = checkpointFile(segment);
+            Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+            try (FileChannel out = create(temporary)) {
+                ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+                CRC32C crc = new CRC32C();
+                for (Entry entry : contacts) {
+                    int size = RECORD_HEADER_SIZE + entry.encodedSize();
+                    if (buffer.remaining() < size) {
+                        write(out, buffer);
+                        if (buffer.capacity() < size) {
+                            buffer = ByteBuffer.allocate(size);
+                        }
+                    }
+                    int start = buffer.position();
+                    buffer.position(start + RECORD_HEADER_SIZE);
+                    entry.encode(buffer);
+                    int length = buffer.position() - start - RECORD_HEADER_SIZE;
+                    crc.reset();
+                    crc.update(buffer.array(), start + RECORD_HEADER_SIZE, length);
+                    buffer.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+                }
+                write(out, buffer);
+                out.force(true);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory();
+            lastCheckpoint = segment;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(SUFFIX) && (name.startsWith(SEGMENT_PREFIX)
+                            && number(name, SEGMENT_PREFIX) < segment || name.startsWith(CHECKPOINT_PREFIX)
+                            && number(name, CHECKPOINT_PREFIX) < segment)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Hace duraderos los registros pendientes y cierra el segmento.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Los registros ya se han sincronizado o ha fallado la escritura
+        }
+    }
+
+    /**
+     * Escribe y sincroniza los registros pendientes en bloques, hasta que se cierra el registro.
+     */
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long end;
+            long nextSegment;
+            lock.lock();
+            try {
+                while (!closed && requestedSegment == 0 && !batchDue()) {
+                    try {
+                        if (pending.position() == 0) {
+                            appended.await();
+                        } else {
+                            appended.awaitNanos(commitDelayNanos - (System.nanoTime() - oldestPendingNanos));
+                        }
+                    } catch (InterruptedException e) {
+                        // Solo se deja de escribir al cerrar el registro
+                    }
+                }
+                if (closed && pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                end = appendedPosition;
+                nextSegment = requestedSegment;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            FileChannel previous = null;
+            try {
+                write(channel, batch);
+                channel.force(false);
+                if (nextSegment != 0) {
+                    previous = channel;
+                    channel = create(segmentFile(nextSegment));
+                    syncDirectory();
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            if (previous != null) {
+                try {
+                    previous.close();
+                } catch (IOException e) {
+                    // El segmento ya está sincronizado
+                }
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durablePosition = end;
+                    if (nextSegment != 0) {
+                        segment = nextSegment;
+                        requestedSegment = 0;
+                    }
+                }
+                synced.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Indica si los registros pendientes deben escribirse ya.
+     */
+    private boolean batchDue() {
+        int size = pending.position();
+        return size > 0 && (size >= MAX_BATCH_SIZE
+                || System.nanoTime() - oldestPendingNanos >= commitDelayNanos);
+    }
+
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException("El registro de cambios ha fallado.", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("El registro de cambios está cerrado.");
+        }
+    }
+
+    /**
+     * Asegura que el búfer de registros pendientes tiene sitio, ampliándolo si hace falta.
+     */
+    private ByteBuffer ensureRemaining(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        return pending;
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SUFFIX);
+    }
+
+    private Path checkpointFile(long number) {
+        return directory.resolve(CHECKPOINT_PREFIX + number + SUFFIX);
+    }
+
+    /**
+     * Sincroniza el directorio para que los ficheros creados o renombrados sobrevivan a una caída.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // No todos los sistemas permiten abrir un directorio
+        }
+    }
+
+    /**
+     * Crea un fichero vacío con la cabecera del formato.
+     */
+    private static FileChannel create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            write(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION));
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Escribe el contenido de un búfer y lo deja vacío.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long number(String name, String prefix) throws IOException {
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Nombre de fichero de registro no válido: " + name, e);
+        }
+    }
+
+    /**
+     * Aplica los registros de un fichero.
+     *
+     * @param file        El fichero.
+     * @param truncatable {@code true} si es el último segmento y puede terminar con un registro incompleto.
+     * @param replay      Recibe los registros.
+     * @throws IOException si el fichero no tiene el formato esperado o, sin ser el último, está dañado.
+     */
+    private static void replay(Path file, boolean truncatable, Consumer<Entry> replay) throws IOException {
+        Entry[] entries;
+        long validLength;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Fichero de registro demasiado grande: " + file);
+            }
+            if (length < HEADER_SIZE) {
+                if (truncatable) {
+                    return;
+                }
+                throw new IOException("Fichero de registro truncado: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("El fichero no es un registro de cambios válido: " + file);
+            }
+
+            // Las longitudes se recorren en orden; la comprobación y la decodificación, en paralelo
+            int[] offsets = new int[64];
+            int count = 0;
+            int position = HEADER_SIZE;
+            while (position + RECORD_HEADER_SIZE <= length) {
+                int size = buffer.getInt(position);
+                if (size <= 0 || size > MAX_RECORD_SIZE || position + RECORD_HEADER_SIZE + (long) size > length) {
+                    break;
+                }
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = position;
+                position += RECORD_HEADER_SIZE + size;
+            }
+            int[] found = offsets;
+            Entry[] decoded = new Entry[count];
+            IntStream.range(0, count).parallel().forEach(i -> decoded[i] = decode(buffer, found[i]));
+
+            int valid = 0;
+            while (valid < count && decoded[valid] != null) {
+                valid++;
+            }
+            entries = valid == count ? decoded : Arrays.copyOf(decoded, valid);
+            validLength = valid == count ? position : offsets[valid];
+            if (validLength < length && !truncatable) {
+                throw new IOException("Registro dañado en " + file + " en la posición " + validLength);
+            }
+        }
+        for (Entry entry : entries) {
+            replay.accept(entry);
+        }
+        if (validLength < Files.size(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Comprueba y decodifica el registro que empieza en una posición.
+     *
+     * @return El registro, o {@code null} si está dañado.
+     */
+    private static Entry decode(ByteBuffer buffer, int offset) {
+        ByteBuffer view = buffer.duplicate();
+        int length = view.getInt(offset);
+        int checksum = view.getInt(offset + 4);
+        view.position(offset + RECORD_HEADER_SIZE).limit(offset + RECORD_HEADER_SIZE + length);
+        CRC32C crc = new CRC32C();
+        crc.update(view.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        try {
+            Entry entry = Entry.decode(view);
+            return view.hasRemaining() ? null : entry;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Un cambio anotado en el registro.
+     * <p>
+     * Según el tipo se usan unos campos u otros: un alta guarda el código y todos los datos del contacto; una baja,
+     * el código; un cambio de teléfonos, el código y todos los teléfonos; y un cambio de nombre, el código anterior,
+     * el nuevo, el nombre y los apellidos.
+     * </p>
+     */
+    static final class Entry {
+        final byte type;
+        final String code;
+        final String newCode;
+        final String name;
+        final String surnames;
+        final String phone;
+        final long[] secondaryPhones;
+
+        private Entry(byte type, String code, String newCode, String name, String surnames, String phone,
+                      long[] secondaryPhones) {
+            this.type = type;
+            this.code = code;
+            this.newCode = newCode;
+            this.name = name;
+            this.surnames = surnames;
+            this.phone = phone;
+            this.secondaryPhones = secondaryPhones;
+        }
+
+        static Entry add(String code, Contact contact) {
+            return new Entry(ADD, code, null, contact.getName(), contact.getSurnames(), contact.getPhone(),
+                    contact.packedSecondaryPhones());
+        }
+
+        static Entry delete(String code) {
+            return new Entry(DELETE, code, null, null, null, null, null);
+        }
+
+        static Entry updatePhones(String code, Contact contact) {
+            return new Entry(UPDATE_PHONES, code, null, null, null, contact.getPhone(),
+                    contact.packedSecondaryPhones());
+        }
+
+        static Entry rename(String oldCode, String newCode, Contact contact) {
+            return new Entry(RENAME, oldCode, newCode, contact.getName(), contact.getSurnames(), null, null);
+        }
+
+        /**
+         * Crea el contacto que describe un alta, con su código.
+         *
+         * @return El contacto.
+         */
+        Contact toContact() {
+            return restore(code, name, surnames, phone, secondaryPhones);
+        }
+
+        /**
+         * Crea un contacto con los datos indicados y el sufijo de su código guardado.
+         */
+        static Contact restore(String code, String name, String surnames, String phone, long[] secondaryPhones) {
+            Contact contact = new Contact(name, surnames, phone);
+            contact.restoreSecondaryPhones(secondaryPhones);
+            contact.refreshCode();
+            contact.restoreCode(code);
+            return contact;
+        }
+
+        private int encodedSize() {
+            int size = 1;
+            for (String field : new String[]{code, newCode, name, surnames, phone}) {
+                size += 2 + (field == null ? 0 : 3 * field.length());
+            }
+            return size + 2 + (secondaryPhones == null ? 0 : 8 * secondaryPhones.length);
+        }
+
+        private void encode(ByteBuffer out) {
+            out.put(type);
+            putString(out, code);
+            switch (type) {
+                case ADD -> {
+                    putString(out, name);
+                    putString(out, surnames);
+                    putString(out, phone);
+                    putPhones(out, secondaryPhones);
+                }
+                case UPDATE_PHONES -> {
+                    putString(out, phone);
+                    putPhones(out, secondaryPhones);
+                }
+                case RENAME -> {
+                    putString(out, newCode);
+                    putString(out, name);
+                    putString(out, surnames);
+                }
+                default -> {
+                    // Una baja solo guarda el código
+                }
+            }
+        }
+
+        private static Entry decode(ByteBuffer in) {
+            byte type = in.get();
+            String code = getString(in);
+            return switch (type) {
+                case ADD -> new Entry(ADD, code, null, getString(in), getString(in), getString(in), getPhones(in));
+                case DELETE -> delete(code);
+                case UPDATE_PHONES -> new Entry(UPDATE_PHONES, code, null, null, null, getString(in), getPhones(in));
+                case RENAME -> new Entry(RENAME, code, getString(in), getString(in), getString(in), null, null);
+                default -> throw new IllegalArgumentException("Tipo de registro desconocido: " + type);
+            };
+        }
+
+        private static void putString(ByteBuffer out, String value) {
+            if (value == null) {
+                out.putShort((short) -1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Campo demasiado largo para el registro: " + value.length());
+            }
+            out.putShort((short) bytes.length).put(bytes);
+        }
+
+        private static String getString(ByteBuffer in) {
+            int length = in.getShort();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static void putPhones(ByteBuffer out, long[] phones) {
+            out.putShort((short) phones.length);
+            for (long phone : phones) {
+                out.putLong(phone);
+            }
+        }
+
+        private static long[] getPhones(ByteBuffer in) {
+            long[] phones = new long[in.getShort() & 0xFFFF];
+            for (int i = 0; i < phones.length; i++) {
+                phones[i] = in.getLong();
+            }
+            return phones;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.campusdual.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffered source of lines and numbers read from a character stream.
+ * <p>
+ * A single instance keeps its buffer between reads, so data that arrives in the same chunk as a line (for example,
+ * when input is piped) is kept for the next read instead of being lost. Numbers are parsed directly from the
+ * reusable line buffer, without creating a {@link String} per number.
+ * </p>
+ * <p>
+ * {@link #system()} returns the instance shared by every reader of the standard input. All methods are
+ * synchronized so that the shared instance can be used from several threads.
+ * </p>
+ */
+public final class InputSource implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Largest mantissa that a double represents exactly. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Powers of ten that a double represents exactly. */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static InputSource system;
+    private static InputStream systemStream;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder(128);
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+    private boolean skipLineFeed;
+
+    /**
+     * Creates a source that reads from a character stream.
+     *
+     * @param reader
+     *            The stream to read from. It is not wrapped in another buffer.
+     */
+    public InputSource(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Creates a source that reads from a byte stream.
+     *
+     * @param in
+     *            The stream to read from.
+     * @param charset
+     *            The charset used to decode the bytes.
+     */
+    public InputSource(InputStream in, Charset charset) {
+        this(new InputStreamReader(in, charset));
+    }
+
+    /**
+     * Returns the source shared by every reader of the standard input.
+     * <p>
+     * If {@link System#in} has been replaced since the last call, a new source is created for the new stream.
+     * </p>
+     *
+     * @return The shared source for the standard input.
+     */
+    public static synchronized InputSource system() {
+        if (system == null || systemStream != System.in) {
+            systemStream = System.in;
+            system = new InputSource(new InputStreamReader(systemStream));
+        }
+        return system;
+    }
+
+    /**
+     * Reads the next line, without its line terminator.
+     *
+     * @return The line, or <code>null</code> at the end of the stream.
+     * @throws UncheckedIOException
+     *             if the stream cannot be read.
+     */
+    public synchronized String readLine() {
+        return readLine(line) ? line.toString() : null;
+    }
+
+    /**
+     * Reads the next line and parses it as an integer, ignoring surrounding whitespace.
+     * <p>
+     * The line is consumed even if it does not contain a valid integer.
+     * </p>
+     *
+     * @return The integer.
+     * @throws NumberFormatException
+     *             if the line is not a valid integer.
+     * @throws NoSuchElementException
+     *             at the end of the stream.
+     */
+    public synchronized int readInt() {
+        requireLine();
+        int start = trimStart(line);
+        return Integer.parseInt(line, start, trimEnd(line, start), 10);
+    }
+
+    /**
+     * Reads the next line and parses it as a real number, ignoring surrounding whitespace.
+     * <p>
+     * The line is consumed even if it does not contain a valid number.
+     * </p>
+     *
+     * @return The number.
+     * @throws NumberFormatException
+     *             if the line is not a valid number.
+     * @throws NoSuchElementException
+     *             at the end of the stream.
+     */
+    public synchronized double readDouble() {
+        requireLine();
+        int start = trimStart(line);
+        return parseDouble(line, start, trimEnd(line, start));
+    }
+
+    /**
+     * Reads the next integer separated by whitespace, which may be on the current line or on the following ones.
+     *
+     * @return The integer.
+     * @throws NumberFormatException
+     *             if the next token is not a valid integer. The token is consumed.
+     * @throws NoSuchElementException
+     *             if there are no more tokens.
+     */
+    public synchronized int nextInt() {
+        line.setLength(0);
+        skipLineFeed = false;
+        while (true) {
+            if (position >= limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if (Character.isWhitespace(c)) {
+                if (line.length() > 0) {
+                    break;
+                }
+            } else {
+                line.append(c);
+            }
+            position++;
+        }
+        if (line.length() == 0) {
+            throw new NoSuchElementException("No more input data.");
+        }
+        return Integer.parseInt(line, 0, line.length(), 10);
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException
+     *             if the stream cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses a real number from part of a character sequence.
+     * <p>
+     * Plain decimal numbers of up to 15 or 16 significant digits are computed exactly from their digits; any other
+     * format (exponents, very long numbers, <code>NaN</code>...) is delegated to {@link Double#parseDouble(String)}.
+     * Both paths give the same result.
+     * </p>
+     *
+     * @param text
+     *            The characters.
+     * @param start
+     *            The first character of the number.
+     * @param end
+     *            The character after the last one of the number.
+     * @return The number.
+     * @throws NumberFormatException
+     *             if the characters are not a valid number.
+     */
+    static double parseDouble(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return slowParseDouble(text, start, end);
+                }
+                digits = true;
+                if (point) {
+                    scale++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return slowParseDouble(text, start, end);
+            }
+        }
+        if (!digits || scale >= POWERS_OF_TEN.length) {
+            return slowParseDouble(text, start, end);
+        }
+        // Both operands are exact, so the division is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(CharSequence text, int start, int end) {
+        return Double.parseDouble(text.subSequence(start, end).toString());
+    }
+
+    private void requireLine() {
+        if (!readLine(line)) {
+            throw new NoSuchElementException("No more input data.");
+        }
+    }
+
+    /**
+     * Reads the next line into a builder.
+     *
+     * @param target
+     *            The builder, which is cleared first.
+     * @return <code>false</code> at the end of the stream.
+     */
+    private boolean readLine(StringBuilder target) {
+        target.setLength(0);
+        if (position >= limit && !fill()) {
+            return false;
+        }
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (buffer[position] == '\n') {
+                position++;
+                if (position >= limit && !fill()) {
+                    return false;
+                }
+            }
+        }
+        while (true) {
+            int i = position;
+            while (i < limit && buffer[i] != '\n' && buffer[i] != '\r') {
+                i++;
+            }
+            target.append(buffer, position, i - position);
+            if (i < limit) {
+                skipLineFeed = buffer[i] == '\r';
+                position = i + 1;
+                return true;
+            }
+            position = limit;
+            if (!fill()) {
+                return true;
+            }
+        }
+    }
+
+    private boolean fill() {
+        if (endOfStream) {
+            return false;
+        }
+        try {
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                endOfStream = true;
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int trimStart(CharSequence text) {
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence text, int start) {
+        int end = text.length();
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
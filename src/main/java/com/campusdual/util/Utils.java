@@ -1,11 +1,15 @@
 package com.campusdual.util;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 public class Utils {
 
@@ -16,15 +20,17 @@ public class Utils {
 
     /**
      * Method to initialize input data.
-     * @return input Buffered string data.
+     * <p>
+     * Reads the next line from the {@link InputSource#system() shared standard input source}, so input that
+     * arrives in the same chunk as the line is kept for the next read.
+     * </p>
+     * @return input Buffered string data, or <code>null</code> at the end of the input.
      */
     public static String init() {
         String buffer = "";
-        InputStreamReader stream = new InputStreamReader(System.in);
-        BufferedReader reader = new BufferedReader(stream);
         try {
-            buffer = reader.readLine();
-        } catch (Exception e) {
+            buffer = InputSource.system().readLine();
+        } catch (UncheckedIOException e) {
             System.out.append("Dato no válido.");
         }
         return buffer;
@@ -40,19 +46,24 @@ public class Utils {
 
     /**
      * Method to get an integer from input data with a custom message.
+     * <p>
+     * Asks again until a valid integer is entered, ignoring surrounding whitespace.
+     * </p>
      * @param message custom message for the user.
      * @return integer entered by the user.
+     * @throws java.util.NoSuchElementException if the input ends before a valid integer is entered.
      */
     public static int integer(String message) {
-        if (message != null) {
-            System.out.print(message);
-        }
-
-        try{
-            return Integer.parseInt(Utils.init());
-        } catch (NumberFormatException e){
-            System.out.println("El valor no es un número entero.");
-            return integer(message);
+        InputSource input = InputSource.system();
+        while (true) {
+            if (message != null) {
+                System.out.print(message);
+            }
+            try {
+                return input.readInt();
+            } catch (NumberFormatException e) {
+                System.out.println("El valor no es un número entero.");
+            }
         }
     }
 
@@ -67,19 +78,24 @@ public class Utils {
 
     /**
      * Method to get a real number from input data with a custom message.
+     * <p>
+     * Asks again until a valid real number is entered, ignoring surrounding whitespace.
+     * </p>
      * @param message custom message for the user.
      * @return real number entered by the user.
+     * @throws java.util.NoSuchElementException if the input ends before a valid number is entered.
      */
     public static double real(String message) {
-        if (message != null) {
-            System.out.print(message);
-        }
-        try{
-
-            return Double.parseDouble(Utils.init());
-        } catch (NumberFormatException e){
-            System.out.println("El valor no es un número real.");
-            return real(message);
+        InputSource input = InputSource.system();
+        while (true) {
+            if (message != null) {
+                System.out.print(message);
+            }
+            try {
+                return input.readDouble();
+            } catch (NumberFormatException e) {
+                System.out.println("El valor no es un número real.");
+            }
         }
     }
 
@@ -177,20 +193,43 @@ public class Utils {
      *            passed as a parameter.
      */
     public static <T> void showFromList(List<T> list, boolean wait, List<T> excludeElements) {
-        StringBuilder builder = new StringBuilder();
-        List<Object> auxList = new ArrayList<>();
-        auxList.addAll(list);
-        if (excludeElements != null) {
-            auxList.removeAll(excludeElements);
-        }
-        for (int i = 0; i < auxList.size(); i++) {
-            builder.append("\t");
-            builder.append(i + 1);
-            builder.append(". ");
-            builder.append(auxList.get(i).toString());
-            builder.append("\n");
+        Utils.showFromList(list, wait, excludeElements, 0);
+    }
+
+    /**
+     * Displays a list with indices page by page, allows showing a waiting message, and excludes
+     * the elements from the first list that are present in the second list.
+     * <p>
+     * The lines are written to the console through a fixed-size buffer as they are rendered, so the
+     * first page appears at once however long the list is. After each full page the user is asked
+     * to press "Enter" to see more, or to type "q" to stop.
+     * </p>
+     *
+     * @param list
+     *            The list to be displayed
+     * @param wait
+     *            <code>true</code> to wait after displaying the list,
+     *            <code>false</code> otherwise.
+     * @param excludeElements
+     *            Excludes the elements that exist in this list from the list
+     *            passed as a parameter, can be null.
+     * @param pageSize
+     *            The number of elements per page, or 0 to display the whole list at once.
+     */
+    public static <T> void showFromList(List<T> list, boolean wait, List<T> excludeElements, int pageSize) {
+        ListRenderer renderer = new ListRenderer(list, excludeElements, true, System.out);
+        try {
+            renderer.render(pageSize > 0 ? pageSize : Integer.MAX_VALUE);
+            while (pageSize > 0 && renderer.hasNext()) {
+                String answer = Utils.string("Pulse \"Enter\" para ver más o escriba \"q\" para terminar...");
+                if (answer == null || "q".equalsIgnoreCase(answer.trim())) {
+                    break;
+                }
+                renderer.render(pageSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        System.out.print(builder.toString());
         if (wait) {
             Utils.string("\nPulse \"Enter\" para continuar...");
         }
@@ -222,23 +261,34 @@ public class Utils {
      */
     public static <T> String returnShowFromList(List<T> list, boolean id, List<T> excludeElements) {
         StringBuilder builder = new StringBuilder();
-        List<Object> auxList = new ArrayList<>();
-        auxList.addAll(list);
-        if (excludeElements != null) {
-            auxList.removeAll(excludeElements);
-        }
-        for (int i = 0; i < auxList.size(); i++) {
-            builder.append("\t");
-            if (id) {
-                builder.append(i + 1);
-                builder.append(". ");
-            }
-            builder.append(auxList.get(i).toString());
-            builder.append("\n");
+        try {
+            Utils.writeFromList(list, id, excludeElements, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return builder.toString();
     }
 
+    /**
+     * Writes the representation of a list, optionally numbered and excluding specified elements in
+     * another list, in the same format as {@link #returnShowFromList(List, boolean, List)}.
+     * <p>
+     * The lines are rendered as they are written, through a fixed-size buffer, so the memory used does
+     * not depend on the size of the list. The destination is neither flushed nor closed.
+     * </p>
+     *
+     * @param list           The list of elements to be written.
+     * @param id             A boolean flag that determines whether the elements should be numbered.
+     * @param excludeElements A list of elements to be excluded, can be null if no elements are to be excluded.
+     * @param out            The destination.
+     * @param <T>            The type of elements contained in the list.
+     * @throws IOException if writing to the destination fails.
+     */
+    public static <T> void writeFromList(List<T> list, boolean id, List<T> excludeElements, Appendable out)
+            throws IOException {
+        new ListRenderer(list, excludeElements, id, out).render(Integer.MAX_VALUE);
+    }
+
     /**
      * Returns a list of one element with the selected option from the list,
      * with the option to cancel that selection.
@@ -291,12 +341,9 @@ public class Utils {
      */
 
     public static <T> List<T> showAndSelectFromList(List<T> list, boolean cancel, boolean multipleReturn, List<T> excludeElements) {
-        Utils.showFromList(list, false, excludeElements);
-        List<T> auxList = new ArrayList<>(list);
+        List<T> auxList = Utils.exclude(list, excludeElements);
+        Utils.showFromList(auxList, false);
         List<T> toRet = new ArrayList<>();
-        if (excludeElements != null) {
-            auxList.removeAll(excludeElements);
-        }
         StringBuilder builder = new StringBuilder();
         if (!multipleReturn) {
             builder.append("\nSeleccione el elemento deseado");
@@ -305,7 +352,7 @@ public class Utils {
             }
             builder.append(": ");
             int selected = Utils.integer(builder.toString());
-            while (!Utils.checkSelection(selected, list.size()) && (selected != 0)) {
+            while (!Utils.checkSelection(selected, auxList.size()) && (selected != 0)) {
                 selected = Utils.integer("La opción no es válida, por favor, escoje una opción válida: ");
             }
 
@@ -337,6 +384,44 @@ public class Utils {
         }
     }
 
+    /**
+     * Returns the elements of a list that are not present in another one.
+     * <p>
+     * The excluded elements are looked up in a hash set, so the cost is linear in the size of both
+     * lists. When nothing is excluded the list itself is returned, without copying it.
+     * </p>
+     *
+     * @param list            The list.
+     * @param excludeElements The elements to be excluded, can be null.
+     * @return The list, or a new list without the excluded elements.
+     */
+    static <T> List<T> exclude(List<T> list, List<T> excludeElements) {
+        Set<Object> excluded = Utils.toSet(excludeElements);
+        if (excluded == null) {
+            return list;
+        }
+        List<T> result = new ArrayList<>(list.size());
+        for (T element : list) {
+            if (!excluded.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts the elements to be excluded into a hash set.
+     *
+     * @param excludeElements The elements to be excluded, can be null.
+     * @return The set, or <code>null</code> if there is nothing to exclude.
+     */
+    private static Set<Object> toSet(Collection<?> excludeElements) {
+        if (excludeElements == null || excludeElements.isEmpty()) {
+            return null;
+        }
+        return new HashSet<>(excludeElements);
+    }
+
     /**
      * Converts all elements in the array of type String and returns the
      * array with the elements transformed into elements of type Integer.
@@ -369,4 +454,81 @@ public class Utils {
     public static boolean checkSelection(int i, int size) {
         return (i >= 1) && (i <= size);
     }
-}
\ No newline at end of file
+
+    /**
+     * Renders the lines of a list incrementally, in the format of {@link #returnShowFromList(List, boolean, List)}.
+     * <p>
+     * The lines are collected in a buffer that is written to the destination whenever it fills up and at the end
+     * of each call to {@link #render(int)}. A {@link StringBuilder} destination is written to directly.
+     * </p>
+     */
+    private static final class ListRenderer {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final Iterator<?> elements;
+        private final Set<Object> excluded;
+        private final boolean id;
+        private final Appendable out;
+        private final StringBuilder buffer;
+        private Object next;
+        private boolean hasNext;
+        private int number;
+
+        ListRenderer(List<?> list, Collection<?> excludeElements, boolean id, Appendable out) {
+            this.elements = list.iterator();
+            this.excluded = Utils.toSet(excludeElements);
+            this.id = id;
+            this.out = out;
+            this.buffer = out instanceof StringBuilder ? (StringBuilder) out : new StringBuilder(BUFFER_SIZE);
+            advance();
+        }
+
+        /**
+         * Indicates whether there are more lines to render.
+         */
+        boolean hasNext() {
+            return hasNext;
+        }
+
+        /**
+         * Renders the next lines and writes them to the destination.
+         *
+         * @param limit The maximum number of lines to render.
+         * @throws IOException if writing to the destination fails.
+         */
+        void render(int limit) throws IOException {
+            for (int i = 0; i < limit && hasNext; i++) {
+                buffer.append('\t');
+                if (id) {
+                    buffer.append(++number).append(". ");
+                }
+                buffer.append(next).append('\n');
+                advance();
+                if (buffer.length() >= BUFFER_SIZE) {
+                    flush();
+                }
+            }
+            flush();
+        }
+
+        private void advance() {
+            while (elements.hasNext()) {
+                Object element = elements.next();
+                if (excluded == null || !excluded.contains(element)) {
+                    next = element;
+                    hasNext = true;
+                    return;
+                }
+            }
+            next = null;
+            hasNext = false;
+        }
+
+        private void flush() throws IOException {
+            if (buffer != out) {
+                out.append(buffer);
+                buffer.setLength(0);
+            }
+        }
+    }
+}
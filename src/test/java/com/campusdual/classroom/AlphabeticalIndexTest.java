@@ -0,0 +1,99 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphabeticalIndexTest {
+
+    private static List<String> codes(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getCode).collect(Collectors.toList());
+    }
+
+    @Test
+    void testOrderBySurnamesThenName() {
+        AlphabeticalIndex index = new AlphabeticalIndex();
+        index.add(new Contact("Mario", "Gómez", "654321321"));
+        index.add(new Contact("Ana", "García", "654321322"));
+        index.add(new Contact("Carlos", "gallego", "654321323"));
+        index.add(new Contact("Beatriz", "García", "654321324"));
+        index.add(new Contact("Esteban", "Álvarez", "654321325"));
+
+        assertEquals(List.of("ealvarez", "cgallego", "agarcia", "bgarcia", "mgomez"), index.after(null, 10));
+        assertEquals(List.of("agarcia", "bgarcia"), index.after(new Contact("Carlos", "gallego", "654321323"), 2));
+        assertTrue(index.after(null, 0).isEmpty());
+    }
+
+    @Test
+    void testRangeIncludesBothPrefixes() {
+        AlphabeticalIndex index = new AlphabeticalIndex();
+        for (String surnames : new String[]{"Fuentes", "Ga", "García", "GÓMEZ", "Gonzalo", "Gutiérrez", "Go"}) {
+            index.add(new Contact("Ana", surnames, "654321321"));
+        }
+
+        assertEquals(List.of("aga", "agarcia", "ago", "agomez", "agonzalo"), index.range("ga", "Go", 10));
+        assertEquals(List.of("aga", "agarcia"), index.range("Ga", "Go", 2));
+        assertEquals(List.of("agomez", "agonzalo", "agutierrez"), index.range("Góm", null, 10));
+        assertEquals(List.of("afuentes"), index.range(null, "f", 10));
+        assertTrue(index.range("h", null, 10).isEmpty());
+    }
+
+    @Test
+    void testPhonebookKeepsIndexUpToDate() {
+        Phonebook p = new Phonebook();
+        Contact lopez = new Contact("Javier", "López", "654321321");
+        p.addContact(lopez);
+        p.addContact(new Contact("Juan", "Pérez", "654321322"));
+        p.addContact(new Contact("Ana", "Martín", "654321323"));
+        assertEquals(List.of("jlopez", "amartin", "jperez"), codes(p.listAlphabetically(null, 10)));
+
+        lopez.setSurnames("Romero");
+        assertEquals(List.of("amartin", "jperez", "jromero"), codes(p.listAlphabetically(null, 10)));
+        assertEquals(List.of("jperez", "jromero"), codes(p.listBySurnames("p", "r", 10)));
+
+        p.deleteContact("amartin");
+        Contact cursor = p.listAlphabetically(null, 1).get(0);
+        p.deleteContact("jperez");
+        assertEquals(List.of("jromero"), codes(p.listAlphabetically(cursor, 10)));
+    }
+
+    @Test
+    void testMatchesSortedListUnderRandomChanges() {
+        Collator collator = Collator.getInstance(Locale.forLanguageTag("es-ES"));
+        String[] surnames = {"García", "Gómez", "López", "Núñez", "Álvarez", "del Río", "Martín", "Pérez", "ruiz"};
+        Random random = new Random(3);
+        Phonebook p = new Phonebook();
+        List<Contact> added = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            if (!added.isEmpty() && random.nextInt(4) == 0) {
+                Contact removed = added.remove(random.nextInt(added.size()));
+                p.deleteContact(removed.getCode());
+            } else {
+                Contact c = new Contact("N" + random.nextInt(50), surnames[random.nextInt(surnames.length)],
+                        "654321321");
+                if (p.addContact(c)) {
+                    added.add(c);
+                }
+            }
+        }
+        added.sort(Comparator.comparing(Contact::getSurnames, collator)
+                .thenComparing(Contact::getName, collator)
+                .thenComparing(Contact::getCode));
+
+        List<Contact> listed = new ArrayList<>();
+        List<Contact> page;
+        do {
+            page = p.listAlphabetically(listed.isEmpty() ? null : listed.get(listed.size() - 1), 100);
+            listed.addAll(page);
+        } while (!page.isEmpty());
+        assertEquals(codes(added), codes(listed));
+    }
+}
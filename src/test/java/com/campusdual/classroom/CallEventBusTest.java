@@ -0,0 +1,198 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallEventBusTest {
+
+    private static CallEvent event(int producer, int sequence) {
+        return new CallEvent("p" + producer, "Productor", String.valueOf(producer), String.valueOf(sequence), false,
+                sequence);
+    }
+
+    @Test
+    void testDeliversEveryEventInPublishOrderPerProducer() throws Exception {
+        InMemoryCallEventSink sink = new InMemoryCallEventSink(1_000_000);
+        int producers = 4;
+        int perProducer = 50_000;
+        try (CallEventBus bus = new CallEventBus(sink, 1024, CallEventBus.Backpressure.BLOCK)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        assertTrue(bus.publish(event(producer, i)));
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            bus.flush();
+            assertEquals((long) producers * perProducer, sink.getReceivedCount());
+            assertEquals(0, bus.getDroppedCount());
+        }
+        long[] next = new long[producers];
+        for (CallEvent event : sink.getEvents()) {
+            int producer = Integer.parseInt(event.getCallerCode().substring(1));
+            assertEquals(next[producer]++, event.getTimestamp());
+        }
+    }
+
+    @Test
+    void testDropPolicyCountsLostEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryCallEventSink memory = new InMemoryCallEventSink(100);
+        ICallEventSink slow = new ICallEventSink() {
+            @Override
+            public void write(List<CallEvent> batch) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                memory.write(batch);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        CallEventBus bus = new CallEventBus(slow, 4, CallEventBus.Backpressure.DROP);
+        int published = 0;
+        for (int i = 0; i < 100; i++) {
+            if (bus.publish(event(0, i))) {
+                published++;
+            }
+        }
+        assertTrue(bus.getDroppedCount() > 0);
+        assertEquals(100, published + bus.getDroppedCount());
+        release.countDown();
+        bus.close();
+        assertEquals(published, memory.getReceivedCount());
+    }
+
+    @Test
+    void testCallerRunsPolicyNeverLosesEvents() throws Exception {
+        InMemoryCallEventSink sink = new InMemoryCallEventSink(10_000);
+        try (CallEventBus bus = new CallEventBus(sink, 2, CallEventBus.Backpressure.CALLER_RUNS)) {
+            for (int i = 0; i < 5_000; i++) {
+                assertTrue(bus.publish(event(0, i)));
+            }
+            bus.flush();
+            assertEquals(5_000, sink.getReceivedCount());
+        }
+        // Los eventos que entrega el propio hilo no adelantan a los que esperaban en el búfer
+        long next = 0;
+        for (CallEvent event : sink.getEvents()) {
+            assertEquals(next++, event.getTimestamp());
+        }
+    }
+
+    @Test
+    void testEveryAcceptedEventIsDeliveredWhenClosingWhilePublishing() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            InMemoryCallEventSink sink = new InMemoryCallEventSink(1_000_000);
+            CallEventBus bus = new CallEventBus(sink, 64, CallEventBus.Backpressure.BLOCK);
+            CountDownLatch started = new CountDownLatch(4);
+            long[] accepted = new long[4];
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                int producer = p;
+                threads.add(new Thread(() -> {
+                    started.countDown();
+                    try {
+                        for (int i = 0; ; i++) {
+                            bus.publish(event(producer, i));
+                            accepted[producer]++;
+                        }
+                    } catch (IllegalStateException e) {
+                        // El bus se ha cerrado
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            started.await();
+            bus.close();
+            long total = 0;
+            for (int p = 0; p < threads.size(); p++) {
+                threads.get(p).join();
+                total += accepted[p];
+            }
+            assertEquals(total, sink.getReceivedCount(), "Ronda " + round);
+        }
+    }
+
+    @Test
+    void testPublishAfterCloseFails() throws Exception {
+        CallEventBus bus = new CallEventBus(new InMemoryCallEventSink(1), 8, CallEventBus.Backpressure.BLOCK);
+        bus.close();
+        assertThrows(IllegalStateException.class, () -> bus.publish(event(0, 0)));
+    }
+
+    @Test
+    void testContactCallsGoThroughInstalledBus() throws Exception {
+        Contact contact = new Contact("Javier", "López", "654321321");
+        ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        ByteArrayOutputStream async = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        try {
+            System.setOut(new PrintStream(direct, true, StandardCharsets.UTF_8));
+            contact.callMyNumber();
+            contact.callOtherNumber("611222333");
+
+            try (CallEventBus bus = new CallEventBus(
+                    new ConsoleCallEventSink(new PrintStream(async, true, StandardCharsets.UTF_8)), 64,
+                    CallEventBus.Backpressure.BLOCK)) {
+                CallEventBus.setDefault(bus);
+                contact.callMyNumber();
+                contact.callOtherNumber("611222333");
+                bus.flush();
+            }
+        } finally {
+            CallEventBus.setDefault(null);
+            System.setOut(original);
+        }
+        assertEquals(direct.toString(StandardCharsets.UTF_8), async.toString(StandardCharsets.UTF_8));
+        assertTrue(direct.toString(StandardCharsets.UTF_8).contains("se está llamando a sí mismo"));
+    }
+
+    @Test
+    void testRollingFileKeepsBackups() throws Exception {
+        Path dir = Files.createTempDirectory("calls");
+        Path file = dir.resolve("calls.log");
+        try {
+            try (CallEventBus bus = new CallEventBus(new RollingFileCallEventSink(file, 2_000, 2), 16,
+                    CallEventBus.Backpressure.BLOCK)) {
+                for (int i = 0; i < 500; i++) {
+                    bus.publish(event(0, i));
+                }
+            }
+            assertTrue(Files.size(file) <= 2_000);
+            assertTrue(Files.exists(dir.resolve("calls.log.1")));
+            assertTrue(Files.exists(dir.resolve("calls.log.2")));
+            assertFalse(Files.exists(dir.resolve("calls.log.3")));
+            List<String> last = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertTrue(last.get(last.size() - 1).endsWith("se está llamando al número 499."));
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeCollisionTest {
+
+    @Test
+    void testCollidingContactsGetSuffixedCodes() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        assertTrue(p.addContact(new Contact("Javier", "López", "654321321")));
+        assertTrue(p.addContact(new Contact("Juan", "López", "654321322")));
+        assertTrue(p.addContact(new Contact("Julia", "López", "654321323")));
+
+        assertEquals("Javier", p.getData().get("jlopez").getName());
+        assertEquals("Juan", p.getData().get("jlopez2").getName());
+        assertEquals("Julia", p.getData().get("jlopez3").getName());
+        assertEquals(List.of("jlopez", "jlopez2", "jlopez3"), p.findCodesByPrefix("jlo", 10));
+    }
+
+    @Test
+    void testAddingTheSameContactTwiceIsRejected() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        Contact javier = new Contact("Javier", "López", "654321321");
+        assertTrue(p.addContact(javier));
+        assertFalse(p.addContact(javier));
+        assertEquals(0, p.importContacts(List.of(javier)).getInsertedCount());
+
+        assertEquals("jlopez", javier.getCode());
+        assertEquals(1, p.getData().size());
+        assertSame(javier, p.getData().get("jlopez"));
+        assertEquals(List.of("jlopez"), p.findCodesByPrefix("jlo", 10));
+    }
+
+    @Test
+    void testCollisionsAreRejectedByDefault() {
+        Phonebook p = new Phonebook();
+        assertFalse(p.isResolveCodeCollisions());
+        assertTrue(p.addContact(new Contact("Javier", "López", "654321321")));
+        assertFalse(p.addContact(new Contact("Juan", "López", "654321322")));
+        assertEquals(1, p.getData().size());
+    }
+
+    @Test
+    void testDeletedSuffixIsReused() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        p.addContact(new Contact("Juan", "López", "654321322"));
+        p.addContact(new Contact("Julia", "López", "654321323"));
+
+        assertTrue(p.deleteContact("jlopez2"));
+        Contact jorge = new Contact("Jorge", "López", "654321324");
+        p.addContact(jorge);
+        assertEquals("jlopez2", jorge.getCode());
+
+        assertTrue(p.deleteContact("jlopez"));
+        Contact jaime = new Contact("Jaime", "López", "654321325");
+        p.addContact(jaime);
+        assertEquals("jlopez", jaime.getCode());
+
+        Contact jesus = new Contact("Jesús", "López", "654321326");
+        p.addContact(jesus);
+        assertEquals("jlopez4", jesus.getCode());
+    }
+
+    @Test
+    void testCodesStartOverWhenAllCollidingContactsAreDeleted() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        p.addContact(new Contact("Juan", "López", "654321322"));
+        p.deleteContact("jlopez");
+        p.deleteContact("jlopez2");
+
+        Contact julia = new Contact("Julia", "López", "654321323");
+        p.addContact(julia);
+        assertEquals("jlopez", julia.getCode());
+    }
+
+    @Test
+    void testCodeAlreadyTakenOutsideTheCounterIsSkipped() {
+        Phonebook p = new Phonebook();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        Contact taken = new Contact("Jorge", "López2", "654321322");
+        assertEquals("jlopez2", taken.getCode());
+        p.addContact(taken);
+
+        p.setResolveCodeCollisions(true);
+        Contact juan = new Contact("Juan", "López", "654321323");
+        assertTrue(p.addContact(juan));
+        assertEquals("jlopez3", juan.getCode());
+        assertSame(taken, p.getData().get("jlopez2"));
+    }
+
+    @Test
+    void testEnablingResolutionCountsExistingContacts() {
+        Phonebook p = new Phonebook();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        Contact lost = new Contact("Jorge", "López", "654321322");
+        lost.assignCodeNumber(3);
+        p.getData().put("jlopez3", lost);
+
+        p.setResolveCodeCollisions(true);
+        Contact juan = new Contact("Juan", "López", "654321323");
+        p.addContact(juan);
+        assertEquals("jlopez2", juan.getCode());
+
+        // Borrar el contacto que ya existía no hace olvidar los sufijos en uso
+        assertTrue(p.deleteContact("jlopez"));
+        Contact julia = new Contact("Julia", "López", "654321324");
+        p.addContact(julia);
+        assertEquals("jlopez", julia.getCode());
+        Contact jaime = new Contact("Jaime", "López", "654321325");
+        p.addContact(jaime);
+        assertEquals("jlopez4", jaime.getCode());
+    }
+
+    @Test
+    void testReservedNumbersAreNotHandedOut() {
+        CodeSuffixAllocator suffixes = new CodeSuffixAllocator();
+        suffixes.reserve("jlopez", 1);
+        suffixes.reserve("jlopez", 3);
+        assertEquals(2, suffixes.acquire("jlopez"));
+        assertEquals(4, suffixes.acquire("jlopez"));
+
+        suffixes.release("jlopez", 1);
+        assertEquals(1, suffixes.acquire("jlopez"));
+        assertEquals(5, suffixes.acquire("jlopez"));
+    }
+
+    @Test
+    void testBulkImportOfCollidingNames() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            batch.add(new Contact("Juan", "López", String.valueOf(600_000_000 + i)));
+        }
+        ImportResult result = p.importContacts(batch);
+
+        assertEquals(20_000, result.getInsertedCount());
+        assertTrue(result.getConflictingCodes().isEmpty());
+        assertSame(batch.get(0), p.getData().get("jlopez"));
+        assertSame(batch.get(1), p.getData().get("jlopez2"));
+        assertSame(batch.get(19_999), p.getData().get("jlopez20000"));
+        assertEquals("jlopez20000", p.findByPhone("600019999").getCode());
+    }
+
+    @Test
+    void testSuffixSurvivesSnapshot() throws Exception {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        p.addContact(new Contact("Juan", "López", "654321322"));
+
+        Path file = Files.createTempFile("collisions", ".pbk");
+        try {
+            p.save(file);
+            Phonebook reopened = Phonebook.open(file);
+            Contact juan = reopened.getData().get("jlopez2");
+            assertEquals("Juan", juan.getName());
+            assertEquals("jlopez2", juan.getCode());
+
+            reopened.setResolveCodeCollisions(true);
+            Contact julia = new Contact("Julia", "López", "654321323");
+            reopened.addContact(julia);
+            assertEquals("jlopez3", julia.getCode());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
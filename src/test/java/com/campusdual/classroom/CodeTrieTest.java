@@ -0,0 +1,54 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeTrieTest {
+
+    @Test
+    void testCompleteReturnsSortedCodesUpToLimit() {
+        CodeTrie trie = new CodeTrie();
+        for (String code : List.of("jlopez", "jsoria", "jlopezg", "jl", "esdelrio", "jlorente")) {
+            assertTrue(trie.insert(code));
+        }
+        assertFalse(trie.insert("jlopez"));
+        assertEquals(6, trie.size());
+        assertEquals(List.of("jl", "jlopez", "jlopezg", "jlorente"), trie.complete("jl", 10));
+        assertEquals(List.of("jl", "jlopez"), trie.complete("jl", 2));
+        assertEquals(List.of("jlopez", "jlopezg"), trie.complete("jlop", 10));
+        assertEquals(List.of("esdelrio"), trie.complete("esd", 10));
+        assertTrue(trie.complete("x", 10).isEmpty());
+        assertTrue(trie.complete("jlopezz", 10).isEmpty());
+    }
+
+    @Test
+    void testDeleteKeepsTrieConsistent() {
+        CodeTrie trie = new CodeTrie();
+        trie.insert("jlopez");
+        trie.insert("jlopezg");
+        trie.insert("jlorente");
+        assertFalse(trie.delete("jlo"));
+        assertTrue(trie.delete("jlopez"));
+        assertFalse(trie.contains("jlopez"));
+        assertTrue(trie.contains("jlopezg"));
+        assertEquals(List.of("jlopezg", "jlorente"), trie.complete("", 10));
+        assertTrue(trie.delete("jlopezg"));
+        assertTrue(trie.delete("jlorente"));
+        assertEquals(0, trie.size());
+        assertTrue(trie.complete("", 10).isEmpty());
+    }
+
+    @Test
+    void testPhonebookKeepsPrefixIndexInSync() {
+        Phonebook p = new Phonebook();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        p.addContact(new Contact("Jose", "Lorente", "654321322"));
+        p.addContact(new Contact("Esteban", "Serrano del Río", "654321323"));
+        assertEquals(List.of("jlopez", "jlorente"), p.findCodesByPrefix("JLÓ", 10));
+        p.deleteContact("jlopez");
+        assertEquals(List.of("jlorente"), p.findCodesByPrefix("jl", 10));
+    }
+}
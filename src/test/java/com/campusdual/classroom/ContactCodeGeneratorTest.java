@@ -0,0 +1,38 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactCodeGeneratorTest {
+
+    @Test
+    void testGenerateCodeMatchesExamples() {
+        assertEquals("jlopez", ContactCodeGenerator.generateCode("Javier", "López"));
+        assertEquals("cfernandez-simon", ContactCodeGenerator.generateCode("Carlos", "Fernández-Simón"));
+        assertEquals("esdelrio", ContactCodeGenerator.generateCode("Esteban", "Serrano del Río"));
+        assertEquals("fjdelossantosrequejoleon",
+                ContactCodeGenerator.generateCode("Fernando Miguel", "Juan de los Santos Requejo León"));
+    }
+
+    @Test
+    void testGenerateCodeFallsBackOutsideTable() {
+        assertEquals("aτουλα", ContactCodeGenerator.generateCode("Ángel", "Τούλα"));
+        assertEquals("cmuller", ContactCodeGenerator.generateCode("Çelik", "Müller"));
+        assertEquals("nnunez", ContactCodeGenerator.generateCode("Ñandú", "Núñez"));
+    }
+
+    @Test
+    void testGenerateCodesInBulk() {
+        String[] codes = ContactCodeGenerator.generateCodes(
+                new String[]{"Javier", "Santiago"}, new String[]{"López", "Fernández Rocha"});
+        assertArrayEquals(new String[]{"jlopez", "sfrocha"}, codes);
+        assertThrows(IllegalArgumentException.class,
+                () -> ContactCodeGenerator.generateCodes(new String[]{"Javier"}, new String[0]));
+    }
+
+    @Test
+    void testFold() {
+        assertEquals("jose maria ibanez", ContactCodeGenerator.fold("José María IBÁÑEZ"));
+    }
+}
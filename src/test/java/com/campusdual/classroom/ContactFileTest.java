@@ -0,0 +1,190 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactFileTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("contacts");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testImportCsvReportsInvalidRowsAndKeepsGoing() throws IOException {
+        Path file = write("contactos.csv",
+                "nombre,apellidos,teléfono",
+                "Javier,López,654321321",
+                "Juan,,654321322",
+                "",
+                "\"Esteban\",\"Serrano del Río\",654321323,\"611 222 333\"",
+                "Ana,García",
+                "Javier,López,654321324",
+                "Marta,Ruiz,65432abc");
+        Phonebook p = new Phonebook();
+        StringWriter errors = new StringWriter();
+        ImportReport report = p.importFile(file, errors);
+
+        assertEquals(6, report.getReadCount());
+        assertEquals(2, report.getInsertedCount());
+        assertEquals(3, report.getInvalidCount());
+        assertEquals(1, report.getConflictCount());
+        assertEquals(List.of("654321323", "611222333"), p.getData().get("esdelrio").getPhones());
+        String[] lines = errors.toString().split(System.lineSeparator());
+        assertEquals(4, lines.length);
+        assertEquals("línea 3: faltan los apellidos", lines[0]);
+        assertTrue(lines[1].startsWith("línea 6: "));
+        assertEquals("línea 8: teléfono no válido: 65432abc", lines[2]);
+        assertEquals("línea 7: ya existe un contacto con el código jlopez", lines[3]);
+    }
+
+    @Test
+    void testCsvQuotedFieldsAndSemicolonSeparator() throws IOException {
+        Path file = write("contactos.csv",
+                "Javier;\"López; \"\"el de Cuenca\"\"\";654321321",
+                "\"Ana",
+                "María\";García;654321322",
+                "Luis;\"Pérez;654321323");
+        Phonebook p = new Phonebook();
+        StringWriter errors = new StringWriter();
+        ImportReport report = p.importFile(file, errors);
+
+        assertEquals(2, report.getInsertedCount());
+        assertEquals(1, report.getInvalidCount());
+        assertTrue(errors.toString().contains("línea 4: comillas sin cerrar"));
+        Contact javier = p.findByPhone("654321321");
+        assertEquals("López; \"el de Cuenca\"", javier.getSurnames());
+        assertEquals("Ana\nMaría", p.findByPhone("654321322").getName());
+    }
+
+    @Test
+    void testImportVCard3And4() throws IOException {
+        Path file = write("contactos.vcf",
+                "BEGIN:VCARD",
+                "VERSION:3.0",
+                "N:López;Javier;;;",
+                "FN:Javier López",
+                "TEL;TYPE=work:611222333",
+                "TEL;TYPE=voice,pref:654321321",
+                "END:VCARD",
+                "BEGIN:VCARD",
+                "VERSION:4.0",
+                "FN:Esteban Serrano del Río",
+                "item1.TEL;VALUE=uri;PREF=1:tel:654321322",
+                "NOTE:una nota muy larga que ocupa",
+                "  varias líneas",
+                "END:VCARD",
+                "basura",
+                "BEGIN:VCARD",
+                "VERSION:4.0",
+                "N:Sin;Teléfono;;;",
+                "END:VCARD",
+                "BEGIN:VCARD",
+                "N:Sin;Fin;;;");
+        Phonebook p = new Phonebook();
+        StringWriter errors = new StringWriter();
+        ImportReport report = p.importFile(file, errors);
+
+        assertEquals(5, report.getReadCount());
+        assertEquals(2, report.getInsertedCount());
+        assertEquals(3, report.getInvalidCount());
+        Contact javier = p.getData().get("jlopez");
+        assertEquals(List.of("654321321", "611222333"), javier.getPhones());
+        Contact esteban = p.getData().get("esdelrio");
+        assertEquals("Serrano del Río", esteban.getSurnames());
+        assertEquals("654321322", esteban.getPhone());
+        assertEquals("línea 15: se esperaba BEGIN:VCARD" + System.lineSeparator()
+                + "línea 16: falta el teléfono" + System.lineSeparator()
+                + "línea 20: falta END:VCARD" + System.lineSeparator(), errors.toString());
+    }
+
+    @Test
+    void testExportAndImportRoundTrip() throws IOException {
+        Phonebook p = new Phonebook();
+        Contact javier = new Contact("Javier", "López, \"Jr\"", "654321321");
+        javier.addPhone("611222333");
+        p.addContact(javier);
+        p.addContact(new Contact("José Ángel", "Núñez del Castillo y de la Vega Fernández-Ordóñez Martínez",
+                "654321322"));
+
+        for (ContactFileFormat format : ContactFileFormat.values()) {
+            Path file = directory.resolve("export-" + format);
+            assertEquals(2, p.exportFile(file, format));
+            Phonebook copy = new Phonebook();
+            ImportReport report = copy.importFile(file, format, null);
+            assertEquals(2, report.getInsertedCount(), format.toString());
+            assertEquals(p.getData().keySet(), copy.getData().keySet());
+            for (Contact contact : p.getData().values()) {
+                Contact imported = copy.getData().get(contact.getCode());
+                assertEquals(contact.getName(), imported.getName());
+                assertEquals(contact.getSurnames(), imported.getSurnames());
+                assertEquals(contact.getPhones(), imported.getPhones());
+            }
+        }
+    }
+
+    @Test
+    void testVCardLinesAreFoldedAt75Bytes() throws IOException {
+        Phonebook p = new Phonebook();
+        p.addContact(new Contact("Ñoño", "Ñúñez ".repeat(20).trim(), "654321321"));
+        Path file = directory.resolve("largo.vcf");
+        p.exportFile(file, ContactFileFormat.VCARD_3);
+
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(content.startsWith("BEGIN:VCARD\r\nVERSION:3.0\r\n"));
+        for (String line : content.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+    }
+
+    @Test
+    void testLargeImportIsInsertedInBatches() throws IOException {
+        Path file = directory.resolve("grande.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 5_000; i++) {
+                writer.write("Nombre,Apellido" + i + "," + (600_000_000 + i));
+                writer.newLine();
+            }
+        }
+        Phonebook p = new Phonebook();
+        ImportReport report = p.importFile(file, null);
+
+        assertEquals(5_000, report.getInsertedCount());
+        assertEquals(5_000, p.getData().size());
+        assertEquals("napellido4999", p.findByPhone("600004999").getCode());
+    }
+
+    @Test
+    void testUnknownExtensionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ContactFileFormat.forFile(Path.of("contactos.txt")));
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,79 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactPhonesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPackRoundTrip() {
+        assertEquals("+34654321321", PackedPhones.unpack(PackedPhones.pack("+34 654 321 321")));
+        assertEquals("0034654321321", PackedPhones.unpack(PackedPhones.pack("0034-654-321-321")));
+        assertEquals("1234567890123456", PackedPhones.unpack(PackedPhones.pack("1234567890123456")));
+        assertEquals(PhoneIndex.key("+34 654 321 321"), PackedPhones.indexKey(PackedPhones.pack("+34654321321")));
+        assertThrows(IllegalArgumentException.class, () -> PackedPhones.pack("12345678901234567"));
+        assertThrows(IllegalArgumentException.class, () -> PackedPhones.pack("654a"));
+        assertThrows(IllegalArgumentException.class, () -> PackedPhones.pack("+"));
+    }
+
+    @Test
+    void testSecondaryPhonesAndPrimarySwap() {
+        Contact c = new Contact("Javier", "López", "654321321");
+        c.addPhone("611 222 333");
+        c.addPhone("611-222-333");
+        c.addPhone("+351 912 345 678");
+        assertEquals(List.of("654321321", "611222333", "+351912345678"), c.getPhones());
+
+        c.setPrimaryPhone("611222333");
+        assertEquals("611222333", c.getPhone());
+        assertEquals(List.of("+351912345678", "654321321"), c.getSecondaryPhones());
+
+        assertTrue(c.removePhone("+351 912 345 678"));
+        assertFalse(c.removePhone("+351 912 345 678"));
+        assertEquals(List.of("611222333", "654321321"), c.getPhones());
+        assertTrue(c.toString().contains("654321321"));
+    }
+
+    @Test
+    void testEveryNumberIsSearchable() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        c.addPhone("611222333");
+        p.addContact(c);
+        assertSame(c, p.findByPhone("611 222 333"));
+
+        c.addPhone("699000111");
+        assertSame(c, p.findByPhone("699000111"));
+        c.removePhone("611222333");
+        assertNull(p.findByPhone("611222333"));
+        c.setPrimaryPhone("699000111");
+        assertSame(c, p.findByPhone("699000111"));
+        assertSame(c, p.findByPhone("654321321"));
+    }
+
+    @Test
+    void testSecondaryPhonesSurviveStores() throws IOException {
+        Contact c = new Contact("Javier", "López", "654321321");
+        c.addPhone("611222333");
+
+        Phonebook offHeap = Phonebook.offHeap();
+        offHeap.addContact(c);
+        assertEquals(List.of("611222333"), offHeap.getData().get("jlopez").getSecondaryPhones());
+        offHeap.getData().get("jlopez").addPhone("699000111");
+        assertEquals("jlopez", offHeap.findByPhone("699000111").getCode());
+
+        Path file = tempDir.resolve("agenda.pbk");
+        offHeap.save(file);
+        Phonebook reopened = Phonebook.open(file);
+        assertEquals(List.of("654321321", "611222333", "699000111"), reopened.getData().get("jlopez").getPhones());
+    }
+}
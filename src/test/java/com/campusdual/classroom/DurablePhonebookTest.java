@@ -0,0 +1,309 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurablePhonebookTest {
+
+    @TempDir
+    Path dir;
+
+    /** Copia los ficheros tal como están en disco, como los encontraría la agenda tras una caída. */
+    private Path crashCopy(Path source) throws IOException {
+        Path copy = Files.createTempDirectory(dir, "copia");
+        try (Stream<Path> files = Files.list(source)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        return copy;
+    }
+
+    private static List<String> files(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith(prefix))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static Path lastSegment(Path directory) throws IOException {
+        List<String> segments = files(directory, "log-");
+        segments.sort((a, b) -> Integer.compare(a.length(), b.length()) != 0
+                ? Integer.compare(a.length(), b.length()) : a.compareTo(b));
+        return directory.resolve(segments.get(segments.size() - 1));
+    }
+
+    @Test
+    void testChangesSurviveReopen() throws IOException {
+        Path data = dir.resolve("agenda");
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            phonebook.addContact(new Contact("Javier", "López", "654321321"));
+            phonebook.addContact(new Contact("Ana", "Martín", "654321322"));
+            phonebook.addContact(new Contact("Juan", "Pérez", "654321323"));
+            Contact ana = phonebook.getData().get("amartin");
+            ana.addPhone("611111111");
+            ana.setPrimaryPhone("622222222");
+            phonebook.getData().get("jperez").rename("Juan", "Ruiz");
+            phonebook.deleteContact("jlopez");
+        }
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            assertEquals(2, phonebook.getData().size());
+            Contact ana = phonebook.getData().get("amartin");
+            assertEquals(List.of("622222222", "611111111", "654321322"), ana.getPhones());
+            assertEquals("Ruiz", phonebook.getData().get("jruiz").getSurnames());
+            assertNull(phonebook.getData().get("jperez"));
+            assertEquals("amartin", phonebook.findByPhone("611111111").getCode());
+
+            // La agenda recuperada sigue anotando cambios
+            phonebook.getData().get("jruiz").setPhone("633333333");
+        }
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            assertEquals("633333333", phonebook.getData().get("jruiz").getPhone());
+        }
+    }
+
+    @Test
+    void testConfirmedChangesSurviveCrash() throws IOException {
+        Path data = dir.resolve("agenda");
+        try (Phonebook phonebook = Phonebook.durable(data, Duration.ZERO)) {
+            phonebook.setResolveCodeCollisions(true);
+            phonebook.addContact(new Contact("Javier", "López", "654321321"));
+            phonebook.addContact(new Contact("José", "López", "654321322"));
+            phonebook.batchUpdate(() -> phonebook.getData().get("jlopez").setSurnames("Gómez"));
+            phonebook.importContacts(List.of(new Contact("Ana", "Ruiz", "654321323"),
+                    new Contact("Eva", "Sanz", "654321324")));
+
+            Phonebook recovered = Phonebook.durable(crashCopy(data));
+            assertEquals(List.of("aruiz", "esanz", "jgomez", "jlopez2"),
+                    recovered.getData().keySet().stream().sorted().collect(Collectors.toList()));
+            assertEquals("José", recovered.getData().get("jlopez2").getName());
+            recovered.close();
+        }
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws IOException {
+        Path data = dir.resolve("agenda");
+        Path copy;
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            phonebook.addContact(new Contact("Javier", "López", "654321321"));
+            phonebook.addContact(new Contact("Ana", "Martín", "654321322"));
+            copy = crashCopy(data);
+        }
+        Path segment = lastSegment(copy);
+        long valid = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Un registro que anuncia 100 bytes pero se cortó a mitad
+            channel.write(ByteBuffer.allocate(20).putInt(100).putInt(12345).flip());
+        }
+
+        try (Phonebook phonebook = Phonebook.durable(copy)) {
+            assertEquals(2, phonebook.getData().size());
+            phonebook.addContact(new Contact("Eva", "Sanz", "654321323"));
+        }
+        assertEquals(valid, Files.size(segment));
+        try (Phonebook phonebook = Phonebook.durable(copy)) {
+            assertEquals(3, phonebook.getData().size());
+        }
+    }
+
+    @Test
+    void testRecordWithBadChecksumEndsReplay() throws IOException {
+        Path data = dir.resolve("agenda");
+        Path copy;
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            phonebook.addContact(new Contact("Javier", "López", "654321321"));
+            long size = Files.size(lastSegment(data));
+            phonebook.addContact(new Contact("Ana", "Martín", "654321322"));
+            copy = crashCopy(data);
+            try (FileChannel channel = FileChannel.open(lastSegment(copy), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{'X'}), size + 12);
+            }
+        }
+        try (Phonebook phonebook = Phonebook.durable(copy)) {
+            assertEquals(List.of("jlopez"), new ArrayList<>(phonebook.getData().keySet()));
+        }
+    }
+
+    @Test
+    void testChangesThatCannotBeLoggedAreNotApplied() throws IOException {
+        Phonebook phonebook = Phonebook.durable(dir.resolve("agenda"));
+        Contact ana = new Contact("Ana", "Martín", "654321322");
+        phonebook.addContact(ana);
+        assertEquals("amartin", phonebook.findByPhone("654321322").getCode());
+        phonebook.close();
+
+        assertThrows(IllegalStateException.class, () -> phonebook.insert(new Contact("Eva", "Sanz", "654321323")));
+        assertThrows(IllegalStateException.class,
+                () -> phonebook.getData().put("esanz", new Contact("Eva", "Sanz", "654321323")));
+        assertThrows(IllegalStateException.class, () -> phonebook.remove("amartin"));
+        assertThrows(IllegalStateException.class, () -> ana.setPhone("611111111"));
+        assertThrows(IllegalStateException.class, () -> ana.setSurnames("Ruiz"));
+
+        assertEquals(List.of("amartin"), new ArrayList<>(phonebook.getData().keySet()));
+        assertSame(ana, phonebook.getData().get("amartin"));
+        assertEquals(List.of("654321322"), ana.getPhones());
+        assertEquals("amartin", phonebook.findByPhone("654321322").getCode());
+        assertNull(phonebook.findByPhone("611111111"));
+        assertNull(phonebook.findByPhone("654321323"));
+    }
+
+    @Test
+    void testCheckpointCompactsLog() throws IOException {
+        Path data = dir.resolve("agenda");
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            for (int i = 0; i < 50; i++) {
+                Contact contact = new Contact("Ana", "Prueba" + (char) ('a' + i % 26) + (char) ('a' + i / 26),
+                        String.valueOf(600000000 + i));
+                phonebook.addContact(contact);
+                contact.setPhone(String.valueOf(610000000 + i));
+            }
+            for (int i = 0; i < 25; i++) {
+                phonebook.deleteContact(phonebook.listContacts(null, 1).get(0).getCode());
+            }
+            phonebook.checkpoint();
+            assertEquals(1, files(data, "checkpoint-").size());
+            assertEquals(1, files(data, "log-").size());
+
+            phonebook.addContact(new Contact("Eva", "Sanz", "654321323"));
+            phonebook.checkpoint();
+            phonebook.deleteContact("esanz");
+            assertEquals(1, files(data, "checkpoint-").size());
+        }
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            assertEquals(25, phonebook.getData().size());
+            assertNull(phonebook.getData().get("esanz"));
+            for (Contact contact : phonebook.getData().values()) {
+                assertTrue(contact.getPhone().startsWith("61"), contact.getPhone());
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> new Phonebook().checkpoint());
+    }
+
+    @Test
+    void testCheckpointKeepsStateFromWhenItStarted() throws IOException {
+        Path data = dir.resolve("agenda");
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            Contact martin = new Contact("Ana", "Martín", "654321321");
+            Contact ruiz = new Contact("Ana", "Ruiz", "654321322");
+            phonebook.addContact(martin);
+            phonebook.addContact(ruiz);
+
+            PhonebookJournal.PendingCheckpoint checkpoint = phonebook.startCheckpoint();
+            // Los cambios posteriores van al segmento nuevo y no deben entrar en el punto de control
+            ruiz.setSurnames("Sanz");
+            martin.setSurnames("Ruiz");
+            martin.setPhone("611111111");
+            checkpoint.write();
+        }
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            assertEquals(List.of("aruiz", "asanz"),
+                    phonebook.getData().keySet().stream().sorted().collect(Collectors.toList()));
+            assertEquals(List.of("611111111"), phonebook.getData().get("aruiz").getPhones());
+            assertEquals("654321322", phonebook.getData().get("asanz").getPhone());
+        }
+    }
+
+    @Test
+    void testReplayKeepsLoggedCodes() throws IOException {
+        Path data = dir.resolve("agenda");
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            Contact martin = new Contact("Ana", "Martín", "654321321");
+            Contact ruiz = new Contact("Ana", "Ruiz", "654321322");
+            phonebook.addContact(martin);
+            phonebook.addContact(ruiz);
+            assertThrows(IllegalArgumentException.class,
+                    () -> phonebook.getData().put("otro", new Contact("Eva", "Sanz", "654321323")));
+
+            // Dentro del lote los contactos ya renombrados siguen guardados con su código anterior
+            phonebook.batchUpdate(() -> {
+                ruiz.setSurnames("Sanz");
+                martin.setSurnames("Ruiz");
+                try {
+                    phonebook.checkpoint();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            assertEquals(List.of("aruiz", "asanz"),
+                    phonebook.getData().keySet().stream().sorted().collect(Collectors.toList()));
+            assertEquals("654321321", phonebook.getData().get("aruiz").getPhone());
+        }
+    }
+
+    @Test
+    void testConcurrentWritersShareSyncs() throws Exception {
+        Path data = dir.resolve("agenda");
+        int threads = 8;
+        int perThread = 100;
+        try (Phonebook phonebook = Phonebook.durable(data, Duration.ofMillis(5));
+             ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String surnames = "Hilo" + (char) ('a' + thread) + (char) ('a' + i % 26) + (char) ('a' + i / 26);
+                        assertTrue(phonebook.insert(new Contact("Ana", surnames, "654321321")));
+                    }
+                }));
+                if (thread == threads / 2) {
+                    phonebook.checkpoint();
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            phonebook.checkpoint();
+        }
+        try (Phonebook phonebook = Phonebook.durable(data)) {
+            assertEquals(threads * perThread, phonebook.getData().size());
+        }
+    }
+
+    @Test
+    void testEntriesRoundTrip() throws IOException {
+        Path data = dir.resolve("registro");
+        Contact contact = new Contact("Ana", "Martín", "654321322");
+        contact.addPhone("611111111");
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(data, Duration.ZERO, replayed::add)) {
+            log.append(WriteAheadLog.Entry.add("amartin", contact));
+            log.append(WriteAheadLog.Entry.updatePhones("amartin", contact));
+            // Un registro que no cabe en el formato no deja nada a medias en el búfer
+            assertThrows(IllegalArgumentException.class,
+                    () -> log.append(WriteAheadLog.Entry.delete("x".repeat(40000))));
+            log.sync(log.append(WriteAheadLog.Entry.delete("amartin")));
+        }
+        assertTrue(replayed.isEmpty());
+        WriteAheadLog.open(data, Duration.ZERO, replayed::add).close();
+        assertEquals(List.of(WriteAheadLog.ADD, WriteAheadLog.UPDATE_PHONES, WriteAheadLog.DELETE),
+                replayed.stream().map(entry -> entry.type).collect(Collectors.toList()));
+        assertEquals("611111111", PackedPhones.unpack(replayed.get(0).secondaryPhones[0]));
+        assertEquals("654321322", replayed.get(1).phone);
+
+        WriteAheadLog log = WriteAheadLog.open(data, Duration.ZERO, entry -> { });
+        log.close();
+        assertThrows(IllegalStateException.class, () -> log.append(WriteAheadLog.Entry.delete("amartin")));
+    }
+}
@@ -0,0 +1,99 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+
+    @Test
+    void testSearchIgnoresCaseAndAccentsAndRanksWholeWords() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.add(new Contact("Fernando Miguel", "Juan de los Santos Requejo León", "654321321"));
+        index.add(new Contact("Carlos", "Fernández-Simón", "654321322"));
+        index.add(new Contact("Esteban", "Serrano del Río", "654321323"));
+        index.add(new Contact("Mario", "Riofrío", "654321324"));
+
+        assertEquals(List.of("cfernandez-simon", "fjdelossantosrequejoleon"), index.search("FERNAN", 10));
+        assertEquals(List.of("esdelrio", "mriofrio"), index.search("río", 10));
+        assertEquals(List.of("fjdelossantosrequejoleon"), index.search("leon", 10));
+        assertEquals(List.of("mriofrio", "esdelrio"), index.search("ri", 10));
+        assertFalse(index.search("an", 10).contains("esdelrio"));
+        assertEquals(List.of("esdelrio"), index.search("río", 1));
+        assertTrue(index.search("zzz", 10).isEmpty());
+        assertTrue(index.search("r", 10).isEmpty());
+    }
+
+    @Test
+    void testRemoveAndCompaction() {
+        NameSearchIndex index = new NameSearchIndex();
+        Contact keep = new Contact("Javier", "López", "654321321");
+        index.add(keep);
+        for (int i = 0; i < 3_000; i++) {
+            Contact c = new Contact("Temporal", "Borrado" + i, "600000000");
+            index.add(c);
+            index.remove(c);
+        }
+        assertEquals(1, index.size());
+        assertEquals(List.of(keep.getCode()), index.search("lopez", 10));
+        assertTrue(index.search("borrado", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchMatchesEveryContactContainingText() {
+        NameSearchIndex index = new NameSearchIndex();
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Contact c = new Contact("Ana", "Prueba" + (char) ('a' + i % 26) + (char) ('a' + i / 26 % 26), "600000000");
+            c.restoreCode("c" + i);
+            contacts.add(c);
+            index.add(c);
+        }
+        for (String query : List.of("pruebaba", "ebab", "ana pruebaz", "aaa")) {
+            Set<String> expected = new HashSet<>();
+            for (Contact c : contacts) {
+                if ((" ana " + c.getSurnames().toLowerCase() + " ").contains(query)) {
+                    expected.add(c.getCode());
+                }
+            }
+            assertEquals(expected, new HashSet<>(index.search(query, contacts.size())), query);
+        }
+    }
+
+    @Test
+    void testSameNameRenameKeepsId() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.addContact(c);
+        for (int i = 0; i < 100; i++) {
+            c.setPhone(String.valueOf(600000000 + i));
+        }
+        assertEquals(List.of(c), p.searchByName("lopez", 10));
+
+        NameSearchIndex index = new NameSearchIndex();
+        index.add(c);
+        Contact renamed = new Contact("Javier", "López", "654321321");
+        renamed.restoreCode("jlopez2");
+        index.rename("jlopez", renamed);
+        assertEquals(0, index.deletedCount());
+        assertEquals(List.of("jlopez2"), index.search("lopez", 10));
+    }
+
+    @Test
+    void testPhonebookUpdatesIndexOnRename() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.addContact(c);
+        assertEquals(List.of(c), p.searchByName("lópez", 10));
+        c.setSurnames("Núñez");
+        assertTrue(p.searchByName("lopez", 10).isEmpty());
+        assertEquals(List.of(c), p.searchByName("nunez", 10));
+        assertTrue(p.deleteContact("jnunez"));
+        assertTrue(p.searchByName("nunez", 10).isEmpty());
+    }
+}
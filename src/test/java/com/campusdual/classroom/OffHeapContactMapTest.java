@@ -0,0 +1,73 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapContactMapTest {
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        OffHeapContactMap store = new OffHeapContactMap(null);
+        Map<String, Contact> reference = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 30_000; i++) {
+            Contact c = new Contact("Nombre" + random.nextInt(10), "Apellido" + random.nextInt(4_000), "6" + i);
+            switch (random.nextInt(3)) {
+                case 0:
+                case 1:
+                    Contact previous = store.put(c.getCode(), c);
+                    assertEquals(reference.containsKey(c.getCode()), previous != null);
+                    reference.put(c.getCode(), c);
+                    break;
+                default:
+                    assertEquals(reference.remove(c.getCode()) != null, store.remove(c.getCode()) != null);
+            }
+        }
+        assertEquals(reference.size(), store.size());
+        reference.forEach((code, expected) -> {
+            Contact actual = store.get(code);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getSurnames(), actual.getSurnames());
+            assertEquals(expected.getPhone(), actual.getPhone());
+            assertEquals(code, actual.getCode());
+        });
+        int iterated = 0;
+        for (Map.Entry<String, Contact> entry : store.entrySet()) {
+            assertTrue(reference.containsKey(entry.getKey()));
+            iterated++;
+        }
+        assertEquals(reference.size(), iterated);
+    }
+
+    @Test
+    void testSettersWriteBackToStore() {
+        OffHeapContactMap store = new OffHeapContactMap(null);
+        Contact c = new Contact("Javier", "López", "654321321");
+        store.put(c.getCode(), c);
+        store.get("jlopez").setPhone("611222333");
+        assertEquals("611222333", store.get("jlopez").getPhone());
+    }
+
+    @Test
+    void testOffHeapPhonebook() {
+        Phonebook p = Phonebook.offHeap();
+        Contact c = new Contact("Javier", "López", "654321321");
+        assertTrue(p.addContact(c));
+        assertFalse(p.addContact(new Contact("Juan", "López", "654321322")));
+        assertEquals(1, p.getData().size());
+        assertEquals("López", p.getData().get("jlopez").getSurnames());
+
+        p.getData().get("jlopez").setPhone("611222333");
+        assertEquals("jlopez", p.findByPhone("611222333").getCode());
+        assertNull(p.findByPhone("654321321"));
+
+        assertTrue(p.deleteContact("jlopez"));
+        assertNull(p.getData().get("jlopez"));
+        assertNull(p.findByPhone("611222333"));
+    }
+}
@@ -0,0 +1,357 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedPhonebookTest {
+
+    private static final int CONTACTS = 600;
+
+    /** Apellido distinto para cada número, solo con letras para que el código también sea distinto. */
+    private static String surname(int i) {
+        StringBuilder sb = new StringBuilder("Prueba");
+        do {
+            sb.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return sb.toString();
+    }
+
+    private static Contact contact(int i) {
+        return new Contact("Ana", surname(i), String.valueOf(600000000 + i));
+    }
+
+    private static void fill(PartitionedPhonebook phonebook, int from, int to) {
+        for (int i = from; i < to; i++) {
+            assertTrue(phonebook.addContact(contact(i)));
+        }
+    }
+
+    private static List<String> allCodes(PartitionedPhonebook phonebook, int pageSize) {
+        List<String> codes = new ArrayList<>();
+        String cursor = null;
+        List<Contact> page;
+        do {
+            page = phonebook.listContacts(cursor, pageSize);
+            for (Contact contact : page) {
+                codes.add(contact.getCode());
+                cursor = contact.getCode();
+            }
+        } while (page.size() == pageSize);
+        return codes;
+    }
+
+    private static List<String> expectedCodes(int count) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            codes.add(contact(i).getCode());
+        }
+        codes.sort(null);
+        return codes;
+    }
+
+    @Test
+    void testRingSpreadsCodesEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c", "d"));
+        int[] counts = new int[ring.size()];
+        for (int i = 0; i < 20000; i++) {
+            counts[ring.shardFor("contacto" + i)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 3500 && count < 6500, "Reparto desigual: " + count);
+        }
+
+        ConsistentHashRing bigger = ring.with("e");
+        for (int i = 0; i < 20000; i++) {
+            int before = ring.shardFor("contacto" + i);
+            int after = bigger.shardFor("contacto" + i);
+            assertTrue(after == before || after == 4, "Un código ha cambiado entre fragmentos antiguos");
+        }
+        assertThrows(IllegalArgumentException.class, () -> ring.with("a"));
+    }
+
+    @Test
+    void testOperationsAcrossLocalShards() {
+        try (PartitionedPhonebook phonebook = PartitionedPhonebook.local(4)) {
+            fill(phonebook, 0, CONTACTS);
+            assertFalse(phonebook.addContact(contact(0)));
+            assertEquals(CONTACTS, phonebook.size());
+            for (IPhonebookShard shard : phonebook.getShards()) {
+                assertTrue(shard.size() > 0, "Fragmento vacío: " + shard.getName());
+            }
+
+            assertEquals(expectedCodes(CONTACTS), allCodes(phonebook, 37));
+
+            Contact seven = contact(7);
+            assertEquals(seven.getSurnames(), phonebook.getContact(seven.getCode()).getSurnames());
+            assertEquals(seven.getCode(), phonebook.findByPhone(seven.getPhone()).getCode());
+            assertNull(phonebook.findByPhone("699999999"));
+
+            List<Contact> found = phonebook.searchByName(surname(7), 5);
+            assertEquals(seven.getCode(), found.get(0).getCode());
+            assertEquals(10, phonebook.searchByName("prueba", 10).size());
+
+            assertTrue(phonebook.deleteContact(seven.getCode()));
+            assertFalse(phonebook.deleteContact(seven.getCode()));
+            assertNull(phonebook.getContact(seven.getCode()));
+            assertEquals(CONTACTS - 1, phonebook.size());
+        }
+    }
+
+    @Test
+    void testAddShardMovesOnlyItsContacts() {
+        try (PartitionedPhonebook phonebook = PartitionedPhonebook.local(3)) {
+            fill(phonebook, 0, CONTACTS);
+            LocalShard added = new LocalShard("local-3");
+            int moved = phonebook.addShard(added);
+
+            assertTrue(moved > 0 && moved < CONTACTS);
+            assertEquals(moved, added.size());
+            assertEquals(CONTACTS, phonebook.size());
+            assertEquals(expectedCodes(CONTACTS), allCodes(phonebook, 50));
+            for (IPhonebookShard shard : phonebook.getShards()) {
+                for (Contact contact : shard.listContacts(null, CONTACTS)) {
+                    assertSame(shard, phonebook.shardFor(contact.getCode()));
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> phonebook.addShard(new LocalShard("local-0")));
+        }
+    }
+
+    @Test
+    void testAddShardWhileWriting() throws Exception {
+        try (PartitionedPhonebook phonebook = PartitionedPhonebook.local(2);
+             ExecutorService writers = Executors.newFixedThreadPool(2)) {
+            fill(phonebook, 0, CONTACTS);
+            Future<?> adder = writers.submit(() -> fill(phonebook, CONTACTS, 2 * CONTACTS));
+            Future<?> deleter = writers.submit(() -> {
+                for (int i = 0; i < CONTACTS; i += 2) {
+                    assertTrue(phonebook.deleteContact(contact(i).getCode()));
+                }
+            });
+            phonebook.addShard(new LocalShard("local-2"));
+            phonebook.addShard(new LocalShard("local-3"));
+            adder.get();
+            deleter.get();
+
+            Set<String> expected = new HashSet<>();
+            for (int i = 1; i < 2 * CONTACTS; i++) {
+                if (i >= CONTACTS || i % 2 == 1) {
+                    expected.add(contact(i).getCode());
+                }
+            }
+            List<String> codes = allCodes(phonebook, 64);
+            assertEquals(expected.size(), codes.size());
+            assertEquals(expected, new HashSet<>(codes));
+            assertEquals(expected.size(), phonebook.size());
+        }
+    }
+
+    @Test
+    void testDeleteDuringAddShardLosesNoOtherContact() {
+        List<DeletingShard> shards = List.of(new DeletingShard("local-0"), new DeletingShard("local-1"));
+        try (PartitionedPhonebook phonebook = new PartitionedPhonebook(new ArrayList<>(shards))) {
+            fill(phonebook, 0, 2 * CONTACTS);
+            shards.forEach(shard -> shard.armed = true);
+            phonebook.addShard(new LocalShard("local-2"));
+            shards.forEach(shard -> shard.armed = false);
+
+            Set<String> expected = new HashSet<>(expectedCodes(2 * CONTACTS));
+            for (DeletingShard shard : shards) {
+                assertFalse(shard.deleted.isEmpty());
+                expected.removeAll(shard.deleted);
+            }
+            List<String> codes = allCodes(phonebook, 64);
+            assertEquals(expected, new HashSet<>(codes));
+            assertEquals(expected.size(), codes.size());
+        }
+    }
+
+    @Test
+    void testNoContactIsLostWhenAddingShardsUnderLoad() throws Exception {
+        int writers = 4;
+        int perWriter = 400;
+        for (int round = 0; round < 5; round++) {
+            try (PartitionedPhonebook phonebook = PartitionedPhonebook.local(1);
+                 ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    int from = w * perWriter;
+                    futures.add(executor.submit(() -> fill(phonebook, from, from + perWriter)));
+                }
+                for (int s = 1; s <= 3; s++) {
+                    phonebook.addShard(new LocalShard("local-" + s));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertEquals(expectedCodes(writers * perWriter), allCodes(phonebook, 100), "Ronda " + round);
+                assertEquals(writers * perWriter, phonebook.size());
+            }
+        }
+    }
+
+    @Test
+    void testRemoteShardsOverLoopback() throws IOException {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (ShardServer first = ShardServer.start(new LocalShard("uno"), loopback);
+             ShardServer second = ShardServer.start(new LocalShard("dos"), loopback)) {
+            try (PartitionedPhonebook phonebook = new PartitionedPhonebook(List.of(
+                    new RemoteShard(first.getAddress()), new RemoteShard(second.getAddress())))) {
+                Contact multi = new Contact("Zoe", "Múltiple", "611111111");
+                multi.addPhone("622222222");
+                assertTrue(phonebook.addContact(multi));
+                fill(phonebook, 0, 100);
+
+                Contact remote = phonebook.getContact(multi.getCode());
+                assertEquals(multi.getPhones(), remote.getPhones());
+                assertEquals(multi.getCode(), phonebook.findByPhone("622222222").getCode());
+                assertEquals(101, phonebook.size());
+                assertEquals(101, allCodes(phonebook, 16).size());
+
+                try (ShardServer third = ShardServer.start(new LocalShard("tres"), loopback)) {
+                    phonebook.addShard(new RemoteShard(third.getAddress()));
+                    assertEquals(101, phonebook.size());
+                    assertEquals(101, allCodes(phonebook, 16).size());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testServerCountsBrokenConnections() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (ShardServer server = ShardServer.start(new LocalShard("uno"), loopback);
+             Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort())) {
+            socket.getOutputStream().write(99);
+            socket.getOutputStream().flush();
+            assertEquals(-1, socket.getInputStream().read());
+            for (int i = 0; i < 100 && server.getFailedConnections() == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, server.getFailedConnections());
+            assertTrue(server.getLastConnectionError().getMessage().contains("99"));
+        }
+    }
+
+    @Test
+    void testShardsInSeparateProcesses() throws Exception {
+        List<Process> processes = new ArrayList<>();
+        List<IPhonebookShard> shards = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                Process process = new ProcessBuilder(
+                        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                        "-cp", System.getProperty("java.class.path"), ShardServer.class.getName())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+                BufferedReader out = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = out.readLine();
+                assertNotNull(line);
+                assertTrue(line.startsWith(ShardServer.READY_MESSAGE), line);
+                int port = Integer.parseInt(line.substring(ShardServer.READY_MESSAGE.length()).trim());
+                shards.add(new RemoteShard(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+            }
+            try (PartitionedPhonebook phonebook = new PartitionedPhonebook(shards)) {
+                fill(phonebook, 0, 200);
+                assertEquals(expectedCodes(200), allCodes(phonebook, 30));
+                List<String> found = phonebook.searchByName(surname(42), 3).stream()
+                        .map(Contact::getCode).collect(Collectors.toList());
+                assertEquals(contact(42).getCode(), found.get(0));
+            }
+        } finally {
+            for (Process process : processes) {
+                process.getOutputStream().close();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    /**
+     * Fragmento local en el que, mientras está armado, cada página listada pierde su primer contacto por un borrado
+     * que llega entre la lectura del índice y la de los contactos.
+     */
+    private static final class DeletingShard implements IPhonebookShard {
+        private final LocalShard shard;
+        private final Set<String> deleted = new HashSet<>();
+        private volatile boolean armed;
+
+        DeletingShard(String name) {
+            this.shard = new LocalShard(name);
+        }
+
+        @Override
+        public String getName() {
+            return shard.getName();
+        }
+
+        @Override
+        public boolean add(Contact contact) {
+            return shard.add(contact);
+        }
+
+        @Override
+        public Contact get(String code) {
+            return shard.get(code);
+        }
+
+        @Override
+        public boolean delete(String code) {
+            return shard.delete(code);
+        }
+
+        @Override
+        public synchronized List<Contact> listContacts(String afterCode, int limit) {
+            List<Contact> page = new ArrayList<>(shard.listContacts(afterCode, limit));
+            if (armed && !page.isEmpty()) {
+                String code = page.remove(0).getCode();
+                shard.delete(code);
+                deleted.add(code);
+            }
+            return page;
+        }
+
+        @Override
+        public List<Contact> searchByName(String query, int limit) {
+            return shard.searchByName(query, limit);
+        }
+
+        @Override
+        public Contact findByPhone(String phone) {
+            return shard.findByPhone(phone);
+        }
+
+        @Override
+        public int size() {
+            return shard.size();
+        }
+
+        @Override
+        public void close() {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashMapTest {
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        Random random = new Random(7);
+        Map<Key, Integer> reference = new HashMap<>();
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 50_000; i++) {
+            // Pocos hashes distintos para que haya colisiones completas y parciales
+            Key key = new Key(random.nextInt(2_000), random.nextInt(4) == 0 ? random.nextInt(8) : random.nextInt());
+            if (random.nextInt(3) == 0) {
+                reference.remove(key);
+                map = map.without(key);
+            } else {
+                reference.put(key, i);
+                map = map.with(key, i);
+            }
+        }
+        assertEquals(reference.size(), map.size());
+        assertEquals(reference, map);
+        for (Key key : reference.keySet()) {
+            assertEquals(reference.get(key), map.get(key));
+        }
+        for (Map.Entry<Key, Integer> entry : reference.entrySet()) {
+            map = map.without(entry.getKey());
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    void testOldVersionsDoNotChange() {
+        PersistentHashMap<String, Integer> first = PersistentHashMap.<String, Integer>empty().with("a", 1).with("b", 2);
+        PersistentHashMap<String, Integer> second = first.with("c", 3).without("a").with("b", 20);
+
+        assertEquals(Map.of("a", 1, "b", 2), first);
+        assertEquals(Map.of("b", 20, "c", 3), second);
+        assertSame(second, second.with("c", 3));
+        assertSame(second, second.without("z"));
+        assertThrows(UnsupportedOperationException.class, () -> second.put("d", 4));
+        Iterator<Map.Entry<String, Integer>> entries = second.entrySet().iterator();
+        entries.next();
+        assertThrows(UnsupportedOperationException.class, entries::remove);
+    }
+
+    @Test
+    void testPhonebookSnapshotIsImmutableAndIndependent() {
+        Phonebook p = new Phonebook();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        Map<String, Contact> snapshot = p.snapshot();
+
+        p.addContact(new Contact("Juan", "Pérez", "654321322"));
+        p.deleteContact("jlopez");
+
+        assertEquals(1, snapshot.size());
+        assertNotNull(snapshot.get("jlopez"));
+        assertNull(snapshot.get("jperez"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove("jlopez"));
+        assertEquals(1, p.getData().size());
+        assertNotNull(p.getData().get("jperez"));
+    }
+
+    @Test
+    void testChangesThroughGetDataUpdateIndexes() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.getData().put(c.getCode(), c);
+        assertSame(c, p.findByPhone("654321321"));
+
+        c.setSurnames("Núñez");
+        assertSame(c, p.getData().get("jnunez"));
+
+        Iterator<Contact> values = p.getData().values().iterator();
+        values.next();
+        values.remove();
+        assertTrue(p.getData().isEmpty());
+        assertNull(p.findByPhone("654321321"));
+        assertTrue(p.findCodesByPrefix("j", 10).isEmpty());
+    }
+
+    @Test
+    void testOffHeapSnapshotIsACopy() {
+        Phonebook p = Phonebook.offHeap();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        Map<String, Contact> snapshot = p.snapshot();
+        p.deleteContact("jlopez");
+
+        assertEquals("Javier", snapshot.get("jlopez").getName());
+        assertTrue(p.getData().isEmpty());
+    }
+
+    /**
+     * Clave con un hash elegido, para provocar colisiones.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id && ((Key) o).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
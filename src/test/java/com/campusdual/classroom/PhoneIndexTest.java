@@ -0,0 +1,90 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhoneIndexTest {
+
+    @Test
+    void testKeyIgnoresFormattingButKeepsLeadingZeros() {
+        assertEquals(PhoneIndex.key("654321321"), PhoneIndex.key("654 321 321"));
+        assertEquals(PhoneIndex.key("654321321"), PhoneIndex.key("654-321-321"));
+        assertNotEquals(PhoneIndex.key("0654321321"), PhoneIndex.key("654321321"));
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.key("sin número"));
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.key("123456789012345678"));
+    }
+
+    @Test
+    void testPutGetRemoveAgainstReferenceMap() {
+        PhoneIndex index = new PhoneIndex();
+        Map<Long, List<String>> reference = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            long key = PhoneIndex.key(String.valueOf(random.nextInt(5_000)));
+            String code = "c" + random.nextInt(3);
+            List<String> codes = reference.computeIfAbsent(key, k -> new ArrayList<>());
+            if (random.nextBoolean()) {
+                index.put(key, code);
+                if (!codes.contains(code)) {
+                    codes.add(code);
+                }
+            } else {
+                assertEquals(codes.remove(code), index.remove(key, code));
+            }
+            if (codes.isEmpty()) {
+                reference.remove(key);
+            }
+        }
+        assertEquals(reference.size(), index.size());
+        reference.forEach((key, codes) -> {
+            assertEquals(codes, index.getAll(key));
+            assertEquals(codes.get(0), index.get(key));
+        });
+    }
+
+    @Test
+    void testPhonebookFindsContactByPhone() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654 321 321");
+        p.addContact(c);
+        assertSame(c, p.findByPhone("654-321-321"));
+
+        c.setPhone("611222333");
+        assertNull(p.findByPhone("654321321"));
+        assertSame(c, p.findByPhone("611 222 333"));
+
+        p.deleteContact(c.getCode());
+        assertNull(p.findByPhone("611222333"));
+        c.setPhone("699000000");
+        assertNull(p.findByPhone("699000000"));
+    }
+
+    @Test
+    void testSharedNumberSurvivesDeletingOneContact() {
+        Phonebook p = new Phonebook();
+        Contact javier = new Contact("Javier", "López", "912345678");
+        Contact ana = new Contact("Ana", "López", "654321322");
+        ana.addPhone("912 345 678");
+        p.addContact(javier);
+        p.addContact(ana);
+
+        PhoneIndex index = new PhoneIndex();
+        index.add(javier);
+        index.add(ana);
+        assertEquals(List.of("jlopez", "alopez"), index.findAll("912345678"));
+
+        assertSame(javier, p.findByPhone("912345678"));
+        p.deleteContact("jlopez");
+        assertSame(ana, p.findByPhone("912345678"));
+        ana.removePhone("912345678");
+        assertNull(p.findByPhone("912345678"));
+        assertSame(ana, p.findByPhone("654321322"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhoneNumbersTest {
+
+    private final PhoneNumbers numbers = PhoneNumbers.getDefault();
+
+    @Test
+    void testSpanishFormatsHaveTheSameValue() {
+        long expected = numbers.parse("654321321");
+        assertEquals(34, PhoneNumbers.countryCode(expected));
+        assertEquals(34654321321L, PhoneNumbers.e164(expected));
+        for (String phone : new String[]{"654 321 321", "654-321-321", "+34654321321", "+34 (654) 32.13.21",
+                "0034 654 321 321"}) {
+            assertEquals(expected, numbers.parse(phone), phone);
+        }
+        assertEquals("654321321", numbers.format(expected));
+    }
+
+    @Test
+    void testOtherCountries() {
+        long lisbon = numbers.parse("+351 912 345 678");
+        assertEquals(351, PhoneNumbers.countryCode(lisbon));
+        assertEquals("+351912345678", numbers.format(lisbon));
+        assertEquals(numbers.parse("+33 6 12 34 56 78"), numbers.parse("0033 612345678"));
+        assertEquals("+390612345678", numbers.format(numbers.parse("+39 06 1234 5678")));
+        assertEquals("+12025550123", numbers.format(numbers.parse("+1 (202) 555-0123")));
+    }
+
+    @Test
+    void testInvalidNumbers() {
+        for (String phone : new String[]{null, "", "+", "111222333", "65432132", "6543213210", "654a", "+34 1",
+                "+999 123456789", "++34654321321", "1234567890123456789"}) {
+            assertEquals(PhoneNumbers.INVALID, numbers.parse(phone), phone);
+        }
+        assertThrows(IllegalArgumentException.class, () -> numbers.normalize("111222333"));
+        assertThrows(IllegalArgumentException.class, () -> numbers.format(PhoneNumbers.INVALID));
+    }
+
+    @Test
+    void testCanonicalKeepsInvalidNumbersAndReusesCanonicalText() {
+        String canonical = "654321321";
+        assertSame(canonical, numbers.canonical(canonical));
+        assertEquals("654321321", numbers.canonical("+34 654 321 321"));
+        assertEquals("111222333", numbers.canonical("111222333"));
+        assertEquals("+351912345678", numbers.canonical("00351 912 345 678"));
+    }
+
+    @Test
+    void testConfigurableDefaultRegion() {
+        PhoneNumbers french = new PhoneNumbers(PhoneRegion.FRANCE, PhoneRegion.SPAIN);
+        long number = french.parse("06 12 34 56 78");
+        assertEquals(numbers.parse("+33612345678"), number);
+        assertEquals("612345678", french.format(number));
+        assertEquals("+34654321321", french.canonical("0034654321321"));
+        assertEquals(PhoneNumbers.INVALID, french.parse("+351912345678"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PhoneNumbers(PhoneRegion.SPAIN, new PhoneRegion("XX", 3, "00", "", 9, 9)));
+    }
+
+    @Test
+    void testParseAll() {
+        long[] results = new long[4];
+        assertEquals(2, numbers.parseAll(List.of("654321321", "nada", "+351912345678", "1"), results));
+        assertEquals(PhoneNumbers.INVALID, results[1]);
+        assertEquals(351, PhoneNumbers.countryCode(results[2]));
+        assertThrows(IllegalArgumentException.class, () -> numbers.parseAll(Arrays.asList("1", "2"), new long[1]));
+    }
+
+    @Test
+    void testContactStoresCanonicalNumbers() {
+        Contact c = new Contact("Javier", "López", "+34 654 321 321");
+        assertEquals("654321321", c.getPhone());
+        c.setPhone("0034-611-222-333");
+        assertEquals("611222333", c.getPhone());
+        assertEquals("111222333", new Contact("Name", "Sur Name", "111222333").getPhone());
+
+        Phonebook p = new Phonebook();
+        p.addContact(c);
+        c.addPhone("+351 912 345 678");
+        assertSame(c, p.findByPhone("+34 611 222 333"));
+        assertSame(c, p.findByPhone("00351912345678"));
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            c.callOtherNumber("+34 699 000 000");
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains(" 699000000"));
+    }
+}
@@ -0,0 +1,229 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int CONTACTS = 5_000;
+
+    private final PrintStream originalOut = System.out;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(this.originalOut);
+    }
+
+    @Test
+    void testConcurrentAddsNeverDuplicateCodes() throws Exception {
+        Phonebook p = new Phonebook();
+        List<Integer> added = runOnAllThreads(thread -> {
+            int count = 0;
+            for (int i = 0; i < CONTACTS; i++) {
+                // Todos los hilos intentan añadir los mismos códigos
+                if (p.addContact(new Contact("Name" + thread, "Surname" + i, "600000000"))) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        assertEquals(CONTACTS, added.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(CONTACTS, p.getData().size());
+    }
+
+    @Test
+    void testConcurrentDeletesSucceedOnce() throws Exception {
+        Phonebook p = new Phonebook();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < CONTACTS; i++) {
+            Contact c = new Contact("Name", "Surname" + i, "600000000");
+            p.addContact(c);
+            codes.add(c.getCode());
+        }
+        List<Integer> deleted = runOnAllThreads(thread -> {
+            int count = 0;
+            for (String code : codes) {
+                if (p.deleteContact(code)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        assertEquals(CONTACTS, deleted.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(p.getData().isEmpty());
+    }
+
+    @Test
+    void testConcurrentAddAndDeleteLoseNoUpdates() throws Exception {
+        Phonebook p = new Phonebook();
+        runOnAllThreads(thread -> {
+            for (int i = 0; i < CONTACTS; i++) {
+                Contact c = new Contact("T", "Thread" + thread + "-Row" + i, "600000000");
+                assertTrue(p.addContact(c));
+                assertSame(c, p.getData().get(c.getCode()));
+                if (i % 2 == 0) {
+                    assertTrue(p.deleteContact(c.getCode()));
+                }
+            }
+            return 0;
+        });
+        assertEquals(THREADS * CONTACTS / 2, p.getData().size());
+    }
+
+    @Test
+    void testConcurrentChangesInOffHeapPhonebook() throws Exception {
+        Phonebook p = Phonebook.offHeap();
+        runOnAllThreads(thread -> {
+            for (int i = 0; i < CONTACTS / 2; i++) {
+                Contact c = new Contact("T", "Thread" + thread + "-Row" + i, String.valueOf(600_000_000 + i));
+                assertTrue(p.addContact(c));
+                assertEquals(c.getPhone(), p.getData().get(c.getCode()).getPhone());
+                if (i % 2 == 0) {
+                    assertTrue(p.deleteContact(c.getCode()));
+                } else if (i % 3 == 0) {
+                    p.getData().get(c.getCode()).addPhone("699999999");
+                }
+                if (thread == 0 && i % 500 == 0) {
+                    // Recorrer el almacén mientras los demás hilos cambian las columnas
+                    for (Contact stored : p.getData().values()) {
+                        assertNotNull(stored.getCode());
+                    }
+                }
+            }
+            return 0;
+        });
+
+        assertEquals(THREADS * CONTACTS / 4, p.getData().size());
+        int withSecondary = 0;
+        for (Map.Entry<String, Contact> entry : p.getData().entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().getCode());
+            if (entry.getValue().getPhones().size() > 1) {
+                withSecondary++;
+            }
+        }
+        assertEquals(THREADS * ((CONTACTS / 2 + 3) / 6), withSecondary);
+        assertEquals(THREADS * CONTACTS / 4, p.findCodesByPrefix("t", THREADS * CONTACTS).size());
+    }
+
+    @Test
+    void testIndexesMatchMapAfterConcurrentChanges() throws Exception {
+        Phonebook initial = new Phonebook();
+        for (int i = 0; i < 1000; i++) {
+            initial.addContact(contact(i));
+        }
+        Path file = dir.resolve("agenda.bin");
+        initial.save(file);
+
+        // Los índices de una agenda abierta se construyen con la primera consulta, mientras otros hilos escriben
+        Phonebook p = Phonebook.open(file);
+        runOnAllThreads(thread -> {
+            for (int i = 0; i < 2000; i++) {
+                int row = (i * 7 + thread * 131) % 1500;
+                if (thread == 0 && i % 100 == 0) {
+                    p.findCodesByPrefix("n", 1);
+                }
+                if (!p.addContact(contact(row))) {
+                    p.deleteContact(contact(row).getCode());
+                }
+            }
+            return 0;
+        });
+
+        List<String> codes = new ArrayList<>(p.getData().keySet());
+        codes.sort(null);
+        assertEquals(codes, p.findCodesByPrefix("", 10_000));
+        for (String code : codes) {
+            assertEquals(code, p.findByPhone(p.getData().get(code).getPhone()).getCode());
+        }
+    }
+
+    @Test
+    void testListingWhileDeletingKeepsUntouchedContacts() throws Exception {
+        Phonebook p = new Phonebook();
+        for (int i = 0; i < CONTACTS; i++) {
+            p.addContact(contact(i));
+        }
+        List<Integer> missing = runOnAllThreads(thread -> {
+            if (thread > 0) {
+                // Los demás hilos borran los contactos impares mientras el primero escribe el listado
+                for (int i = thread * 2 - 1; i < CONTACTS; i += 2 * (THREADS - 1)) {
+                    p.deleteContact(contact(i).getCode());
+                }
+                return 0;
+            }
+            int count = 0;
+            for (int round = 0; round < 5; round++) {
+                StringWriter out = new StringWriter();
+                p.writeContacts(out);
+                String listing = out.toString();
+                for (int i = 0; i < CONTACTS; i += 2) {
+                    if (!listing.contains(contact(i).getPhone())) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        });
+        assertEquals(0, missing.get(0));
+        assertEquals(CONTACTS / 2, p.getData().size());
+    }
+
+    private static Contact contact(int row) {
+        return new Contact("Name", "Surname" + (char) ('a' + row % 26) + (char) ('a' + row / 26 % 26)
+                + (char) ('a' + row / 676), String.valueOf(600_000_000 + row));
+    }
+
+    private interface ThreadTask {
+        int run(int thread) throws Exception;
+    }
+
+    private List<Integer> runOnAllThreads(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Callable<Integer> callable = () -> {
+                    start.await();
+                    return task.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookHttpServerTest {
+
+    private Phonebook phonebook;
+    private PhonebookHttpServer server;
+    private HttpClient client;
+    private String base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        phonebook = new Phonebook();
+        phonebook.insert(new Contact("Javier", "López", "654321321"));
+        server = PhonebookHttpServer.start(phonebook, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newHttpClient();
+        base = "http://localhost:" + server.getAddress().getPort() + PhonebookHttpServer.CONTEXT;
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testGetByCode() throws Exception {
+        HttpResponse<String> response = send("GET", "/jlopez", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"code\":\"jlopez\",\"name\":\"Javier\",\"surnames\":\"López\",\"phone\":\"654321321\","
+                + "\"phones\":[\"654321321\"]}", response.body());
+        assertEquals(404, send("GET", "/nadie", null).statusCode());
+    }
+
+    @Test
+    void testSearchAndFindByPhone() throws Exception {
+        HttpResponse<String> response = send("GET", "?q=lopez&limit=5", null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[{\"code\":\"jlopez\""));
+
+        assertEquals(200, send("GET", "?phone=654321321", null).statusCode());
+        assertEquals(400, send("GET", "", null).statusCode());
+        assertEquals(400, send("GET", "?q=lopez&limit=0", null).statusCode());
+    }
+
+    @Test
+    void testAddAndDelete() throws Exception {
+        HttpResponse<String> created = send("POST", "",
+                "{\"name\": \"Esteban\", \"surnames\": \"Serrano del R\\u00edo\", \"phone\": \"654321322\"}");
+        assertEquals(201, created.statusCode());
+        assertEquals("/contacts/esdelrio", created.headers().firstValue("Location").orElse(null));
+        assertEquals("Serrano del Río", phonebook.getData().get("esdelrio").getSurnames());
+
+        assertEquals(409, send("POST", "",
+                "{\"name\": \"Juan\", \"surnames\": \"López\", \"phone\": \"654321323\"}").statusCode());
+        assertEquals(400, send("POST", "", "{\"name\": \"Juan\"}").statusCode());
+        assertEquals(400, send("POST", "", "no es json").statusCode());
+
+        assertEquals(204, send("DELETE", "/esdelrio", null).statusCode());
+        assertNull(phonebook.getData().get("esdelrio"));
+        assertEquals(404, send("DELETE", "/esdelrio", null).statusCode());
+        assertEquals(405, send("PUT", "/jlopez", "{}").statusCode());
+    }
+
+    @Test
+    void testConcurrentClients() throws Exception {
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String body = "{\"name\": \"Nombre\", \"surnames\": \"Apellido" + i + "\", \"phone\": \""
+                    + (600_000_000 + i) + "\"}";
+            responses.add(clients.submit(() -> send("POST", "", body).statusCode()));
+        }
+        for (Future<Integer> response : responses) {
+            assertEquals(201, response.get());
+        }
+        clients.close();
+        assertEquals(201, phonebook.getData().size());
+        assertEquals("napellido199", phonebook.findByPhone("600000199").getCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,43 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookImportTest {
+
+    @Test
+    void testImportDetectsDuplicatesInBatchAndPhonebook() {
+        Phonebook p = new Phonebook();
+        Contact existing = new Contact("Carlos", "Fernández-Simón", "654321321");
+        p.getData().put(existing.getCode(), existing);
+
+        Contact first = new Contact("Javier", "López", "654321321");
+        ImportResult result = p.importContacts(List.of(
+                first,
+                new Contact("Juan", "López", "654321322"),
+                new Contact("Cristina", "Fernández-Simón", "654321323"),
+                new Contact("Santiago", "Fernández Rocha", "654321324")));
+
+        assertEquals(2, result.getInsertedCount());
+        assertEquals(List.of("jlopez", "cfernandez-simon"), result.getConflictingCodes());
+        assertEquals(3, p.getData().size());
+        assertSame(first, p.getData().get("jlopez"));
+        assertSame(existing, p.getData().get("cfernandez-simon"));
+    }
+
+    @Test
+    void testImportFromStream() {
+        Phonebook p = new Phonebook();
+        ImportResult result = p.importContacts(Stream.of(
+                new Contact("Esteban", "Serrano del Río", "654321321"),
+                new Contact("Jose Manuel", "Soria", "654321321")));
+        assertEquals(2, result.getInsertedCount());
+        assertTrue(result.getConflictingCodes().isEmpty());
+        assertNotNull(p.getData().get("esdelrio"));
+        assertNotNull(p.getData().get("jsoria"));
+    }
+}
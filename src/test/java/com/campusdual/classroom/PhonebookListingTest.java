@@ -0,0 +1,75 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookListingTest {
+
+    private static List<String> codes(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getCode).collect(Collectors.toList());
+    }
+
+    private static Phonebook phonebookWith(int size, TreeSet<String> expected) {
+        Phonebook p = new Phonebook();
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Contact c = new Contact("Nombre", "Apellido" + (i * 7919 % size), "600" + i);
+            batch.add(c);
+            expected.add(c.getCode());
+        }
+        p.importContacts(batch);
+        return p;
+    }
+
+    @Test
+    void testCursorPaginationCoversAllContactsInOrder() {
+        TreeSet<String> expected = new TreeSet<>();
+        Phonebook p = phonebookWith(2_500, expected);
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        List<Contact> page;
+        do {
+            page = p.listContacts(cursor, 100);
+            listed.addAll(codes(page));
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getCode();
+            }
+        } while (page.size() == 100);
+        assertEquals(new ArrayList<>(expected), listed);
+    }
+
+    @Test
+    void testOffsetPaginationAndCursorBetweenCodes() {
+        TreeSet<String> expected = new TreeSet<>();
+        Phonebook p = phonebookWith(500, expected);
+        List<String> all = new ArrayList<>(expected);
+        assertEquals(all.subList(0, 10), codes(p.listContacts(0, 10)));
+        assertEquals(all.subList(250, 260), codes(p.listContacts(250, 10)));
+        assertEquals(all.subList(495, 500), codes(p.listContacts(495, 10)));
+        assertTrue(p.listContacts(500, 10).isEmpty());
+
+        String between = all.get(42) + "0";
+        assertEquals(new ArrayList<>(expected.tailSet(between, false)).subList(0, 5),
+                codes(p.listContacts(between, 5)));
+    }
+
+    @Test
+    void testWriteContactsStreamsOrderedLines() throws IOException {
+        Phonebook p = new Phonebook();
+        Contact c1 = new Contact("Javier", "López", "654321321");
+        Contact c2 = new Contact("Esteban", "Serrano del Río", "654321322");
+        p.importContacts(List.of(c1, c2));
+        StringWriter out = new StringWriter();
+        p.writeContacts(out);
+        String nl = System.lineSeparator();
+        assertEquals(c2 + nl + c1 + nl, out.toString());
+    }
+}
@@ -0,0 +1,70 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookMetricsTest {
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789L, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket), "valor " + value);
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.upperBound(bucket - 1), "valor " + value);
+            }
+        }
+    }
+
+    @Test
+    void testPercentilesAreWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(5_000_500, histogram.mean(), 1);
+        assertEquals(10_000_000, histogram.max());
+        assertEquals(5_000_000, histogram.percentile(50), 5_000_000 / 16.0);
+        assertEquals(9_900_000, histogram.percentile(99), 9_900_000 / 16.0);
+        assertEquals(10_000_000, histogram.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    void testCountsAndLatenciesPerOperation() {
+        PhonebookMetrics metrics = new PhonebookMetrics();
+        metrics.recordLatency(PhonebookMetrics.Operation.ADD, 2_000);
+        metrics.recordLatency(PhonebookMetrics.Operation.ADD, 4_000);
+        metrics.recordLatency(PhonebookMetrics.Operation.LOOKUP, 1_000);
+
+        assertEquals(2, metrics.getAddCount());
+        assertEquals(1, metrics.getLookupCount());
+        assertEquals(0, metrics.getDeleteCount());
+        assertEquals(3.0, metrics.getMeanMicros("add"), 0.001);
+        assertEquals(4.0, metrics.getPercentileMicros("ADD", 100), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> metrics.getMeanMicros("borrar"));
+
+        String dump = metrics.dump();
+        assertTrue(dump.contains("add"));
+        assertTrue(dump.contains("lookup"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getAddCount());
+        assertEquals(0, metrics.getMeanMicros("add"));
+    }
+
+    @Test
+    void testSharedMetricsAreDisabledByDefault() {
+        assertFalse(PhonebookMetrics.isEnabled());
+        Phonebook p = new Phonebook();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        assertEquals(0, PhonebookMetrics.get().getAddCount());
+    }
+}
@@ -0,0 +1,180 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookRenameTest {
+
+    @Test
+    void testRenameRekeysContactAndIndexes() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.addContact(c);
+        c.setSurnames("Núñez");
+
+        assertEquals("jnunez", c.getCode());
+        assertNull(p.getData().get("jlopez"));
+        assertSame(c, p.getData().get("jnunez"));
+        assertEquals(List.of("jnunez"), p.findCodesByPrefix("j", 10));
+        assertSame(c, p.findByPhone("654321321"));
+        assertEquals(List.of(c), p.searchByName("nunez", 10));
+    }
+
+    @Test
+    void testRenameIntoTakenCodeGetsSuffix() {
+        Phonebook p = new Phonebook();
+        Contact javier = new Contact("Javier", "López", "654321321");
+        Contact juan = new Contact("Juan", "Pérez", "654321322");
+        p.addContact(javier);
+        p.addContact(juan);
+
+        juan.setSurnames("López");
+        assertEquals("jlopez2", juan.getCode());
+        assertSame(javier, p.getData().get("jlopez"));
+        assertSame(juan, p.getData().get("jlopez2"));
+        assertEquals("jlopez2", p.findByPhone("654321322").getCode());
+    }
+
+    @Test
+    void testRenameKeepingBaseCodeKeepsSuffix() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        Contact juan = new Contact("Juan", "López", "654321322");
+        p.addContact(juan);
+
+        juan.setName("Jorge");
+        assertEquals("jlopez2", juan.getCode());
+        assertEquals(2, p.getData().size());
+        assertEquals("Jorge", p.getData().get("jlopez2").getName());
+    }
+
+    @Test
+    void testBatchRegeneratesCodeOnceAndAppliesAtEnd() {
+        Phonebook p = new Phonebook();
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Contact c = new Contact("Nombre", "Apellido" + i, String.valueOf(600_000_000 + i));
+            contacts.add(c);
+            p.addContact(c);
+        }
+        p.findCodesByPrefix("n", 1);
+
+        p.batchUpdate(() -> {
+            for (int i = 0; i < contacts.size(); i++) {
+                contacts.get(i).setName("Otro");
+                contacts.get(i).setSurnames("Renombrado" + i);
+            }
+            // Hasta que termina el lote los contactos siguen guardados con su código anterior
+            assertNotNull(p.getData().get("napellido0"));
+            assertNull(p.getData().get("orenombrado0"));
+        });
+
+        assertEquals(100, p.getData().size());
+        assertNull(p.getData().get("napellido0"));
+        assertSame(contacts.get(42), p.getData().get("orenombrado42"));
+        assertEquals(100, p.findCodesByPrefix("orenombrado", 200).size());
+        assertTrue(p.findCodesByPrefix("napellido", 200).isEmpty());
+        assertEquals("orenombrado7", p.findByPhone("600000007").getCode());
+        assertEquals(List.of(contacts.get(99)), p.searchByName("renombrado99", 10));
+    }
+
+    @Test
+    void testCodeInsideBatchIsStoredKey() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.addContact(c);
+
+        p.batchUpdate(() -> {
+            c.setSurnames("Núñez");
+            assertEquals("jlopez", c.getCode());
+            assertTrue(c.toString().contains("jlopez"));
+            assertSame(c, p.getData().get(c.getCode()));
+            assertEquals("jlopez", p.listContacts(null, 10).get(0).getCode());
+        });
+
+        assertEquals("jnunez", c.getCode());
+        assertSame(c, p.getData().get("jnunez"));
+
+        Contact standalone = new Contact("Ana", "Ruiz", "654321322");
+        standalone.setSurnames("Sanz");
+        assertEquals("asanz", standalone.getCode());
+    }
+
+    @Test
+    void testPhoneChangeInsideBatchAppliesPendingRename() {
+        Phonebook p = new Phonebook();
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.addContact(c);
+        p.findCodesByPrefix("j", 1);
+
+        p.batchUpdate(() -> {
+            c.rename("Ana", "García");
+            c.setPhone("611222333");
+        });
+
+        assertSame(c, p.getData().get("agarcia"));
+        assertSame(c, p.findByPhone("611222333"));
+        assertNull(p.findByPhone("654321321"));
+    }
+
+    @Test
+    void testDeleteInsideBatchDropsPendingRename() {
+        Phonebook p = new Phonebook();
+        p.setResolveCodeCollisions(true);
+        Contact c = new Contact("Javier", "López", "654321321");
+        p.addContact(c);
+        p.findCodesByPrefix("j", 1);
+
+        p.batchUpdate(() -> {
+            c.setSurnames("Núñez");
+            assertTrue(p.deleteContact("jlopez"));
+        });
+
+        assertTrue(p.getData().isEmpty());
+        assertTrue(p.findCodesByPrefix("j", 10).isEmpty());
+        assertNull(p.findByPhone("654321321"));
+        Contact other = new Contact("Juan", "López", "654321322");
+        p.addContact(other);
+        assertEquals("jlopez", other.getCode());
+    }
+
+    @Test
+    void testRenameInOffHeapPhonebook() {
+        Phonebook p = Phonebook.offHeap();
+        p.addContact(new Contact("Javier", "López", "654321321"));
+        Contact stored = p.getData().get("jlopez");
+        stored.setSurnames("Núñez");
+
+        assertNull(p.getData().get("jlopez"));
+        assertEquals("Núñez", p.getData().get("jnunez").getSurnames());
+
+        stored.setPhone("611222333");
+        assertEquals("611222333", p.getData().get("jnunez").getPhone());
+        assertEquals("jnunez", p.findByPhone("611222333").getCode());
+    }
+
+    @Test
+    void testContactOfAnotherPhonebookIsRejected() {
+        Phonebook first = new Phonebook();
+        Phonebook second = new Phonebook();
+        Contact ana = new Contact("Ana", "Ruiz", "654321321");
+        assertTrue(first.addContact(ana));
+        assertFalse(second.addContact(ana));
+        assertThrows(IllegalArgumentException.class, () -> second.getData().put("aruiz", ana));
+
+        ana.setSurnames("Gil");
+        assertEquals("agil", ana.getCode());
+        assertEquals(List.of("agil"), new ArrayList<>(first.getData().keySet()));
+        assertTrue(second.getData().isEmpty());
+
+        // Una vez borrado de la primera agenda ya puede añadirse a otra
+        assertTrue(first.deleteContact("agil"));
+        assertTrue(second.addContact(ana));
+        assertSame(ana, second.getData().get("agil"));
+    }
+}
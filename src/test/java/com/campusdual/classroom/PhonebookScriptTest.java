@@ -0,0 +1,90 @@
+package com.campusdual.classroom;
+
+import com.campusdual.util.InputSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookScriptTest {
+
+    private static String[] run(Phonebook p, String script, PhonebookScript.Summary[] summary) throws IOException {
+        StringWriter out = new StringWriter();
+        summary[0] = new PhonebookScript(p).run(new InputSource(new StringReader(script)), out);
+        return out.toString().split(System.lineSeparator());
+    }
+
+    @Test
+    void testRunsCommandsWithoutPrompts() throws IOException {
+        Phonebook p = new Phonebook();
+        PhonebookScript.Summary[] summary = new PhonebookScript.Summary[1];
+        String[] lines = run(p, String.join("\n",
+                "# Alta de contactos",
+                "add Javier;López;654321321",
+                "add Esteban;Serrano del Río;654321322",
+                "",
+                "get jlopez",
+                "call jlopez",
+                "call esdelrio 611222333",
+                "del jlopez",
+                "list"), summary);
+
+        assertArrayEquals(new String[] {
+                "OK jlopez",
+                "OK esdelrio",
+                "Código: jlopez, Nombre: Javier López, Teléfono: 654321321",
+                "El contacto Javier López se está llamando a sí mismo al número 654321321.",
+                "El contacto Esteban Serrano del Río se está llamando al número 611222333.",
+                "OK",
+                "Código: esdelrio, Nombre: Esteban Serrano del Río, Teléfono: 654321322"}, lines);
+        assertEquals(7, summary[0].getCommands());
+        assertEquals(0, summary[0].getErrors());
+        assertEquals(1, p.getData().size());
+    }
+
+    @Test
+    void testErrorsAreReportedAndCounted() throws IOException {
+        Phonebook p = new Phonebook();
+        PhonebookScript.Summary[] summary = new PhonebookScript.Summary[1];
+        String[] lines = run(p, String.join("\n",
+                "add Javier;López;654321321",
+                "add Juan;López;654321322",
+                "add Incompleto;654321323",
+                "del nadie",
+                "get",
+                "borrar jlopez",
+                "call nadie"), summary);
+
+        assertEquals("OK jlopez", lines[0]);
+        assertEquals("ERROR línea 2: ya existe un contacto con el código jlopez", lines[1]);
+        assertTrue(lines[2].startsWith("ERROR línea 3: formato incorrecto"));
+        assertEquals("ERROR línea 4: no se encontró ningún contacto con el código nadie", lines[3]);
+        assertTrue(lines[4].startsWith("ERROR línea 5: falta el código"));
+        assertEquals("ERROR línea 6: orden desconocida: borrar", lines[5]);
+        assertEquals("ERROR línea 7: no se encontró ningún contacto con el código nadie", lines[6]);
+        assertEquals(7, summary[0].getCommands());
+        assertEquals(6, summary[0].getErrors());
+        assertTrue(summary[0].toString().contains("errores: 6"));
+    }
+
+    @Test
+    void testLargeScript() throws IOException {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            script.append("add Nombre;Apellido").append(i).append(";").append(600_000_000 + i).append('\n');
+        }
+        for (int i = 0; i < 50_000; i += 2) {
+            script.append("del napellido").append(i).append('\n');
+        }
+        Phonebook p = new Phonebook();
+        PhonebookScript.Summary[] summary = new PhonebookScript.Summary[1];
+        run(p, script.toString(), summary);
+
+        assertEquals(75_000, summary[0].getCommands());
+        assertEquals(0, summary[0].getErrors());
+        assertEquals(25_000, p.getData().size());
+    }
+}
@@ -0,0 +1,118 @@
+package com.campusdual.classroom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhonebookSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotDecodesContactsLazily() throws IOException {
+        Phonebook original = new Phonebook();
+        original.addContact(new Contact("Javier", "López", "654321321"));
+        original.addContact(new Contact("Carlos", "Fernández-Simón", "654321322"));
+        original.addContact(new Contact("Esteban", "Serrano del Río", "654321323"));
+        Path file = tempDir.resolve("agenda.pbk");
+        original.save(file);
+
+        PhonebookSnapshot snapshot = PhonebookSnapshot.open(file);
+        assertEquals(3, snapshot.size());
+        assertEquals("cfernandez-simon", snapshot.codeAt(0));
+        assertTrue(snapshot.indexOf("jlopez") >= 0);
+        assertTrue(snapshot.indexOf("jlopeza") < 0);
+
+        SnapshotContactMap map = new SnapshotContactMap(snapshot, null);
+        assertEquals(3, map.size());
+        assertEquals(0, map.materializedCount());
+        Contact c = map.get("esdelrio");
+        assertEquals("Serrano del Río", c.getSurnames());
+        assertEquals("654321323", c.getPhone());
+        assertSame(c, map.get("esdelrio"));
+        assertEquals(1, map.materializedCount());
+        assertNull(map.get("nadie"));
+    }
+
+    @Test
+    void testOpenedPhonebookSupportsChanges() throws IOException {
+        Phonebook original = new Phonebook();
+        original.addContact(new Contact("Javier", "López", "654321321"));
+        original.addContact(new Contact("Carlos", "Fernández-Simón", "654321322"));
+        Path file = tempDir.resolve("agenda.pbk");
+        original.save(file);
+
+        Phonebook p = Phonebook.open(file);
+        assertEquals(2, p.getData().size());
+        assertEquals("López", p.getData().get("jlopez").getSurnames());
+        assertEquals("jlopez", p.findByPhone("654 321 321").getCode());
+
+        assertTrue(p.deleteContact("jlopez"));
+        assertFalse(p.addContact(new Contact("Cristina", "Fernández-Simón", "600000000")));
+        assertTrue(p.addContact(new Contact("Jose Manuel", "Soria", "600000001")));
+        assertNull(p.findByPhone("654321321"));
+        assertEquals("jsoria", p.findByPhone("600000001").getCode());
+
+        List<String> codes = new ArrayList<>();
+        for (Contact c : p.getData().values()) {
+            codes.add(c.getCode());
+        }
+        assertEquals(List.of("cfernandez-simon", "jsoria"), codes);
+    }
+
+    @Test
+    void testChangedContactsStayInMemory() throws IOException {
+        Phonebook original = new Phonebook();
+        original.addContact(new Contact("Javier", "López", "654321321"));
+        Path file = tempDir.resolve("agenda.pbk");
+        original.save(file);
+
+        SnapshotContactMap map = new SnapshotContactMap(PhonebookSnapshot.open(file), null);
+        map.get("jlopez").setPhone("611111111");
+        // El contacto cambiado se conserva aunque nadie guarde una referencia
+        System.gc();
+        assertEquals("611111111", map.get("jlopez").getPhone());
+        assertEquals(1, map.materializedCount());
+    }
+
+    @Test
+    void testOpenedPhonebookIteratorRemovesAndSavesOverItsFile() throws IOException {
+        Phonebook original = new Phonebook();
+        original.addContact(new Contact("Javier", "López", "654321321"));
+        original.addContact(new Contact("Carlos", "Fernández-Simón", "654321322"));
+        original.addContact(new Contact("Esteban", "Serrano del Río", "654321323"));
+        Path file = tempDir.resolve("agenda.pbk");
+        original.save(file);
+
+        Phonebook p = Phonebook.open(file);
+        Iterator<Contact> contacts = p.getData().values().iterator();
+        assertEquals("cfernandez-simon", contacts.next().getCode());
+        contacts.remove();
+        assertEquals(2, p.getData().size());
+        assertNull(p.findByPhone("654321322"));
+        p.getData().get("jlopez").setPhone("611111111");
+
+        // Se guarda sobre el fichero proyectado y la agenda abierta lo sigue leyendo
+        p.save(file);
+        assertEquals("Serrano del Río", p.getData().get("esdelrio").getSurnames());
+        Phonebook reopened = Phonebook.open(file);
+        assertEquals(List.of("esdelrio", "jlopez"), new ArrayList<>(reopened.getData().keySet()));
+        assertEquals("611111111", reopened.getData().get("jlopez").getPhone());
+    }
+
+    @Test
+    void testOpenRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("otro.txt");
+        Files.writeString(file, "esto no es una agenda");
+        assertThrows(IOException.class, () -> PhonebookSnapshot.open(file));
+    }
+}
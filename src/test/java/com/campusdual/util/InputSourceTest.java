@@ -0,0 +1,104 @@
+package com.campusdual.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputSourceTest {
+
+    /** Lector que entrega los caracteres de uno en uno, para probar los límites del búfer. */
+    private static Reader trickle(String text) {
+        return new StringReader(text) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(1, length));
+            }
+        };
+    }
+
+    @Test
+    void testReadsLinesWithAnyTerminator() {
+        for (InputSource in : new InputSource[] {
+                new InputSource(new StringReader("uno\ndos\r\ntres\rcuatro\r\n\ncinco")),
+                new InputSource(trickle("uno\ndos\r\ntres\rcuatro\r\n\ncinco"))}) {
+            assertEquals("uno", in.readLine());
+            assertEquals("dos", in.readLine());
+            assertEquals("tres", in.readLine());
+            assertEquals("cuatro", in.readLine());
+            assertEquals("", in.readLine());
+            assertEquals("cinco", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    void testReadIntConsumesInvalidLines() {
+        InputSource in = new InputSource(trickle(" 42 \nabc\n-7\n\n"));
+        assertEquals(42, in.readInt());
+        assertThrows(NumberFormatException.class, in::readInt);
+        assertEquals(-7, in.readInt());
+        assertThrows(NumberFormatException.class, in::readInt);
+        assertThrows(NoSuchElementException.class, in::readInt);
+    }
+
+    @Test
+    void testNextIntAcrossLines() {
+        InputSource in = new InputSource(new StringReader("1 2\n  3\r\n\n4 x"));
+        assertEquals(1, in.nextInt());
+        assertEquals(2, in.nextInt());
+        assertEquals(3, in.nextInt());
+        assertEquals(4, in.nextInt());
+        assertThrows(NumberFormatException.class, in::nextInt);
+        assertThrows(NoSuchElementException.class, in::nextInt);
+    }
+
+    @Test
+    void testParseDoubleMatchesJdk() {
+        String[] samples = {"0", "-0", "1.", ".5", "+2.25", "3.14159", "0.1", "123456789012345.6", "9007199254740993",
+                "1e10", "-2.5E-3", "0.0000000000000000000000001", "NaN", "Infinity", "1.5d", "4503599627370497.5"};
+        for (String sample : samples) {
+            assertEquals(Double.parseDouble(sample), InputSource.parseDouble(sample, 0, sample.length()), sample);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            String sample = random.nextInt(1_000_000) + "." + random.nextInt(1_000_000_000);
+            assertEquals(Double.parseDouble(sample), InputSource.parseDouble(sample, 0, sample.length()), sample);
+        }
+        for (String invalid : new String[] {"", "-", ".", "1.2.3", "12a"}) {
+            assertThrows(NumberFormatException.class, () -> InputSource.parseDouble(invalid, 0, invalid.length()));
+        }
+    }
+
+    @Test
+    void testUtilsRetriesWithoutRecursion() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            input.append("no es un número\n");
+        }
+        input.append("17\n2,5\n2.5\nhola\n");
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        try {
+            System.setIn(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)));
+            System.setOut(new PrintStream(new ByteArrayOutputStream()));
+            assertEquals(17, Utils.integer());
+            assertEquals(2.5, Utils.real());
+            assertEquals("hola", Utils.string());
+            assertThrows(NoSuchElementException.class, Utils::integer);
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.campusdual.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilsTest {
+
+    @Test
+    void testReturnShowFromListExcludesEveryOccurrence() {
+        List<String> list = List.of("uno", "dos", "tres", "dos", "cuatro");
+        assertEquals("\t1. uno\n\t2. tres\n\t3. cuatro\n", Utils.returnShowFromList(list, true, List.of("dos", "cinco")));
+        assertEquals("\tuno\n\tdos\n\ttres\n\tdos\n\tcuatro\n", Utils.returnShowFromList(list, false));
+        assertEquals("", Utils.returnShowFromList(List.of(), true));
+    }
+
+    @Test
+    void testExcludeDoesNotCopyWhenNothingIsExcluded() {
+        List<String> list = List.of("uno", "dos");
+        assertSame(list, Utils.exclude(list, null));
+        assertSame(list, Utils.exclude(list, new ArrayList<>()));
+        assertEquals(List.of("dos"), Utils.exclude(list, List.of("uno")));
+    }
+
+    @Test
+    void testWriteFromListMatchesReturnShowFromList() throws Exception {
+        List<Integer> list = new ArrayList<>();
+        List<Integer> excluded = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            list.add(i);
+            if (i % 3 == 0) {
+                excluded.add(i);
+            }
+        }
+        StringWriter out = new StringWriter();
+        Utils.writeFromList(list, true, excluded, out);
+        assertEquals(Utils.returnShowFromList(list, true, excluded), out.toString());
+        assertTrue(out.toString().endsWith("\t13333. 19999\n"));
+    }
+
+    @Test
+    void testShowFromListStopsBetweenPages() {
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            System.setIn(new ByteArrayInputStream("\nq\n".getBytes(StandardCharsets.UTF_8)));
+            System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+            Utils.showFromList(List.of("a", "b", "c", "d", "e", "f", "g"), false, List.of("b"), 2);
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+        String shown = output.toString(StandardCharsets.UTF_8);
+        assertTrue(shown.startsWith("\t1. a\n\t2. c\n"));
+        assertTrue(shown.contains("\t4. e\n"));
+        assertFalse(shown.contains("5. f"));
+    }
+}